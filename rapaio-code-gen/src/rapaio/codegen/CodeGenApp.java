@@ -97,6 +97,12 @@ public class CodeGenApp {
                 .replaces.set(byteReplaces)
         );
 
+        templates.add(new CodeGenTemplate()
+                .src.set("rapaio/darray/gemm/DoubleGemm.java")
+                .dst.set("rapaio/darray/gemm/FloatGemm.java")
+                .replaces.set(floatReplaces)
+        );
+
     }
 
     public static void main(String[] args) throws IOException {
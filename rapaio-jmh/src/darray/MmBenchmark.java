@@ -0,0 +1,187 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package darray;
+
+import static rapaio.graphics.opt.GOpts.color;
+import static rapaio.graphics.opt.GOpts.labels;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import commons.Utils;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.transform.RefSort;
+import rapaio.data.transform.VarApply;
+import rapaio.graphics.Plotter;
+import rapaio.graphics.plot.Plot;
+import rapaio.graphics.plot.artist.Legend;
+import rapaio.io.Csv;
+import rapaio.sys.WS;
+import rapaio.util.Hardware;
+
+/**
+ * Compares the packed matrix multiplication kernel used by {@link DArray#mm(DArray)} with the
+ * previous implementation which computes tiles of inner products between rows and columns.
+ */
+@BenchmarkMode( {Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MmBenchmark {
+
+    private static final DArrayManager base = DArrayManager.base();
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        @Param( {"64", "128", "256", "512", "1024", "2048"})
+        private int n;
+
+        private DArray<Double> ad;
+        private DArray<Double> bd;
+        private DArray<Float> af;
+        private DArray<Float> bf;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            ad = base.random(DType.DOUBLE, Shape.of(n, n), random, Order.C);
+            bd = base.random(DType.DOUBLE, Shape.of(n, n), random, Order.C);
+            af = ad.cast(DType.FLOAT);
+            bf = bd.cast(DType.FLOAT);
+        }
+    }
+
+    @Benchmark
+    public void mmDoublePacked(BenchmarkState bs, Blackhole bh) {
+        bh.consume(bs.ad.mm(bs.bd));
+    }
+
+    @Benchmark
+    public void mmDoubleInner(BenchmarkState bs, Blackhole bh) {
+        bh.consume(innerTiles(bs.ad, bs.bd));
+    }
+
+    @Benchmark
+    public void mmFloatPacked(BenchmarkState bs, Blackhole bh) {
+        bh.consume(bs.af.mm(bs.bf));
+    }
+
+    @Benchmark
+    public void mmFloatInner(BenchmarkState bs, Blackhole bh) {
+        bh.consume(innerTiles(bs.af, bs.bf));
+    }
+
+    /**
+     * Previous implementation: rows and columns are unbound into vector views and each
+     * virtual thread task computes a tile of inner products.
+     */
+    private static <N extends Number> DArray<N> innerTiles(DArray<N> a, DArray<N> b) {
+        int m = a.dim(0);
+        int n = a.dim(1);
+        int p = b.dim(1);
+        DArray<N> to = base.zeros(a.dt(), Shape.of(m, p));
+
+        List<DArray<N>> rows = a.unbind(0, false);
+        List<DArray<N>> cols = b.unbind(1, false);
+
+        int chunk = (int) Math.floor(Math.sqrt(Hardware.L2_CACHE_SIZE / 2. / Hardware.CORES / a.dt().byteCount()));
+        chunk = chunk >= 8 ? chunk - chunk % 8 : chunk;
+        int vectorChunk = chunk > 64 ? chunk * 4 : chunk;
+        int innerChunk = chunk > 64 ? (int) Math.ceil(Math.sqrt(chunk / 4.)) : (int) Math.ceil(Math.sqrt(chunk));
+
+        try (ExecutorService service = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < m; r += innerChunk) {
+                int rs = r;
+                int re = Math.min(m, r + innerChunk);
+                for (int c = 0; c < p; c += innerChunk) {
+                    int cs = c;
+                    int ce = Math.min(p, c + innerChunk);
+                    service.submit(() -> {
+                        for (int k = 0; k < n; k += vectorChunk) {
+                            int end = Math.min(n, k + vectorChunk);
+                            for (int i = rs; i < re; i++) {
+                                for (int j = cs; j < ce; j++) {
+                                    to.incDouble(rows.get(i).inner(cols.get(j), k, end).doubleValue(), i, j);
+                                }
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        return to;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Options opt = new OptionsBuilder()
+                .include(MmBenchmark.class.getSimpleName())
+                .warmupTime(TimeValue.seconds(2))
+                .warmupIterations(2)
+                .measurementTime(TimeValue.seconds(2))
+                .measurementIterations(3)
+                .forks(1)
+                .resultFormat(ResultFormatType.CSV)
+                .result(Utils.resultPath(MmBenchmark.class))
+                .build();
+        new Runner(opt).run();
+        Utils.resultPromote(MmBenchmark.class);
+        printResults();
+    }
+
+    public static void printResults() {
+        Frame df = Csv.instance().quotes.set(true).read(Utils.resultPath(MmBenchmark.class));
+        Plot plot = Plotter.plot();
+        int i = 1;
+        for (String benchmark : df.rvar("Benchmark").levels().stream().skip(1).toList()) {
+            Frame sel = df.stream().filter(s -> s.getLabel("Benchmark").equals(benchmark)).toMappedFrame();
+            sel = sel.fapply(RefSort.by(sel.rvar("Score").refComparator()));
+            plot.lines(sel.rvar("Param: n"), sel.rvar("Score").fapply(VarApply.onDouble(Math::log1p)), color(i));
+            i++;
+        }
+        plot.legend(Legend.UP_LEFT, labels(df.rvar("Benchmark").levels().stream().skip(1).toArray(String[]::new)));
+        WS.draw(plot);
+    }
+}
@@ -52,6 +52,7 @@ module rapaio.lib {
     exports rapaio.darray.operator.impl;
     exports rapaio.darray.operator.unary;
     exports rapaio.darray.matrix;
+    exports rapaio.darray.sparse;
     exports rapaio.darray.storage;
     exports rapaio.darray.storage.array;
 
@@ -70,6 +71,7 @@ module rapaio.lib {
     exports rapaio.ml.common.distance;
     exports rapaio.ml.common.kernel;
     exports rapaio.ml.common.kernel.cache;
+    exports rapaio.ml.common.neighbors;
     exports rapaio.ml.loss;
     exports rapaio.ml.eval;
     exports rapaio.ml.eval.metric;
@@ -24,10 +24,12 @@ package rapaio.core.distributions.empirical;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import rapaio.core.stat.Variance;
 import rapaio.data.Var;
 import rapaio.data.transform.VarSort;
+import rapaio.math.FFT;
 
 /**
  * Kernel density estimator.
@@ -84,6 +86,11 @@ public class KDE implements Serializable {
 
     @Serial
     private static final long serialVersionUID = -9221394390068126299L;
+
+    /**
+     * Minimum number of evaluation points handled by a single task in batched evaluation.
+     */
+    private static final int BATCH_CHUNK = 1024;
     private final double[] values;
     private final KFunc kernel;
     private final double bandwidth;
@@ -110,6 +117,117 @@ public class KDE implements Serializable {
         return sum / (values.length * bandwidth);
     }
 
+    /**
+     * Evaluates the density estimator on a batch of points. The result is identical with calling
+     * {@link #pdf(double)} for each point, only that large batches are split into chunks which are
+     * evaluated in parallel. Since sample values are sorted, each evaluation visits only the sample values
+     * from the kernel support, thus the cost depends on the local number of neighbours, not on the sample size.
+     * <p>
+     * This method only parallelizes the existing truncated loop of {@link #pdf(double)}, it does not use
+     * any approximation with bounded error, like binning or tree based summation.
+     *
+     * @param xs points where the density is evaluated
+     * @return density values, one for each point
+     */
+    public double[] pdf(double[] xs) {
+        double[] out = new double[xs.length];
+        int chunks = (xs.length + BATCH_CHUNK - 1) / BATCH_CHUNK;
+        IntStream stream = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            stream = stream.parallel();
+        }
+        stream.forEach(chunk -> {
+            int end = Math.min(xs.length, (chunk + 1) * BATCH_CHUNK);
+            for (int i = chunk * BATCH_CHUNK; i < end; i++) {
+                out[i] = pdf(xs[i]);
+            }
+        });
+        return out;
+    }
+
+    /**
+     * Evaluates the density estimator on an equally spaced grid of points using linear binning and FFT convolution.
+     * <p>
+     * Sample values are distributed with linear weights to the two neighbouring grid nodes, after which the
+     * binned counts are convolved with the kernel evaluated at grid offsets. The cost is {@code O(n + m log m)}
+     * instead of {@code O(n m)} for direct evaluation, where {@code n} is the sample size and {@code m} is the
+     * number of grid points. The approximation error introduced by binning is of order {@code O(delta^2)},
+     * where {@code delta} is the grid step, thus it is negligible when the grid step is small compared with the bandwidth.
+     * When the grid is too coarse for binning (a grid step larger than a quarter of the bandwidth),
+     * the grid points are evaluated directly with {@link #pdf(double[])}.
+     *
+     * @param min    first grid point
+     * @param max    last grid point
+     * @param points number of grid points
+     * @return density values at points {@code min + i * (max - min) / (points - 1)}
+     */
+    public double[] gridPdf(double min, double max, int points) {
+        if (points < 1 || !(max >= min)) {
+            throw new IllegalArgumentException("Grid must have at least one point and max must not be smaller than min.");
+        }
+        if (points == 1 || max == min || values.length == 0) {
+            double[] out = new double[points];
+            Arrays.fill(out, pdf(min));
+            return out;
+        }
+        double delta = (max - min) / (points - 1);
+        if (delta > bandwidth / 4) {
+            double[] xs = new double[points];
+            for (int i = 0; i < points; i++) {
+                xs[i] = min + i * delta;
+            }
+            return pdf(xs);
+        }
+        double support = Math.max(kernel.maxValue(0, bandwidth), -kernel.minValue(0, bandwidth));
+        long halfWidth = (long) Math.ceil(support / delta);
+        if (halfWidth > Integer.MAX_VALUE / 4 || points + 2 * halfWidth > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("Grid step is too small compared with kernel bandwidth.");
+        }
+        int half = (int) halfWidth;
+
+        // the grid is extended with the kernel half width on both sides, such that all sample values
+        // which have an influence on the requested grid points are binned
+        int size = points + 2 * half;
+        int n = FFT.nextPowerOf2(size);
+        double origin = min - half * delta;
+
+        double[] countsRe = new double[n];
+        double[] countsIm = new double[n];
+        for (double value : values) {
+            double pos = (value - origin) / delta;
+            if (pos < 0 || pos > size - 1) {
+                continue;
+            }
+            int left = (int) Math.floor(pos);
+            double w = pos - left;
+            countsRe[left] += 1 - w;
+            if (w > 0) {
+                countsRe[left + 1] += w;
+            }
+        }
+
+        // kernel weights at grid offsets, stored in wrap-around order for circular convolution;
+        // padded length is at least size, which prevents aliasing on requested grid points
+        double[] kernelRe = new double[n];
+        double[] kernelIm = new double[n];
+        for (int i = -half; i <= half; i++) {
+            kernelRe[(i + n) & (n - 1)] = kernel.pdf(i * delta, 0, bandwidth);
+        }
+
+        FFT.fft(countsRe, countsIm);
+        FFT.fft(kernelRe, kernelIm);
+        FFT.multiply(countsRe, countsIm, kernelRe, kernelIm);
+        FFT.ifft(countsRe, countsIm);
+
+        double[] out = new double[points];
+        double norm = values.length * bandwidth;
+        for (int i = 0; i < points; i++) {
+            // round-off can produce tiny negative values where the density vanishes
+            out[i] = Math.max(0, countsRe[i + half] / norm);
+        }
+        return out;
+    }
+
     public KFunc kernel() {
         return kernel;
     }
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -35,11 +36,14 @@ import java.util.stream.StreamSupport;
 
 import rapaio.darray.iterators.PointerIterator;
 import rapaio.darray.layout.StrideLayout;
+import rapaio.darray.lazy.LazyDArray;
 import rapaio.darray.manager.AbstractStrideDArray;
 import rapaio.darray.matrix.CholeskyDecomposition;
 import rapaio.darray.matrix.EigenDecomposition;
 import rapaio.darray.matrix.LUDecomposition;
+import rapaio.darray.matrix.LanczosEigenDecomposition;
 import rapaio.darray.matrix.QRDecomposition;
+import rapaio.darray.matrix.RandomizedSVDecomposition;
 import rapaio.darray.matrix.SVDecomposition;
 import rapaio.darray.operator.Broadcast;
 import rapaio.darray.operator.DArrayBinaryOp;
@@ -808,7 +812,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @return value at indexed position
      */
     public final byte getByte(int... indices) {
-        return storage.getByte(layout().pointer(indices));
+        return storage.getByte(layout().longPointer(indices));
     }
 
     /**
@@ -818,7 +822,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @return value at indexed position
      */
     public final int getInt(int... indices) {
-        return storage.getInt(layout().pointer(indices));
+        return storage.getInt(layout().longPointer(indices));
     }
 
     /**
@@ -828,7 +832,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @return value at indexed position
      */
     public final float getFloat(int... indices) {
-        return storage.getFloat(layout().pointer(indices));
+        return storage.getFloat(layout().longPointer(indices));
     }
 
     /**
@@ -838,7 +842,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @return value at indexed position
      */
     public final double getDouble(int... indices) {
-        return storage.getDouble(layout().pointer(indices));
+        return storage.getDouble(layout().longPointer(indices));
     }
 
     /**
@@ -858,7 +862,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void setByte(byte value, int... indices) {
-        storage.setByte(layout().pointer(indices), value);
+        storage.setByte(layout().longPointer(indices), value);
     }
 
     /**
@@ -869,7 +873,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void setInt(int value, int... indices) {
-        storage.setInt(layout().pointer(indices), value);
+        storage.setInt(layout().longPointer(indices), value);
     }
 
     /**
@@ -880,7 +884,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void setFloat(float value, int... indices) {
-        storage.setFloat(layout().pointer(indices), value);
+        storage.setFloat(layout().longPointer(indices), value);
     }
 
     /**
@@ -891,7 +895,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void setDouble(double value, int... indices) {
-        storage.setDouble(layout().pointer(indices), value);
+        storage.setDouble(layout().longPointer(indices), value);
     }
 
     /**
@@ -911,7 +915,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void incByte(byte value, int... indices) {
-        storage.incByte(layout().pointer(indices), value);
+        storage.incByte(layout().longPointer(indices), value);
     }
 
     /**
@@ -922,7 +926,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void incInt(int value, int... indices) {
-        storage.incInt(layout().pointer(indices), value);
+        storage.incInt(layout().longPointer(indices), value);
     }
 
     /**
@@ -933,7 +937,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void incFloat(float value, int... indices) {
-        storage.incFloat(layout().pointer(indices), value);
+        storage.incFloat(layout().longPointer(indices), value);
     }
 
     /**
@@ -944,7 +948,7 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
      * @param indices indexed position
      */
     public final void incDouble(double value, int... indices) {
-        storage.incDouble(layout().pointer(indices), value);
+        storage.incDouble(layout().longPointer(indices), value);
     }
 
     /**
@@ -1218,6 +1222,18 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
 
     public abstract DArray<N> apply_(Function<N, N> fun);
 
+    /**
+     * Creates a lazy expression which has this darray as source. Operations recorded on the lazy expression
+     * are not evaluated until the expression is materialized or reduced, in which case all the operations
+     * are fused into a single pass over data, without temporary darrays.
+     *
+     * @return lazy expression over this darray
+     * @see LazyDArray
+     */
+    public final LazyDArray<N> lazy() {
+        return new LazyDArray<>(this);
+    }
+
     //--------- UNARY OPERATIONS ----------------//
 
     public final DArray<N> unary(DArrayUnaryOp op) {
@@ -2539,6 +2555,20 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
         return new EigenDecomposition<>(this);
     }
 
+    /**
+     * Computes the largest k eigen values and eigen vectors of a symmetric matrix with the Lanczos algorithm.
+     *
+     * @param k number of eigen values
+     * @return truncated eigen decomposition
+     */
+    public final LanczosEigenDecomposition<N> eig(int k) {
+        return eig(k, new Random());
+    }
+
+    public final LanczosEigenDecomposition<N> eig(int k, Random random) {
+        return new LanczosEigenDecomposition<>(this, k, random);
+    }
+
     public final SVDecomposition<N> svd() {
         return svd(true, true);
     }
@@ -2547,6 +2577,20 @@ public abstract sealed class DArray<N extends Number> implements Printable, Iter
         return new SVDecomposition<>(this, wantu, wantv);
     }
 
+    /**
+     * Computes the top k singular values and singular vectors with a randomized range finder.
+     *
+     * @param k number of singular values
+     * @return truncated singular value decomposition
+     */
+    public final RandomizedSVDecomposition<N> svd(int k) {
+        return svd(k, new Random());
+    }
+
+    public final RandomizedSVDecomposition<N> svd(int k, Random random) {
+        return new RandomizedSVDecomposition<>(this, k, random);
+    }
+
     public final N norm() {
         return norm(2);
     }
@@ -42,6 +42,10 @@ public abstract class DArrayManager {
         return new BaseDArrayManager(cpuThreads);
     }
 
+    public static DArrayManager base(int cpuThreads, StorageManager storageManager) {
+        return new BaseDArrayManager(cpuThreads, storageManager);
+    }
+
     protected final int cpuThreads;
     protected final StorageManager storageManager;
 
@@ -79,7 +83,7 @@ public abstract class DArrayManager {
     }
 
     public final <N extends Number> DArray<N> zeros(DType<N> dt, Shape shape, Order order) {
-        return stride(dt, shape, Order.autoFC(order), storageManager.zeros(dt, shape.size()));
+        return stride(dt, shape, Order.autoFC(order), storageManager.zeros(dt, shape.longSize()));
     }
 
     public final <N extends Number> DArray<N> eye(DType<N> dt, int n) {
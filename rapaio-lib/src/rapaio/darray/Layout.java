@@ -63,6 +63,16 @@ public interface Layout {
         return shape().size();
     }
 
+    /**
+     * Number of elements contained in NArray as a long value. It works also for layouts with more elements
+     * than the maximum length of a Java array.
+     *
+     * @return number of elements
+     */
+    default long longSize() {
+        return shape().longSize();
+    }
+
     /**
      * Tells if values are stored in C order, row major.
      * This flag does not guarantee that elements are contiguous in storage.
@@ -106,6 +116,17 @@ public interface Layout {
      */
     int pointer(int... index);
 
+    /**
+     * Computes a pointer as a long value, given an index. Layouts which can describe more elements
+     * than an int value can address override this method to compute pointers without overflow.
+     *
+     * @param index an integer array which logically describes the location of a values
+     * @return the location in the storage of the indexed element
+     */
+    default long longPointer(int... index) {
+        return pointer(index);
+    }
+
     /**
      * Computes the index of an element, given the pointer of the element in storage
      *
@@ -49,7 +49,7 @@ public final class Shape {
     }
 
     private final int[] dims;
-    private final int size;
+    private final long size;
     private int[] cStrides = null;
     private int[] fStrides = null;
 
@@ -62,18 +62,19 @@ public final class Shape {
             }
         }
         /*
-        This limit is imposed by the maximum length of an allocated array in Java.
-        If there are other considerations, we could raise or lower this limit.
+        The number of elements is limited to what a long can count. Shapes larger than the maximum length
+        of a Java array can be used only with storages which are not backed by arrays, like memory segments.
          */
         long longSize = 1;
         for (int dim : dims) {
-            longSize *= dim;
-            if (longSize > Integer.MAX_VALUE - 2) {
-                throw new IllegalArgumentException("Shape exceeds maximum number of elements which is Integer.MAX_VALUE - 2");
+            try {
+                longSize = Math.multiplyExact(longSize, dim);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Shape exceeds maximum number of elements which is Long.MAX_VALUE");
             }
         }
         this.dims = dims;
-        this.size = (int) longSize;
+        this.size = longSize;
     }
 
     /**
@@ -120,8 +121,23 @@ public final class Shape {
      * Size of the shape which is equal with the product of all dimension sizes.
      *
      * @return size of the shape
+     * @throws IllegalStateException if the size does not fit into the maximum length of a Java array
      */
     public int size() {
+        if (size > Integer.MAX_VALUE - 2) {
+            throw new IllegalStateException("Shape size " + size + " exceeds maximum number of elements which is Integer.MAX_VALUE - 2, "
+                    + "use longSize() instead.");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Size of the shape as a long value. Unlike {@link #size()}, it works also for shapes
+     * with more elements than the maximum length of a Java array.
+     *
+     * @return size of the shape
+     */
+    public long longSize() {
         return size;
     }
 
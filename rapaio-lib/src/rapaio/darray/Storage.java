@@ -21,6 +21,8 @@
 
 package rapaio.darray;
 
+import java.lang.foreign.ValueLayout;
+
 import jdk.incubator.vector.ByteVector;
 import jdk.incubator.vector.DoubleVector;
 import jdk.incubator.vector.FloatVector;
@@ -30,6 +32,10 @@ import rapaio.darray.storage.array.ByteArrayStorage;
 import rapaio.darray.storage.array.DoubleArrayStorage;
 import rapaio.darray.storage.array.FloatArrayStorage;
 import rapaio.darray.storage.array.IntArrayStorage;
+import rapaio.darray.storage.segment.ByteSegmentStorage;
+import rapaio.darray.storage.segment.DoubleSegmentStorage;
+import rapaio.darray.storage.segment.FloatSegmentStorage;
+import rapaio.darray.storage.segment.IntSegmentStorage;
 import rapaio.io.atom.AtomSerialization;
 import rapaio.io.atom.LoadAtomHandler;
 import rapaio.io.atom.SaveAtomHandler;
@@ -40,6 +46,29 @@ public abstract class Storage {
 
     public abstract int size();
 
+    /**
+     * Number of elements of the storage as a long value. Storages which are not backed
+     * by Java arrays can contain more elements than an int value can address.
+     *
+     * @return number of elements
+     */
+    public long longSize() {
+        return size();
+    }
+
+    /**
+     * Creates a storage which is a view over a contiguous range of elements of this storage. It is used to address
+     * regions of storages with more elements than an int value can address, the elements of the slice being
+     * addressed relative to the slice start.
+     *
+     * @param offset position of the first element of the slice
+     * @param len    number of elements of the slice
+     * @return storage view over the given range
+     */
+    public Storage slice(long offset, int len) {
+        throw new UnsupportedOperationException("Storage " + getClass().getSimpleName() + " does not support slices.");
+    }
+
     public abstract boolean supportSimd();
 
 
@@ -51,6 +80,18 @@ public abstract class Storage {
 
     public abstract void fill(byte value, int start, int len);
 
+    public byte getByte(long ptr) {
+        return getByte(Math.toIntExact(ptr));
+    }
+
+    public void setByte(long ptr, byte value) {
+        setByte(Math.toIntExact(ptr), value);
+    }
+
+    public void incByte(long ptr, byte value) {
+        incByte(Math.toIntExact(ptr), value);
+    }
+
 
     public abstract int getInt(int ptr);
 
@@ -60,6 +101,18 @@ public abstract class Storage {
 
     public abstract void fill(int value, int start, int len);
 
+    public int getInt(long ptr) {
+        return getInt(Math.toIntExact(ptr));
+    }
+
+    public void setInt(long ptr, int value) {
+        setInt(Math.toIntExact(ptr), value);
+    }
+
+    public void incInt(long ptr, int value) {
+        incInt(Math.toIntExact(ptr), value);
+    }
+
 
     public abstract float getFloat(int ptr);
 
@@ -69,6 +122,18 @@ public abstract class Storage {
 
     public abstract void fill(float value, int start, int len);
 
+    public float getFloat(long ptr) {
+        return getFloat(Math.toIntExact(ptr));
+    }
+
+    public void setFloat(long ptr, float value) {
+        setFloat(Math.toIntExact(ptr), value);
+    }
+
+    public void incFloat(long ptr, float value) {
+        incFloat(Math.toIntExact(ptr), value);
+    }
+
 
     public abstract double getDouble(int ptr);
 
@@ -78,6 +143,18 @@ public abstract class Storage {
 
     public abstract void fill(double value, int start, int len);
 
+    public double getDouble(long ptr) {
+        return getDouble(Math.toIntExact(ptr));
+    }
+
+    public void setDouble(long ptr, double value) {
+        setDouble(Math.toIntExact(ptr), value);
+    }
+
+    public void incDouble(long ptr, double value) {
+        incDouble(Math.toIntExact(ptr), value);
+    }
+
 
     public abstract ByteVector getByteVector(int offset);
 
@@ -196,6 +273,27 @@ public abstract class Storage {
                     out.saveDoubles(das.array());
                     return;
                 }
+                // segment storages are saved as arrays, thus loaded back on heap
+                if (atom instanceof ByteSegmentStorage bss) {
+                    out.saveString(ByteArrayStorage.class.getName());
+                    out.saveBytes(bss.segment().toArray(ValueLayout.JAVA_BYTE));
+                    return;
+                }
+                if (atom instanceof IntSegmentStorage iss) {
+                    out.saveString(IntArrayStorage.class.getName());
+                    out.saveInts(iss.segment().toArray(ValueLayout.JAVA_INT_UNALIGNED));
+                    return;
+                }
+                if (atom instanceof FloatSegmentStorage fss) {
+                    out.saveString(FloatArrayStorage.class.getName());
+                    out.saveFloats(fss.segment().toArray(ValueLayout.JAVA_FLOAT_UNALIGNED));
+                    return;
+                }
+                if (atom instanceof DoubleSegmentStorage dss) {
+                    out.saveString(DoubleArrayStorage.class.getName());
+                    out.saveDoubles(dss.segment().toArray(ValueLayout.JAVA_DOUBLE_UNALIGNED));
+                    return;
+                }
                 throw new RuntimeException("Unknown storage type: " + atom.getClass().getName());
             };
         }
@@ -21,7 +21,10 @@
 
 package rapaio.darray;
 
+import java.lang.foreign.Arena;
+
 import rapaio.darray.storage.array.ArrayStorageManager;
+import rapaio.darray.storage.segment.SegmentStorageManager;
 
 public abstract class StorageManager {
 
@@ -29,6 +32,22 @@ public abstract class StorageManager {
         return new ArrayStorageManager();
     }
 
+    /**
+     * Creates a storage manager which allocates off-heap memory segments. The memory
+     * is released automatically when the storages are no longer reachable.
+     */
+    public static SegmentStorageManager segment() {
+        return new SegmentStorageManager(Arena.ofAuto());
+    }
+
+    /**
+     * Creates a storage manager which allocates memory segments from the given arena.
+     * The arena must allow access from multiple threads.
+     */
+    public static SegmentStorageManager segment(Arena arena) {
+        return new SegmentStorageManager(arena);
+    }
+
     public abstract Storage scalar(DType<?> dt, byte value);
 
     public abstract Storage scalar(DType<?> dt, int value);
@@ -39,6 +58,21 @@ public abstract class StorageManager {
 
     public abstract Storage zeros(DType<?> dt, int len);
 
+    /**
+     * Creates a storage filled with zeros, given the number of elements as a long value. Storage managers
+     * which can allocate more elements than an int value can address override this method.
+     *
+     * @param dt  data type
+     * @param len number of elements
+     * @return new storage filled with zeros
+     */
+    public Storage zeros(DType<?> dt, long len) {
+        if (len > Integer.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Storage manager can't allocate " + len + " elements.");
+        }
+        return zeros(dt, (int) len);
+    }
+
     public abstract Storage from(DType<?> dt, byte... array);
 
     public abstract Storage from(DType<?> dt, int... array);
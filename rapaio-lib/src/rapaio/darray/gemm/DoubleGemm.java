@@ -0,0 +1,426 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.gemm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.Simd;
+import rapaio.darray.Storage;
+
+/**
+ * Matrix multiplication kernels for double storages.
+ * <p>
+ * Matrix-matrix multiplication follows the classical GotoBLAS/BLIS scheme. For each block of {@link #NC} columns
+ * of the result and each panel of {@link #KC} rows of the second operand, the block of the second operand is packed
+ * once into a contiguous buffer shared by all tasks. Blocks of {@link #MC} rows of the first operand are packed
+ * by each task in its own buffer. The packed panels are consumed by a micro-kernel which computes a register tile
+ * of {@link #MR} x {@link #NR} elements using vector fused multiply add operations. Row blocks of the result, split
+ * further on columns when there are not enough of them, are distributed over a fixed number of fork join tasks.
+ * <p>
+ * Packing buffers are allocated for each call, thus no memory is retained between calls.
+ * <p>
+ * Operands are described by storage, offset and strides, thus any stride layout can be used.
+ */
+public final class DoubleGemm {
+
+    private static final VectorSpecies<Double> vs = Simd.vsd;
+    private static final int LANES = vs.length();
+
+    static final int MR = 4;
+    static final int NR = 2 * LANES;
+    static final int MC = 128;
+    static final int KC = 256;
+    static final int NC = 512;
+
+    /**
+     * Problems with fewer multiply adds than this value are computed on the calling thread.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+
+    private DoubleGemm() {
+    }
+
+    /**
+     * Computes {@code C += A * B}, where A has {@code m x k} elements, B has {@code k x n} elements and C has
+     * {@code m x n} elements.
+     */
+    public static void mm(int m, int n, int k,
+            Storage a, int aOff, int aRs, int aCs,
+            Storage b, int bOff, int bRs, int bCs,
+            Storage c, int cOff, int cRs, int cCs,
+            int threads) {
+        if (m == 0 || n == 0 || k == 0) {
+            return;
+        }
+        if (cCs != 1 && cRs == 1) {
+            // result is column major, compute the transpose C^T += B^T * A^T to have contiguous rows in result
+            mm(n, m, k, b, bOff, bCs, bRs, a, aOff, aCs, aRs, c, cOff, cCs, cRs, threads);
+            return;
+        }
+        long work = (long) m * n * k;
+        int mc = MC;
+        int groups = 1;
+        if (threads > 1 && work >= PARALLEL_THRESHOLD) {
+            // make sure there are enough row blocks to feed all the threads
+            int perThread = Math.ceilDiv(m, threads);
+            mc = Math.max(MR, Math.min(MC, Math.ceilDiv(perThread, MR) * MR));
+            groups = threads;
+        }
+        new Task(m, n, k, mc, groups, a, aOff, aRs, aCs, b, bOff, bRs, bCs, c, cOff, cRs, cCs).compute();
+    }
+
+    /**
+     * Computes {@code y += A * x}, where A has {@code m x n} elements, x has {@code n} elements and
+     * y has {@code m} elements.
+     */
+    public static void mv(int m, int n,
+            Storage a, int aOff, int aRs, int aCs,
+            Storage x, int xOff, int xStride,
+            Storage y, int yOff, int yStride,
+            int threads) {
+        if (m == 0 || n == 0) {
+            return;
+        }
+        double[] xs = new double[n];
+        for (int j = 0; j < n; j++) {
+            xs[j] = x.getDouble(xOff + j * xStride);
+        }
+        int chunks = 1;
+        if (threads > 1 && (long) m * n >= PARALLEL_THRESHOLD) {
+            chunks = Math.min(threads, Math.ceilDiv(m, LANES * 4));
+        }
+        int chunkSize = Math.ceilDiv(m, chunks);
+        if (chunks == 1) {
+            mvRows(0, m, n, a, aOff, aRs, aCs, xs, y, yOff, yStride);
+            return;
+        }
+        RecursiveAction[] actions = new RecursiveAction[chunks];
+        for (int i = 0; i < chunks; i++) {
+            int start = i * chunkSize;
+            int end = Math.min(m, start + chunkSize);
+            actions[i] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    mvRows(start, end, n, a, aOff, aRs, aCs, xs, y, yOff, yStride);
+                }
+            };
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(actions);
+            }
+        });
+    }
+
+    private static void mvRows(int start, int end, int n, Storage a, int aOff, int aRs, int aCs, double[] xs,
+            Storage y, int yOff, int yStride) {
+        int len = end - start;
+        double[] acc = new double[len];
+        if (a.supportSimd() && aCs == 1) {
+            // rows are contiguous, compute dot products
+            int bound = vs.loopBound(n);
+            for (int i = 0; i < len; i++) {
+                int p = aOff + (start + i) * aRs;
+                DoubleVector sum = DoubleVector.zero(vs);
+                int j = 0;
+                for (; j < bound; j += LANES) {
+                    sum = a.getDoubleVector(p + j).fma(DoubleVector.fromArray(vs, xs, j), sum);
+                }
+                double s = sum.reduceLanes(VectorOperators.ADD);
+                for (; j < n; j++) {
+                    s += a.getDouble(p + j) * xs[j];
+                }
+                acc[i] = s;
+            }
+        } else if (a.supportSimd() && aRs == 1) {
+            // columns are contiguous, accumulate scaled columns
+            int bound = vs.loopBound(len);
+            for (int j = 0; j < n; j++) {
+                int p = aOff + start + j * aCs;
+                double xj = xs[j];
+                DoubleVector vx = DoubleVector.broadcast(vs, xj);
+                int i = 0;
+                for (; i < bound; i += LANES) {
+                    a.getDoubleVector(p + i).fma(vx, DoubleVector.fromArray(vs, acc, i)).intoArray(acc, i);
+                }
+                for (; i < len; i++) {
+                    acc[i] += a.getDouble(p + i) * xj;
+                }
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                int p = aOff + (start + i) * aRs;
+                double s = 0;
+                for (int j = 0; j < n; j++) {
+                    s += a.getDouble(p + j * aCs) * xs[j];
+                }
+                acc[i] = s;
+            }
+        }
+        for (int i = 0; i < len; i++) {
+            y.incDouble(yOff + (start + i) * yStride, acc[i]);
+        }
+    }
+
+    /**
+     * Fixed split of the work units of a packed block into a number of groups, each group being computed by a single task.
+     */
+    private static final class GroupAction extends RecursiveAction {
+
+        private final Task task;
+        private final int from;
+        private final int to;
+
+        GroupAction(Task task, int from, int to) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                task.computeGroup(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GroupAction(task, from, mid), new GroupAction(task, mid, to));
+        }
+    }
+
+    private static final class Task {
+
+        private final int m;
+        private final int n;
+        private final int k;
+        private final int mc;
+        private final Storage a;
+        private final int aOff;
+        private final int aRs;
+        private final int aCs;
+        private final Storage b;
+        private final int bOff;
+        private final int bRs;
+        private final int bCs;
+        private final Storage c;
+        private final int cOff;
+        private final int cRs;
+        private final int cCs;
+
+        private final int rowBlocks;
+        private final int groups;
+        // packed block of B, shared by all groups
+        private final double[] pb;
+        // packed blocks of A and tile buffers, one for each group
+        private final double[][] aBuffers;
+        private final double[][] tmpBuffers;
+
+        // current packed block, read by groups after packing
+        private int p0;
+        private int kb;
+        private int j0;
+        private int nb;
+        private int colSplits;
+
+        Task(int m, int n, int k, int mc, int threads,
+                Storage a, int aOff, int aRs, int aCs,
+                Storage b, int bOff, int bRs, int bCs,
+                Storage c, int cOff, int cRs, int cCs) {
+            this.m = m;
+            this.n = n;
+            this.k = k;
+            this.mc = mc;
+            this.a = a;
+            this.aOff = aOff;
+            this.aRs = aRs;
+            this.aCs = aCs;
+            this.b = b;
+            this.bOff = bOff;
+            this.bRs = bRs;
+            this.bCs = bCs;
+            this.c = c;
+            this.cOff = cOff;
+            this.cRs = cRs;
+            this.cCs = cCs;
+
+            this.rowBlocks = Math.ceilDiv(m, mc);
+            int maxPanels = Math.ceilDiv(Math.min(NC, n), NR);
+            this.groups = Math.max(1, Math.min(threads, rowBlocks * maxPanels));
+            int maxKb = Math.min(KC, k);
+            this.pb = new double[maxKb * maxPanels * NR];
+            this.aBuffers = new double[groups][maxKb * Math.ceilDiv(Math.min(mc, m), MR) * MR];
+            this.tmpBuffers = new double[groups][NR];
+        }
+
+        void compute() {
+            for (j0 = 0; j0 < n; j0 += NC) {
+                nb = Math.min(NC, n - j0);
+                // when there are not enough row blocks, the column panels are also split between groups
+                colSplits = Math.max(1, Math.min(Math.ceilDiv(nb, NR), groups / rowBlocks));
+                for (p0 = 0; p0 < k; p0 += KC) {
+                    kb = Math.min(KC, k - p0);
+                    packB();
+                    if (groups == 1) {
+                        computeGroup(0);
+                    } else {
+                        ForkJoinPool.commonPool().invoke(new GroupAction(this, 0, groups));
+                    }
+                }
+            }
+        }
+
+        void computeGroup(int group) {
+            int units = rowBlocks * colSplits;
+            int start = (int) ((long) group * units / groups);
+            int end = (int) ((long) (group + 1) * units / groups);
+            int panels = Math.ceilDiv(nb, NR);
+            double[] buffA = aBuffers[group];
+            int packed = -1;
+            for (int unit = start; unit < end; unit++) {
+                int rb = unit / colSplits;
+                int split = unit % colSplits;
+                int i0 = rb * mc;
+                int mb = Math.min(mc, m - i0);
+                if (packed != rb) {
+                    packA(i0, mb, buffA);
+                    packed = rb;
+                }
+                int panelStart = (int) ((long) split * panels / colSplits);
+                int panelEnd = (int) ((long) (split + 1) * panels / colSplits);
+                for (int panel = panelStart; panel < panelEnd; panel++) {
+                    int jr = panel * NR;
+                    int nr = Math.min(NR, nb - jr);
+                    for (int ir = 0; ir < mb; ir += MR) {
+                        int mr = Math.min(MR, mb - ir);
+                        kernel(buffA, ir * kb, jr * kb, i0 + ir, mr, j0 + jr, nr, tmpBuffers[group]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Packs a block of A in panels of MR rows, each panel stored column after column.
+         * Missing rows are padded with zeros.
+         */
+        private void packA(int i0, int mb, double[] buffA) {
+            int pos = 0;
+            for (int ir = 0; ir < mb; ir += MR) {
+                int mr = Math.min(MR, mb - ir);
+                int rowPtr = aOff + (i0 + ir) * aRs + p0 * aCs;
+                for (int p = 0; p < kb; p++) {
+                    int ptr = rowPtr + p * aCs;
+                    int r = 0;
+                    for (; r < mr; r++) {
+                        buffA[pos++] = a.getDouble(ptr + r * aRs);
+                    }
+                    for (; r < MR; r++) {
+                        buffA[pos++] = 0;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Packs the current block of B in panels of NR columns, each panel stored row after row.
+         * Missing columns are padded with zeros.
+         */
+        private void packB() {
+            int pos = 0;
+            for (int jr = 0; jr < nb; jr += NR) {
+                int nr = Math.min(NR, nb - jr);
+                int colPtr = bOff + p0 * bRs + (j0 + jr) * bCs;
+                for (int p = 0; p < kb; p++) {
+                    int ptr = colPtr + p * bRs;
+                    int cc = 0;
+                    for (; cc < nr; cc++) {
+                        pb[pos++] = b.getDouble(ptr + cc * bCs);
+                    }
+                    for (; cc < NR; cc++) {
+                        pb[pos++] = 0;
+                    }
+                }
+            }
+        }
+
+        private void kernel(double[] pa, int aPos, int bPos, int i, int mr, int j, int nr, double[] tmp) {
+            DoubleVector c00 = DoubleVector.zero(vs);
+            DoubleVector c01 = DoubleVector.zero(vs);
+            DoubleVector c10 = DoubleVector.zero(vs);
+            DoubleVector c11 = DoubleVector.zero(vs);
+            DoubleVector c20 = DoubleVector.zero(vs);
+            DoubleVector c21 = DoubleVector.zero(vs);
+            DoubleVector c30 = DoubleVector.zero(vs);
+            DoubleVector c31 = DoubleVector.zero(vs);
+
+            for (int p = 0; p < kb; p++) {
+                DoubleVector b0 = DoubleVector.fromArray(vs, pb, bPos);
+                DoubleVector b1 = DoubleVector.fromArray(vs, pb, bPos + LANES);
+
+                DoubleVector a0 = DoubleVector.broadcast(vs, pa[aPos]);
+                c00 = a0.fma(b0, c00);
+                c01 = a0.fma(b1, c01);
+                DoubleVector a1 = DoubleVector.broadcast(vs, pa[aPos + 1]);
+                c10 = a1.fma(b0, c10);
+                c11 = a1.fma(b1, c11);
+                DoubleVector a2 = DoubleVector.broadcast(vs, pa[aPos + 2]);
+                c20 = a2.fma(b0, c20);
+                c21 = a2.fma(b1, c21);
+                DoubleVector a3 = DoubleVector.broadcast(vs, pa[aPos + 3]);
+                c30 = a3.fma(b0, c30);
+                c31 = a3.fma(b1, c31);
+
+                aPos += MR;
+                bPos += NR;
+            }
+
+            int ptr = cOff + i * cRs + j * cCs;
+            store(c00, c01, ptr, nr, tmp);
+            if (mr > 1) {
+                store(c10, c11, ptr + cRs, nr, tmp);
+            }
+            if (mr > 2) {
+                store(c20, c21, ptr + 2 * cRs, nr, tmp);
+            }
+            if (mr > 3) {
+                store(c30, c31, ptr + 3 * cRs, nr, tmp);
+            }
+        }
+
+        private void store(DoubleVector v0, DoubleVector v1, int ptr, int nr, double[] tmp) {
+            if (nr == NR && cCs == 1 && c.supportSimd()) {
+                c.setDoubleVector(c.getDoubleVector(ptr).add(v0), ptr);
+                c.setDoubleVector(c.getDoubleVector(ptr + LANES).add(v1), ptr + LANES);
+                return;
+            }
+            v0.intoArray(tmp, 0);
+            v1.intoArray(tmp, LANES);
+            for (int jj = 0; jj < nr; jj++) {
+                c.incDouble(ptr + jj * cCs, tmp[jj]);
+            }
+        }
+    }
+}
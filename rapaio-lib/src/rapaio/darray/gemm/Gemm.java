@@ -0,0 +1,128 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.gemm;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Storage;
+import rapaio.darray.layout.StrideLayout;
+
+/**
+ * Entry point for matrix multiplication kernels. Floating point arrays are computed using packed
+ * vectorized kernels from {@link DoubleGemm} and {@link FloatGemm}. Integer types are computed with
+ * a scalar blocked implementation.
+ */
+public final class Gemm {
+
+    private static final int BLOCK = 64;
+
+    private Gemm() {
+    }
+
+    /**
+     * Computes {@code c += a * b}, where all arrays are matrices with stride layouts and compatible shapes.
+     *
+     * @param a       first operand with shape {@code (m, k)}
+     * @param b       second operand with shape {@code (k, n)}
+     * @param c       result with shape {@code (m, n)}
+     * @param threads maximum number of threads
+     * @return result array
+     */
+    public static <N extends Number> DArray<N> mm(DArray<N> a, DArray<N> b, DArray<N> c, int threads) {
+        int m = a.dim(0);
+        int k = a.dim(1);
+        int n = b.dim(1);
+        StrideLayout la = (StrideLayout) a.layout();
+        StrideLayout lb = (StrideLayout) b.layout();
+        StrideLayout lc = (StrideLayout) c.layout();
+        switch (a.dt().id()) {
+            case DOUBLE -> DoubleGemm.mm(m, n, k,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    b.storage(), lb.offset(), lb.stride(0), lb.stride(1),
+                    c.storage(), lc.offset(), lc.stride(0), lc.stride(1), threads);
+            case FLOAT -> FloatGemm.mm(m, n, k,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    b.storage(), lb.offset(), lb.stride(0), lb.stride(1),
+                    c.storage(), lc.offset(), lc.stride(0), lc.stride(1), threads);
+            case INTEGER, BYTE -> intMM(m, n, k,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    b.storage(), lb.offset(), lb.stride(0), lb.stride(1),
+                    c.storage(), lc.offset(), lc.stride(0), lc.stride(1));
+        }
+        return c;
+    }
+
+    /**
+     * Computes {@code y += a * x}, where {@code a} is a matrix and {@code x} and {@code y} are vectors.
+     *
+     * @param a       matrix with shape {@code (m, n)}
+     * @param x       vector with shape {@code (n)}
+     * @param y       result vector with shape {@code (m)}
+     * @param threads maximum number of threads
+     * @return result vector
+     */
+    public static <N extends Number> DArray<N> mv(DArray<N> a, DArray<N> x, DArray<N> y, int threads) {
+        int m = a.dim(0);
+        int n = a.dim(1);
+        StrideLayout la = (StrideLayout) a.layout();
+        StrideLayout lx = (StrideLayout) x.layout();
+        StrideLayout ly = (StrideLayout) y.layout();
+        switch (a.dt().id()) {
+            case DOUBLE -> DoubleGemm.mv(m, n,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    x.storage(), lx.offset(), lx.stride(0),
+                    y.storage(), ly.offset(), ly.stride(0), threads);
+            case FLOAT -> FloatGemm.mv(m, n,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    x.storage(), lx.offset(), lx.stride(0),
+                    y.storage(), ly.offset(), ly.stride(0), threads);
+            case INTEGER, BYTE -> intMM(m, 1, n,
+                    a.storage(), la.offset(), la.stride(0), la.stride(1),
+                    x.storage(), lx.offset(), lx.stride(0), 0,
+                    y.storage(), ly.offset(), ly.stride(0), 0);
+        }
+        return y;
+    }
+
+    private static void intMM(int m, int n, int k,
+            Storage a, int aOff, int aRs, int aCs,
+            Storage b, int bOff, int bRs, int bCs,
+            Storage c, int cOff, int cRs, int cCs) {
+        for (int i0 = 0; i0 < m; i0 += BLOCK) {
+            int i1 = Math.min(m, i0 + BLOCK);
+            for (int p0 = 0; p0 < k; p0 += BLOCK) {
+                int p1 = Math.min(k, p0 + BLOCK);
+                for (int j0 = 0; j0 < n; j0 += BLOCK) {
+                    int j1 = Math.min(n, j0 + BLOCK);
+                    for (int i = i0; i < i1; i++) {
+                        for (int j = j0; j < j1; j++) {
+                            int sum = 0;
+                            for (int p = p0; p < p1; p++) {
+                                sum += a.getInt(aOff + i * aRs + p * aCs) * b.getInt(bOff + p * bRs + j * bCs);
+                            }
+                            c.incInt(cOff + i * cRs + j * cCs, sum);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -167,6 +167,15 @@ public class ArrayStrideLayout extends AbstractStrideLayout {
         return pointer;
     }
 
+    @Override
+    public long longPointer(int... index) {
+        long pointer = offset;
+        for (int i = 0; i < index.length; i++) {
+            pointer += (long) index[i] * strides[i];
+        }
+        return pointer;
+    }
+
     @Override
     public int[] index(int pointer) {
         int[] storageOrder = Ints.seq(shape.rank());
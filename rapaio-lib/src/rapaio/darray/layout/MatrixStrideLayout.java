@@ -115,6 +115,11 @@ public class MatrixStrideLayout extends AbstractStrideLayout {
         return offset + index[0] * strides[0] + index[1] * strides[1];
     }
 
+    @Override
+    public long longPointer(int... index) {
+        return offset + (long) index[0] * strides[0] + (long) index[1] * strides[1];
+    }
+
     @Override
     public int[] index(int pointer) {
         int pos = strides[0] > strides[1] ? 1 : 0;
@@ -69,6 +69,11 @@ public record ScalarStrideLayout(int offset) implements StrideLayout {
         return offset;
     }
 
+    @Override
+    public long longPointer(int... index) {
+        return pointer(index);
+    }
+
     @Override
     public int[] index(int pointer) {
         if (pointer != offset) {
@@ -57,14 +57,14 @@ public interface StrideLayout extends Layout {
             case C -> {
                 int[] rowStrides = Ints.fill(shape.rank(), 1);
                 for (int i = rowStrides.length - 2; i >= 0; i--) {
-                    rowStrides[i] = shape.dim(i + 1) * rowStrides[i + 1];
+                    rowStrides[i] = denseStride(shape, shape.dim(i + 1), rowStrides[i + 1]);
                 }
                 yield rowStrides;
             }
             case F -> {
                 int[] colStrides = Ints.fill(shape.rank(), 1);
                 for (int i = 1; i < colStrides.length; i++) {
-                    colStrides[i] = shape.dim(i - 1) * colStrides[i - 1];
+                    colStrides[i] = denseStride(shape, shape.dim(i - 1), colStrides[i - 1]);
                 }
                 yield colStrides;
             }
@@ -73,10 +73,27 @@ public interface StrideLayout extends Layout {
         return new ArrayStrideLayout(shape, offset, strides);
     }
 
+    private static int denseStride(Shape shape, int dim, int stride) {
+        long value = (long) dim * stride;
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dense strides for " + shape + " does not fit into an int value.");
+        }
+        return (int) value;
+    }
+
     int offset();
 
     int[] strides();
 
+    @Override
+    default long longPointer(int... index) {
+        long pointer = offset();
+        for (int i = 0; i < index.length; i++) {
+            pointer += (long) index[i] * stride(i);
+        }
+        return pointer;
+    }
+
     int stride(int i);
 
     StrideLayout squeeze();
@@ -79,6 +79,11 @@ public final class VectorStrideLayout extends AbstractStrideLayout {
         return offset + index[0] * stride;
     }
 
+    @Override
+    public long longPointer(int... index) {
+        return offset + (long) index[0] * stride;
+    }
+
     @Override
     public int[] index(int pointer) {
         return new int[] {(pointer - offset) / stride};
@@ -0,0 +1,348 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.lazy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.Simd;
+import rapaio.darray.Storage;
+import rapaio.darray.iterators.StrideLoopDescriptor;
+import rapaio.darray.layout.StrideLayout;
+import rapaio.darray.operator.Broadcast;
+import rapaio.darray.operator.DArrayBinaryOp;
+import rapaio.darray.operator.DArrayOp;
+import rapaio.darray.operator.DArrayReduceOp;
+import rapaio.darray.operator.DArrayUnaryOp;
+import rapaio.darray.storage.array.DoubleArrayStorage;
+
+/**
+ * Compiled form of a lazy expression. The expression tree is flattened into a list of instructions
+ * which operate on registers, a register being a buffer of {@link #BLOCK} values. All operands are
+ * traversed in a common order; compatible dimensions are collapsed so that the inner loop is as long as possible.
+ * For each block of the inner loop the instructions are executed once, operands being read and results written
+ * only once.
+ */
+final class FusedLoop {
+
+    static final int BLOCK = 256;
+
+    private static final VectorSpecies<Double> vs = Simd.vsd;
+
+    enum Reduce {
+        SUM(DArrayOp.reduceSum()),
+        PROD(DArrayOp.reduceProd()),
+        MIN(DArrayOp.reduceMin()),
+        MAX(DArrayOp.reduceMax());
+
+        private final DArrayReduceOp op;
+
+        Reduce(DArrayReduceOp op) {
+            this.op = op;
+        }
+
+        double initial() {
+            return switch (this) {
+                case SUM -> 0;
+                case PROD -> 1;
+                case MIN -> Double.POSITIVE_INFINITY;
+                case MAX -> Double.NEGATIVE_INFINITY;
+            };
+        }
+
+        double combine(double a, double b) {
+            return switch (this) {
+                case SUM -> a + b;
+                case PROD -> a * b;
+                case MIN -> Math.min(a, b);
+                case MAX -> Math.max(a, b);
+            };
+        }
+    }
+
+    private sealed interface Instr permits Load, Unary, BinaryValue, Binary {
+    }
+
+    private record Load(int reg, int leaf) implements Instr {
+    }
+
+    private record Unary(int reg, DArrayUnaryOp op) implements Instr {
+    }
+
+    private record BinaryValue(int reg, DArrayBinaryOp op, double value) implements Instr {
+    }
+
+    private record Binary(int reg, int other, DArrayBinaryOp op) implements Instr {
+    }
+
+    static FusedLoop compile(LazyDArray.Node root, Shape shape) {
+        List<DArray<?>> leaves = new ArrayList<>();
+        List<Instr> program = new ArrayList<>();
+        int result = compile(root, shape, leaves, program);
+        return new FusedLoop(shape, leaves.toArray(DArray<?>[]::new), program.toArray(Instr[]::new), result);
+    }
+
+    private static int compile(LazyDArray.Node node, Shape shape, List<DArray<?>> leaves, List<Instr> program) {
+        return switch (node) {
+            case LazyDArray.Leaf leaf -> {
+                int reg = leaves.size();
+                leaves.add(Broadcast.elementWise(shape, leaf.array().shape()).transform(leaf.array()));
+                program.add(new Load(reg, reg));
+                yield reg;
+            }
+            case LazyDArray.Unary unary -> {
+                int reg = compile(unary.child(), shape, leaves, program);
+                program.add(new Unary(reg, unary.op()));
+                yield reg;
+            }
+            case LazyDArray.BinaryValue bv -> {
+                int reg = compile(bv.child(), shape, leaves, program);
+                program.add(new BinaryValue(reg, bv.op(), bv.value()));
+                yield reg;
+            }
+            case LazyDArray.Binary binary -> {
+                int left = compile(binary.left(), shape, leaves, program);
+                int right = compile(binary.right(), shape, leaves, program);
+                program.add(new Binary(left, right, binary.op()));
+                yield left;
+            }
+        };
+    }
+
+    private final Shape shape;
+    private final DArray<?>[] leaves;
+    private final Instr[] program;
+    private final int result;
+
+    private final double[][] regs;
+    private final Storage[] regStorages;
+    private final StrideLoopDescriptor<?>[] descriptors = new StrideLoopDescriptor<?>[BLOCK + 1];
+
+    private FusedLoop(Shape shape, DArray<?>[] leaves, Instr[] program, int result) {
+        this.shape = shape;
+        this.leaves = leaves;
+        this.program = program;
+        this.result = result;
+        this.regs = new double[leaves.length][BLOCK];
+        this.regStorages = new Storage[leaves.length];
+        for (int i = 0; i < regs.length; i++) {
+            regStorages[i] = new DoubleArrayStorage(regs[i]);
+        }
+    }
+
+    void evaluate(DArray<?> to) {
+        DArray<?>[] operands = Arrays.copyOf(leaves, leaves.length + 1);
+        operands[leaves.length] = to;
+        Storage storage = to.storage();
+        int out = leaves.length;
+        loop(operands, fastOrder(to), (ptrs, steps, len) -> {
+            execute(ptrs, steps, len);
+            store(regs[result], storage, ptrs[out], steps[out], len);
+        });
+    }
+
+    double reduce(Reduce reduce) {
+        double[] acc = new double[] {reduce.initial()};
+        loop(leaves, fastOrder(leaves[0]), (ptrs, steps, len) -> {
+            execute(ptrs, steps, len);
+            double partial = reduce.op.reduceDouble(descriptor(len), regStorages[result]);
+            acc[0] = reduce.combine(acc[0], partial);
+        });
+        return acc[0];
+    }
+
+    private static Order fastOrder(DArray<?> array) {
+        Order order = array.layout().storageFastOrder();
+        return order == Order.S ? Order.defaultOrder() : order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StrideLoopDescriptor<Double> descriptor(int len) {
+        if (descriptors[len] == null) {
+            descriptors[len] = StrideLoopDescriptor.of(StrideLayout.of(Shape.of(len), 0, new int[] {1}), Order.C, vs);
+        }
+        return (StrideLoopDescriptor<Double>) descriptors[len];
+    }
+
+    private void execute(int[] ptrs, int[] steps, int len) {
+        for (Instr instr : program) {
+            switch (instr) {
+                case Load load -> {
+                    int leaf = load.leaf();
+                    load(leaves[leaf].storage(), ptrs[leaf], steps[leaf], len, regs[load.reg()]);
+                }
+                case Unary unary -> unary.op().applyDouble(descriptor(len), regStorages[unary.reg()]);
+                case BinaryValue bv -> {
+                    double[] buff = regs[bv.reg()];
+                    DArrayBinaryOp op = bv.op();
+                    DoubleVector value = DoubleVector.broadcast(vs, bv.value());
+                    int bound = vs.loopBound(len);
+                    int i = 0;
+                    for (; i < bound; i += vs.length()) {
+                        op.applyDouble(DoubleVector.fromArray(vs, buff, i), value).intoArray(buff, i);
+                    }
+                    for (; i < len; i++) {
+                        buff[i] = op.applyDouble(buff[i], bv.value());
+                    }
+                }
+                case Binary binary -> {
+                    double[] a = regs[binary.reg()];
+                    double[] b = regs[binary.other()];
+                    DArrayBinaryOp op = binary.op();
+                    int bound = vs.loopBound(len);
+                    int i = 0;
+                    for (; i < bound; i += vs.length()) {
+                        op.applyDouble(DoubleVector.fromArray(vs, a, i), DoubleVector.fromArray(vs, b, i)).intoArray(a, i);
+                    }
+                    for (; i < len; i++) {
+                        a[i] = op.applyDouble(a[i], b[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void load(Storage storage, int ptr, int step, int len, double[] buff) {
+        if (step == 0) {
+            Arrays.fill(buff, 0, len, storage.getDouble(ptr));
+            return;
+        }
+        if (step == 1 && storage instanceof DoubleArrayStorage das) {
+            System.arraycopy(das.array(), ptr, buff, 0, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            buff[i] = storage.getDouble(ptr);
+            ptr += step;
+        }
+    }
+
+    private static void store(double[] buff, Storage storage, int ptr, int step, int len) {
+        if (step == 1 && storage instanceof DoubleArrayStorage das) {
+            System.arraycopy(buff, 0, das.array(), ptr, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            storage.setDouble(ptr, buff[i]);
+            ptr += step;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockConsumer {
+        void accept(int[] ptrs, int[] steps, int len);
+    }
+
+    /**
+     * Iterates over all operands in the given order. Dimensions are traversed from the fastest one
+     * and consecutive dimensions which are contiguous for all operands are collapsed together.
+     */
+    private void loop(DArray<?>[] operands, Order order, BlockConsumer consumer) {
+        if (shape.size() == 0) {
+            // nothing to iterate, empty dimensions must not reach the inner blocks
+            return;
+        }
+        int rank = shape.rank();
+        int count = operands.length;
+
+        // collapse dimensions, inner most first
+        List<Integer> dims = new ArrayList<>();
+        List<int[]> strides = new ArrayList<>();
+        for (int d = 0; d < rank; d++) {
+            int axis = order == Order.C ? rank - 1 - d : d;
+            int dim = shape.dim(axis);
+            if (dim == 1) {
+                continue;
+            }
+            int[] s = new int[count];
+            for (int o = 0; o < count; o++) {
+                s[o] = ((StrideLayout) operands[o].layout()).stride(axis);
+            }
+            if (!dims.isEmpty()) {
+                int last = dims.size() - 1;
+                int[] ls = strides.get(last);
+                boolean contiguous = true;
+                for (int o = 0; o < count; o++) {
+                    if (s[o] != ls[o] * dims.get(last)) {
+                        contiguous = false;
+                        break;
+                    }
+                }
+                if (contiguous) {
+                    dims.set(last, dims.get(last) * dim);
+                    continue;
+                }
+            }
+            dims.add(dim);
+            strides.add(s);
+        }
+        if (dims.isEmpty()) {
+            dims.add(1);
+            strides.add(new int[count]);
+        }
+
+        int inner = dims.getFirst();
+        int[] steps = strides.getFirst();
+        int[] base = new int[count];
+        for (int o = 0; o < count; o++) {
+            base[o] = ((StrideLayout) operands[o].layout()).offset();
+        }
+        int outerRank = dims.size() - 1;
+        int[] index = new int[outerRank];
+        int[] ptrs = new int[count];
+
+        while (true) {
+            for (int off = 0; off < inner; off += BLOCK) {
+                int len = Math.min(BLOCK, inner - off);
+                for (int o = 0; o < count; o++) {
+                    ptrs[o] = base[o] + off * steps[o];
+                }
+                consumer.accept(ptrs, steps, len);
+            }
+            // advance outer index
+            int d = 0;
+            for (; d < outerRank; d++) {
+                int[] s = strides.get(d + 1);
+                index[d]++;
+                if (index[d] < dims.get(d + 1)) {
+                    for (int o = 0; o < count; o++) {
+                        base[o] += s[o];
+                    }
+                    break;
+                }
+                index[d] = 0;
+                for (int o = 0; o < count; o++) {
+                    base[o] -= s[o] * (dims.get(d + 1) - 1);
+                }
+            }
+            if (d == outerRank) {
+                return;
+            }
+        }
+    }
+}
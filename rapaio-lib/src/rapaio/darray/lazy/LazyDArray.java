@@ -0,0 +1,358 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.lazy;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.operator.Broadcast;
+import rapaio.darray.operator.DArrayBinaryOp;
+import rapaio.darray.operator.DArrayOp;
+import rapaio.darray.operator.DArrayUnaryOp;
+import rapaio.darray.operator.unary.UnaryOpLogSoftmax;
+import rapaio.darray.operator.unary.UnaryOpSoftmax;
+import rapaio.data.OperationNotAvailableException;
+
+/**
+ * Deferred element-wise expression over darrays. Operations are only recorded and nothing is computed until
+ * the expression is materialized into a new darray, stored into an existing darray or reduced to a value.
+ * <p>
+ * When evaluated, all recorded operations are fused into a single pass over data. Values are processed in
+ * small blocks which fit into the first level cache; for each block the operands are loaded once and all
+ * operators are applied on the block before the result is stored. This avoids allocation of temporary
+ * darrays and repeated traversal of memory for each operator.
+ * <p>
+ * Binary operations follow the same broadcasting rules as the eager operations. Lazy expressions are
+ * available only for floating point darrays, the intermediate values being computed in double precision.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * DArray<Double> z = x.lazy().sub(mean).div(std).exp().mul(w).materialize();
+ * double total = x.lazy().sqr().sum();
+ * }</pre>
+ *
+ * @param <N> data type of the source darray
+ */
+public final class LazyDArray<N extends Number> {
+
+    sealed interface Node permits Leaf, Unary, BinaryValue, Binary {
+    }
+
+    record Leaf(DArray<?> array) implements Node {
+    }
+
+    record Unary(Node child, DArrayUnaryOp op) implements Node {
+    }
+
+    record BinaryValue(Node child, DArrayBinaryOp op, double value) implements Node {
+    }
+
+    record Binary(Node left, Node right, DArrayBinaryOp op) implements Node {
+    }
+
+    private final DArray<N> source;
+    private final Node root;
+    private final Shape shape;
+
+    public LazyDArray(DArray<N> source) {
+        if (!source.dt().floatingPoint()) {
+            throw new OperationNotAvailableException("Available only for floating point DArrays.");
+        }
+        this.source = source;
+        this.root = new Leaf(source);
+        this.shape = source.shape();
+    }
+
+    private LazyDArray(DArray<N> source, Node root, Shape shape) {
+        this.source = source;
+        this.root = root;
+        this.shape = shape;
+    }
+
+    public DType<N> dt() {
+        return source.dt();
+    }
+
+    /**
+     * @return shape of the expression result, after broadcasting all operands
+     */
+    public Shape shape() {
+        return shape;
+    }
+
+    //--------- UNARY OPERATIONS ----------------//
+
+    /**
+     * Records an element-wise unary operation.
+     *
+     * @param op unary operation
+     * @return new lazy expression
+     */
+    public LazyDArray<N> unary(DArrayUnaryOp op) {
+        if (op instanceof UnaryOpSoftmax || op instanceof UnaryOpLogSoftmax) {
+            throw new IllegalArgumentException("Only element-wise operations can be used in lazy expressions.");
+        }
+        return new LazyDArray<>(source, new Unary(root, op), shape);
+    }
+
+    public LazyDArray<N> abs() {
+        return unary(DArrayOp.unaryAbs());
+    }
+
+    public LazyDArray<N> neg() {
+        return unary(DArrayOp.unaryNeg());
+    }
+
+    public LazyDArray<N> exp() {
+        return unary(DArrayOp.unaryExp());
+    }
+
+    public LazyDArray<N> expm1() {
+        return unary(DArrayOp.unaryExpm1());
+    }
+
+    public LazyDArray<N> log() {
+        return unary(DArrayOp.unaryLog());
+    }
+
+    public LazyDArray<N> log1p() {
+        return unary(DArrayOp.unaryLog1p());
+    }
+
+    public LazyDArray<N> sqr() {
+        return unary(DArrayOp.unarySqr());
+    }
+
+    public LazyDArray<N> sqrt() {
+        return unary(DArrayOp.unarySqrt());
+    }
+
+    public LazyDArray<N> pow(double power) {
+        return unary(DArrayOp.unaryPow(power));
+    }
+
+    public LazyDArray<N> sin() {
+        return unary(DArrayOp.unarySin());
+    }
+
+    public LazyDArray<N> cos() {
+        return unary(DArrayOp.unaryCos());
+    }
+
+    public LazyDArray<N> tanh() {
+        return unary(DArrayOp.unaryTanh());
+    }
+
+    public LazyDArray<N> sigmoid() {
+        return unary(DArrayOp.unarySigmoid());
+    }
+
+    public LazyDArray<N> clamp(double min, double max) {
+        return unary(DArrayOp.unaryClamp(DType.DOUBLE, min, max));
+    }
+
+    //--------- BINARY OPERATIONS ----------------//
+
+    /**
+     * Records an element-wise binary operation with a scalar value.
+     *
+     * @param op    binary operation
+     * @param value scalar value used as second operand
+     * @return new lazy expression
+     */
+    public LazyDArray<N> binary(DArrayBinaryOp op, double value) {
+        return new LazyDArray<>(source, new BinaryValue(root, op, value), shape);
+    }
+
+    /**
+     * Records an element-wise binary operation with another darray. The darray is broadcast
+     * against the current expression shape if needed.
+     *
+     * @param op    binary operation
+     * @param other darray used as second operand
+     * @return new lazy expression
+     */
+    public LazyDArray<N> binary(DArrayBinaryOp op, DArray<?> other) {
+        if (other.isScalar()) {
+            return binary(op, other.getDouble());
+        }
+        return binary(op, new Leaf(other), other.shape());
+    }
+
+    /**
+     * Records an element-wise binary operation with another lazy expression. The other expression
+     * is broadcast against the current expression shape if needed.
+     *
+     * @param op    binary operation
+     * @param other lazy expression used as second operand
+     * @return new lazy expression
+     */
+    public LazyDArray<N> binary(DArrayBinaryOp op, LazyDArray<?> other) {
+        return binary(op, other.root, other.shape);
+    }
+
+    private LazyDArray<N> binary(DArrayBinaryOp op, Node other, Shape otherShape) {
+        var ew = Broadcast.elementWise(shape, otherShape);
+        if (!ew.valid()) {
+            throw new IllegalArgumentException(
+                    "Operation could not be applied on darrays with shape: %s, %s".formatted(shape, otherShape));
+        }
+        return new LazyDArray<>(source, new Binary(root, other, op), ew.shape());
+    }
+
+    public LazyDArray<N> add(double value) {
+        return binary(DArrayOp.binaryAdd(), value);
+    }
+
+    public LazyDArray<N> add(DArray<?> other) {
+        return binary(DArrayOp.binaryAdd(), other);
+    }
+
+    public LazyDArray<N> add(LazyDArray<?> other) {
+        return binary(DArrayOp.binaryAdd(), other);
+    }
+
+    public LazyDArray<N> sub(double value) {
+        return binary(DArrayOp.binarySub(), value);
+    }
+
+    public LazyDArray<N> sub(DArray<?> other) {
+        return binary(DArrayOp.binarySub(), other);
+    }
+
+    public LazyDArray<N> sub(LazyDArray<?> other) {
+        return binary(DArrayOp.binarySub(), other);
+    }
+
+    public LazyDArray<N> mul(double value) {
+        return binary(DArrayOp.binaryMul(), value);
+    }
+
+    public LazyDArray<N> mul(DArray<?> other) {
+        return binary(DArrayOp.binaryMul(), other);
+    }
+
+    public LazyDArray<N> mul(LazyDArray<?> other) {
+        return binary(DArrayOp.binaryMul(), other);
+    }
+
+    public LazyDArray<N> div(double value) {
+        return binary(DArrayOp.binaryDiv(), value);
+    }
+
+    public LazyDArray<N> div(DArray<?> other) {
+        return binary(DArrayOp.binaryDiv(), other);
+    }
+
+    public LazyDArray<N> div(LazyDArray<?> other) {
+        return binary(DArrayOp.binaryDiv(), other);
+    }
+
+    public LazyDArray<N> min(double value) {
+        return binary(DArrayOp.binaryMin(), value);
+    }
+
+    public LazyDArray<N> min(DArray<?> other) {
+        return binary(DArrayOp.binaryMin(), other);
+    }
+
+    public LazyDArray<N> max(double value) {
+        return binary(DArrayOp.binaryMax(), value);
+    }
+
+    public LazyDArray<N> max(DArray<?> other) {
+        return binary(DArrayOp.binaryMax(), other);
+    }
+
+    //--------- TERMINAL OPERATIONS ----------------//
+
+    /**
+     * Evaluates the expression into a new darray with default order.
+     *
+     * @return new darray with computed values
+     */
+    public DArray<N> materialize() {
+        return materialize(Order.defaultOrder());
+    }
+
+    /**
+     * Evaluates the expression into a new darray with given order.
+     *
+     * @param askOrder storage order of the new darray
+     * @return new darray with computed values
+     */
+    public DArray<N> materialize(Order askOrder) {
+        DArray<N> to = source.dm().zeros(source.dt(), shape, Order.autoFC(askOrder));
+        return into(to);
+    }
+
+    /**
+     * Evaluates the expression and stores the values into the given darray. The destination darray
+     * can be one of the operands of the expression, in which case the computation is done in place.
+     *
+     * @param to destination darray which must have the same shape as the expression
+     * @return destination darray
+     */
+    public <M extends Number> DArray<M> into(DArray<M> to) {
+        if (!to.shape().equals(shape)) {
+            throw new IllegalArgumentException("Destination shape %s does not match expression shape %s.".formatted(to.shape(), shape));
+        }
+        FusedLoop.compile(root, shape).evaluate(to);
+        return to;
+    }
+
+    /**
+     * Evaluates the expression and computes the sum of all values, without materializing the expression.
+     */
+    public double sum() {
+        return FusedLoop.compile(root, shape).reduce(FusedLoop.Reduce.SUM);
+    }
+
+    /**
+     * Evaluates the expression and computes the product of all values, without materializing the expression.
+     */
+    public double prod() {
+        return FusedLoop.compile(root, shape).reduce(FusedLoop.Reduce.PROD);
+    }
+
+    /**
+     * Evaluates the expression and computes the mean of all values, without materializing the expression.
+     */
+    public double mean() {
+        return sum() / shape.size();
+    }
+
+    /**
+     * Evaluates the expression and computes the minimum value, without materializing the expression.
+     */
+    public double amin() {
+        return FusedLoop.compile(root, shape).reduce(FusedLoop.Reduce.MIN);
+    }
+
+    /**
+     * Evaluates the expression and computes the maximum value, without materializing the expression.
+     */
+    public double amax() {
+        return FusedLoop.compile(root, shape).reduce(FusedLoop.Reduce.MAX);
+    }
+}
@@ -56,7 +56,13 @@ public abstract sealed class AbstractStrideDArray<N extends Number> extends DArr
     public AbstractStrideDArray(DArrayManager manager, DType<N> dt, StrideLayout layout, Storage storage) {
         super(manager, dt, storage);
         this.layout = layout;
-        this.loop = StrideLoopDescriptor.of(layout, layout.storageFastOrder(), dt().vs());
+        // arrays with more elements than an int value can address do not have loop descriptors, they can be used
+        // only with element accessors and views, the bulk operations being available on views of smaller size
+        this.loop = isLarge() ? null : StrideLoopDescriptor.of(layout, layout.storageFastOrder(), dt().vs());
+    }
+
+    private boolean isLarge() {
+        return layout.longSize() > Integer.MAX_VALUE;
     }
 
     @Override
@@ -119,14 +125,64 @@ public abstract sealed class AbstractStrideDArray<N extends Number> extends DArr
 
     @Override
     public final DArray<N> narrow(int axis, boolean keepdim, int start, int end) {
+        if (isLarge()) {
+            if (start < 0 || end > layout.dim(axis) || start >= end) {
+                throw new IllegalArgumentException("Start and end indexes are not valid for dimension " + axis + ".");
+            }
+            // the narrowed layout is computed relative to the first element of the view
+            StrideLayout relative = StrideLayout.of(layout.shape(), 0, layout.strides()).narrow(axis, keepdim, 0, end - start);
+            return sliceView(relative, layout.offset() + (long) start * layout.stride(axis));
+        }
         return dm.stride(dt(), layout.narrow(axis, keepdim, start, end), storage);
     }
 
     @Override
     public final DArray<N> narrowAll(boolean keepdim, int[] starts, int[] ends) {
+        if (isLarge()) {
+            if (starts.length != rank() || ends.length != rank()) {
+                throw new IllegalArgumentException("Start and end indexes must have the same length as the rank.");
+            }
+            int[] lens = new int[rank()];
+            long base = layout.offset();
+            for (int i = 0; i < rank(); i++) {
+                if (starts[i] < 0 || ends[i] > layout.dim(i) || starts[i] >= ends[i]) {
+                    throw new IllegalArgumentException("Start and end indexes are not valid for dimension " + i + ".");
+                }
+                lens[i] = ends[i] - starts[i];
+                base += (long) starts[i] * layout.stride(i);
+            }
+            StrideLayout relative = StrideLayout.of(layout.shape(), 0, layout.strides()).narrowAll(keepdim, new int[rank()], lens);
+            return sliceView(relative, base);
+        }
         return dm.stride(dt(), layout.narrowAll(keepdim, starts, ends), storage);
     }
 
+    /**
+     * Builds a view for arrays with more elements than an int value can address. Since layout offsets are int values,
+     * the view is created over a storage slice which starts at the lowest pointer of the view.
+     *
+     * @param relative layout of the view with pointers relative to base
+     * @param base     storage position of the first element of the view
+     * @return view over a slice of the storage
+     */
+    private DArray<N> sliceView(StrideLayout relative, long base) {
+        long min = 0;
+        long max = 0;
+        for (int i = 0; i < relative.rank(); i++) {
+            long span = (long) (relative.dim(i) - 1) * relative.stride(i);
+            if (span < 0) {
+                min += span;
+            } else {
+                max += span;
+            }
+        }
+        if (max - min >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("View spans more elements than an int value can address.");
+        }
+        Storage slice = storage.slice(base + min, (int) (max - min + 1));
+        return dm.stride(dt(), StrideLayout.of(relative.shape(), (int) -min, relative.strides()), slice);
+    }
+
     @Override
     public final List<DArray<N>> split(int axis, boolean keepdim, int... indexes) {
         List<DArray<N>> result = new ArrayList<>(indexes.length);
@@ -21,7 +21,6 @@
 
 package rapaio.darray.manager.base;
 
-import static rapaio.util.Hardware.CORES;
 import static rapaio.util.Hardware.L2_CACHE_SIZE;
 
 import java.util.ArrayList;
@@ -49,6 +48,7 @@ import rapaio.darray.Order;
 import rapaio.darray.Shape;
 import rapaio.darray.Simd;
 import rapaio.darray.Storage;
+import rapaio.darray.gemm.Gemm;
 import rapaio.darray.iterators.IndexIterator;
 import rapaio.darray.iterators.PointerIterator;
 import rapaio.darray.iterators.StrideLoopDescriptor;
@@ -163,17 +163,17 @@ public final class BaseDoubleDArrayStride extends AbstractStrideDArray<Double> {
 
     @Override
     public Double get(int... indices) {
-        return storage.getDouble(layout.pointer(indices));
+        return storage.getDouble(layout.longPointer(indices));
     }
 
     @Override
     public void set(Double value, int... indices) {
-        storage.setDouble(layout.pointer(indices), value);
+        storage.setDouble(layout.longPointer(indices), value);
     }
 
     @Override
     public void inc(Double value, int... indices) {
-        storage.incDouble(layout.pointer(indices), value);
+        storage.incDouble(layout.longPointer(indices), value);
     }
 
     @Override
@@ -889,10 +889,7 @@ public final class BaseDoubleDArrayStride extends AbstractStrideDArray<Double> {
                             shape(), other.shape()));
         }
         var result = dm.zeros(dt, Shape.of(shape().dim(0)), askOrder);
-        for (int i = 0; i < shape().dim(0); i++) {
-            result.ptrSetDouble(i, selsq(0, i).inner(other));
-        }
-        return result;
+        return Gemm.mv(this, other.cast(dt), result, dm.cpuThreads());
     }
 
     @Override
@@ -942,10 +939,7 @@ public final class BaseDoubleDArrayStride extends AbstractStrideDArray<Double> {
             );
         }
         var result = dm.zeros(dt, Shape.of(other.dim(1)), askOrder);
-        for (int i = 0; i < other.dim(1); i++) {
-            result.ptrSetDouble(i, this.inner(other.selsq(1, i)));
-        }
-        return result;
+        return Gemm.mv(other.cast(dt).t(), this, result, dm.cpuThreads());
     }
 
     @Override
@@ -996,63 +990,7 @@ public final class BaseDoubleDArrayStride extends AbstractStrideDArray<Double> {
             throw new IllegalArgumentException("Illegal askOrder value, must be Order.C or Order.F");
         }
         var ret = dm.zeros(dt, Shape.of(shape().dim(0), other.shape().dim(1)), askOrder);
-        return mmInternalParallel(other, ret);
-    }
-
-    private DArray<Double> mmInternalParallel(DArray<?> other, DArray<Double> to) {
-        int m = shape().dim(0);
-        int n = shape().dim(1);
-        int p = other.shape().dim(1);
-
-        List<DArray<Double>> rows = unbind(0, false);
-        List<DArray<Double>> cols = other.cast(dt()).unbind(1, false);
-
-        int chunk = (int) Math.floor(Math.sqrt(L2_CACHE_SIZE / 2. / CORES / dt().byteCount()));
-        chunk = chunk >= 8 ? chunk - chunk % 8 : chunk;
-
-        int vectorChunk = chunk > 64 ? chunk * 4 : chunk;
-        int innerChunk = chunk > 64 ? (int) Math.ceil(Math.sqrt(chunk / 4.)) : (int) Math.ceil(Math.sqrt(chunk));
-
-        int off = ((StrideLayout) to.layout()).offset();
-        int iStride = ((StrideLayout) to.layout()).stride(0);
-        int jStride = ((StrideLayout) to.layout()).stride(1);
-
-        CountDownLatch latch = new CountDownLatch(Math.ceilDiv(m, innerChunk) * Math.ceilDiv(p, innerChunk));
-        try (ExecutorService service = Executors.newVirtualThreadPerTaskExecutor()) {
-
-            for (int r = 0; r < m; r += innerChunk) {
-                int rs = r;
-                int re = Math.min(m, r + innerChunk);
-
-                for (int c = 0; c < p; c += innerChunk) {
-                    int cs = c;
-                    int ce = Math.min(p, c + innerChunk);
-
-                    service.submit(() -> {
-                        for (int k = 0; k < n; k += vectorChunk) {
-                            int end = Math.min(n, k + vectorChunk);
-                            for (int i = rs; i < re; i++) {
-                                var krow = (BaseDoubleDArrayStride) rows.get(i);
-                                int offset = off + i * iStride;
-                                for (int j = cs; j < ce; j++) {
-                                    to.ptrIncDouble(offset + j * jStride, (double) (krow.innerUnchecked(cols.get(j), k, end)));
-                                }
-                            }
-                        }
-                        latch.countDown();
-                    });
-                }
-            }
-
-            try {
-                latch.await();
-                service.shutdown();
-                service.shutdownNow();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        return to;
+        return Gemm.mm(this, other.cast(dt), ret, dm.cpuThreads());
     }
 
     @Override
@@ -1076,7 +1014,7 @@ public final class BaseDoubleDArrayStride extends AbstractStrideDArray<Double> {
     private DArray<Double> bmmInternal(DArray<?> other, Order askOrder) {
         DArray<Double> res = dm.zeros(dt, Shape.of(dim(0), dim(1), other.dim(2)), askOrder);
         for (int b = 0; b < dim(0); b++) {
-            ((BaseDoubleDArrayStride) selsq(0, b)).mmInternalParallel(other.selsq(0, b), res.selsq(0, b));
+            Gemm.mm(selsq(0, b), other.selsq(0, b).cast(dt), res.selsq(0, b), dm.cpuThreads());
         }
         return res;
     }
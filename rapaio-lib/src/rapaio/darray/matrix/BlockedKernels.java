@@ -0,0 +1,488 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import rapaio.darray.gemm.DoubleGemm;
+import rapaio.darray.storage.array.DoubleArrayStorage;
+
+/**
+ * Blocked dense factorization kernels over column major double arrays.
+ * <p>
+ * Matrices are stored in column major order with the leading dimension equal to the number of rows, thus columns
+ * are contiguous. Factorizations process panels of {@link #NB} columns with unblocked loops, after which the trailing
+ * matrix is updated with matrix multiplications done by {@link DoubleGemm}, which are cache blocked and distributed
+ * over multiple threads. Householder reflections of a panel are aggregated in compact WY form {@code I - V T V^T}.
+ * <p>
+ * Householder vectors follow the JAMA convention: vector {@code v} of the k-th reflection has {@code v[k] >= 1}
+ * and the reflection is {@code I - v v^T / v[k]}.
+ */
+final class BlockedKernels {
+
+    /**
+     * Number of columns in a panel.
+     */
+    static final int NB = 48;
+
+    /**
+     * Loops with fewer multiply adds than this value are computed on the calling thread.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 16;
+
+    private BlockedKernels() {
+    }
+
+    /**
+     * Computes {@code C += op(A) * op(B)} for column major operands, where op(A) has {@code m x k} elements and
+     * op(B) has {@code k x n} elements.
+     */
+    static void gemm(int m, int n, int k,
+            double[] a, int aOff, int lda, boolean ta,
+            double[] b, int bOff, int ldb, boolean tb,
+            double[] c, int cOff, int ldc, int threads) {
+        DoubleGemm.mm(m, n, k,
+                new DoubleArrayStorage(a), aOff, ta ? lda : 1, ta ? 1 : lda,
+                new DoubleArrayStorage(b), bOff, tb ? ldb : 1, tb ? 1 : ldb,
+                new DoubleArrayStorage(c), cOff, 1, ldc, threads);
+    }
+
+    private static void forEach(int from, int to, long work, int threads, IntConsumer fun) {
+        if (threads > 1 && to - from > 1 && work >= PARALLEL_THRESHOLD) {
+            IntStream.range(from, to).parallel().forEach(fun);
+        } else {
+            for (int i = from; i < to; i++) {
+                fun.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Euclidean norm of {@code len} consecutive values, scaled to avoid under and overflow.
+     */
+    static double norm2(double[] x, int off, int len) {
+        double scale = 0;
+        for (int i = off; i < off + len; i++) {
+            scale = Math.max(scale, Math.abs(x[i]));
+        }
+        if (scale == 0 || !Double.isFinite(scale)) {
+            return scale;
+        }
+        double inv = 1.0 / scale;
+        double sum = 0;
+        for (int i = off; i < off + len; i++) {
+            double v = x[i] * inv;
+            sum += v * v;
+        }
+        return scale * Math.sqrt(sum);
+    }
+
+    // QR decomposition
+
+    /**
+     * Householder QR decomposition of an {@code m x n} matrix with {@code m >= n}. On return the lower trapezoidal
+     * part contains the Householder vectors, the strict upper triangular part contains the strict upper part of R and
+     * {@code diag} contains the diagonal of R.
+     */
+    static void qr(double[] a, int m, int n, double[] diag, int threads) {
+        for (int k = 0; k < n; k += NB) {
+            int b = Math.min(NB, n - k);
+            qrPanel(a, m, k, b, diag, threads);
+            if (k + b < n) {
+                Reflectors r = reflectors(a, m, k, b, threads);
+                r.apply(a, k + (k + b) * m, m, n - k - b, true, threads);
+            }
+        }
+    }
+
+    private static void qrPanel(double[] a, int m, int k, int b, double[] diag, int threads) {
+        for (int j = k; j < k + b; j++) {
+            int cj = j * m;
+            double nrm = norm2(a, cj + j, m - j);
+            if (nrm != 0.0) {
+                if (a[cj + j] < 0) {
+                    nrm = -nrm;
+                }
+                for (int i = cj + j; i < cj + m; i++) {
+                    a[i] /= nrm;
+                }
+                a[cj + j] += 1;
+
+                // apply reflection to the remaining columns of the panel
+                int jj = j;
+                forEach(j + 1, k + b, (long) (m - j) * (k + b - j), threads, c -> {
+                    int cc = c * m;
+                    double s = 0.0;
+                    for (int i = jj; i < m; i++) {
+                        s += a[cj + i] * a[cc + i];
+                    }
+                    s = -s / a[cj + jj];
+                    for (int i = jj; i < m; i++) {
+                        a[cc + i] += s * a[cj + i];
+                    }
+                });
+            }
+            diag[j] = -nrm;
+        }
+    }
+
+    /**
+     * Computes the orthogonal factor Q with {@code m x n} elements from a QR decomposition.
+     */
+    static double[] qrQ(double[] a, int m, int n, int threads) {
+        double[] q = new double[m * n];
+        for (int j = 0; j < n; j++) {
+            q[j + j * m] = 1.0;
+        }
+        int last = ((n - 1) / NB) * NB;
+        for (int k = last; k >= 0; k -= NB) {
+            int b = Math.min(NB, n - k);
+            reflectors(a, m, k, b, threads).apply(q, k + k * m, m, n - k, false, threads);
+        }
+        return q;
+    }
+
+    /**
+     * Computes {@code Q^T B} in place, where B has {@code m} rows and {@code nrhs} columns.
+     */
+    static void qrApplyQt(double[] a, int m, int n, double[] x, int nrhs, int threads) {
+        for (int k = 0; k < n; k += NB) {
+            int b = Math.min(NB, n - k);
+            reflectors(a, m, k, b, threads).apply(x, k, m, nrhs, true, threads);
+        }
+    }
+
+    /**
+     * Builds the compact WY representation of {@code b} reflections which starts with column {@code k}.
+     */
+    private static Reflectors reflectors(double[] a, int m, int k, int b, int threads) {
+        int rows = m - k;
+        double[] v = new double[rows * b];
+        double[] tau = new double[b];
+        for (int j = 0; j < b; j++) {
+            int src = k + (k + j) * m;
+            System.arraycopy(a, src + j, v, j + j * rows, rows - j);
+            double vk = a[src + j];
+            tau[j] = vk == 0 ? 0 : 1.0 / vk;
+        }
+
+        double[] s = new double[b * b];
+        gemm(b, b, rows, v, 0, rows, true, v, 0, rows, false, s, 0, b, threads);
+
+        // forward recurrence T[0:j,j] = -tau[j] T[0:j,0:j] S[0:j,j]
+        double[] t = new double[b * b];
+        for (int j = 0; j < b; j++) {
+            t[j + j * b] = tau[j];
+            for (int i = 0; i < j; i++) {
+                double sum = 0;
+                for (int p = i; p < j; p++) {
+                    sum += t[i + p * b] * s[p + j * b];
+                }
+                t[i + j * b] = -tau[j] * sum;
+            }
+        }
+        return new Reflectors(rows, b, v, t);
+    }
+
+    /**
+     * Block of reflections {@code H = I - V T V^T}.
+     *
+     * @param rows number of rows of V
+     * @param b    number of reflections
+     * @param v    reflection vectors with zeros above diagonal, column major
+     * @param t    upper triangular factor, column major
+     */
+    private record Reflectors(int rows, int b, double[] v, double[] t) {
+
+        /**
+         * Applies {@code H} or {@code H^T} from the left to a column major matrix with {@code rows x cols} elements.
+         */
+        void apply(double[] c, int cOff, int ldc, int cols, boolean transpose, int threads) {
+            if (cols == 0) {
+                return;
+            }
+            double[] w = new double[b * cols];
+            gemm(b, cols, rows, v, 0, rows, true, c, cOff, ldc, false, w, 0, b, threads);
+            double[] tw = new double[b * cols];
+            gemm(b, cols, b, t, 0, b, transpose, w, 0, b, false, tw, 0, b, threads);
+            for (int i = 0; i < tw.length; i++) {
+                tw[i] = -tw[i];
+            }
+            gemm(rows, cols, b, v, 0, rows, false, tw, 0, b, false, c, cOff, ldc, threads);
+        }
+    }
+
+    // LU decomposition
+
+    /**
+     * LU decomposition with partial pivoting of an {@code m x n} matrix with {@code m >= n}. Panels are factorized
+     * with left looking (Crout) or right looking (Gaussian elimination) loops. Row interchanges are applied to whole
+     * rows and recorded in {@code piv}.
+     *
+     * @return sign of the row permutation
+     */
+    static int lu(double[] a, int m, int n, int[] piv, boolean crout, int threads) {
+        int sign = 1;
+        for (int k = 0; k < n; k += NB) {
+            int b = Math.min(NB, n - k);
+            sign *= luPanel(a, m, n, k, b, piv, crout, threads);
+            int n2 = n - k - b;
+            if (n2 == 0) {
+                continue;
+            }
+            // U12 = inv(L11) * A12
+            int kk = k;
+            forEach(k + b, n, (long) b * b * n2, threads, c -> solveUnitLowerColumn(a, m, kk, b, c));
+            // A22 -= L21 * U12
+            int m2 = m - k - b;
+            if (m2 > 0) {
+                double[] u = new double[b * n2];
+                for (int c = 0; c < n2; c++) {
+                    int cc = (k + b + c) * m + k;
+                    for (int i = 0; i < b; i++) {
+                        u[i + c * b] = -a[cc + i];
+                    }
+                }
+                gemm(m2, n2, b, a, k + b + k * m, m, false, u, 0, b, false, a, k + b + (k + b) * m, m, threads);
+            }
+        }
+        return sign;
+    }
+
+    /**
+     * Solves in place column {@code c} of the block row which starts at {@code k} with the unit lower triangular
+     * diagonal block of size {@code b}.
+     */
+    private static void solveUnitLowerColumn(double[] a, int m, int k, int b, int c) {
+        int cc = c * m;
+        for (int i = 0; i < b; i++) {
+            double x = a[cc + k + i];
+            int ci = (k + i) * m;
+            for (int r = i + 1; r < b; r++) {
+                a[cc + k + r] -= a[ci + k + r] * x;
+            }
+        }
+    }
+
+    private static int luPanel(double[] a, int m, int n, int k, int b, int[] piv, boolean crout, int threads) {
+        int sign = 1;
+        for (int j = k; j < k + b; j++) {
+            int cj = j * m;
+            if (crout) {
+                // apply previous transformations of the panel to column j, most of the time is spent in dot products
+                for (int i = k; i < m; i++) {
+                    int kmax = Math.min(i, j);
+                    double s = 0.0;
+                    for (int p = k; p < kmax; p++) {
+                        s += a[p * m + i] * a[cj + p];
+                    }
+                    a[cj + i] -= s;
+                }
+            }
+            int p = j;
+            for (int i = j + 1; i < m; i++) {
+                if (Math.abs(a[cj + i]) > Math.abs(a[cj + p])) {
+                    p = i;
+                }
+            }
+            if (p != j) {
+                for (int c = 0; c < n; c++) {
+                    int cc = c * m;
+                    double t = a[cc + p];
+                    a[cc + p] = a[cc + j];
+                    a[cc + j] = t;
+                }
+                int t = piv[p];
+                piv[p] = piv[j];
+                piv[j] = t;
+                sign = -sign;
+            }
+            double pivot = a[cj + j];
+            if (pivot != 0.0) {
+                for (int i = j + 1; i < m; i++) {
+                    a[cj + i] /= pivot;
+                }
+                if (!crout) {
+                    int jj = j;
+                    forEach(j + 1, k + b, (long) (m - j) * (k + b - j), threads, c -> {
+                        int cc = c * m;
+                        double x = a[cc + jj];
+                        for (int i = jj + 1; i < m; i++) {
+                            a[cc + i] -= a[cj + i] * x;
+                        }
+                    });
+                }
+            }
+        }
+        return sign;
+    }
+
+    // Cholesky decomposition
+
+    /**
+     * Cholesky decomposition of a symmetric {@code n x n} matrix. Only the lower triangular part is used and on
+     * return it contains L, while the strict upper triangular part is set to zero. If the matrix is not positive
+     * definite, a partial decomposition is computed.
+     *
+     * @return true if all pivots were positive
+     */
+    static boolean cholesky(double[] a, int n, int threads) {
+        boolean spd = true;
+        for (int k = 0; k < n; k += NB) {
+            int b = Math.min(NB, n - k);
+
+            // factorize diagonal block
+            for (int j = k; j < k + b; j++) {
+                int cj = j * n;
+                double d = a[cj + j];
+                for (int p = k; p < j; p++) {
+                    d -= a[p * n + j] * a[p * n + j];
+                }
+                if (d <= 0.0) {
+                    spd = false;
+                }
+                double ljj = Math.sqrt(Math.max(d, 0.0));
+                a[cj + j] = ljj;
+                for (int i = j + 1; i < k + b; i++) {
+                    double s = a[cj + i];
+                    for (int p = k; p < j; p++) {
+                        s -= a[p * n + i] * a[p * n + j];
+                    }
+                    a[cj + i] = s / ljj;
+                }
+            }
+
+            int n2 = n - k - b;
+            if (n2 == 0) {
+                continue;
+            }
+            // L21 = A21 * inv(L11^T), rows are independent
+            int chunk = Math.max(64, Math.ceilDiv(n2, Math.max(1, threads) * 4));
+            int chunks = Math.ceilDiv(n2, chunk);
+            int kk = k;
+            forEach(0, chunks, (long) b * b * n2, threads, ch -> {
+                int start = kk + b + ch * chunk;
+                choleskyRows(a, n, kk, b, start, Math.min(n, start + chunk));
+            });
+
+            // A22 -= L21 * L21^T, only the lower triangular part
+            double[] l = new double[n2 * b];
+            for (int p = 0; p < b; p++) {
+                int src = (k + p) * n + k + b;
+                for (int r = 0; r < n2; r++) {
+                    l[r + p * n2] = -a[src + r];
+                }
+            }
+            for (int c = 0; c < n2; c += NB) {
+                int w = Math.min(NB, n2 - c);
+                gemm(n2 - c, w, b, l, c, n2, false, a, k + b + c + k * n, n, true,
+                        a, k + b + c + (k + b + c) * n, n, threads);
+            }
+        }
+        for (int j = 1; j < n; j++) {
+            for (int i = 0; i < j; i++) {
+                a[i + j * n] = 0;
+            }
+        }
+        return spd;
+    }
+
+    /**
+     * Computes rows from {@code start} to {@code end} of the block column of L which starts at {@code k}.
+     */
+    private static void choleskyRows(double[] a, int n, int k, int b, int start, int end) {
+        for (int j = k; j < k + b; j++) {
+            int cj = j * n;
+            for (int p = k; p < j; p++) {
+                int cp = p * n;
+                double x = a[cp + j];
+                for (int r = start; r < end; r++) {
+                    a[cj + r] -= a[cp + r] * x;
+                }
+            }
+            double ljj = a[cj + j];
+            for (int r = start; r < end; r++) {
+                a[cj + r] /= ljj;
+            }
+        }
+    }
+
+    // triangular solvers
+
+    /**
+     * Solves {@code L X = B} in place, where L is lower triangular with {@code n x n} elements and B has
+     * {@code n} rows and {@code nrhs} columns with leading dimension {@code ldb}.
+     */
+    static void solveLower(double[] l, int ldl, int n, boolean unitDiagonal, double[] x, int ldb, int nrhs,
+            int threads) {
+        forEach(0, nrhs, (long) n * n * nrhs, threads, j -> {
+            int cj = j * ldb;
+            for (int k = 0; k < n; k++) {
+                int ck = k * ldl;
+                if (!unitDiagonal) {
+                    x[cj + k] /= l[ck + k];
+                }
+                double xk = x[cj + k];
+                for (int i = k + 1; i < n; i++) {
+                    x[cj + i] -= l[ck + i] * xk;
+                }
+            }
+        });
+    }
+
+    /**
+     * Solves {@code L^T X = B} in place, where L is lower triangular with {@code n x n} elements and B has
+     * {@code n} rows and {@code nrhs} columns with leading dimension {@code ldb}.
+     */
+    static void solveLowerTransposed(double[] l, int ldl, int n, double[] x, int ldb, int nrhs, int threads) {
+        forEach(0, nrhs, (long) n * n * nrhs, threads, j -> {
+            int cj = j * ldb;
+            for (int k = n - 1; k >= 0; k--) {
+                int ck = k * ldl;
+                double s = x[cj + k];
+                for (int i = k + 1; i < n; i++) {
+                    s -= l[ck + i] * x[cj + i];
+                }
+                x[cj + k] = s / l[ck + k];
+            }
+        });
+    }
+
+    /**
+     * Solves {@code U X = B} in place, where U is upper triangular with {@code n x n} elements and B has
+     * {@code n} rows and {@code nrhs} columns with leading dimension {@code ldb}. If {@code diag} is not null,
+     * it contains the diagonal of U, otherwise the diagonal is taken from U.
+     */
+    static void solveUpper(double[] u, int ldu, int n, double[] diag, double[] x, int ldb, int nrhs, int threads) {
+        forEach(0, nrhs, (long) n * n * nrhs, threads, j -> {
+            int cj = j * ldb;
+            for (int k = n - 1; k >= 0; k--) {
+                int ck = k * ldu;
+                x[cj + k] /= diag != null ? diag[k] : u[ck + k];
+                double xk = x[cj + k];
+                for (int i = 0; i < k; i++) {
+                    x[cj + i] -= u[ck + i] * xk;
+                }
+            }
+        });
+    }
+}
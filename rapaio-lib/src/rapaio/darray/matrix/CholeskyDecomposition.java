@@ -102,53 +102,39 @@ public class CholeskyDecomposition<N extends Number> implements Serializable {
      */
     protected void leftCholesky() {
         int n = ref.dim(0);
-        l = ref.dm().zeros(ref.dt(), Shape.of(n, n), Order.C);
-        spd = (ref.dim(1) == n);
-        for (int i = 0; i < n; i++) {
-            double d = 0.0;
-            for (int j = 0; j < i; j++) {
-                double s = 0.0;
-                for (int k = 0; k < j; k++) {
-                    s += l.getDouble(i, k) * l.getDouble(j, k);
-                }
-                l.setDouble((ref.getDouble(i, j) - s) / l.getDouble(j, j), i, j);
-                d += l.getDouble(i, j) * l.getDouble(i, j);
-                spd = spd && (ref.getDouble(j, i) == ref.getDouble(i, j));
-            }
-            d = ref.getDouble(i, i) - d;
-            if (d <= 0.0) {
-                spd = false;
-            }
-            l.setDouble(Math.sqrt(Math.max(d, 0.0)), i, i);
-        }
+        l = tm.stride(dt, Shape.of(n, n), Order.F, factorize());
     }
 
     /**
      * Right Triangular Cholesky Decomposition.
      * <p>
      * For a symmetric, positive definite matrix A, the Right Cholesky decomposition is an upper
-     * triangular matrix R so that A = R'*R. This constructor computes R with
-     * the Fortran inspired column oriented algorithm used in LINPACK and MATLAB.
+     * triangular matrix R so that A = R'*R. Since R = L', the column major storage of L is
+     * the row major storage of R.
      */
     protected void rightCholesky() {
         int n = ref.dim(1);
-        r = tm.zeros(dt, Shape.of(n, n));
-        spd = (ref.dim(0) == n);
-        for (int j = 0; j < n; j++) {
-            double d = 0.0;
-            for (int k = 0; k < j; k++) {
-                double s = ref.getDouble(k, j);
-                for (int i = 0; i < k; i++) {
-                    s -= r.getDouble(i, k) * r.getDouble(i, j);
+        r = tm.stride(dt, Shape.of(n, n), Order.C, factorize());
+    }
+
+    /**
+     * Computes the lower triangular factor in column major order with blocked updates and checks
+     * if the matrix is symmetric positive definite.
+     */
+    private double[] factorize() {
+        int n = ref.dim(0);
+        double[] a = ref.toDoubleArray(Order.F);
+        boolean symmetric = true;
+        for (int j = 0; j < n && symmetric; j++) {
+            for (int i = j + 1; i < n; i++) {
+                if (a[i + j * n] != a[j + i * n]) {
+                    symmetric = false;
+                    break;
                 }
-                r.setDouble(s / r.getDouble(k, k), k, j);
-                d += r.getDouble(k, j) * r.getDouble(k, j);
-                spd = spd & (ref.getDouble(k, j) == ref.getDouble(j, k));
             }
-            d = ref.getDouble(j, j) - d;
-            spd = spd & (d > 0.0);
-            r.setDouble(Math.sqrt(Math.max(d, 0.0)), j, j);
         }
+        spd = BlockedKernels.cholesky(a, n, tm.cpuThreads()) && symmetric;
+        return a;
     }
 
     /**
@@ -196,25 +182,23 @@ public class CholeskyDecomposition<N extends Number> implements Serializable {
 
     protected void backwardSubstitution(DArray<N> x, DArray<N> l) {
         // Solve L'*X = Y;
-        for (int k = ref.dim(0) - 1; k >= 0; k--) {
-            for (int j = 0; j < x.dim(1); j++) {
-                for (int i = k + 1; i < ref.dim(0); i++) {
-                    x.incDouble(-x.getDouble(i, j) * l.getDouble(i, k), k, j);
-                }
-                x.setDouble(x.getDouble(k, j) / l.getDouble(k, k), k, j);
-            }
-        }
+        substitution(x, l, false);
     }
 
     protected void forwardSubstitution(DArray<N> x, DArray<N> l) {
         // Solve L*Y = B;
-        for (int k = 0; k < ref.dim(0); k++) {
-            for (int j = 0; j < x.dim(1); j++) {
-                for (int i = 0; i < k; i++) {
-                    x.incDouble(-x.getDouble(i, j) * l.getDouble(k, i), k, j);
-                }
-                x.setDouble(x.getDouble(k, j) / l.getDouble(k, k), k, j);
-            }
+        substitution(x, l, true);
+    }
+
+    private void substitution(DArray<N> x, DArray<N> l, boolean forward) {
+        int n = ref.dim(0);
+        double[] ls = l.toDoubleArray(Order.F);
+        double[] xs = x.toDoubleArray(Order.F);
+        if (forward) {
+            BlockedKernels.solveLower(ls, n, n, false, xs, n, x.dim(1), tm.cpuThreads());
+        } else {
+            BlockedKernels.solveLowerTransposed(ls, n, n, xs, n, x.dim(1), tm.cpuThreads());
         }
+        tm.stride(dt, x.shape(), Order.F, xs).copyTo(x);
     }
 }
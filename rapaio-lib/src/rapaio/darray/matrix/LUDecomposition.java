@@ -21,15 +21,13 @@
 
 package rapaio.darray.matrix;
 
-import static java.lang.StrictMath.abs;
-import static java.lang.StrictMath.min;
-
 import java.io.Serializable;
 import java.util.Arrays;
 
 import rapaio.darray.DArray;
 import rapaio.darray.DArrayManager;
 import rapaio.darray.DType;
+import rapaio.darray.Order;
 import rapaio.darray.Shape;
 import rapaio.printer.Format;
 import rapaio.printer.Printable;
@@ -64,6 +62,8 @@ public class LUDecomposition<N extends Number> implements Serializable, Printabl
 
     // internal storage of decomposition
     private DArray<N> LU;
+    // column major storage of decomposition
+    private double[] lu;
     // pivot sign
     private int pivSign;
     // internal storage for row pivot indexes
@@ -84,107 +84,29 @@ public class LUDecomposition<N extends Number> implements Serializable, Printabl
     }
 
     /**
-     * LU Decomposition, computed by Gaussian elimination. It computes L and U
-     * with the "daxpy"-based elimination algorithm used in LINPACK and MATLAB.
-     **/
+     * LU Decomposition computed in panels of columns. Each panel is factorized with the left looking
+     * Crout algorithm, and the remaining columns are updated with blocked matrix multiplications.
+     */
     public void buildCrout() {
-
-        LU = ref.copy();
-        piv = Ints.seq(ref.dim(0));
-        pivSign = 1;
-        double[] LUcolj = new double[ref.dim(0)];
-
-        // Outer loop.
-        for (int j = 0; j < ref.dim(1); j++) {
-
-            // Make a copy of the j-th column to localize references.
-            for (int i = 0; i < ref.dim(0); i++) {
-                LUcolj[i] = LU.getDouble(i, j);
-            }
-
-            // Apply previous transformations.
-            for (int i = 0; i < ref.dim(0); i++) {
-
-                // Most of the time is spent in the following dot product.
-
-                int kmax = min(i, j);
-                double s = 0.0;
-                for (int k = 0; k < kmax; k++) {
-                    s += LU.getDouble(i, k) * LUcolj[k];
-                }
-                LUcolj[i] -= s;
-                LU.setDouble(LUcolj[i], i, j);
-            }
-
-            // Find pivot and exchange if necessary.
-
-            int p = j;
-            for (int i = j + 1; i < LU.dim(0); i++) {
-                if (abs(LUcolj[i]) > abs(LUcolj[p])) {
-                    p = i;
-                }
-            }
-            if (p != j) {
-                for (int k = 0; k < LU.dim(1); k++) {
-                    double t = LU.getDouble(p, k);
-                    LU.setDouble(LU.getDouble(j, k), p, k);
-                    LU.setDouble(t, j, k);
-                }
-                int k = piv[p];
-                piv[p] = piv[j];
-                piv[j] = k;
-                pivSign = -pivSign;
-            }
-
-            // Compute multipliers.
-            if (j < LU.dim(0) && LU.getDouble(j, j) != 0.0) {
-                for (int i = j + 1; i < LU.dim(0); i++) {
-                    LU.setDouble(LU.getDouble(i, j) / LU.getDouble(j, j), i, j);
-                }
-            }
-        }
+        build(true);
     }
 
     /**
-     * LU Decomposition, computed by Gaussian elimination. It computes L and U
-     * with the "daxpy"-based elimination algorithm used in LINPACK and MATLAB.
+     * LU Decomposition computed in panels of columns. Each panel is factorized with the "daxpy"-based
+     * elimination algorithm used in LINPACK and MATLAB, and the remaining columns are updated with
+     * blocked matrix multiplications.
      */
     public void buildGaussianElimination() {
-        // Initialize.
-        LU = ref.copy();
-        piv = Ints.seq(ref.dim(0));
-        pivSign = 1;
-        // Main loop.
-        for (int k = 0; k < ref.dim(1); k++) {
-            // Find pivot.
-            int p = k;
-            for (int i = k + 1; i < ref.dim(0); i++) {
-                if (abs(LU.getDouble(i, k)) > abs(LU.getDouble(p, k))) {
-                    p = i;
-                }
-            }
-            // Exchange if necessary.
-            if (p != k) {
-                for (int j = 0; j < ref.dim(1); j++) {
-                    double t = LU.getDouble(p, j);
-                    LU.setDouble(LU.getDouble(k, j), p, j);
-                    LU.setDouble(t, k, j);
-                }
-                int t = piv[p];
-                piv[p] = piv[k];
-                piv[k] = t;
-                pivSign = -pivSign;
-            }
-            // Compute multipliers and eliminate k-th column.
-            if (LU.getDouble(k, k) != 0.0) {
-                for (int i = k + 1; i < ref.dim(0); i++) {
-                    LU.setDouble(LU.getDouble(i, k) / LU.getDouble(k, k), i, k);
-                    for (int j = k + 1; j < ref.dim(1); j++) {
-                        LU.incDouble(-LU.getDouble(i, k) * LU.getDouble(k, j), i, j);
-                    }
-                }
-            }
-        }
+        build(false);
+    }
+
+    private void build(boolean crout) {
+        int m = ref.dim(0);
+        int n = ref.dim(1);
+        lu = ref.toDoubleArray(Order.F);
+        piv = Ints.seq(m);
+        pivSign = BlockedKernels.lu(lu, m, n, piv, crout, tm.cpuThreads());
+        LU = tm.stride(dt, Shape.of(m, n), Order.F, lu);
     }
 
     public boolean isNonSingular() {
@@ -253,31 +175,18 @@ public class LUDecomposition<N extends Number> implements Serializable, Printabl
         }
 
         // Copy right hand side with pivoting
+        int n = ref.dim(1);
         int nx = B.dim(1);
-        DArray<N> X = B.sel(0, piv).copy();
+        double[] x = B.sel(0, piv).toDoubleArray(Order.F);
+        int ldx = ref.dim(0);
 
         // Solve L*Y = B(piv,:)
-
-        for (int k = 0; k < ref.dim(1); k++) {
-            for (int i = k + 1; i < ref.dim(1); i++) {
-                for (int j = 0; j < nx; j++) {
-                    X.incDouble(-X.getDouble(k, j) * LU.getDouble(i, k), i, j);
-                }
-            }
-        }
+        BlockedKernels.solveLower(lu, ldx, n, true, x, ldx, nx, tm.cpuThreads());
 
         // Solve U*X = Y;
+        BlockedKernels.solveUpper(lu, ldx, n, null, x, ldx, nx, tm.cpuThreads());
 
-        for (int k = ref.dim(1) - 1; k >= 0; k--) {
-            for (int j = 0; j < nx; j++) {
-                X.setDouble(X.getDouble(k, j) / LU.getDouble(k, k), k, j);
-            }
-            for (int i = 0; i < k; i++) {
-                for (int j = 0; j < nx; j++) {
-                    X.incDouble(-X.getDouble(k, j) * LU.getDouble(i, k), i, j);
-                }
-            }
-        }
+        DArray<N> X = tm.stride(dt, Shape.of(ldx, nx), Order.F, x);
         return isVector ? X.squeeze(1) : X;
     }
 
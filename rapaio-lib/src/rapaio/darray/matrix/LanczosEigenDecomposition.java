@@ -0,0 +1,255 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+
+/**
+ * Top k eigen values and eigen vectors of a symmetric matrix computed with the Lanczos algorithm.
+ * <p>
+ * The Lanczos iteration builds an orthonormal basis V of a Krylov subspace together with a tridiagonal matrix
+ * {@code T = V^T A V}. The basis vectors are fully reorthogonalized, thus the decomposition is stable.
+ * The basis is enlarged until the residuals of the largest k Ritz pairs are below the tolerance, or until the
+ * basis spans the whole space, in which case the result is exact.
+ * <p>
+ * Matrix A is accessed only through matrix vector products, thus the cost is dominated by
+ * one product for each basis vector.
+ */
+public class LanczosEigenDecomposition<N extends Number> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 6112069785236190419L;
+
+    public static final double DEFAULT_TOL = 1e-10;
+
+    private final DType<N> dt;
+    private final DArrayManager tm;
+    private final int n;
+    private final double[] values;
+    private final DArray<N> vectors;
+    private int iterations;
+
+    public LanczosEigenDecomposition(DArray<N> a, int k, Random random) {
+        this(a, k, DEFAULT_TOL, random);
+    }
+
+    /**
+     * Computes the largest k eigen values and corresponding eigen vectors of a symmetric matrix.
+     *
+     * @param a      symmetric matrix
+     * @param k      number of eigen values
+     * @param tol    relative tolerance for the residuals of Ritz pairs
+     * @param random random number generator used for start vectors
+     */
+    public LanczosEigenDecomposition(DArray<N> a, int k, double tol, Random random) {
+        if (!a.isMatrix() || a.dim(0) != a.dim(1)) {
+            throw new IllegalArgumentException("Only square matrices can have eigen decomposition.");
+        }
+        if (a.dt().isInteger()) {
+            throw new IllegalArgumentException("Cannot compute decomposition for integer types (dtype: " + a.dt().id() + ")");
+        }
+        n = a.dim(0);
+        if (k < 1 || k > n) {
+            throw new IllegalArgumentException("Number of eigen values must be positive and at most " + n + ".");
+        }
+        this.dt = a.dt();
+        this.tm = a.dm();
+
+        DArray<Double> ad = a.cast(DType.DOUBLE);
+        int threads = tm.cpuThreads();
+
+        int capacity = Math.min(n, Math.max(2 * k + 1, k + 20));
+        double[] basis = new double[n * capacity];
+        double[] alpha = new double[capacity];
+        double[] beta = new double[capacity];
+        double[] h = new double[capacity];
+
+        double[] w = randomUnit(random);
+        int check = Math.min(n, Math.max(2 * k + 1, k + 20));
+        double[][] ritz = null;
+        int j = 0;
+        while (true) {
+            // append w as next basis vector and compute the next direction
+            if (j == capacity) {
+                capacity = Math.min(n, 2 * capacity);
+                basis = Arrays.copyOf(basis, n * capacity);
+                alpha = Arrays.copyOf(alpha, capacity);
+                beta = Arrays.copyOf(beta, capacity);
+                h = Arrays.copyOf(h, capacity);
+            }
+            System.arraycopy(w, 0, basis, j * n, n);
+            double[] z = ad.mv(tm.stride(DType.DOUBLE, Shape.of(n), Order.C, w)).toDoubleArray();
+            iterations++;
+
+            // full reorthogonalization, applied twice for stability
+            for (int pass = 0; pass < 2; pass++) {
+                Arrays.fill(h, 0, j + 1, 0.0);
+                BlockedKernels.gemm(j + 1, 1, n, basis, 0, n, true, z, 0, n, false, h, 0, j + 1, threads);
+                if (pass == 0) {
+                    alpha[j] = h[j];
+                } else {
+                    alpha[j] += h[j];
+                }
+                for (int i = 0; i <= j; i++) {
+                    h[i] = -h[i];
+                }
+                BlockedKernels.gemm(n, 1, j + 1, basis, 0, n, false, h, 0, j + 1, false, z, 0, n, threads);
+            }
+            double norm = BlockedKernels.norm2(z, 0, n);
+            j++;
+
+            boolean full = j == n;
+            if (full || j >= check) {
+                ritz = ritzPairs(alpha, beta, j);
+                if (full || converged(ritz, norm, k, tol)) {
+                    break;
+                }
+                check = Math.min(n, 2 * check);
+            }
+
+            if (norm <= tol * Math.max(1.0, Math.abs(alpha[j - 1]))) {
+                // invariant subspace found, continue with a new random direction orthogonal to the basis
+                beta[j - 1] = 0;
+                w = randomUnit(random);
+                for (int pass = 0; pass < 2; pass++) {
+                    Arrays.fill(h, 0, j, 0.0);
+                    BlockedKernels.gemm(j, 1, n, basis, 0, n, true, w, 0, n, false, h, 0, j, threads);
+                    for (int i = 0; i < j; i++) {
+                        h[i] = -h[i];
+                    }
+                    BlockedKernels.gemm(n, 1, j, basis, 0, n, false, h, 0, j, false, w, 0, n, threads);
+                }
+                double wn = BlockedKernels.norm2(w, 0, n);
+                for (int i = 0; i < n; i++) {
+                    w[i] /= wn;
+                }
+            } else {
+                beta[j - 1] = norm;
+                for (int i = 0; i < n; i++) {
+                    z[i] /= norm;
+                }
+                w = z;
+            }
+        }
+
+        // ritz vectors of the largest k ritz values
+        int m = ritz[0].length;
+        values = new double[k];
+        double[] y = new double[m * k];
+        for (int c = 0; c < k; c++) {
+            values[c] = ritz[0][c];
+            System.arraycopy(ritz[1 + c], 0, y, c * m, m);
+        }
+        double[] vs = new double[n * k];
+        BlockedKernels.gemm(n, k, m, basis, 0, n, false, y, 0, m, false, vs, 0, n, threads);
+        vectors = tm.stride(dt, Shape.of(n, k), Order.F, vs);
+    }
+
+    private double[] randomUnit(Random random) {
+        double[] w = new double[n];
+        for (int i = 0; i < n; i++) {
+            w[i] = random.nextGaussian();
+        }
+        double norm = BlockedKernels.norm2(w, 0, n);
+        for (int i = 0; i < n; i++) {
+            w[i] /= norm;
+        }
+        return w;
+    }
+
+    /**
+     * Computes eigen values and eigen vectors of the tridiagonal matrix with {@code m x m} elements. First row of the
+     * result contains eigen values in descending order, the following rows contain the corresponding eigen vectors.
+     */
+    private static double[][] ritzPairs(double[] alpha, double[] beta, int m) {
+        double[] t = new double[m * m];
+        for (int i = 0; i < m; i++) {
+            t[i * m + i] = alpha[i];
+            if (i + 1 < m) {
+                t[i * m + i + 1] = beta[i];
+                t[(i + 1) * m + i] = beta[i];
+            }
+        }
+        EigenDecomposition<Double> evd = DArrayManager.base().stride(DType.DOUBLE, Shape.of(m, m), Order.C, t).eig();
+        DArray<Double> real = evd.real();
+        DArray<Double> vectors = evd.v();
+        Integer[] order = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(real.getDouble(i2), real.getDouble(i1)));
+        double[][] result = new double[m + 1][];
+        result[0] = new double[m];
+        for (int c = 0; c < m; c++) {
+            result[0][c] = real.getDouble(order[c]);
+            result[1 + c] = new double[m];
+            for (int r = 0; r < m; r++) {
+                result[1 + c][r] = vectors.getDouble(r, order[c]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Residual of a Ritz pair is the norm of the next direction multiplied with the last component of the
+     * eigen vector of the tridiagonal matrix.
+     */
+    private static boolean converged(double[][] ritz, double norm, int k, double tol) {
+        int m = ritz[0].length;
+        double scale = Math.max(Math.abs(ritz[0][0]), Double.MIN_NORMAL);
+        for (int c = 0; c < k; c++) {
+            if (Math.abs(norm * ritz[1 + c][m - 1]) > tol * scale) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of matrix vector products
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the largest k eigen values in descending order
+     */
+    public DArray<N> real() {
+        return tm.stride(dt, Shape.of(values.length), Order.C, values);
+    }
+
+    /**
+     * @return eigen vectors as columns of a matrix with {@code n x k} elements
+     */
+    public DArray<N> v() {
+        return vectors;
+    }
+}
@@ -27,8 +27,18 @@ import java.io.Serializable;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrayManager;
 import rapaio.darray.DType;
+import rapaio.darray.Order;
 import rapaio.darray.Shape;
 
+/**
+ * QR Decomposition computed with Householder reflections.
+ * <p>
+ * For an m-by-n matrix A with m >= n, the QR decomposition is an m-by-n orthogonal matrix Q and an n-by-n
+ * upper triangular matrix R so that A = Q*R.
+ * <p>
+ * The decomposition is computed in panels of columns over a column major copy of the matrix. Reflections of
+ * a panel are aggregated and applied to the remaining columns with blocked multithreaded matrix multiplications.
+ */
 public class QRDecomposition<N extends Number> implements Serializable {
 
     @Serial
@@ -41,47 +51,23 @@ public class QRDecomposition<N extends Number> implements Serializable {
     protected final DType<N> dt;
     protected final DArrayManager tm;
 
+    // column major decomposition and diagonal of R
+    private final double[] qr;
+    private final double[] rdiag;
+
     public QRDecomposition(DArray<N> ref) {
-        // Initialize.
         this.ref = ref;
         this.dt = ref.dt();
         this.tm = ref.dm();
 
-        QR = ref.copy();
-        diag = tm.zeros(dt, Shape.of(QR.dim(1)));
-
-        // Main loop.
-        for (int k = 0; k < QR.dim(1); k++) {
-            // Compute 2-norm of k-th column without under/overflow.
-            double nrm = 0;
-            for (int i = k; i < QR.dim(0); i++) {
-                nrm = StrictMath.hypot(nrm, QR.getDouble(i, k));
-            }
+        int m = ref.dim(0);
+        int n = ref.dim(1);
+        qr = ref.toDoubleArray(Order.F);
+        rdiag = new double[n];
+        BlockedKernels.qr(qr, m, n, rdiag, tm.cpuThreads());
 
-            if (nrm != 0.0) {
-                // Form k-th Householder var.
-                if (QR.getDouble(k, k) < 0) {
-                    nrm = -nrm;
-                }
-                for (int i = k; i < QR.dim(0); i++) {
-                    QR.setDouble(QR.getDouble(i, k) / nrm, i, k);
-                }
-                QR.setDouble(QR.getDouble(k, k) + 1, k, k);
-
-                // Apply transformation to remaining columns.
-                for (int j = k + 1; j < QR.dim(1); j++) {
-                    double s = 0.0;
-                    for (int i = k; i < QR.dim(0); i++) {
-                        s += QR.getDouble(i, k) * QR.getDouble(i, j);
-                    }
-                    s = -s / QR.getDouble(k, k);
-                    for (int i = k; i < QR.dim(0); i++) {
-                        QR.incDouble(s * QR.getDouble(i, k), i, j);
-                    }
-                }
-            }
-            diag.setDouble(diag.getDouble(k) - nrm, k);
-        }
+        QR = tm.stride(dt, Shape.of(m, n), Order.F, qr);
+        diag = tm.stride(dt, Shape.of(n), Order.F, rdiag);
     }
 
     /**
@@ -145,26 +131,8 @@ public class QRDecomposition<N extends Number> implements Serializable {
      */
 
     public DArray<N> q() {
-        var q = tm.zeros(dt, Shape.of(QR.dim(0), QR.dim(1)));
-        for (int k = QR.dim(1) - 1; k >= 0; k--) {
-            for (int i = 0; i < QR.dim(0); i++) {
-                q.setDouble(0.0, i, k);
-            }
-            q.setDouble(1.0, k, k);
-            for (int j = k; j < QR.dim(1); j++) {
-                if (QR.getDouble(k, k) != 0) {
-                    double s = 0.0;
-                    for (int i = k; i < QR.dim(0); i++) {
-                        s += QR.getDouble(i, k) * q.getDouble(i, j);
-                    }
-                    s = -s / QR.getDouble(k, k);
-                    for (int i = k; i < QR.dim(0); i++) {
-                        q.incDouble(s * QR.getDouble(i, k), i, j);
-                    }
-                }
-            }
-        }
-        return q;
+        return tm.stride(dt, Shape.of(QR.dim(0), QR.dim(1)), Order.F,
+                BlockedKernels.qrQ(qr, QR.dim(0), QR.dim(1), tm.cpuThreads()));
     }
 
     /**
@@ -189,36 +157,23 @@ public class QRDecomposition<N extends Number> implements Serializable {
             throw new RuntimeException("Matrix is rank deficient.");
         }
 
-        // Copy right hand side
-        DArray<N> X = B.copy();
+        int m = QR.dim(0);
+        int n = QR.dim(1);
+        int nrhs = B.dim(1);
 
         // Compute Y = transpose(Q)*B
-        for (int k = 0; k < QR.dim(1); k++) {
-            for (int j = 0; j < B.dim(1); j++) {
-                double s = 0.0;
-                for (int i = k; i < QR.dim(0); i++) {
-                    s += QR.getDouble(i, k) * X.getDouble(i, j);
-                }
-                s = -s / QR.getDouble(k, k);
-                for (int i = k; i < QR.dim(0); i++) {
-                    X.incDouble(s * QR.getDouble(i, k), i, j);
-                }
-            }
-        }
+        double[] x = B.toDoubleArray(Order.F);
+        BlockedKernels.qrApplyQt(qr, m, n, x, nrhs, tm.cpuThreads());
 
-        // Solve R*X = Y;
-        for (int k = QR.dim(1) - 1; k >= 0; k--) {
-            for (int j = 0; j < B.dim(1); j++) {
-                X.setDouble(X.getDouble(k, j) / diag.getDouble(k), k, j);
-            }
-            for (int i = 0; i < k; i++) {
-                for (int j = 0; j < B.dim(1); j++) {
-                    X.incDouble(-X.getDouble(k, j) * QR.getDouble(i, k), i, j);
-                }
-            }
+        // Solve R*X = Y
+        BlockedKernels.solveUpper(qr, m, n, rdiag, x, m, nrhs, tm.cpuThreads());
+
+        double[] sol = new double[n * nrhs];
+        for (int j = 0; j < nrhs; j++) {
+            System.arraycopy(x, j * m, sol, j * n, n);
         }
-        var sol = X.narrow(0, true, 0, QR.dim(1)).narrow(1, true, 0, B.dim(1)).copy();
-        return isVector ? sol.squeeze(1) : sol;
+        var X = tm.stride(dt, Shape.of(n, nrhs), Order.F, sol);
+        return isVector ? X.squeeze(1) : X;
     }
 
     public DArray<N> inv() {
@@ -0,0 +1,145 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Random;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+
+/**
+ * Truncated Singular Value Decomposition computed with a randomized range finder.
+ * <p>
+ * The algorithm follows Halko, Martinsson and Tropp, "Finding structure with randomness". An orthonormal basis Q for
+ * the range of A is found by multiplying A with a gaussian matrix of {@code k + oversampling} columns, followed by
+ * a few power iterations which improve the basis when singular values decay slowly. The small matrix
+ * {@code B = Q^T A} is then decomposed with a dense SVD and its factors are mapped back.
+ * <p>
+ * The cost is dominated by {@code 2 (powerIterations + 1)} products of A with thin matrices, which is much cheaper than
+ * a full decomposition when only the top singular triplets are needed.
+ */
+public class RandomizedSVDecomposition<N extends Number> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2441624017384710312L;
+
+    public static final int DEFAULT_OVERSAMPLING = 10;
+    public static final int DEFAULT_POWER_ITERATIONS = 2;
+
+    private final DType<N> dt;
+    private final DArrayManager tm;
+    private final DArray<N> u;
+    private final DArray<N> s;
+    private final DArray<N> v;
+
+    /**
+     * Computes the truncated decomposition with default oversampling and power iterations.
+     *
+     * @param a      matrix to decompose
+     * @param k      number of singular triplets
+     * @param random random number generator used for the gaussian test matrix
+     */
+    public RandomizedSVDecomposition(DArray<N> a, int k, Random random) {
+        this(a, k, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, random);
+    }
+
+    /**
+     * Computes the truncated decomposition.
+     *
+     * @param a               matrix to decompose
+     * @param k               number of singular triplets
+     * @param oversampling    number of additional random directions used to capture the range of A
+     * @param powerIterations number of power iterations
+     * @param random          random number generator used for the gaussian test matrix
+     */
+    public RandomizedSVDecomposition(DArray<N> a, int k, int oversampling, int powerIterations, Random random) {
+        if (!a.isMatrix()) {
+            throw new IllegalArgumentException("Only matrices can have singular value decomposition.");
+        }
+        if (a.dt().isInteger()) {
+            throw new IllegalArgumentException("Cannot compute decomposition for integer types (dtype: " + a.dt().id() + ")");
+        }
+        int m = a.dim(0);
+        int n = a.dim(1);
+        if (k < 1 || k > Math.min(m, n)) {
+            throw new IllegalArgumentException("Number of singular values must be positive and at most " + Math.min(m, n) + ".");
+        }
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException("Oversampling and power iterations cannot be negative.");
+        }
+        this.dt = a.dt();
+        this.tm = a.dm();
+
+        int l = Math.min(k + oversampling, Math.min(m, n));
+        DArray<N> q = orthonormal(a.mm(tm.random(dt, Shape.of(n, l), random)));
+        for (int i = 0; i < powerIterations; i++) {
+            DArray<N> z = orthonormal(a.t().mm(q));
+            q = orthonormal(a.mm(z));
+        }
+
+        // B^T = A^T Q has n >= l rows, thus the dense decomposition can be applied on it
+        // B^T = Ub S Vb^T, then A ~ Q B = (Q Vb) S Ub^T
+        SVDecomposition<N> svd = a.t().mm(q).svd();
+        u = q.mm(svd.v().narrow(1, true, 0, k));
+        s = svd.singularValues().narrow(0, true, 0, k).copy();
+        v = svd.u().narrow(1, true, 0, k).copy();
+    }
+
+    private DArray<N> orthonormal(DArray<N> y) {
+        return y.qr().q();
+    }
+
+    /**
+     * @return left singular vectors as columns of a matrix with {@code m x k} elements
+     */
+    public DArray<N> u() {
+        return u;
+    }
+
+    /**
+     * @return right singular vectors as columns of a matrix with {@code n x k} elements
+     */
+    public DArray<N> v() {
+        return v;
+    }
+
+    /**
+     * @return the top k singular values in descending order
+     */
+    public DArray<N> singularValues() {
+        return s;
+    }
+
+    /**
+     * @return diagonal matrix of singular values
+     */
+    public DArray<N> s() {
+        DArray<N> diagonal = tm.zeros(dt, Shape.of(s.dim(0), s.dim(0)));
+        for (int i = 0; i < s.dim(0); i++) {
+            diagonal.setDouble(s.getDouble(i), i, i);
+        }
+        return diagonal;
+    }
+}
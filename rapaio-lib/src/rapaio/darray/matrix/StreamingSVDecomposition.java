@@ -0,0 +1,151 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+
+/**
+ * Truncated Singular Value Decomposition of a tall matrix which is available as a sequence of row chunks.
+ * <p>
+ * The matrix A is never materialized. Each pass over the chunks accumulates the sketch
+ * {@code W = A^T A Q = sum(X^T (X Q))} over the chunks X, which requires memory only for a chunk and for
+ * matrices with {@code n x (k + oversampling)} elements. A randomized subspace iteration is performed on {@code A^T A}
+ * and the final basis is used for a Rayleigh-Ritz projection, from which the right singular vectors and the
+ * singular values are obtained. Left singular vectors are not computed, since they have as many rows as A.
+ * <p>
+ * The chunks are traversed {@code powerIterations + 2} times, thus the iterable must produce the same chunks each time
+ * it is traversed. This allows chunks to be loaded lazily from an external storage.
+ */
+public class StreamingSVDecomposition implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3164790725563140744L;
+
+    private final int cols;
+    private int rows;
+    private final DArray<Double> s;
+    private final DArray<Double> v;
+
+    public StreamingSVDecomposition(Iterable<DArray<Double>> chunks, int cols, int k, Random random) {
+        this(chunks, cols, k, RandomizedSVDecomposition.DEFAULT_OVERSAMPLING, RandomizedSVDecomposition.DEFAULT_POWER_ITERATIONS,
+                random);
+    }
+
+    /**
+     * Computes the truncated decomposition.
+     *
+     * @param chunks          row chunks of the matrix, each chunk is a matrix with {@code cols} columns
+     * @param cols            number of columns of the matrix
+     * @param k               number of singular values
+     * @param oversampling    number of additional random directions
+     * @param powerIterations number of power iterations
+     * @param random          random number generator used for the gaussian test matrix
+     */
+    public StreamingSVDecomposition(Iterable<DArray<Double>> chunks, int cols, int k, int oversampling, int powerIterations,
+            Random random) {
+        if (k < 1 || k > cols) {
+            throw new IllegalArgumentException("Number of singular values must be positive and at most " + cols + ".");
+        }
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException("Oversampling and power iterations cannot be negative.");
+        }
+        this.cols = cols;
+        DArrayManager dm = DArrayManager.base();
+
+        int l = Math.min(k + oversampling, cols);
+        DArray<Double> w = pass(chunks, dm.random(DType.DOUBLE, Shape.of(cols, l), random));
+        for (int i = 0; i < powerIterations; i++) {
+            w = pass(chunks, w.qr().q());
+        }
+        DArray<Double> q = w.qr().q();
+        w = pass(chunks, q);
+
+        // Rayleigh-Ritz projection B = Q^T A^T A Q, made exactly symmetric
+        DArray<Double> b = q.t().mm(w);
+        b = b.add(b.t()).mul_(0.5);
+        EigenDecomposition<Double> evd = b.eig();
+        DArray<Double> values = evd.real();
+        Integer[] order = new Integer[l];
+        for (int i = 0; i < l; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(values.getDouble(i2), values.getDouble(i1)));
+        int[] top = new int[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = order[i];
+        }
+
+        s = dm.zeros(DType.DOUBLE, Shape.of(k));
+        for (int i = 0; i < k; i++) {
+            s.setDouble(Math.sqrt(Math.max(0, values.getDouble(top[i]))), i);
+        }
+        v = q.mm(evd.v().sel(1, top).copy());
+    }
+
+    /**
+     * Computes {@code A^T A Q} with one traversal of the chunks.
+     */
+    private DArray<Double> pass(Iterable<DArray<Double>> chunks, DArray<Double> q) {
+        DArray<Double> w = DArrayManager.base().zeros(DType.DOUBLE, Shape.of(cols, q.dim(1)));
+        int count = 0;
+        for (DArray<Double> x : chunks) {
+            if (x.dim(1) != cols) {
+                throw new IllegalArgumentException("Chunk has " + x.dim(1) + " columns, expected " + cols + ".");
+            }
+            w.add_(x.t().mm(x.mm(q)));
+            count += x.dim(0);
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Cannot decompose a matrix without rows.");
+        }
+        rows = count;
+        return w;
+    }
+
+    /**
+     * @return number of rows of the decomposed matrix
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return the top k singular values in descending order
+     */
+    public DArray<Double> singularValues() {
+        return s;
+    }
+
+    /**
+     * @return right singular vectors as columns of a matrix with {@code cols x k} elements
+     */
+    public DArray<Double> v() {
+        return v;
+    }
+}
@@ -58,8 +58,11 @@
 /// This is an abstraction over the real data buffers which allows implementations of different data storages like Java arrays,
 /// memory segments on heap or off heap or any other type of storage.
 ///
-/// There are present only two implementations. The base implementation uses natural language arrays for dense data.
-/// The second available implementation abstracts storage for data frames and data variables. This implementation was built in order
+/// There are present three implementations. The base implementation uses natural language arrays for dense data.
+/// The segment implementation ([SegmentStorageManager][rapaio.darray.storage.segment.SegmentStorageManager]) allocates
+/// data in memory segments, off-heap or mapped from files, which are not scanned by the garbage collector.
+/// A storage manager is passed to an array manager with `DArrayManager.base(cpuThreads, StorageManager.segment())`.
+/// The third available implementation abstracts storage for data frames and data variables. This implementation was built in order
 /// to allow using data manipulation operations implemented for arrays directly over data frames and variables, avoiding code
 /// duplication and API. For example a `VarDouble` has a method called `narray()` which creates a `NArray<Double>` over the same data
 /// as the variable and in-place operations will operate directly on the data stored in the `VarDouble` variable.
@@ -0,0 +1,161 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.sparse;
+
+import java.util.Arrays;
+
+/**
+ * Sparse matrix in coordinate format, used to build compressed sparse matrices. Values are appended as
+ * {@code (row, col, value)} triplets in any order. Values added more than once for the same cell are summed
+ * when the matrix is compressed.
+ */
+public final class CooMatrix {
+
+    public static CooMatrix empty(int rows, int cols) {
+        return new CooMatrix(rows, cols, 16);
+    }
+
+    public static CooMatrix empty(int rows, int cols, int capacity) {
+        return new CooMatrix(rows, cols, capacity);
+    }
+
+    private final int rows;
+    private final int cols;
+    private int[] rowIdx;
+    private int[] colIdx;
+    private double[] values;
+    private int size;
+
+    private CooMatrix(int rows, int cols, int capacity) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Sparse matrix dimensions must be non negative.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowIdx = new int[Math.max(1, capacity)];
+        this.colIdx = new int[Math.max(1, capacity)];
+        this.values = new double[Math.max(1, capacity)];
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return number of added triplets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a value to a cell.
+     *
+     * @param row   row index
+     * @param col   column index
+     * @param value value to add
+     * @return self instance
+     */
+    public CooMatrix add(int row, int col, double value) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Cell (" + row + "," + col + ") is outside matrix of shape (" + rows + "," + cols + ").");
+        }
+        if (size == values.length) {
+            int capacity = values.length + (values.length >> 1) + 1;
+            rowIdx = Arrays.copyOf(rowIdx, capacity);
+            colIdx = Arrays.copyOf(colIdx, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        rowIdx[size] = row;
+        colIdx[size] = col;
+        values[size] = value;
+        size++;
+        return this;
+    }
+
+    public SparseMatrix toCsr() {
+        Compressed c = compress(rowIdx, rows, colIdx, cols);
+        return SparseMatrix.csr(rows, cols, c.ptr, c.idx, c.values);
+    }
+
+    public SparseMatrix toCsc() {
+        Compressed c = compress(colIdx, cols, rowIdx, rows);
+        return SparseMatrix.csc(rows, cols, c.ptr, c.idx, c.values);
+    }
+
+    private record Compressed(int[] ptr, int[] idx, double[] values) {
+    }
+
+    /**
+     * Sorts triplets by major and minor indexes with two stable counting sorts and sums duplicates.
+     */
+    private Compressed compress(int[] major, int majorLen, int[] minor, int minorLen) {
+        int[] byMinor = countingSort(minor, minorLen, null);
+        int[] order = countingSort(major, majorLen, byMinor);
+
+        int[] ptr = new int[majorLen + 1];
+        int[] idx = new int[size];
+        double[] vals = new double[size];
+        int len = 0;
+        int last = -1;
+        for (int i = 0; i < size; i++) {
+            int p = order[i];
+            int m = major[p];
+            if (last >= 0 && major[last] == m && minor[last] == minor[p]) {
+                vals[len - 1] += values[p];
+                continue;
+            }
+            idx[len] = minor[p];
+            vals[len] = values[p];
+            ptr[m + 1]++;
+            len++;
+            last = p;
+        }
+        for (int i = 0; i < majorLen; i++) {
+            ptr[i + 1] += ptr[i];
+        }
+        return new Compressed(ptr, Arrays.copyOf(idx, len), Arrays.copyOf(vals, len));
+    }
+
+    /**
+     * Stable counting sort of triplet positions by keys. If order is not null, positions are taken in that order.
+     */
+    private int[] countingSort(int[] keys, int len, int[] order) {
+        int[] start = new int[len + 1];
+        for (int i = 0; i < size; i++) {
+            start[keys[i] + 1]++;
+        }
+        for (int i = 0; i < len; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            int p = order == null ? i : order[i];
+            sorted[start[keys[p]]++] = p;
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.sparse;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+
+/**
+ * Sparse matrix of double values in compressed row (CSR) or compressed column (CSC) format.
+ * <p>
+ * In CSR format, the non-zero values of row {@code r} are stored at positions {@code ptr[r]} to {@code ptr[r+1]-1},
+ * and {@code idx} holds their column indexes in increasing order. CSC format is the same with the roles of rows and
+ * columns swapped. Memory and the cost of products are proportional to the number of stored values, not with
+ * the number of cells.
+ * <p>
+ * The sparse matrix is immutable. Products with dense arrays return dense arrays, vectors have the default order
+ * and matrices have row major order. Transposition reinterprets the same arrays in the other format, thus it does
+ * not copy data. Sparse matrices can be built from coordinates with {@link CooMatrix}.
+ */
+public final class SparseMatrix implements Serializable {
+
+    public enum Format {
+        CSR,
+        CSC
+    }
+
+    /**
+     * Row loops with fewer stored values than this value are computed on the calling thread.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 16;
+
+    /**
+     * Builds a sparse matrix in CSR format from compressed arrays. Arrays are not copied.
+     *
+     * @param rows   number of rows
+     * @param cols   number of columns
+     * @param ptr    row pointers, of length {@code rows + 1}
+     * @param idx    column index of each stored value, increasing for each row
+     * @param values stored values
+     * @return new sparse matrix
+     */
+    public static SparseMatrix csr(int rows, int cols, int[] ptr, int[] idx, double[] values) {
+        return new SparseMatrix(Format.CSR, rows, cols, ptr, idx, values);
+    }
+
+    /**
+     * Builds a sparse matrix in CSC format from compressed arrays. Arrays are not copied.
+     *
+     * @param rows   number of rows
+     * @param cols   number of columns
+     * @param ptr    column pointers, of length {@code cols + 1}
+     * @param idx    row index of each stored value, increasing for each column
+     * @param values stored values
+     * @return new sparse matrix
+     */
+    public static SparseMatrix csc(int rows, int cols, int[] ptr, int[] idx, double[] values) {
+        return new SparseMatrix(Format.CSC, rows, cols, ptr, idx, values);
+    }
+
+    /**
+     * Builds a sparse matrix from the non-zero values of a dense matrix.
+     *
+     * @param m      dense matrix
+     * @param format sparse format
+     * @return new sparse matrix
+     */
+    public static SparseMatrix from(DArray<?> m, Format format) {
+        if (!m.isMatrix()) {
+            throw new IllegalArgumentException("Available only for matrices.");
+        }
+        CooMatrix coo = CooMatrix.empty(m.dim(0), m.dim(1));
+        for (int i = 0; i < m.dim(0); i++) {
+            for (int j = 0; j < m.dim(1); j++) {
+                double value = m.getDouble(i, j);
+                if (value != 0) {
+                    coo.add(i, j, value);
+                }
+            }
+        }
+        return format == Format.CSR ? coo.toCsr() : coo.toCsc();
+    }
+
+    /**
+     * Builds a sparse matrix in CSR format from the non-zero values of the variables of a frame. Variables are read
+     * one at a time, thus no dense matrix is built. Missing values are stored as {@code NaN}.
+     *
+     * @param df frame with numeric variables
+     * @return new sparse matrix with a row for each frame row and a column for each variable
+     */
+    public static SparseMatrix from(Frame df) {
+        CooMatrix coo = CooMatrix.empty(df.rowCount(), df.varCount());
+        for (int j = 0; j < df.varCount(); j++) {
+            Var var = df.rvar(j);
+            for (int i = 0; i < df.rowCount(); i++) {
+                double value = var.getDouble(i);
+                if (value != 0) {
+                    coo.add(i, j, value);
+                }
+            }
+        }
+        return coo.toCsr();
+    }
+
+    @Serial
+    private static final long serialVersionUID = 2817372601581035385L;
+
+    private final Format format;
+    private final int rows;
+    private final int cols;
+    private final int[] ptr;
+    private final int[] idx;
+    private final double[] values;
+
+    private SparseMatrix(Format format, int rows, int cols, int[] ptr, int[] idx, double[] values) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Sparse matrix dimensions must be non negative.");
+        }
+        int major = format == Format.CSR ? rows : cols;
+        if (ptr.length != major + 1 || ptr[0] != 0 || ptr[major] > idx.length || idx.length != values.length) {
+            throw new IllegalArgumentException("Compressed arrays are not consistent with sparse matrix dimensions.");
+        }
+        this.format = format;
+        this.rows = rows;
+        this.cols = cols;
+        this.ptr = ptr;
+        this.idx = idx;
+        this.values = values;
+    }
+
+    public Format format() {
+        return format;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public Shape shape() {
+        return Shape.of(rows, cols);
+    }
+
+    /**
+     * @return number of stored values
+     */
+    public int nnz() {
+        return ptr[ptr.length - 1];
+    }
+
+    /**
+     * @return pointers to the first stored value of each row for CSR, or of each column for CSC
+     */
+    public int[] ptr() {
+        return ptr;
+    }
+
+    /**
+     * @return column indexes for CSR, or row indexes for CSC, of stored values
+     */
+    public int[] idx() {
+        return idx;
+    }
+
+    /**
+     * @return stored values
+     */
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * Returns the value from the given cell, with a binary search over the stored values of the row or column.
+     */
+    public double get(int row, int col) {
+        int major = format == Format.CSR ? row : col;
+        int minor = format == Format.CSR ? col : row;
+        int pos = Arrays.binarySearch(idx, ptr[major], ptr[major + 1], minor);
+        return pos >= 0 ? values[pos] : 0;
+    }
+
+    /**
+     * Transposed matrix, which uses the same arrays in the other format.
+     */
+    public SparseMatrix t() {
+        return new SparseMatrix(format == Format.CSR ? Format.CSC : Format.CSR, cols, rows, ptr, idx, values);
+    }
+
+    /**
+     * Returns the same matrix in CSR format, it is the same instance if the format is already CSR.
+     */
+    public SparseMatrix toCsr() {
+        return format == Format.CSR ? this : t().transposeCopy();
+    }
+
+    /**
+     * Returns the same matrix in CSC format, it is the same instance if the format is already CSC.
+     */
+    public SparseMatrix toCsc() {
+        return format == Format.CSC ? this : t().transposeCopy();
+    }
+
+    /**
+     * Builds a matrix in the same format with the transposed content, by a counting sort over minor indexes.
+     */
+    private SparseMatrix transposeCopy() {
+        int major = format == Format.CSR ? rows : cols;
+        int minor = format == Format.CSR ? cols : rows;
+        int nnz = nnz();
+        int[] tptr = new int[minor + 1];
+        for (int p = 0; p < nnz; p++) {
+            tptr[idx[p] + 1]++;
+        }
+        for (int i = 0; i < minor; i++) {
+            tptr[i + 1] += tptr[i];
+        }
+        int[] next = Arrays.copyOf(tptr, minor);
+        int[] tidx = new int[nnz];
+        double[] tvalues = new double[nnz];
+        for (int i = 0; i < major; i++) {
+            for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                int pos = next[idx[p]]++;
+                tidx[pos] = i;
+                tvalues[pos] = values[p];
+            }
+        }
+        return new SparseMatrix(format, cols, rows, tptr, tidx, tvalues);
+    }
+
+    /**
+     * Builds a new matrix in CSR format with a first column filled with the given value, followed by the columns
+     * of this matrix. This is used to add an intercept term to a sparse design matrix.
+     *
+     * @param value value of the cells from the first column
+     * @return new sparse matrix with one more column
+     */
+    public SparseMatrix prependColumn(double value) {
+        SparseMatrix csr = toCsr();
+        int[] sptr = new int[rows + 1];
+        int[] sidx = new int[csr.nnz() + rows];
+        double[] svalues = new double[csr.nnz() + rows];
+        for (int r = 0; r < rows; r++) {
+            int pos = csr.ptr[r] + r;
+            sptr[r] = pos;
+            sidx[pos] = 0;
+            svalues[pos] = value;
+            for (int p = csr.ptr[r]; p < csr.ptr[r + 1]; p++) {
+                sidx[++pos] = csr.idx[p] + 1;
+                svalues[pos] = csr.values[p];
+            }
+        }
+        sptr[rows] = sidx.length;
+        return new SparseMatrix(Format.CSR, rows, cols + 1, sptr, sidx, svalues);
+    }
+
+    /**
+     * Selects the given rows, in the given order, into a new matrix in CSR format.
+     */
+    public SparseMatrix rows(int... selection) {
+        SparseMatrix csr = toCsr();
+        int[] sptr = new int[selection.length + 1];
+        for (int i = 0; i < selection.length; i++) {
+            int r = selection[i];
+            sptr[i + 1] = sptr[i] + csr.ptr[r + 1] - csr.ptr[r];
+        }
+        int[] sidx = new int[sptr[selection.length]];
+        double[] svalues = new double[sptr[selection.length]];
+        for (int i = 0; i < selection.length; i++) {
+            int r = selection[i];
+            System.arraycopy(csr.idx, csr.ptr[r], sidx, sptr[i], sptr[i + 1] - sptr[i]);
+            System.arraycopy(csr.values, csr.ptr[r], svalues, sptr[i], sptr[i + 1] - sptr[i]);
+        }
+        return new SparseMatrix(Format.CSR, selection.length, cols, sptr, sidx, svalues);
+    }
+
+    /**
+     * Selects rows from {@code start} inclusive to {@code end} exclusive into a new matrix in CSR format.
+     */
+    public SparseMatrix rowRange(int start, int end) {
+        return rows(IntStream.range(start, end).toArray());
+    }
+
+    /**
+     * Sparse matrix dense vector product.
+     *
+     * @param x dense vector with length equal with the number of columns
+     * @return dense vector with length equal with the number of rows
+     */
+    public DArray<Double> mv(DArray<?> x) {
+        if (!x.isVector() || x.dim(0) != cols) {
+            throw new IllegalArgumentException("Operand must be a vector of length " + cols + ", but has shape: " + x.shape());
+        }
+        double[] xs = x.toDoubleArray();
+        double[] y = new double[rows];
+        if (format == Format.CSR) {
+            forEachRow(r -> {
+                double sum = 0;
+                for (int p = ptr[r]; p < ptr[r + 1]; p++) {
+                    sum += values[p] * xs[idx[p]];
+                }
+                y[r] = sum;
+            });
+        } else {
+            for (int c = 0; c < cols; c++) {
+                double xc = xs[c];
+                for (int p = ptr[c]; p < ptr[c + 1]; p++) {
+                    y[idx[p]] += values[p] * xc;
+                }
+            }
+        }
+        return DArrays.stride(y);
+    }
+
+    /**
+     * Transposed sparse matrix dense vector product, it is the same as {@code t().mv(x)}.
+     *
+     * @param x dense vector with length equal with the number of rows
+     * @return dense vector with length equal with the number of columns
+     */
+    public DArray<Double> tmv(DArray<?> x) {
+        return t().mv(x);
+    }
+
+    /**
+     * Sparse matrix dense matrix product.
+     *
+     * @param b dense matrix with the number of rows equal with the number of columns of this matrix
+     * @return dense row major matrix with shape {@code (rows, b.dim(1))}
+     */
+    public DArray<Double> mm(DArray<?> b) {
+        if (!b.isMatrix() || b.dim(0) != cols) {
+            throw new IllegalArgumentException("Operand must be a matrix with " + cols + " rows, but has shape: " + b.shape());
+        }
+        int k = b.dim(1);
+        double[] bs = b.toDoubleArray(Order.C);
+        double[] out = new double[rows * k];
+        if (format == Format.CSR) {
+            forEachRow(r -> {
+                int off = r * k;
+                for (int p = ptr[r]; p < ptr[r + 1]; p++) {
+                    double v = values[p];
+                    int boff = idx[p] * k;
+                    for (int j = 0; j < k; j++) {
+                        out[off + j] += v * bs[boff + j];
+                    }
+                }
+            });
+        } else {
+            for (int c = 0; c < cols; c++) {
+                int boff = c * k;
+                for (int p = ptr[c]; p < ptr[c + 1]; p++) {
+                    double v = values[p];
+                    int off = idx[p] * k;
+                    for (int j = 0; j < k; j++) {
+                        out[off + j] += v * bs[boff + j];
+                    }
+                }
+            }
+        }
+        return DArrays.stride(Shape.of(rows, k), Order.C, out);
+    }
+
+    /**
+     * Weighted gram matrix {@code X^T diag(w) X}, where {@code X} is this matrix. The cost is proportional
+     * with the sum of the squared number of stored values on each row.
+     *
+     * @param w dense vector of row weights, with length equal with the number of rows
+     * @return dense symmetric matrix with shape {@code (cols, cols)}
+     */
+    public DArray<Double> gram(DArray<?> w) {
+        if (!w.isVector() || w.dim(0) != rows) {
+            throw new IllegalArgumentException("Weights must be a vector of length " + rows + ", but has shape: " + w.shape());
+        }
+        SparseMatrix csr = toCsr();
+        double[] ws = w.toDoubleArray();
+        double[] out = new double[cols * cols];
+        for (int r = 0; r < rows; r++) {
+            double wr = ws[r];
+            for (int p = csr.ptr[r]; p < csr.ptr[r + 1]; p++) {
+                double v = wr * csr.values[p];
+                int off = csr.idx[p] * cols;
+                for (int q = csr.ptr[r]; q < csr.ptr[r + 1]; q++) {
+                    out[off + csr.idx[q]] += v * csr.values[q];
+                }
+            }
+        }
+        return DArrays.stride(Shape.of(cols, cols), Order.C, out);
+    }
+
+    /**
+     * @return dense row major matrix with the same content
+     */
+    public DArray<Double> toDense() {
+        double[] out = new double[rows * cols];
+        int major = format == Format.CSR ? rows : cols;
+        for (int i = 0; i < major; i++) {
+            for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                out[format == Format.CSR ? i * cols + idx[p] : idx[p] * cols + i] = values[p];
+            }
+        }
+        return DArrays.stride(Shape.of(rows, cols), Order.C, out);
+    }
+
+    private void forEachRow(IntConsumer fun) {
+        if (nnz() >= PARALLEL_THRESHOLD && rows > 1) {
+            IntStream.range(0, rows).parallel().forEach(fun);
+        } else {
+            for (int r = 0; r < rows; r++) {
+                fun.accept(r);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SparseMatrix{format=" + format + ",rows=" + rows + ",cols=" + cols + ",nnz=" + nnz() + "}";
+    }
+}
@@ -55,6 +55,21 @@ public abstract class ByteStorage extends Storage {
         fill((byte) value, start, len);
     }
 
+    @Override
+    public final int getInt(long ptr) {
+        return getByte(ptr);
+    }
+
+    @Override
+    public final void setInt(long ptr, int value) {
+        setByte(ptr, (byte) value);
+    }
+
+    @Override
+    public final void incInt(long ptr, int value) {
+        incByte(ptr, (byte) value);
+    }
+
     @Override
     public final float getFloat(int ptr) {
         return getByte(ptr);
@@ -75,6 +90,21 @@ public abstract class ByteStorage extends Storage {
         fill((byte) value, start, len);
     }
 
+    @Override
+    public final float getFloat(long ptr) {
+        return getByte(ptr);
+    }
+
+    @Override
+    public final void setFloat(long ptr, float value) {
+        setByte(ptr, (byte) value);
+    }
+
+    @Override
+    public final void incFloat(long ptr, float value) {
+        incByte(ptr, (byte) value);
+    }
+
 
     @Override
     public final double getDouble(int ptr) {
@@ -96,6 +126,21 @@ public abstract class ByteStorage extends Storage {
         fill((byte) value, start, len);
     }
 
+    @Override
+    public final double getDouble(long ptr) {
+        return getByte(ptr);
+    }
+
+    @Override
+    public final void setDouble(long ptr, double value) {
+        setByte(ptr, (byte) value);
+    }
+
+    @Override
+    public final void incDouble(long ptr, double value) {
+        incByte(ptr, (byte) value);
+    }
+
     @Override
     public final IntVector getIntVector(int offset) {
         throw new UnsupportedOperationException();
@@ -54,6 +54,21 @@ public abstract class DoubleStorage extends Storage {
         fill((double) value, start, len);
     }
 
+    @Override
+    public final byte getByte(long ptr) {
+        return (byte) getDouble(ptr);
+    }
+
+    @Override
+    public final void setByte(long ptr, byte value) {
+        setDouble(ptr, value);
+    }
+
+    @Override
+    public final void incByte(long ptr, byte value) {
+        incDouble(ptr, value);
+    }
+
 
     @Override
     public final int getInt(int ptr) {
@@ -75,6 +90,21 @@ public abstract class DoubleStorage extends Storage {
         fill((double) value, start, len);
     }
 
+    @Override
+    public final int getInt(long ptr) {
+        return (int) getDouble(ptr);
+    }
+
+    @Override
+    public final void setInt(long ptr, int value) {
+        setDouble(ptr, value);
+    }
+
+    @Override
+    public final void incInt(long ptr, int value) {
+        incDouble(ptr, value);
+    }
+
 
     @Override
     public final float getFloat(int ptr) {
@@ -96,6 +126,21 @@ public abstract class DoubleStorage extends Storage {
         fill((double) value, start, len);
     }
 
+    @Override
+    public final float getFloat(long ptr) {
+        return (float) getDouble(ptr);
+    }
+
+    @Override
+    public final void setFloat(long ptr, float value) {
+        setDouble(ptr, value);
+    }
+
+    @Override
+    public final void incFloat(long ptr, float value) {
+        incDouble(ptr, value);
+    }
+
     @Override
     public final ByteVector getByteVector(int offset) {
         throw new UnsupportedOperationException();
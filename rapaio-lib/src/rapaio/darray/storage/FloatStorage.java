@@ -55,6 +55,21 @@ public abstract class FloatStorage extends Storage {
         fill((double) value, start, len);
     }
 
+    @Override
+    public final byte getByte(long ptr) {
+        return (byte) getFloat(ptr);
+    }
+
+    @Override
+    public final void setByte(long ptr, byte value) {
+        setFloat(ptr, value);
+    }
+
+    @Override
+    public final void incByte(long ptr, byte value) {
+        incFloat(ptr, value);
+    }
+
 
     @Override
     public final int getInt(int ptr) {
@@ -76,6 +91,21 @@ public abstract class FloatStorage extends Storage {
         fill((double) value, start, len);
     }
 
+    @Override
+    public final int getInt(long ptr) {
+        return (int) getFloat(ptr);
+    }
+
+    @Override
+    public final void setInt(long ptr, int value) {
+        setFloat(ptr, value);
+    }
+
+    @Override
+    public final void incInt(long ptr, int value) {
+        incFloat(ptr, value);
+    }
+
 
     @Override
     public final double getDouble(int ptr) {
@@ -97,6 +127,21 @@ public abstract class FloatStorage extends Storage {
         fill((float) value, start, len);
     }
 
+    @Override
+    public final double getDouble(long ptr) {
+        return getFloat(ptr);
+    }
+
+    @Override
+    public final void setDouble(long ptr, double value) {
+        setFloat(ptr, (float) value);
+    }
+
+    @Override
+    public final void incDouble(long ptr, double value) {
+        incFloat(ptr, (float) value);
+    }
+
     @Override
     public final ByteVector getByteVector(int offset) {
         throw new UnsupportedOperationException();
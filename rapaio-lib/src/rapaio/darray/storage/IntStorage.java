@@ -55,6 +55,21 @@ public abstract class IntStorage extends Storage {
         fill((int) value, start, len);
     }
 
+    @Override
+    public final byte getByte(long ptr) {
+        return (byte) getInt(ptr);
+    }
+
+    @Override
+    public final void setByte(long ptr, byte value) {
+        setInt(ptr, value);
+    }
+
+    @Override
+    public final void incByte(long ptr, byte value) {
+        incInt(ptr, value);
+    }
+
     @Override
     public final float getFloat(int ptr) {
         return getInt(ptr);
@@ -75,6 +90,21 @@ public abstract class IntStorage extends Storage {
         fill((int) value, start, len);
     }
 
+    @Override
+    public final float getFloat(long ptr) {
+        return getInt(ptr);
+    }
+
+    @Override
+    public final void setFloat(long ptr, float value) {
+        setInt(ptr, (int) value);
+    }
+
+    @Override
+    public final void incFloat(long ptr, float value) {
+        incInt(ptr, (int) value);
+    }
+
 
     @Override
     public final double getDouble(int ptr) {
@@ -96,6 +126,21 @@ public abstract class IntStorage extends Storage {
         fill((int) value, start, len);
     }
 
+    @Override
+    public final double getDouble(long ptr) {
+        return getInt(ptr);
+    }
+
+    @Override
+    public final void setDouble(long ptr, double value) {
+        setInt(ptr, (int) value);
+    }
+
+    @Override
+    public final void incDouble(long ptr, double value) {
+        incInt(ptr, (int) value);
+    }
+
     @Override
     public final ByteVector getByteVector(int offset) {
         throw new UnsupportedOperationException();
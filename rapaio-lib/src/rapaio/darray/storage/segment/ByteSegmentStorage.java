@@ -0,0 +1,176 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.storage.segment;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.Simd;
+import rapaio.darray.storage.ByteStorage;
+
+/**
+ * Byte storage backed by a {@link MemorySegment}. The segment can be allocated off-heap from an arena
+ * or can be a file mapped segment. Since the data lives outside the Java heap, it is not scanned by the garbage collector.
+ * <p>
+ * The storage can contain more elements than an int value can address. Such elements are accessed with the long
+ * pointer accessors or through {@link #slice(long, int)}, all the other operations use int addresses.
+ * <p>
+ * Values are accessed with native byte order. Gather and scatter vector operations are emulated with scalar accesses,
+ * since memory segments does not offer indexed vector operations.
+ */
+public final class ByteSegmentStorage extends ByteStorage {
+
+    private static final VectorSpecies<Byte> vsb = Simd.vsb;
+    private static final ValueLayout.OfByte LAYOUT = ValueLayout.JAVA_BYTE;
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private final MemorySegment segment;
+    private final long size;
+
+    public ByteSegmentStorage(MemorySegment segment) {
+        this.segment = segment;
+        this.size = segment.byteSize();
+    }
+
+    @Override
+    public int size() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "Storage has " + size + " elements which can't be addressed with int values, use longSize() instead.");
+        }
+        return (int) size;
+    }
+
+    @Override
+    public long longSize() {
+        return size;
+    }
+
+    @Override
+    public ByteSegmentStorage slice(long offset, int len) {
+        return new ByteSegmentStorage(segment.asSlice(offset, len));
+    }
+
+    @Override
+    public boolean supportSimd() {
+        return true;
+    }
+
+    @Override
+    public byte getByte(int ptr) {
+        return segment.getAtIndex(LAYOUT, ptr);
+    }
+
+    @Override
+    public void setByte(int ptr, byte v) {
+        segment.setAtIndex(LAYOUT, ptr, v);
+    }
+
+    @Override
+    public void incByte(int ptr, byte value) {
+        segment.setAtIndex(LAYOUT, ptr, (byte) (segment.getAtIndex(LAYOUT, ptr) + value));
+    }
+
+    @Override
+    public byte getByte(long ptr) {
+        return segment.getAtIndex(LAYOUT, ptr);
+    }
+
+    @Override
+    public void setByte(long ptr, byte v) {
+        segment.setAtIndex(LAYOUT, ptr, v);
+    }
+
+    @Override
+    public void incByte(long ptr, byte value) {
+        segment.setAtIndex(LAYOUT, ptr, (byte) (segment.getAtIndex(LAYOUT, ptr) + value));
+    }
+
+    @Override
+    public void fill(byte value, int start, int len) {
+        segment.asSlice(start, len).fill(value);
+    }
+
+    @Override
+    public ByteVector getByteVector(int offset) {
+        return ByteVector.fromMemorySegment(vsb, segment, offset, ORDER);
+    }
+
+    @Override
+    public ByteVector getByteVector(int offset, int[] idx, int idxOffset) {
+        byte[] buff = new byte[vsb.length()];
+        for (int i = 0; i < buff.length; i++) {
+            buff[i] = segment.getAtIndex(LAYOUT, offset + idx[idxOffset + i]);
+        }
+        return ByteVector.fromArray(vsb, buff, 0);
+    }
+
+    @Override
+    public void setByteVector(ByteVector value, int offset) {
+        value.intoMemorySegment(segment, offset, ORDER);
+    }
+
+    @Override
+    public void setByteVector(ByteVector value, int offset, int[] idx, int idxOffset) {
+        for (int i = 0; i < vsb.length(); i++) {
+            segment.setAtIndex(LAYOUT, offset + idx[idxOffset + i], value.lane(i));
+        }
+    }
+
+    @Override
+    public ByteVector getByteVector(int offset, VectorMask<Byte> m) {
+        return ByteVector.fromMemorySegment(vsb, segment, offset, ORDER, m);
+    }
+
+    @Override
+    public ByteVector getByteVector(int offset, int[] idx, int idxOffset, VectorMask<Byte> m) {
+        byte[] buff = new byte[vsb.length()];
+        for (int i = 0; i < buff.length; i++) {
+            if (m.laneIsSet(i)) {
+                buff[i] = segment.getAtIndex(LAYOUT, offset + idx[idxOffset + i]);
+            }
+        }
+        return ByteVector.fromArray(vsb, buff, 0);
+    }
+
+    @Override
+    public void setByteVector(ByteVector value, int offset, VectorMask<Byte> m) {
+        value.intoMemorySegment(segment, offset, ORDER, m);
+    }
+
+    @Override
+    public void setByteVector(ByteVector value, int offset, int[] idx, int idxOffset, VectorMask<Byte> m) {
+        for (int i = 0; i < vsb.length(); i++) {
+            if (m.laneIsSet(i)) {
+                segment.setAtIndex(LAYOUT, offset + idx[idxOffset + i], value.lane(i));
+            }
+        }
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+}
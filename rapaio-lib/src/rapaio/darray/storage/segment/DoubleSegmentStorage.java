@@ -0,0 +1,183 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.storage.segment;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.Simd;
+import rapaio.darray.storage.DoubleStorage;
+
+/**
+ * Double storage backed by a {@link MemorySegment}. The segment can be allocated off-heap from an arena
+ * or can be a file mapped segment. Since the data lives outside the Java heap, it is not scanned by the garbage collector.
+ * <p>
+ * The storage can contain more elements than an int value can address. Such elements are accessed with the long
+ * pointer accessors or through {@link #slice(long, int)}, all the other operations use int addresses.
+ * <p>
+ * Values are accessed with native byte order. Gather and scatter vector operations are emulated with scalar accesses,
+ * since memory segments does not offer indexed vector operations.
+ */
+public final class DoubleSegmentStorage extends DoubleStorage {
+
+    private static final VectorSpecies<Double> vsd = Simd.vsd;
+    private static final ValueLayout.OfDouble LAYOUT = ValueLayout.JAVA_DOUBLE_UNALIGNED;
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+    private static final long BYTES = Double.BYTES;
+
+    private final MemorySegment segment;
+    private final long size;
+
+    public DoubleSegmentStorage(MemorySegment segment) {
+        this.segment = segment;
+        this.size = segment.byteSize() / BYTES;
+    }
+
+    @Override
+    public int size() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "Storage has " + size + " elements which can't be addressed with int values, use longSize() instead.");
+        }
+        return (int) size;
+    }
+
+    @Override
+    public long longSize() {
+        return size;
+    }
+
+    @Override
+    public DoubleSegmentStorage slice(long offset, int len) {
+        return new DoubleSegmentStorage(segment.asSlice(offset * BYTES, len * BYTES));
+    }
+
+    @Override
+    public boolean supportSimd() {
+        return true;
+    }
+
+    @Override
+    public double getDouble(int ptr) {
+        return segment.getAtIndex(LAYOUT, ptr);
+    }
+
+    @Override
+    public void setDouble(int ptr, double v) {
+        segment.setAtIndex(LAYOUT, ptr, v);
+    }
+
+    @Override
+    public void incDouble(int ptr, double value) {
+        segment.setAtIndex(LAYOUT, ptr, segment.getAtIndex(LAYOUT, ptr) + value);
+    }
+
+    @Override
+    public double getDouble(long ptr) {
+        return segment.getAtIndex(LAYOUT, ptr);
+    }
+
+    @Override
+    public void setDouble(long ptr, double v) {
+        segment.setAtIndex(LAYOUT, ptr, v);
+    }
+
+    @Override
+    public void incDouble(long ptr, double value) {
+        segment.setAtIndex(LAYOUT, ptr, segment.getAtIndex(LAYOUT, ptr) + value);
+    }
+
+    @Override
+    public void fill(double value, int start, int len) {
+        if (Double.doubleToRawLongBits(value) == 0) {
+            segment.asSlice(start * BYTES, len * BYTES).fill((byte) 0);
+            return;
+        }
+        for (int i = start; i < start + len; i++) {
+            segment.setAtIndex(LAYOUT, i, value);
+        }
+    }
+
+    @Override
+    public DoubleVector getDoubleVector(int offset) {
+        return DoubleVector.fromMemorySegment(vsd, segment, offset * BYTES, ORDER);
+    }
+
+    @Override
+    public DoubleVector getDoubleVector(int offset, int[] idx, int idxOffset) {
+        double[] buff = new double[vsd.length()];
+        for (int i = 0; i < buff.length; i++) {
+            buff[i] = segment.getAtIndex(LAYOUT, offset + idx[idxOffset + i]);
+        }
+        return DoubleVector.fromArray(vsd, buff, 0);
+    }
+
+    @Override
+    public void setDoubleVector(DoubleVector value, int offset) {
+        value.intoMemorySegment(segment, offset * BYTES, ORDER);
+    }
+
+    @Override
+    public void setDoubleVector(DoubleVector value, int offset, int[] idx, int idxOffset) {
+        for (int i = 0; i < vsd.length(); i++) {
+            segment.setAtIndex(LAYOUT, offset + idx[idxOffset + i], value.lane(i));
+        }
+    }
+
+    @Override
+    public DoubleVector getDoubleVector(int offset, VectorMask<Double> m) {
+        return DoubleVector.fromMemorySegment(vsd, segment, offset * BYTES, ORDER, m);
+    }
+
+    @Override
+    public DoubleVector getDoubleVector(int offset, int[] idx, int idxOffset, VectorMask<Double> m) {
+        double[] buff = new double[vsd.length()];
+        for (int i = 0; i < buff.length; i++) {
+            if (m.laneIsSet(i)) {
+                buff[i] = segment.getAtIndex(LAYOUT, offset + idx[idxOffset + i]);
+            }
+        }
+        return DoubleVector.fromArray(vsd, buff, 0);
+    }
+
+    @Override
+    public void setDoubleVector(DoubleVector value, int offset, VectorMask<Double> m) {
+        value.intoMemorySegment(segment, offset * BYTES, ORDER, m);
+    }
+
+    @Override
+    public void setDoubleVector(DoubleVector value, int offset, int[] idx, int idxOffset, VectorMask<Double> m) {
+        for (int i = 0; i < vsd.length(); i++) {
+            if (m.laneIsSet(i)) {
+                segment.setAtIndex(LAYOUT, offset + idx[idxOffset + i], value.lane(i));
+            }
+        }
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.storage.segment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import rapaio.darray.DType;
+import rapaio.darray.Storage;
+import rapaio.darray.StorageManager;
+
+/**
+ * Storage manager which allocates data into memory segments. The lifetime of the allocated memory
+ * is given by the {@link Arena} used by this manager. Data can also be mapped directly from files
+ * using {@link #map(DType, Path, FileChannel.MapMode, long, long)}.
+ * <p>
+ * Since array operations can be executed on multiple threads, the arena must allow access from
+ * multiple threads, thus confined arenas are not appropriate.
+ */
+public class SegmentStorageManager extends StorageManager {
+
+    private final Arena arena;
+
+    public SegmentStorageManager(Arena arena) {
+        this.arena = arena;
+    }
+
+    public Arena arena() {
+        return arena;
+    }
+
+    /**
+     * Wraps an existing memory segment into a storage. Data is not copied.
+     *
+     * @param dt      data type of the storage
+     * @param segment memory segment
+     * @return storage over the given segment
+     */
+    public Storage wrap(DType<?> dt, MemorySegment segment) {
+        return switch (dt.id()) {
+            case BYTE -> new ByteSegmentStorage(segment);
+            case INTEGER -> new IntSegmentStorage(segment);
+            case FLOAT -> new FloatSegmentStorage(segment);
+            case DOUBLE -> new DoubleSegmentStorage(segment);
+        };
+    }
+
+    /**
+     * Creates a storage mapped from a file. The mapped region starts at {@code byteOffset} and
+     * contains {@code len} elements of the given data type, using native byte order. When the map mode is
+     * {@link FileChannel.MapMode#READ_WRITE} the file is created and enlarged if needed. The mapping is valid
+     * as long as the arena of this manager is alive.
+     *
+     * @param dt         data type
+     * @param path       file path
+     * @param mode       map mode
+     * @param byteOffset position in the file where the data starts
+     * @param len        number of elements
+     * @return storage mapped over the file content
+     */
+    public Storage map(DType<?> dt, Path path, FileChannel.MapMode mode, long byteOffset, long len) {
+        OpenOption[] options = (mode == FileChannel.MapMode.READ_ONLY)
+                ? new OpenOption[] {StandardOpenOption.READ}
+                : new OpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            MemorySegment segment = channel.map(mode, byteOffset, len * dt.byteCount(), arena);
+            return wrap(dt, segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Storage scalar(DType<?> dt, byte value) {
+        Storage s = zeros(dt, 1);
+        s.setByte(0, value);
+        return s;
+    }
+
+    @Override
+    public Storage scalar(DType<?> dt, int value) {
+        Storage s = zeros(dt, 1);
+        s.setInt(0, value);
+        return s;
+    }
+
+    @Override
+    public Storage scalar(DType<?> dt, float value) {
+        Storage s = zeros(dt, 1);
+        s.setFloat(0, value);
+        return s;
+    }
+
+    @Override
+    public Storage scalar(DType<?> dt, double value) {
+        Storage s = zeros(dt, 1);
+        s.setDouble(0, value);
+        return s;
+    }
+
+    @Override
+    public Storage zeros(DType<?> dt, int len) {
+        return zeros(dt, (long) len);
+    }
+
+    @Override
+    public Storage zeros(DType<?> dt, long len) {
+        // segments allocated from an arena are zero initialized
+        return wrap(dt, arena.allocate(len * dt.byteCount(), dt.byteCount()));
+    }
+
+    @Override
+    public Storage from(DType<?> dt, byte... array) {
+        Storage s = zeros(dt, array.length);
+        if (dt.id() == DType.Id.BYTE) {
+            MemorySegment.copy(array, 0, ((ByteSegmentStorage) s).segment(), ValueLayout.JAVA_BYTE, 0, array.length);
+            return s;
+        }
+        for (int i = 0; i < array.length; i++) {
+            s.setByte(i, array[i]);
+        }
+        return s;
+    }
+
+    @Override
+    public Storage from(DType<?> dt, int... array) {
+        Storage s = zeros(dt, array.length);
+        if (dt.id() == DType.Id.INTEGER) {
+            MemorySegment.copy(array, 0, ((IntSegmentStorage) s).segment(), ValueLayout.JAVA_INT_UNALIGNED, 0, array.length);
+            return s;
+        }
+        for (int i = 0; i < array.length; i++) {
+            s.setInt(i, array[i]);
+        }
+        return s;
+    }
+
+    @Override
+    public Storage from(DType<?> dt, float... array) {
+        Storage s = zeros(dt, array.length);
+        if (dt.id() == DType.Id.FLOAT) {
+            MemorySegment.copy(array, 0, ((FloatSegmentStorage) s).segment(), ValueLayout.JAVA_FLOAT_UNALIGNED, 0, array.length);
+            return s;
+        }
+        for (int i = 0; i < array.length; i++) {
+            s.setFloat(i, array[i]);
+        }
+        return s;
+    }
+
+    @Override
+    public Storage from(DType<?> dt, double... array) {
+        Storage s = zeros(dt, array.length);
+        if (dt.id() == DType.Id.DOUBLE) {
+            MemorySegment.copy(array, 0, ((DoubleSegmentStorage) s).segment(), ValueLayout.JAVA_DOUBLE_UNALIGNED, 0, array.length);
+            return s;
+        }
+        for (int i = 0; i < array.length; i++) {
+            s.setDouble(i, array[i]);
+        }
+        return s;
+    }
+
+    @Override
+    public Storage from(DType<?> dt, Storage source) {
+        long len = source.longSize();
+        Storage s = zeros(dt, len);
+        switch (dt.id()) {
+            case BYTE -> {
+                for (long i = 0; i < len; i++) {
+                    s.setByte(i, source.getByte(i));
+                }
+            }
+            case INTEGER -> {
+                for (long i = 0; i < len; i++) {
+                    s.setInt(i, source.getInt(i));
+                }
+            }
+            case FLOAT -> {
+                for (long i = 0; i < len; i++) {
+                    s.setFloat(i, source.getFloat(i));
+                }
+            }
+            case DOUBLE -> {
+                for (long i = 0; i < len; i++) {
+                    s.setDouble(i, source.getDouble(i));
+                }
+            }
+        }
+        return s;
+    }
+}
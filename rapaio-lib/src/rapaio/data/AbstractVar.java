@@ -92,7 +92,10 @@ public abstract class AbstractVar implements Var {
                 return bin;
             }
             case NOMINAL -> {
-                VarNominal nom = VarNominal.empty(size(), levels()).name(name());
+                // dictionaries too large for a nominal variable are copied into a categorical variable
+                Var nom = levels().size() < Short.MAX_VALUE - 1
+                        ? VarNominal.empty(size(), levels()).name(name())
+                        : VarCategorical.empty(size(), levels()).name(name());
                 for (int i = 0; i < size(); i++) {
                     if (isMissing(i)) {
                         nom.setMissing(i);
@@ -33,8 +33,6 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import rapaio.darray.DArray;
-import rapaio.darray.DArrays;
-import rapaio.darray.Shape;
 import rapaio.data.stream.FSpot;
 import rapaio.data.stream.FSpots;
 import rapaio.data.transform.RefSort;
@@ -558,14 +556,15 @@ public interface Frame extends Serializable, Printable {
         return this.fapply(RefSort.by(comparators));
     }
 
+    /**
+     * Builds a new matrix with the frame values, having a row for each observation and a column for each variable.
+     * The matrix is stored in column major order, so that each variable is copied as a contiguous block.
+     * Solid numeric variables are copied in bulk and, for large frames, variables are copied in parallel.
+     *
+     * @return matrix with the values of the frame
+     */
     default DArray<Double> darray() {
-        DArray<Double> array = DArrays.zeros(Shape.of(rowCount(), varCount()));
-        for (int i = 0; i < rowCount(); i++) {
-            for (int j = 0; j < varCount(); j++) {
-                array.setDouble(getDouble(i, j), i, j);
-            }
-        }
-        return array;
+        return FrameDArrays.darray(this);
     }
 
     String head();
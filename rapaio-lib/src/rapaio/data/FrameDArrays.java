@@ -0,0 +1,78 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+
+/**
+ * Copies frame values into a column major matrix, used by {@link Frame#darray()}.
+ */
+final class FrameDArrays {
+
+    /**
+     * Minimum number of cells for which the variables are copied in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private FrameDArrays() {
+    }
+
+    static DArray<Double> darray(Frame df) {
+        int rows = df.rowCount();
+        int cols = df.varCount();
+        double[] values = new double[rows * cols];
+        IntStream columns = IntStream.range(0, cols);
+        if ((long) rows * cols >= PARALLEL_THRESHOLD) {
+            columns = columns.parallel();
+        }
+        columns.forEach(j -> copyColumn(df.rvar(j), values, j * rows, rows));
+        return DArrays.stride(Shape.of(rows, cols), Order.F, values);
+    }
+
+    private static void copyColumn(Var var, double[] dst, int offset, int rows) {
+        switch (var) {
+            case VarDouble v -> System.arraycopy(v.elements(), 0, dst, offset, rows);
+            case VarFloat v -> {
+                float[] src = v.elements();
+                for (int i = 0; i < rows; i++) {
+                    dst[offset + i] = src[i];
+                }
+            }
+            case VarInt v -> {
+                int[] src = v.elements();
+                for (int i = 0; i < rows; i++) {
+                    dst[offset + i] = src[i] == VarInt.MISSING_VALUE ? VarDouble.MISSING_VALUE : src[i];
+                }
+            }
+            default -> {
+                for (int i = 0; i < rows; i++) {
+                    dst[offset + i] = var.getDouble(i);
+                }
+            }
+        }
+    }
+}
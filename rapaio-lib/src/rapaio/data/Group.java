@@ -45,7 +45,6 @@ import rapaio.printer.Printable;
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
 import rapaio.printer.opt.POpt;
-import rapaio.util.collection.Int2IntOpenHashMap;
 
 /**
  * GroupBy index structure which indexes rows from a data frame using unique
@@ -157,14 +156,26 @@ public final class Group implements Printable {
     // non index variable from source frame
     private final List<String> featureNames;
 
+    // number of groups
+    private final int groupCount;
+
     // maps rows to group ids
-    private final Int2IntOpenHashMap rowToGroupId = new Int2IntOpenHashMap();
+    private final int[] rowToGroupId;
+
+    // rows ordered by group id, and by row number inside a group
+    private final int[] groupRows;
+
+    // start position of each group in groupRows, with an additional end position
+    private final int[] groupStarts;
 
-    // map group ids to indexes from the last level of the tree
-    private final HashMap<Integer, IndexNode> groupIdToLastLevelIndex = new HashMap<>();
+    // dense key ids for each key variable and for each group
+    private final int[][] groupKeyIds;
+
+    // number of distinct key ids for each key variable
+    private final int[] keyCounts;
 
     // sorted group ids
-    private VarInt sortedGroupIds = VarInt.empty();
+    private final VarInt sortedGroupIds;
 
     private Group(Frame df, List<String> groupVarNames) {
 
@@ -178,10 +189,6 @@ public final class Group implements Printable {
             throw new IllegalArgumentException("Group var names contains duplicates.");
         }
 
-        // unique values for each primary key
-        List<Unique> groupByUniques = this.pkNames.stream().map(varName -> Unique.of(df.rvar(varName), true)).toList();
-
-
         this.featureNames = new ArrayList<>();
         for (String varName : df.varNames()) {
             if (pkVarNamesSet.contains(varName)) {
@@ -190,56 +197,43 @@ public final class Group implements Printable {
             featureNames.add(varName);
         }
 
-        IndexNode root = new IndexNode(null, "", "", -1, -1);
-
-        //populate rows
-        int groupId = 0;
-        for (int i = 0; i < df.rowCount(); i++) {
-            IndexNode node = root;
-            for (int j = 0; j < pkNames.size(); j++) {
-                String levelName = pkNames.get(j);
-                String levelValue = df.getLabel(i, levelName);
-                int levelUniqueId = groupByUniques.get(j).idByRow(i);
-                IndexNode child = node.getChildNode(levelUniqueId);
-                if (child == null) {
-                    if (j != pkNames.size() - 1) {
-                        child = new IndexNode(node, levelName, levelValue, levelUniqueId, -1);
-                    } else {
-                        child = new IndexNode(node, levelName, levelValue, levelUniqueId, groupId);
-                        child.addRow(i);
-                        rowToGroupId.put(i, groupId);
-                        groupIdToLastLevelIndex.put(groupId, child);
-                        groupId++;
-                    }
-                    node.addNode(child);
-                    node = child;
-                } else {
-                    node = child;
-                    if (j == pkNames.size() - 1) {
-                        child.addRow(i);
-                        rowToGroupId.put(i, child.getGroupId());
-                    }
-                }
-            }
+        // dense ids for each primary key, which follow the sorted order of key values
+        int rowCount = df.rowCount();
+        int[][] rowKeyIds = new int[pkNames.size()][];
+        keyCounts = new int[pkNames.size()];
+        for (int j = 0; j < pkNames.size(); j++) {
+            GroupIndex.Dense dense = GroupIndex.keyIds(df.rvar(pkNames.get(j)));
+            rowKeyIds[j] = dense.ids();
+            keyCounts[j] = dense.count();
         }
 
-        // sort group ids
-        List<int[]> groupUniqueIds = new ArrayList<>();
-        for (int i = 0; i < getNumberOfGroups(); i++) {
-            groupUniqueIds.add(groupIdToLastLevelIndex.get(i).getLevelIds(new int[pkNames.size() + 1]));
-            sortedGroupIds.addInt(i);
+        // group ids follow the lexicographic order of the keys
+        GroupIndex.Dense groups = GroupIndex.encode(rowKeyIds, keyCounts, rowCount);
+        rowToGroupId = groups.ids();
+        groupCount = groups.count();
+
+        // counting sort of rows by group id
+        groupStarts = new int[groupCount + 1];
+        for (int groupId : rowToGroupId) {
+            groupStarts[groupId + 1]++;
         }
-        sortedGroupIds = (VarInt) sortedGroupIds.fapply(VarRefSort.from((i1, i2) -> {
-            int[] gui1 = groupUniqueIds.get(i1);
-            int[] gui2 = groupUniqueIds.get(i2);
-            for (int i = 0; i < gui1.length; i++) {
-                int comp = Integer.compare(gui1[i], gui2[i]);
-                if (comp != 0) {
-                    return comp;
-                }
+        for (int i = 0; i < groupCount; i++) {
+            groupStarts[i + 1] += groupStarts[i];
+        }
+        groupRows = new int[rowCount];
+        int[] pos = Arrays.copyOf(groupStarts, groupCount);
+        for (int i = 0; i < rowCount; i++) {
+            groupRows[pos[rowToGroupId[i]]++] = i;
+        }
+
+        groupKeyIds = new int[pkNames.size()][groupCount];
+        for (int j = 0; j < pkNames.size(); j++) {
+            for (int i = 0; i < groupCount; i++) {
+                groupKeyIds[j][i] = rowKeyIds[j][groupRows[groupStarts[i]]];
             }
-            return 0;
-        })).copy();
+        }
+
+        sortedGroupIds = VarInt.seq(groupCount);
     }
 
     /**
@@ -256,10 +250,6 @@ public final class Group implements Printable {
         return featureNames;
     }
 
-    public HashMap<Integer, IndexNode> getGroupIdToLastLevelIndex() {
-        return groupIdToLastLevelIndex;
-    }
-
     /**
      * @return source frame on which group by is realized
      */
@@ -272,116 +262,91 @@ public final class Group implements Printable {
      * @return list of rows from that group
      */
     public Mapping getRowsForGroupId(int groupId) {
-        return groupIdToLastLevelIndex.get(groupId).rows;
+        return Mapping.wrap(Arrays.copyOfRange(groupRows, groupStarts[groupId], groupStarts[groupId + 1]));
     }
 
     /**
-     * @return count of groups
+     * @param groupId group identifier
+     * @return number of rows from that group
      */
-    public int getNumberOfGroups() {
-        return groupIdToLastLevelIndex.size();
+    public int getGroupSize(int groupId) {
+        return groupStarts[groupId + 1] - groupStarts[groupId];
     }
 
     /**
-     * @return list of sorted group ids
+     * @param groupId group identifier
+     * @return first row from that group
      */
-    public VarInt getSortedGroupIds() {
-        return sortedGroupIds;
+    public int getFirstRow(int groupId) {
+        return groupRows[groupStarts[groupId]];
     }
 
     /**
-     * Node of the prefix tree for groups
+     * @param row row number
+     * @return group id of the given row
      */
-    public static class IndexNode {
-
-        // group unique id
-        private final int groupId;
-
-        // level unique id
-        private final int levelId;
-
-        // level variable name
-        private final String levelName;
-
-        // level string value
-        private final String levelValue;
-
-        // parent node
-        private final IndexNode parent;
-
-        // list of children nodes
-        private final List<IndexNode> children = new ArrayList<>();
-
-        // index from level id to children position index
-        private final HashMap<Integer, Integer> positions = new HashMap<>();
-
-        // rows assigned to this group
-        private final Mapping rows = Mapping.empty();
-
-        public IndexNode(IndexNode parent, String levelName,
-                String levelValue, int levelId, int groupId) {
-            this.parent = parent;
-            this.levelName = levelName;
-            this.levelValue = levelValue;
-            this.levelId = levelId;
-            this.groupId = groupId;
-        }
-
-        public IndexNode getParent() {
-            return parent;
-        }
-
-        public int getGroupId() {
-            return groupId;
-        }
+    public int getGroupId(int row) {
+        return rowToGroupId[row];
+    }
 
-        public Mapping getRows() {
-            return rows;
-        }
+    /**
+     * Group ids for all rows of the frame, indexed by row number. The returned array is the internal
+     * index structure and it must not be modified. This is useful to compute aggregations for all groups in a
+     * single pass over the rows.
+     *
+     * @return array of group ids indexed by row
+     */
+    public int[] getGroupIdsByRow() {
+        return rowToGroupId;
+    }
 
-        public void addNode(IndexNode node) {
-            positions.put(node.levelId, children.size());
-            children.add(node);
+    /**
+     * @param groupId group identifier
+     * @return values of the group by keys for the given group
+     */
+    public List<String> getGroupValues(int groupId) {
+        int row = getFirstRow(groupId);
+        List<String> values = new ArrayList<>(pkNames.size());
+        for (String pkName : pkNames) {
+            values.add(df.getLabel(row, pkName));
         }
+        return values;
+    }
 
-        public IndexNode getChildNode(int levelId) {
-            if (positions.containsKey(levelId)) {
-                return children.get(positions.get(levelId));
-            }
-            return null;
-        }
+    /**
+     * Computes the ids of the groups obtained by removing the last {@code levels} keys. Parent group ids
+     * follow the same ordering as the group ids.
+     *
+     * @param levels number of trailing keys to remove
+     * @return parent group id for each group id
+     */
+    public int[] getParentGroupIds(int levels) {
+        return encodeKeys(0, Math.max(0, pkNames.size() - levels)).ids();
+    }
 
-        public void addRow(int row) {
-            rows.add(row);
-        }
+    private GroupIndex.Dense encodeKeys(int from, int to) {
+        return GroupIndex.encode(Arrays.copyOfRange(groupKeyIds, from, to), Arrays.copyOfRange(keyCounts, from, to), groupCount);
+    }
 
-        public List<String> getLevelValues() {
-            List<String> groupValues = new ArrayList<>();
-            IndexNode node = this;
-            while (node.parent != null) {
-                groupValues.addFirst(node.levelValue);
-                node = node.parent;
-            }
-            return groupValues;
-        }
+    /**
+     * @return count of groups
+     */
+    public int getNumberOfGroups() {
+        return groupCount;
+    }
 
-        public int[] getLevelIds(int[] buff) {
-            int pos = buff.length - 1;
-            IndexNode node = this;
-            while (node != null) {
-                buff[pos] = node.levelId;
-                node = node.parent;
-                pos--;
-            }
-            return buff;
-        }
+    /**
+     * @return list of sorted group ids
+     */
+    public VarInt getSortedGroupIds() {
+        return sortedGroupIds;
     }
 
     @Override
     public String toString() {
         return "GroupBy{"
                 + "keys:[" + String.join(",", pkNames) + "], "
-                + "group count:" + groupIdToLastLevelIndex.size() + ", "
+                + "group count:" + groupCount + ", "
                 + "row count:" + df.rowCount()
                 + "}";
     }
@@ -394,7 +359,7 @@ public final class Group implements Printable {
         StringBuilder sb = new StringBuilder();
 
         sb.append("group by: ").append(String.join(", ", pkNames)).append("\n");
-        sb.append("group count: ").append(groupIdToLastLevelIndex.size()).append("\n\n");
+        sb.append("group count: ").append(groupCount).append("\n\n");
 
         TextTable tt = TextTable.empty(40 + 1, pkNames.size() + featureNames.size() + 2, 1, pkNames.size() + 2);
 
@@ -415,36 +380,25 @@ public final class Group implements Printable {
         for (int i = 31; i < 40; i++) {
             tt.intRow(i + 1, 0, df.rowCount() - 40 + i);
         }
-        // populate rows
-        Mapping rows = Mapping.empty();
-        for (int groupId : sortedGroupIds) {
-            rows.addAll(groupIdToLastLevelIndex.get(groupId).rows.iterator());
-        }
-
+        // populate rows, groups are already sorted
         for (int i = 0; i < 30; i++) {
-            int r = rows.get(i);
-            fillRowData(tt, i, r);
+            fillRowData(tt, i, groupRows[i]);
         }
-        IndexNode _node = groupIdToLastLevelIndex.get(0);
-        List<String> _groupValues = _node.getLevelValues();
-        for (int j = 0; j < _groupValues.size(); j++) {
+        for (int j = 0; j < pkNames.size(); j++) {
             tt.textLeft(31, j + 1, "...");
         }
         for (int j = 0; j < featureNames.size(); j++) {
-            tt.textLeft(31, j + _groupValues.size() + 2, "...");
+            tt.textLeft(31, j + pkNames.size() + 2, "...");
         }
         for (int i = 31; i < 40; i++) {
-            int r = rows.get(df.rowCount() - 40 + i);
-            fillRowData(tt, i, r);
+            fillRowData(tt, i, groupRows[df.rowCount() - 40 + i]);
         }
         sb.append(tt.getDynamicText(printer, options));
         return sb.toString();
     }
 
     private void fillRowData(TextTable tt, int i, int r) {
-        int groupId = rowToGroupId.get(r);
-        IndexNode node = groupIdToLastLevelIndex.get(groupId);
-        List<String> groupValues = node.getLevelValues();
+        List<String> groupValues = getGroupValues(rowToGroupId[r]);
         for (int j = 0; j < groupValues.size(); j++) {
             tt.textLeft(i + 1, j + 1, groupValues.get(j));
         }
@@ -459,7 +413,7 @@ public final class Group implements Printable {
         StringBuilder sb = new StringBuilder();
 
         sb.append("group by: ").append(String.join(", ", pkNames)).append("\n");
-        sb.append("group count: ").append(groupIdToLastLevelIndex.size()).append("\n\n");
+        sb.append("group count: ").append(groupCount).append("\n\n");
 
         TextTable tt = TextTable.empty(df.rowCount() + 1, pkNames.size() + featureNames.size() + 2, 1, pkNames.size() + 2);
 
@@ -480,9 +434,9 @@ public final class Group implements Printable {
         int pos = 1;
         for (int groupId : sortedGroupIds) {
 
-            IndexNode node = groupIdToLastLevelIndex.get(groupId);
-            List<String> groupValues = node.getLevelValues();
-            for (int row : node.rows) {
+            List<String> groupValues = getGroupValues(groupId);
+            for (int p = groupStarts[groupId]; p < groupStarts[groupId + 1]; p++) {
+                int row = groupRows[p];
 
                 // write group values
                 for (int i = 0; i < groupValues.size(); i++) {
@@ -541,13 +495,12 @@ public final class Group implements Printable {
 
         public Frame toFrame(int unstackLevel) {
             Frame df = group.getFrame();
-            Mapping rows = Mapping.empty();
             VarInt sortedGroupIds = group.getSortedGroupIds();
-            var groupIndex = group.getGroupIdToLastLevelIndex();
-            for (int sortedGroupId : sortedGroupIds) {
-                rows.add(groupIndex.get(sortedGroupId).getRows().get(0));
+            int[] firstRows = new int[sortedGroupIds.size()];
+            for (int i = 0; i < firstRows.length; i++) {
+                firstRows[i] = group.getFirstRow(sortedGroupIds.getInt(i));
             }
-            Frame result = df.mapRows(rows).mapVars(group.getGroupByNameList()).copy();
+            Frame result = df.mapRows(Mapping.wrap(firstRows)).mapVars(group.getGroupByNameList()).copy();
             result = result.bindVars(aggregateDf.mapRows(Mapping.wrap(sortedGroupIds))).copy();
             if (unstackLevel <= 0) {
                 return result;
@@ -559,46 +512,42 @@ public final class Group implements Printable {
             }
 
             // split group by columns into group and unstack
-            List<String> groupNames = groupVarNames.subList(0, groupVarNames.size() - unstackLevel);
-            List<String> unstackNames = groupVarNames.subList(groupVarNames.size() - unstackLevel, groupVarNames.size());
-
-            // make unique groups and unstacked ids
+            int groupLevel = groupVarNames.size() - unstackLevel;
+            List<String> groupNames = groupVarNames.subList(0, groupLevel);
+            List<String> unstackNames = groupVarNames.subList(groupLevel, groupVarNames.size());
 
-            HashMap<String, Integer> groupIdMap = new HashMap<>();
-            TreeSet<String> unstackIds = new TreeSet<>();
-            Mapping originalGroupRows = Mapping.empty();
+            // make unique groups and unstacked ids, result rows are in group id order
 
-            HashMap<Integer, Integer> rowToGroupRow = new HashMap<>();
-            HashMap<Integer, String> rowToUnstackId = new HashMap<>();
+            int[] rowToGroupRow = group.encodeKeys(0, groupLevel).ids();
+            GroupIndex.Dense unstackKeys = group.encodeKeys(groupLevel, groupVarNames.size());
+            int[] rowToUnstackKey = unstackKeys.ids();
 
+            Mapping originalGroupRows = Mapping.empty();
+            String[] unstackKeyNames = new String[unstackKeys.count()];
             for (int i = 0; i < result.rowCount(); i++) {
-                StringBuilder sb = new StringBuilder();
-                for (String unstackName : unstackNames) {
-                    sb.append(unstackName).append(SEP);
-                    sb.append(result.getLabel(i, unstackName)).append(SEP);
-                }
-                String unstackId = sb.toString();
-                sb = new StringBuilder();
-                for (String groupName : groupNames) {
-                    sb.append(groupName).append(SEP);
-                    sb.append(result.getLabel(i, groupName)).append(SEP);
-                }
-                String groupId = sb.toString();
-
-                if (!groupIdMap.containsKey(groupId)) {
-                    groupIdMap.put(groupId, groupIdMap.size());
+                if (i == 0 || rowToGroupRow[i] != rowToGroupRow[i - 1]) {
                     originalGroupRows.add(i);
                 }
-                unstackIds.add(unstackId);
-                rowToGroupRow.put(i, groupIdMap.get(groupId));
-                rowToUnstackId.put(i, unstackId);
+                if (unstackKeyNames[rowToUnstackKey[i]] == null) {
+                    StringBuilder sb = new StringBuilder();
+                    for (String unstackName : unstackNames) {
+                        sb.append(unstackName).append(SEP);
+                        sb.append(result.getLabel(i, unstackName)).append(SEP);
+                    }
+                    unstackKeyNames[rowToUnstackKey[i]] = sb.toString();
+                }
             }
 
-            // build index for unstackIds
+            // build index for unstackIds, sorted by name
+            TreeSet<String> unstackIds = new TreeSet<>(Arrays.asList(unstackKeyNames));
             HashMap<String, Integer> unstackIdPos = new HashMap<>();
             for (String unstackId : unstackIds) {
                 unstackIdPos.put(unstackId, unstackIdPos.size());
             }
+            int[] unstackKeyPos = new int[unstackKeyNames.length];
+            for (int i = 0; i < unstackKeyPos.length; i++) {
+                unstackKeyPos[i] = unstackIdPos.get(unstackKeyNames[i]);
+            }
 
             // make unstack frame
             Frame unstackedDf = result.mapRows(originalGroupRows);
@@ -625,8 +574,8 @@ public final class Group implements Printable {
                 VarType aggregateType = result.rvar(aggregateVarName).type();
                 int aggregateVarIndex = result.varIndex(aggregateVarName);
                 for (int i = 0; i < result.rowCount(); i++) {
-                    int varIndex = unstackIdPos.get(rowToUnstackId.get(i));
-                    int rowIndex = rowToGroupRow.get(i);
+                    int varIndex = unstackKeyPos[rowToUnstackKey[i]];
+                    int rowIndex = rowToGroupRow[i];
                     if (result.isMissing(i, aggregateVarIndex)) {
                         unstacked.setMissing(rowIndex, varIndex);
                     }
@@ -726,8 +675,7 @@ public final class Group implements Printable {
             // populate rows
             int pos = 1;
             for (int groupId : selectedGroupIds) {
-                IndexNode node = group.getGroupIdToLastLevelIndex().get(groupId);
-                List<String> groupValues = node.getLevelValues();
+                List<String> groupValues = group.getGroupValues(groupId);
 
                 // write group values
                 for (int i = 0; i < groupValues.size(); i++) {
@@ -0,0 +1,222 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import rapaio.util.collection.Long2IntOpenHashMap;
+
+/**
+ * Primitive index of composite keys used by {@link Group}.
+ * <p>
+ * Each key variable is encoded into dense integer ids which follow the sorting order of the key values. Composite keys
+ * are encoded in mixed radix into primitive long codes, and the codes are densified through open addressing hash tables
+ * into group ids, which follow the lexicographic order of the keys. Densification is done in parallel partitions whose
+ * distinct codes are merged at the end. When the mixed radix code of all keys does not fit into a long, the
+ * codes of the leading keys are densified first, and the encoding continues from the dense ids.
+ */
+final class GroupIndex {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int PARTITION_SIZE = 1 << 16;
+
+    /**
+     * Dense ids and number of distinct values.
+     */
+    record Dense(int[] ids, int count) {
+    }
+
+    /**
+     * Encodes the values of a variable into dense ids which follow the sorting order of the values.
+     * Missing values are sorted first, except for double variables, where missing values are sorted last.
+     */
+    static Dense keyIds(Var var) {
+        int n = var.size();
+        return switch (var.type()) {
+            case NOMINAL -> nominalIds(var);
+            case INT, BINARY -> {
+                long[] codes = new long[n];
+                parallelFor(n, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        codes[i] = var.getInt(i);
+                    }
+                });
+                yield densify(codes);
+            }
+            case DOUBLE -> {
+                long[] codes = new long[n];
+                parallelFor(n, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        // sortable representation of double bits, consistent with Double.compare
+                        long bits = Double.doubleToLongBits(var.getDouble(i));
+                        codes[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+                    }
+                });
+                yield densify(codes);
+            }
+            default -> {
+                Unique unique = Unique.of(var, true);
+                int[] ids = new int[n];
+                for (int i = 0; i < n; i++) {
+                    ids[i] = unique.idByRow(i);
+                }
+                yield new Dense(ids, unique.uniqueCount());
+            }
+        };
+    }
+
+    private static Dense nominalIds(Var var) {
+        // dictionary indexes starts from -1 for missing values
+        List<String> levels = var.levels();
+        List<String> labels = new ArrayList<>(levels.size() + 1);
+        labels.add(VarNominal.MISSING_VALUE);
+        labels.addAll(levels);
+        List<String> sorted = new ArrayList<>(labels.stream().distinct().toList());
+        sorted.sort((v1, v2) -> {
+            boolean nan1 = VarNominal.MISSING_VALUE.equals(v1);
+            boolean nan2 = VarNominal.MISSING_VALUE.equals(v2);
+            if (nan1 || nan2) {
+                return Boolean.compare(nan2, nan1);
+            }
+            return v1.compareTo(v2);
+        });
+        HashMap<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            rank.put(sorted.get(i), i);
+        }
+        int[] indexRank = new int[labels.size()];
+        for (int i = 0; i < labels.size(); i++) {
+            indexRank[i] = rank.get(labels.get(i));
+        }
+        int n = var.size();
+        int[] ids = new int[n];
+        parallelFor(n, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                ids[i] = indexRank[var.getInt(i) + 1];
+            }
+        });
+        return new Dense(ids, sorted.size());
+    }
+
+    /**
+     * Encodes tuples of key ids into dense ids which follow the lexicographic order of the tuples.
+     *
+     * @param keys   dense ids for each key, all with the same length
+     * @param counts number of distinct ids for each key
+     * @param n      number of tuples
+     * @return dense tuple ids
+     */
+    static Dense encode(int[][] keys, int[] counts, int n) {
+        if (keys.length == 0) {
+            return new Dense(new int[n], n == 0 ? 0 : 1);
+        }
+        long[] codes = new long[n];
+        int[] first = keys[0];
+        parallelFor(n, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                codes[i] = first[i];
+            }
+        });
+        long radix = counts[0];
+        for (int j = 1; j < keys.length; j++) {
+            int count = counts[j];
+            if (radix > Long.MAX_VALUE / Math.max(1, count)) {
+                // mixed radix code overflows, densify the codes of the leading keys first
+                Dense dense = densify(codes);
+                int[] ids = dense.ids();
+                parallelFor(n, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        codes[i] = ids[i];
+                    }
+                });
+                radix = dense.count();
+            }
+            int[] key = keys[j];
+            parallelFor(n, (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    codes[i] = codes[i] * count + key[i];
+                }
+            });
+            radix *= count;
+        }
+        return densify(codes);
+    }
+
+    /**
+     * Replaces non-negative codes with dense ids which follow the order of the codes.
+     */
+    static Dense densify(long[] codes) {
+        int n = codes.length;
+        int partitions = n < PARALLEL_THRESHOLD ? 1 : Math.ceilDiv(n, PARTITION_SIZE);
+
+        // distinct codes of each partition
+        long[][] distinct = new long[partitions][];
+        IntStream.range(0, partitions).parallel().forEach(p -> {
+            int start = p * PARTITION_SIZE;
+            int end = partitions == 1 ? n : Math.min(n, start + PARTITION_SIZE);
+            Long2IntOpenHashMap local = new Long2IntOpenHashMap();
+            for (int i = start; i < end; i++) {
+                local.putIfAbsent(codes[i], 0);
+            }
+            distinct[p] = local.keys();
+        });
+
+        // merge partitions and assign ids in sorted order
+        Long2IntOpenHashMap global = new Long2IntOpenHashMap(distinct[0].length);
+        for (long[] keys : distinct) {
+            for (long key : keys) {
+                global.putIfAbsent(key, 0);
+            }
+        }
+        long[] sorted = global.keys();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            global.put(sorted[i], i);
+        }
+
+        int[] ids = new int[n];
+        parallelFor(n, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                ids[i] = global.get(codes[i]);
+            }
+        });
+        return new Dense(ids, sorted.length);
+    }
+
+    @FunctionalInterface
+    interface RangeTask {
+        void run(int start, int end);
+    }
+
+    static void parallelFor(int n, RangeTask task) {
+        if (n < PARALLEL_THRESHOLD) {
+            task.run(0, n);
+            return;
+        }
+        int partitions = Math.ceilDiv(n, PARTITION_SIZE);
+        IntStream.range(0, partitions).parallel().forEach(p -> task.run(p * PARTITION_SIZE, Math.min(n, (p + 1) * PARTITION_SIZE)));
+    }
+}
@@ -75,7 +75,7 @@ public class SolidFrame extends AbstractFrame {
     public static SolidFrame emptyFrom(Frame src, int rowCount) {
         Var[] vars = new Var[src.varCount()];
         for (int i = 0; i < vars.length; i++) {
-            vars[i] = src.rvar(i).type().newInstance(rowCount).name(src.rvar(i).name());
+            vars[i] = src.rvar(i).newInstance(rowCount).name(src.rvar(i).name());
         }
         return SolidFrame.byVars(vars);
     }
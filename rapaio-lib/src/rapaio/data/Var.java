@@ -590,7 +590,7 @@ public interface Var extends Serializable, Printable {
                     }
                 }
                 case INSTANT -> {
-                    if (!getInstant(i).equals(var.getInstant(i))) {
+                    if (!Objects.equals(getInstant(i), var.getInstant(i))) {
                         return false;
                     }
                 }
@@ -0,0 +1,399 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import rapaio.printer.Printer;
+import rapaio.printer.TextTable;
+import rapaio.printer.opt.POpt;
+import rapaio.util.collection.String2IntOpenHashMap;
+
+/**
+ * Categorical variable type for high cardinality data. It has the same behavior as {@link VarNominal}:
+ * the type is {@link VarType#NOMINAL}, values have label and index representations and missing values have index -1.
+ * <p>
+ * The differences are in storage. Indexes are stored as int values, thus the number of levels is limited only
+ * by memory, and the reverse index from labels to level indexes is an open addressing hash map with Murmur3
+ * hash codes and primitive int values. This makes this variable suitable for columns like identifiers, with
+ * millions of distinct labels, which can't be stored in a nominal variable.
+ */
+public final class VarCategorical extends AbstractVar {
+
+    /**
+     * Builds a new empty categorical variable
+     *
+     * @return new variable instance of categorical type
+     */
+    public static VarCategorical empty() {
+        return new VarCategorical(0);
+    }
+
+    /**
+     * Builds a new categorical variable of given size, with given term levels, filled with missing values.
+     *
+     * @param rows variable size
+     * @param dict term levels
+     * @return new variable instance of categorical type
+     */
+    public static VarCategorical empty(int rows, String... dict) {
+        return VarCategorical.empty(rows, Arrays.asList(dict));
+    }
+
+    /**
+     * Builds a new categorical variable of given size, with given term levels, filled with missing values.
+     *
+     * @param rows variable size
+     * @param dict term levels
+     * @return new variable instance of categorical type
+     */
+    public static VarCategorical empty(int rows, List<String> dict) {
+        VarCategorical categorical = new VarCategorical(dict.size());
+        for (String next : dict) {
+            if (!MISSING_VALUE.equals(next)) {
+                categorical.index(next);
+            }
+        }
+        categorical.data = new int[rows];
+        Arrays.fill(categorical.data, MISSING_INDEX);
+        categorical.rows = rows;
+        return categorical;
+    }
+
+    public static VarCategorical copy(String... values) {
+        return VarCategorical.copy(Arrays.asList(values));
+    }
+
+    public static VarCategorical copy(List<String> values) {
+        VarCategorical categorical = new VarCategorical(0);
+        categorical.data = new int[values.size()];
+        for (String value : values) {
+            categorical.addLabel(value);
+        }
+        return categorical;
+    }
+
+    public static VarCategorical from(int rows, Function<Integer, String> func, String... dict) {
+        VarCategorical categorical = VarCategorical.empty(rows, dict);
+        for (int i = 0; i < rows; i++) {
+            categorical.setLabel(i, func.apply(i));
+        }
+        return categorical;
+    }
+
+    /**
+     * Builds a categorical variable with the same labels as the given variable.
+     *
+     * @param source variable with label representation
+     * @return new categorical variable
+     */
+    public static VarCategorical from(Var source) {
+        VarCategorical categorical = VarCategorical.empty(source.size(), source.type().isNominal() ? source.levels() : List.of());
+        for (int i = 0; i < source.size(); i++) {
+            if (!source.isMissing(i)) {
+                categorical.setLabel(i, source.getLabel(i));
+            }
+        }
+        return categorical.name(source.name());
+    }
+
+    @Serial
+    private static final long serialVersionUID = 4619260470284356432L;
+    public static final String MISSING_VALUE = "?";
+    private static final int MISSING_INDEX = -1;
+
+    private int rows;
+    private ArrayList<String> dict;
+    private int[] data;
+    private String2IntOpenHashMap reverse;
+
+    private VarCategorical(int levels) {
+        this.reverse = new String2IntOpenHashMap(levels);
+        this.dict = new ArrayList<>(levels);
+        data = new int[0];
+        rows = 0;
+    }
+
+    /**
+     * Returns the index of the given label, adding the label to levels if it is not present.
+     */
+    private int index(String label) {
+        int value = reverse.putIfAbsent(label, dict.size());
+        if (value == String2IntOpenHashMap.MISSING) {
+            dict.add(label);
+            return dict.size() - 1;
+        }
+        return value;
+    }
+
+    @Override
+    public VarCategorical name(String name) {
+        return (VarCategorical) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.NOMINAL;
+    }
+
+    @Override
+    public void addRows(int rowCount) {
+        grow(rows + rowCount);
+        Arrays.fill(data, rows, rows + rowCount, MISSING_INDEX);
+        rows += rowCount;
+    }
+
+    @Override
+    public void removeRow(int index) {
+        int numMoved = rows - index - 1;
+        if (numMoved > 0) {
+            System.arraycopy(data, index + 1, data, index, numMoved);
+        }
+        rows--;
+    }
+
+    public void clearRows() {
+        rows = 0;
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity - data.length <= 0) {
+            return;
+        }
+
+        int oldCapacity = data.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity - minCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public int getInt(int row) {
+        return data[row];
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        if (value >= dict.size() || value < MISSING_INDEX) {
+            throw new IllegalArgumentException("Invalid value for categorical index.");
+        }
+        data[row] = value;
+    }
+
+    @Override
+    public void addInt(int value) {
+        grow(rows + 1);
+        rows++;
+        setInt(rows - 1, value);
+    }
+
+    @Override
+    public float getFloat(int row) {
+        return data[row];
+    }
+
+    @Override
+    public void setFloat(int row, float value) {
+        setInt(row, (int) Math.rint(value));
+    }
+
+    @Override
+    public void addFloat(float value) {
+        addInt((int) Math.rint(value));
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return data[row];
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        setInt(row, (int) Math.rint(value));
+    }
+
+    @Override
+    public void addDouble(double value) {
+        addInt((int) Math.rint(value));
+    }
+
+    @Override
+    public String getLabel(int row) {
+        return data[row] == MISSING_INDEX ? MISSING_VALUE : dict.get(data[row]);
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        data[row] = (value == null || value.equals(MISSING_VALUE)) ? MISSING_INDEX : index(value);
+    }
+
+    @Override
+    public void addLabel(String value) {
+        grow(rows + 1);
+        data[rows++] = (value == null || value.equals(MISSING_VALUE)) ? MISSING_INDEX : index(value);
+    }
+
+    @Override
+    public List<String> levels() {
+        return dict;
+    }
+
+    @Override
+    public void setLevels(String... dict) {
+        List<String> oldDict = this.dict;
+        if (this.dict.size() > dict.length) {
+            throw new IllegalArgumentException("new levels does not contains all old labels");
+        }
+
+        this.dict = new ArrayList<>(dict.length);
+        this.reverse = new String2IntOpenHashMap(dict.length);
+
+        int[] pos = new int[oldDict.size()];
+        for (int i = 0; i < dict.length; i++) {
+            int index = index(dict[i]);
+            if (i < oldDict.size()) {
+                pos[i] = index;
+            }
+        }
+
+        for (int i = 0; i < rows; i++) {
+            if (data[i] != MISSING_INDEX) {
+                data[i] = pos[data[i]];
+            }
+        }
+    }
+
+    @Override
+    public long getLong(int row) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void addLong(long value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void addInstant(Instant value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void setInstant(int row, Instant value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public Instant getInstant(int row) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return MISSING_INDEX == getInt(row);
+    }
+
+    @Override
+    public void setMissing(int row) {
+        data[row] = MISSING_INDEX;
+    }
+
+    @Override
+    public void addMissing() {
+        addLabel(MISSING_VALUE);
+    }
+
+    @Override
+    public Var newInstance(int rows) {
+        return VarCategorical.empty(rows, levels());
+    }
+
+    @Override
+    public VarCategorical copy() {
+        VarCategorical copy = VarCategorical.empty(0, dict).name(name());
+        copy.data = Arrays.copyOf(data, rows);
+        copy.rows = rows;
+        return copy;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(size());
+        out.writeInt(dict.size());
+        for (String factor : dict) {
+            out.writeUTF(factor);
+        }
+        for (int i = 0; i < size(); i++) {
+            out.writeInt(data[i]);
+        }
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException {
+        rows = in.readInt();
+        int len = in.readInt();
+        dict = new ArrayList<>(len);
+        reverse = new String2IntOpenHashMap(len);
+        for (int i = 0; i < len; i++) {
+            index(in.readUTF());
+        }
+        data = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            data[i] = in.readInt();
+        }
+    }
+
+    @Override
+    protected void textTablePutValue(TextTable tt, int i, int j, int row, Printer printer, POpt<?>[] options) {
+        tt.textCenter(i, j, getLabel(row));
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarCategorical";
+    }
+
+    @Override
+    protected int toStringDisplayValueCount() {
+        return 12;
+    }
+}
@@ -600,6 +600,15 @@ public final class VarDouble extends AbstractVar implements Iterable<Double> {
         return super.darray_(dtype);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray(DType<N> dtype) {
+        if (dtype == DType.DOUBLE) {
+            return (DArray<N>) DArrays.stride(Shape.of(rows), Order.C, Arrays.copyOf(data, rows));
+        }
+        return super.darray(dtype);
+    }
+
     @Serial
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.writeInt(size());
@@ -39,6 +39,11 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
 import rapaio.data.stream.VSpot;
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
@@ -556,6 +561,28 @@ public final class VarFloat extends AbstractVar implements Iterable<Float> {
         return copy;
     }
 
+    /**
+     * Builds a float array view over the backing array of the variable, without copying.
+     * Changes made through the view are visible in the variable and vice versa.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray_(DType<N> dtype) {
+        if (dtype == DType.FLOAT) {
+            return (DArray<N>) DArrayManager.base().stride(DType.FLOAT, Shape.of(rows), Order.C, data);
+        }
+        return super.darray_(dtype);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray(DType<N> dtype) {
+        if (dtype == DType.FLOAT) {
+            return (DArray<N>) DArrayManager.base().stride(DType.FLOAT, Shape.of(rows), Order.C, Arrays.copyOf(data, rows));
+        }
+        return super.darray(dtype);
+    }
+
     @Serial
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.writeInt(size());
@@ -39,6 +39,11 @@ import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.IntStream;
 
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
 import rapaio.printer.opt.POpt;
@@ -480,6 +485,29 @@ public final class VarInt extends AbstractVar implements Iterable<Integer> {
         return (VarInt) super.copy();
     }
 
+    /**
+     * Builds an integer array view over the backing array of the variable, without copying.
+     * Changes made through the view are visible in the variable and vice versa. Missing values
+     * are exposed as {@link #MISSING_VALUE}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray_(DType<N> dtype) {
+        if (dtype == DType.INTEGER) {
+            return (DArray<N>) DArrayManager.base().stride(DType.INTEGER, Shape.of(rows), Order.C, data);
+        }
+        return super.darray_(dtype);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray(DType<N> dtype) {
+        if (dtype == DType.INTEGER) {
+            return (DArray<N>) DArrayManager.base().stride(DType.INTEGER, Shape.of(rows), Order.C, Arrays.copyOf(data, rows));
+        }
+        return super.darray(dtype);
+    }
+
     @Serial
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.writeInt(size());
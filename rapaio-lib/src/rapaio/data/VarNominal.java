@@ -211,7 +211,16 @@ public final class VarNominal extends AbstractVar {
 
             @Override
             public BinaryOperator<VarNominal> combiner() {
-                return (left, right) -> (VarNominal) left.bindRows(right).copy();
+                return (left, right) -> {
+                    for (int i = 0; i < right.size(); i++) {
+                        if (right.isMissing(i)) {
+                            left.addMissing();
+                        } else {
+                            left.addLabel(right.getLabel(i));
+                        }
+                    }
+                    return left;
+                };
             }
 
             @Override
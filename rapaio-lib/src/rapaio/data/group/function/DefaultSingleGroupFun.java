@@ -22,7 +22,6 @@
 package rapaio.data.group.function;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import rapaio.data.Frame;
@@ -51,16 +50,32 @@ public abstract class DefaultSingleGroupFun extends DefaultGroupFun {
 
     public abstract void updateSingle(Var aggregate, int aggregateRow, Frame df, int varIndex, Mapping rows);
 
+    /**
+     * Computes the aggregated values for all groups at once, with columnar accumulators updated in a single
+     * pass over the rows. Implementations return {@code null} if the variable type is not supported, in which
+     * case the aggregation is computed for each group with {@link #updateSingle(Var, int, Frame, int, Mapping)}.
+     *
+     * @param group   group by data structure
+     * @param varName name of the aggregated variable
+     * @return aggregated variable or {@code null} if a columnar computation is not available
+     */
+    protected Var computeColumnar(Group group, String varName) {
+        return null;
+    }
+
     @Override
     public List<Var> compute(Group group) {
         List<Var> result = new ArrayList<>();
         VarInt ids = group.getSortedGroupIds();
         for (String varName : varNames) {
-            Var aggregate = buildVar(group, varName);
-            int index = group.getFrame().varIndex(varName);
-            for (int i = 0; i < ids.size(); i++) {
-                int groupId = ids.getInt(i);
-                updateSingle(aggregate, groupId, group.getFrame(), index, group.getRowsForGroupId(groupId));
+            Var aggregate = computeColumnar(group, varName);
+            if (aggregate == null) {
+                aggregate = buildVar(group, varName);
+                int index = group.getFrame().varIndex(varName);
+                for (int i = 0; i < ids.size(); i++) {
+                    int groupId = ids.getInt(i);
+                    updateSingle(aggregate, groupId, group.getFrame(), index, group.getRowsForGroupId(groupId));
+                }
             }
             if (normalizeLevel < 0) {
                 result.add(aggregate);
@@ -78,40 +93,27 @@ public abstract class DefaultSingleGroupFun extends DefaultGroupFun {
     private Var normalize(Group group, Var agg) {
         int count = group.getNumberOfGroups();
 
-        var groupIndex = group.getGroupIdToLastLevelIndex();
-
-        HashMap<Integer, Group.IndexNode> reducedGroup = new HashMap<>();
-        HashMap<Group.IndexNode, Double> sum = new HashMap<>();
-        for (int i = 0; i < count; i++) {
-            Group.IndexNode node = groupIndex.get(i);
-            for (int j = 0; j < normalizeLevel; j++) {
-                node = node.getParent();
-            }
-            reducedGroup.put(i, node);
-            sum.put(node, 0d);
-        }
-
         // accumulate at higher group
 
-        for (int i = 0; i < group.getNumberOfGroups(); i++) {
+        int[] parents = group.getParentGroupIds(normalizeLevel);
+        double[] sum = new double[count];
+        for (int i = 0; i < count; i++) {
             double value = agg.getDouble(i);
             if (Double.isNaN(value) || Double.isInfinite(value)) {
                 continue;
             }
-            Group.IndexNode node = reducedGroup.get(i);
-            sum.put(node, sum.get(node) + value);
+            sum[parents[i]] += value;
         }
 
         // normalize
 
         VarDouble normalized = VarDouble.empty(count).name(agg.name() + "_N" + normalizeLevel);
-        for (int i = 0; i < group.getNumberOfGroups(); i++) {
+        for (int i = 0; i < count; i++) {
             double value = agg.getDouble(i);
             if (Double.isNaN(value) || Double.isInfinite(value)) {
                 continue;
             }
-            Group.IndexNode node = reducedGroup.get(i);
-            double groupSum = sum.get(node);
+            double groupSum = sum[parents[i]];
             if (Double.isNaN(groupSum) || Double.isInfinite(groupSum) || groupSum == 0) {
                 continue;
             }
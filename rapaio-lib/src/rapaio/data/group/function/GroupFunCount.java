@@ -47,4 +47,13 @@ public class GroupFunCount extends DefaultSingleGroupFun {
     public void updateSingle(Var aggregate, int aggregateRow, Frame df, int varIndex, Mapping rows) {
         aggregate.setInt(aggregateRow, rows.size());
     }
+
+    @Override
+    protected Var computeColumnar(Group group, String varName) {
+        VarInt aggregate = (VarInt) buildVar(group, varName);
+        for (int i = 0; i < group.getNumberOfGroups(); i++) {
+            aggregate.setInt(i, group.getGroupSize(i));
+        }
+        return aggregate;
+    }
 }
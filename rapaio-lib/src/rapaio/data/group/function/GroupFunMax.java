@@ -21,12 +21,15 @@
 
 package rapaio.data.group.function;
 
+import java.util.Arrays;
 import java.util.List;
 
 import rapaio.data.Frame;
 import rapaio.data.Group;
 import rapaio.data.Mapping;
 import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/10/18.
@@ -39,7 +42,7 @@ public class GroupFunMax extends DefaultSingleGroupFun {
 
     @Override
     public Var buildVar(Group group, String varName) {
-        return group.getFrame().type(varName).newInstance(group.getNumberOfGroups()).name(varName + SEPARATOR + name);
+        return group.getFrame().rvar(varName).newInstance(group.getNumberOfGroups()).name(varName + SEPARATOR + name);
     }
 
     @Override
@@ -92,5 +95,46 @@ public class GroupFunMax extends DefaultSingleGroupFun {
             }
         }
     }
-}
 
+    @Override
+    protected Var computeColumnar(Group group, String varName) {
+        Var var = group.getFrame().rvar(varName);
+        int[] groupIds = group.getGroupIdsByRow();
+        int count = group.getNumberOfGroups();
+        switch (var.type()) {
+            case DOUBLE -> {
+                double[] values = new double[count];
+                Arrays.fill(values, Double.NaN);
+                for (int row = 0; row < groupIds.length; row++) {
+                    if (var.isMissing(row)) {
+                        continue;
+                    }
+                    int g = groupIds[row];
+                    double value = var.getDouble(row);
+                    if (Double.isNaN(values[g]) || values[g] < value) {
+                        values[g] = value;
+                    }
+                }
+                return VarDouble.wrap(values).name(varName + SEPARATOR + name);
+            }
+            case INT -> {
+                int[] values = new int[count];
+                Arrays.fill(values, Integer.MIN_VALUE);
+                for (int row = 0; row < groupIds.length; row++) {
+                    if (var.isMissing(row)) {
+                        continue;
+                    }
+                    int g = groupIds[row];
+                    int value = var.getInt(row);
+                    if (values[g] == Integer.MIN_VALUE || values[g] < value) {
+                        values[g] = value;
+                    }
+                }
+                return VarInt.wrap(values).name(varName + SEPARATOR + name);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+}
@@ -57,5 +57,28 @@ public class GroupFunMean extends DefaultSingleGroupFun {
             aggregate.setDouble(aggregateRow, os.mean());
         }
     }
-}
 
+    @Override
+    protected Var computeColumnar(Group group, String varName) {
+        Var var = group.getFrame().rvar(varName);
+        int[] groupIds = group.getGroupIdsByRow();
+        double[] mean = new double[group.getNumberOfGroups()];
+        int[] n = new int[group.getNumberOfGroups()];
+        for (int row = 0; row < groupIds.length; row++) {
+            if (var.isMissing(row)) {
+                continue;
+            }
+            int g = groupIds[row];
+            n[g]++;
+            // same running update as OnlineStat
+            mean[g] += (var.getDouble(row) - mean[g]) / n[g];
+        }
+        Var aggregate = buildVar(group, varName);
+        for (int i = 0; i < mean.length; i++) {
+            if (n[i] > 0) {
+                aggregate.setDouble(i, mean[i]);
+            }
+        }
+        return aggregate;
+    }
+}
@@ -55,5 +55,31 @@ public class GroupFunStd extends DefaultSingleGroupFun {
         }
         aggregate.setDouble(aggregateRow, os.sd());
     }
-}
 
+    @Override
+    protected Var computeColumnar(Group group, String varName) {
+        Var var = group.getFrame().rvar(varName);
+        int[] groupIds = group.getGroupIdsByRow();
+        double[] m1 = new double[group.getNumberOfGroups()];
+        double[] m2 = new double[group.getNumberOfGroups()];
+        int[] n = new int[group.getNumberOfGroups()];
+        for (int row = 0; row < groupIds.length; row++) {
+            if (var.isMissing(row)) {
+                continue;
+            }
+            int g = groupIds[row];
+            // same running update as OnlineStat
+            double n1 = n[g];
+            n[g]++;
+            double delta = var.getDouble(row) - m1[g];
+            double deltaN = delta / n[g];
+            m1[g] += deltaN;
+            m2[g] += delta * deltaN * n1;
+        }
+        Var aggregate = buildVar(group, varName);
+        for (int i = 0; i < m2.length; i++) {
+            aggregate.setDouble(i, Math.sqrt(m2[i] / n[i]));
+        }
+        return aggregate;
+    }
+}
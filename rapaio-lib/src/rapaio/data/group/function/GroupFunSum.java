@@ -57,5 +57,26 @@ public class GroupFunSum extends DefaultSingleGroupFun {
             return;
         aggregate.setDouble(aggregateRow, os.sum());
     }
-}
 
+    @Override
+    protected Var computeColumnar(Group group, String varName) {
+        Var var = group.getFrame().rvar(varName);
+        int[] groupIds = group.getGroupIdsByRow();
+        double[] sum = new double[group.getNumberOfGroups()];
+        int[] n = new int[group.getNumberOfGroups()];
+        for (int row = 0; row < groupIds.length; row++) {
+            if (var.isMissing(row)) {
+                continue;
+            }
+            sum[groupIds[row]] += var.getDouble(row);
+            n[groupIds[row]]++;
+        }
+        Var aggregate = buildVar(group, varName);
+        for (int i = 0; i < sum.length; i++) {
+            if (n[i] > 0) {
+                aggregate.setDouble(i, sum[i]);
+            }
+        }
+        return aggregate;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.transform;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import rapaio.darray.sparse.CooMatrix;
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarRange;
+import rapaio.data.VarType;
+import rapaio.util.hash.Murmur3;
+
+/**
+ * Replaces nominal and string columns from the given range with a fixed number of numeric columns, using
+ * the hashing trick. Each non missing label is hashed with Murmur3, seeded with a hash of the variable name,
+ * thus equal labels from different variables are hashed independently. The hash selects the output column which is
+ * incremented. If signed hashing is used, a bit of the hash selects also the sign of the increment, which makes
+ * the collisions cancel each other in expectation.
+ * <p>
+ * Since no dictionary is learned, fitting does not depend on data and the transformation can encode values
+ * not seen at fitting time. Encoding is done in a single pass over rows. For nominal variables the labels are
+ * hashed once for each level and rows are encoded using only the level indexes.
+ * <p>
+ * Hashed columns are named {@code hash_0} to {@code hash_(n-1)} and are placed after the remaining columns.
+ * The hashed features can also be obtained as a sparse matrix with {@link #applySparse(Frame)}.
+ */
+public class FeatureHashing extends AbstractTransform {
+
+    public static FeatureHashing on(int features, String... varNames) {
+        return new FeatureHashing(features, true, VarRange.of(varNames));
+    }
+
+    public static FeatureHashing on(int features, VarRange varRange) {
+        return new FeatureHashing(features, true, varRange);
+    }
+
+    public static FeatureHashing on(int features, boolean signed, VarRange varRange) {
+        return new FeatureHashing(features, signed, varRange);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -3380281618553520174L;
+    private final int features;
+    private final boolean signed;
+    private Set<String> hashed;
+
+    private FeatureHashing(int features, boolean signed, VarRange varRange) {
+        super(varRange);
+        if (features < 1) {
+            throw new IllegalArgumentException("Number of hashed features must be positive.");
+        }
+        this.features = features;
+        this.signed = signed;
+    }
+
+    @Override
+    public FeatureHashing newInstance() {
+        return new FeatureHashing(features, signed, varRange);
+    }
+
+    @Override
+    protected void coreFit(Frame df) {
+        hashed = new HashSet<>();
+        for (String varName : varNames) {
+            VarType type = df.rvar(varName).type();
+            if (type.isNominal() || type == VarType.STRING) {
+                hashed.add(varName);
+            }
+        }
+    }
+
+    @Override
+    protected Frame coreApply(Frame df) {
+        if (hashed.isEmpty()) {
+            return df;
+        }
+        double[][] columns = new double[features][df.rowCount()];
+        List<String> removed = encode(df, (row, column, value) -> columns[column][row] += value);
+
+        Var[] vars = new Var[features];
+        for (int i = 0; i < features; i++) {
+            vars[i] = VarDouble.wrap(columns[i]).name("hash_" + i);
+        }
+        Frame rest = df.removeVars(VarRange.of(removed));
+        // a frame without variables has no rows, thus it can not be bound
+        return rest.varCount() == 0 ? SolidFrame.byVars(vars) : rest.bindVars(vars);
+    }
+
+    /**
+     * Encodes the hashed variables into a sparse matrix in CSR format, with a row for each frame row and
+     * a column for each hashed feature. The other variables are not included. Memory is proportional with
+     * the number of non missing hashed values, instead of rows times features.
+     *
+     * @param df frame to be encoded
+     * @return sparse matrix with hashed features
+     */
+    public SparseMatrix applySparse(Frame df) {
+        if (!isTrained) {
+            throw new IllegalStateException("Cannot apply a transformation if it is not fitted on data.");
+        }
+        CooMatrix coo = CooMatrix.empty(df.rowCount(), features, df.rowCount() * Math.max(1, hashed.size()));
+        encode(df, coo::add);
+        return coo.toCsr();
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(int row, int column, double value);
+    }
+
+    /**
+     * Sends the hashed cell increments of all hashed variables to the consumer and returns the names
+     * of the encoded variables.
+     */
+    private List<String> encode(Frame df, CellConsumer cells) {
+        int rows = df.rowCount();
+        List<String> encoded = new ArrayList<>();
+        for (String varName : df.varNames()) {
+            if (!hashed.contains(varName)) {
+                continue;
+            }
+            encoded.add(varName);
+            Var var = df.rvar(varName);
+            int seed = Murmur3.murmur3A(varName, 0, varName.length(), 0);
+            if (var.type().isNominal()) {
+                // hash once each level, then encode rows using level indexes
+                List<String> levels = var.levels();
+                int[] column = new int[levels.size()];
+                double[] value = new double[levels.size()];
+                for (int i = 0; i < levels.size(); i++) {
+                    int h = hash(levels.get(i), seed);
+                    column[i] = column(h);
+                    value[i] = value(h);
+                }
+                for (int i = 0; i < rows; i++) {
+                    int index = var.getInt(i);
+                    if (index >= 0) {
+                        cells.accept(i, column[index], value[index]);
+                    }
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    if (!var.isMissing(i)) {
+                        int h = hash(var.getLabel(i), seed);
+                        cells.accept(i, column(h), value(h));
+                    }
+                }
+            }
+        }
+        return encoded;
+    }
+
+    private static int hash(String label, int seed) {
+        return Murmur3.murmur3A(label, 0, label.length(), seed);
+    }
+
+    private int column(int hash) {
+        return (hash & Integer.MAX_VALUE) % features;
+    }
+
+    private double value(int hash) {
+        return (signed && hash < 0) ? -1 : 1;
+    }
+}
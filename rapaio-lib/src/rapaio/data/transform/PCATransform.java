@@ -22,7 +22,7 @@
 package rapaio.data.transform;
 
 import java.io.Serial;
-import java.util.function.BiFunction;
+import java.io.Serializable;
 
 import rapaio.darray.DArray;
 import rapaio.data.Frame;
@@ -43,11 +43,14 @@ public class PCATransform extends AbstractTransform {
     }
 
     public static PCATransform featureCount(int max, VarRange varRange) {
-        return new PCATransform("pca_", (values, vectors) -> Math.min(values.size(), max), varRange);
+        return featureCount("pca_", max, varRange);
     }
 
     public static PCATransform featureCount(String prefix, int max, VarRange varRange) {
-        return new PCATransform(prefix, (values, vectors) -> Math.min(values.size(), max), varRange);
+        return new PCATransform(prefix, max, pca -> {
+            int size = pca.getValues().size();
+            return (size >= max || size == pca.getVectors().dim(0)) ? Math.min(size, max) : -1;
+        }, varRange, PCA.newModel());
     }
 
     public static PCATransform coverVariance(double minPercentage) {
@@ -63,8 +66,9 @@ public class PCATransform extends AbstractTransform {
     }
 
     public static PCATransform coverVariance(String prefix, double minPercentage, VarRange varRange) {
-        return new PCATransform(prefix, (values, vectors) -> {
-            double sum = values.sum();
+        return new PCATransform(prefix, 0, pca -> {
+            DArray<Double> values = pca.getValues();
+            double sum = pca.getTotalVariance();
             double cumsum = 0.0;
             for (int i = 0; i < values.size(); i++) {
                 cumsum += values.getDouble(i);
@@ -72,38 +76,83 @@ public class PCATransform extends AbstractTransform {
                     return i + 1;
                 }
             }
-            return values.size();
-        }, varRange);
+            return values.size() == pca.getVectors().dim(0) ? values.size() : -1;
+        }, varRange, PCA.newModel());
     }
 
     @Serial
     private static final long serialVersionUID = 2797285371357486124L;
 
+    /**
+     * Number of components computed first by truncated methods, when no other hint is available.
+     */
+    private static final int DEFAULT_COMPONENTS = 10;
+
+    /**
+     * Selects the number of components from a fitted model, or returns -1 if the model
+     * does not contain enough components.
+     */
+    @FunctionalInterface
+    interface Selector extends Serializable {
+        int select(PCA pca);
+    }
+
     final String prefix;
-    final BiFunction<DArray<Double>, DArray<Double>, Integer> kFun;
+    final int componentsHint;
+    final Selector selector;
+    final PCA model;
     private PCA pca;
 
-    private PCATransform(String prefix, BiFunction<DArray<Double>, DArray<Double>, Integer> kFun, VarRange varRange) {
+    private PCATransform(String prefix, int componentsHint, Selector selector, VarRange varRange, PCA model) {
         super(varRange);
         this.prefix = prefix;
-        this.kFun = kFun;
+        this.componentsHint = componentsHint;
+        this.selector = selector;
+        this.model = model;
+    }
+
+    /**
+     * Builds a transformation which fits principal components with a copy of the given model. This allows
+     * one to use truncated methods like {@link PCA.Method#RANDOMIZED_SVD} or {@link PCA.Method#LANCZOS}.
+     * Truncated methods compute only the required number of components; when the number of components depends on
+     * covered variance, the number of computed components is doubled until the variance is covered.
+     *
+     * @param model model with parameters used to fit principal components
+     * @return new transformation
+     */
+    public PCATransform withModel(PCA model) {
+        return new PCATransform(prefix, componentsHint, selector, varRange, model);
     }
 
     @Override
     public PCATransform newInstance() {
-        return new PCATransform(prefix, kFun, varRange);
+        return new PCATransform(prefix, componentsHint, selector, varRange, model);
     }
 
     @Override
     public void coreFit(Frame df) {
-        pca = PCA.newModel();
-        pca.fit(df.mapVars(varNames));
+        Frame x = df.mapVars(varNames);
+        int vars = x.varCount();
+        pca = model.newInstance();
+        int k = 0;
+        if (pca.method.get() != PCA.Method.EIGEN) {
+            int start = pca.components.get() > 0 ? pca.components.get() : componentsHint > 0 ? componentsHint : DEFAULT_COMPONENTS;
+            k = Math.min(vars, start);
+        }
+        while (true) {
+            pca.components.set(k);
+            pca.fit(x);
+            if (k == 0 || k == vars || selector.select(pca) >= 0) {
+                break;
+            }
+            k = Math.min(vars, 2 * k);
+        }
     }
 
     @Override
     public Frame coreApply(Frame df) {
         Frame rest = df.removeVars(VarRange.of(varNames));
-        int k = kFun.apply(pca.getValues(), pca.getVectors());
+        int k = selector.select(pca);
         Frame trans = pca.transform(prefix, df.mapVars(varNames), k);
         return rest.varCount() == 0 ? trans : rest.bindVars(trans);
     }
@@ -32,12 +32,29 @@ public final class Batch {
     private final TensorManager tm;
     private final TensorDataset<?> dataset;
     private final int[] indices;
+    private final DArray<?>[] arrays;
     private Tensor[] outputs;
 
     public Batch(TensorDataset<?> dataset, int[] indices) {
         this.tm = dataset.tm();
         this.dataset = dataset;
         this.indices = indices;
+        this.arrays = null;
+    }
+
+    /**
+     * Creates a batch from already gathered arrays. The first dimension of each array
+     * corresponds to the given indices.
+     *
+     * @param tm      tensor manager
+     * @param indices indices of the dataset instances contained in the batch
+     * @param arrays  gathered arrays
+     */
+    public Batch(TensorManager tm, int[] indices, DArray<?>[] arrays) {
+        this.tm = tm;
+        this.dataset = null;
+        this.indices = indices;
+        this.arrays = arrays;
     }
 
     public TensorManager tm() {
@@ -49,14 +66,20 @@ public final class Batch {
     }
 
     public Tensor tensor(int index) {
+        if (arrays != null) {
+            return tm.var(arrays[index]);
+        }
         return tm.var(dataset.darray(index).sel(0, indices));
     }
 
     public Tensor[] tensors() {
-        return Arrays.stream(dataset.darrays()).map(array -> tm.var(array.sel(0, indices))).toArray(Tensor[]::new);
+        return Arrays.stream(arrays()).map(tm::var).toArray(Tensor[]::new);
     }
 
     public DArray<?>[] arrays() {
+        if (arrays != null) {
+            return arrays;
+        }
         return Arrays.stream(dataset.darrays()).map(array -> array.sel(0, indices)).toArray(DArray[]::new);
     }
 
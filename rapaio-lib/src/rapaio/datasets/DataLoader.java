@@ -0,0 +1,238 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.datasets;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.nn.TensorManager;
+import rapaio.util.collection.Ints;
+
+/**
+ * Streams batches from a tensor dataset for training loops.
+ * <p>
+ * Each call to {@link #iterator()} starts a new epoch. The instance indices are shuffled if required, and batches
+ * are assembled by worker threads which copy the selected rows into reusable arrays. Up to {@code prefetch} batches
+ * are assembled ahead of the consumer, thus the training step does not wait for batch assembly when the workers
+ * keep up.
+ * <p>
+ * The arrays of a full batch are reused: a batch returned by the iterator is valid only until the next call of
+ * {@link Iterator#next()}. If a batch has to be kept, its arrays must be copied.
+ * <p>
+ * Since only the rows of a batch are copied, the dataset arrays can be backed by any storage. In particular,
+ * datasets larger than the available memory can be streamed from memory mapped arrays, created with
+ * {@link rapaio.darray.storage.segment.SegmentStorageManager#map}.
+ */
+public final class DataLoader implements Iterable<Batch>, AutoCloseable {
+
+    private final TensorDataset<?> dataset;
+    private final TensorManager tm;
+    private final int batchSize;
+    private final boolean shuffle;
+    private final boolean skipLast;
+    private final int prefetch;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedDeque<DArray<?>[]> buffers = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Creates a data loader which shuffles the instances, keeps the last smaller batch and
+     * assembles batches with a single worker thread, two batches ahead.
+     *
+     * @param dataset   source dataset
+     * @param batchSize number of instances in a batch
+     */
+    public DataLoader(TensorDataset<?> dataset, int batchSize) {
+        this(dataset, batchSize, true, false, 1, 2);
+    }
+
+    /**
+     * Creates a data loader.
+     *
+     * @param dataset   source dataset
+     * @param batchSize number of instances in a batch
+     * @param shuffle   if the instances are shuffled at the start of each epoch
+     * @param skipLast  if the last batch, which might be smaller, is skipped
+     * @param workers   number of worker threads, if zero, the batches are assembled on the caller thread
+     * @param prefetch  maximum number of batches assembled ahead of the consumer
+     */
+    public DataLoader(TensorDataset<?> dataset, int batchSize, boolean shuffle, boolean skipLast, int workers, int prefetch) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        if (workers < 0) {
+            throw new IllegalArgumentException("Number of workers must not be negative.");
+        }
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("Prefetch size must be positive.");
+        }
+        this.dataset = dataset;
+        this.tm = dataset.tm();
+        this.batchSize = batchSize;
+        this.shuffle = shuffle;
+        this.skipLast = skipLast;
+        this.prefetch = prefetch;
+        this.executor = workers == 0 ? null
+                : Executors.newFixedThreadPool(workers, Thread.ofPlatform().daemon().name("data-loader-", 0).factory());
+    }
+
+    /**
+     * @return number of batches in an epoch
+     */
+    public int len() {
+        int len = dataset.len();
+        return len / batchSize + ((!skipLast && len % batchSize != 0) ? 1 : 0);
+    }
+
+    @Override
+    public Iterator<Batch> iterator() {
+        int[] index = Ints.seq(dataset.len());
+        if (shuffle) {
+            Ints.shuffle(index, tm.random());
+        }
+        return new EpochIterator(index, len());
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        buffers.clear();
+    }
+
+    private Batch assemble(int[] indices, DArray<?>[] dst) {
+        DArray<?>[] src = dataset.darrays();
+        for (int i = 0; i < src.length; i++) {
+            gather(src[i], indices, dst[i]);
+        }
+        return new Batch(tm, indices, dst);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N extends Number> void gather(DArray<N> src, int[] indices, DArray<?> dst) {
+        DArray<N> out = (DArray<N>) dst;
+        if (out.dim(0) != indices.length) {
+            out = out.narrow(0, 0, indices.length);
+        }
+        // rows are copied one by one through views, thus no intermediate array is allocated
+        for (int r = 0; r < indices.length; r++) {
+            src.narrow(0, indices[r], indices[r] + 1).copyTo(out.narrow(0, r, r + 1));
+        }
+    }
+
+    private DArray<?>[] allocate(int rows) {
+        DArray<?>[] src = dataset.darrays();
+        DArray<?>[] dst = new DArray[src.length];
+        for (int i = 0; i < src.length; i++) {
+            int[] dims = Arrays.copyOf(src[i].shape().dims(), src[i].rank());
+            dims[0] = rows;
+            dst[i] = tm.arrayManager().zeros(src[i].dt(), Shape.of(dims), Order.C);
+        }
+        return dst;
+    }
+
+    private final class EpochIterator implements Iterator<Batch> {
+
+        private final int[] index;
+        private final int len;
+        private final ArrayDeque<Future<Batch>> window = new ArrayDeque<>();
+        private int submitted = 0;
+        private int consumed = 0;
+        private DArray<?>[] held;
+
+        EpochIterator(int[] index, int len) {
+            this.index = index;
+            this.len = len;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (consumed < len) {
+                return true;
+            }
+            // the epoch is over and the consumer is done with the last batch
+            recycle();
+            return false;
+        }
+
+        @Override
+        public Batch next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            recycle();
+            fill();
+            Batch batch = join(window.pollFirst());
+            consumed++;
+            if (batch.indices().length == batchSize) {
+                held = batch.arrays();
+            }
+            fill();
+            return batch;
+        }
+
+        private void recycle() {
+            if (held != null) {
+                buffers.addFirst(held);
+                held = null;
+            }
+        }
+
+        private void fill() {
+            while (window.size() < prefetch && submitted < len) {
+                int start = submitted * batchSize;
+                int[] indices = Arrays.copyOfRange(index, start, Math.min(start + batchSize, index.length));
+                DArray<?>[] dst = null;
+                if (indices.length == batchSize) {
+                    dst = buffers.pollFirst();
+                }
+                DArray<?>[] out = (dst == null) ? allocate(indices.length) : dst;
+                window.addLast(executor == null
+                        ? CompletableFuture.completedFuture(assemble(indices, out))
+                        : executor.submit(() -> assemble(indices, out)));
+                submitted++;
+            }
+        }
+
+        private Batch join(Future<Batch> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+}
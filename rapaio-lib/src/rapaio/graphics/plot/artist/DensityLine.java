@@ -83,21 +83,38 @@ public class DensityLine extends Artist {
 
     @Override
     public void updateDataRange(Graphics2D g2d) {
-        var.stream().complete().forEach(s -> {
-            union(kde.kernel().minValue(s.getDouble(), bandwidth), 0);
-            union(kde.kernel().maxValue(s.getDouble(), bandwidth), kde.pdf(s.getDouble()));
-        });
+        double min = Double.NaN;
+        double max = Double.NaN;
+        for (int i = 0; i < var.size(); i++) {
+            if (var.isMissing(i)) {
+                continue;
+            }
+            double value = var.getDouble(i);
+            min = Double.isNaN(min) ? value : Math.min(min, value);
+            max = Double.isNaN(max) ? value : Math.max(max, value);
+        }
+        if (Double.isNaN(min)) {
+            return;
+        }
+        double from = kde.kernel().minValue(min, bandwidth);
+        double to = kde.kernel().maxValue(max, bandwidth);
+        double[] y = kde.gridPdf(from, to, options.getPoints() + 1);
+        double ymax = 0;
+        for (double v : y) {
+            ymax = Math.max(ymax, v);
+        }
+        union(from, 0);
+        union(to, ymax);
     }
 
     @Override
     public void paint(Graphics2D g2d) {
         Var x = VarDouble.fill(options.getPoints() + 1, 0);
-        Var y = VarDouble.fill(options.getPoints() + 1, 0);
         double xstep = plot.xAxis().length() / options.getPoints();
         for (int i = 0; i < x.size(); i++) {
             x.setDouble(i, plot.xAxis().min() + i * xstep);
-            y.setDouble(i, kde.pdf(x.getDouble(i)));
         }
+        Var y = VarDouble.wrap(kde.gridPdf(x.getDouble(0), x.getDouble(x.size() - 1), x.size()));
 
         Composite oldComposite = g2d.getComposite();
         g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, options.getAlpha()));
@@ -0,0 +1,358 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.io;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.storage.segment.SegmentStorageManager;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarFloat;
+import rapaio.data.VarInstant;
+import rapaio.data.VarInt;
+import rapaio.data.VarLong;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
+
+/**
+ * Reader for files written with {@link ColumnarIO}.
+ * <p>
+ * The whole file is memory mapped when opened and only the header and metadata are parsed. Variable values are
+ * read on request, only for the selected variables and row ranges. Numeric variables can also be accessed without
+ * copying as {@link DArray} views over the mapped file, see {@link #darray(String)}.
+ * <p>
+ * The mapping is released when the file is closed, after which views obtained from this file are no longer valid.
+ */
+public final class ColumnarFile implements AutoCloseable {
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Statistics of a chunk of rows from a variable. Minimum and maximum values are computed on non missing values
+     * of numeric variables and are dictionary indexes for nominal variables. They are {@code NaN} if not available.
+     *
+     * @param start   first row of the chunk
+     * @param rows    number of rows in the chunk
+     * @param missing number of missing values
+     * @param min     minimum value
+     * @param max     maximum value
+     */
+    public record ChunkStats(int start, int rows, int missing, double min, double max) {
+    }
+
+    private record Column(String name, VarType type, long offset, long offset2, long missingOffset,
+                          List<String> dict, List<ChunkStats> stats) {
+    }
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int rows;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Column> columns = new HashMap<>();
+
+    ColumnarFile(Path path) throws IOException {
+        arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        if (segment.byteSize() < ColumnarIO.HEADER_BYTES || segment.get(LONG, 0) != ColumnarIO.MAGIC) {
+            arena.close();
+            throw new IOException("File is not in columnar format: " + path);
+        }
+        int version = segment.get(INT, 8);
+        if (version != ColumnarIO.VERSION) {
+            arena.close();
+            throw new IOException("Columnar format version " + version + " is not supported.");
+        }
+        rows = segment.get(INT, 12);
+        int chunkRows = segment.get(INT, 16);
+        int varCount = segment.get(INT, 20);
+        long pos = segment.get(LONG, 24);
+
+        int chunks = Math.ceilDiv(rows, chunkRows);
+        for (int i = 0; i < varCount; i++) {
+            String name = getString(pos);
+            pos += Integer.BYTES + segment.get(INT, pos);
+            String typeName = getString(pos);
+            pos += Integer.BYTES + segment.get(INT, pos);
+            long offset = segment.get(LONG, pos);
+            long offset2 = segment.get(LONG, pos + 8);
+            long missingOffset = segment.get(LONG, pos + 16);
+            pos += 24;
+            int dictSize = segment.get(INT, pos);
+            pos += Integer.BYTES;
+            List<String> dict = new ArrayList<>(dictSize);
+            for (int j = 0; j < dictSize; j++) {
+                dict.add(getString(pos));
+                pos += Integer.BYTES + segment.get(INT, pos);
+            }
+            List<ChunkStats> stats = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int start = c * chunkRows;
+                stats.add(new ChunkStats(start, Math.min(rows, start + chunkRows) - start,
+                        segment.get(INT, pos), segment.get(DOUBLE, pos + 4), segment.get(DOUBLE, pos + 12)));
+                pos += 20;
+            }
+            names.add(name);
+            columns.put(name, new Column(name, VarType.valueOf(typeName), offset, offset2, missingOffset,
+                    Collections.unmodifiableList(dict), Collections.unmodifiableList(stats)));
+        }
+    }
+
+    private String getString(long pos) {
+        int len = segment.get(INT, pos);
+        byte[] bytes = new byte[len];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, pos + Integer.BYTES, bytes, 0, len);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Column column(String name) {
+        Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Variable " + name + " does not exist.");
+        }
+        return column;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public List<String> varNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public VarType type(String name) {
+        return column(name).type;
+    }
+
+    /**
+     * @return statistics for each chunk of rows of the given variable
+     */
+    public List<ChunkStats> stats(String name) {
+        return column(name).stats;
+    }
+
+    public Var var(String name) {
+        return var(name, 0, rows);
+    }
+
+    /**
+     * Reads values from the given range of rows of a variable.
+     *
+     * @param name  variable name
+     * @param start first row, inclusive
+     * @param end   last row, exclusive
+     * @return new variable with the selected values
+     */
+    public Var var(String name, int start, int end) {
+        if (start < 0 || end > rows || start > end) {
+            throw new IllegalArgumentException("Invalid row range [" + start + "," + end + ") for " + rows + " rows.");
+        }
+        Column c = column(name);
+        int len = end - start;
+        Var var = switch (c.type) {
+            case DOUBLE -> {
+                double[] values = new double[len];
+                MemorySegment.copy(segment, DOUBLE, c.offset + (long) start * Double.BYTES, values, 0, len);
+                yield VarDouble.wrap(values);
+            }
+            case FLOAT -> {
+                float[] values = new float[len];
+                MemorySegment.copy(segment, FLOAT, c.offset + (long) start * Float.BYTES, values, 0, len);
+                yield VarFloat.wrap(values);
+            }
+            case INT -> {
+                int[] values = new int[len];
+                MemorySegment.copy(segment, INT, c.offset + (long) start * Integer.BYTES, values, 0, len);
+                yield VarInt.wrap(values);
+            }
+            case LONG -> {
+                long[] values = new long[len];
+                MemorySegment.copy(segment, LONG, c.offset + (long) start * Long.BYTES, values, 0, len);
+                yield VarLong.wrap(values);
+            }
+            case BINARY -> {
+                VarBinary v = VarBinary.empty(len);
+                for (int i = 0; i < len; i++) {
+                    if (!isMissing(c, start + i)) {
+                        v.setInt(i, segment.get(ValueLayout.JAVA_BYTE, c.offset + start + i));
+                    } else {
+                        v.setMissing(i);
+                    }
+                }
+                yield v;
+            }
+            case NOMINAL -> {
+                VarNominal v = VarNominal.empty(len, c.dict);
+                for (int i = 0; i < len; i++) {
+                    v.setInt(i, segment.get(INT, c.offset + (long) (start + i) * Integer.BYTES));
+                }
+                yield v;
+            }
+            case INSTANT -> {
+                VarInstant v = VarInstant.empty(len);
+                for (int i = 0; i < len; i++) {
+                    if (!isMissing(c, start + i)) {
+                        long seconds = segment.get(LONG, c.offset + (long) (start + i) * Long.BYTES);
+                        int nanos = segment.get(INT, c.offset2 + (long) (start + i) * Integer.BYTES);
+                        v.setInstant(i, Instant.ofEpochSecond(seconds, nanos));
+                    } else {
+                        v.setMissing(i);
+                    }
+                }
+                yield v;
+            }
+            case STRING -> {
+                VarString v = VarString.empty(len);
+                for (int i = 0; i < len; i++) {
+                    if (!isMissing(c, start + i)) {
+                        long from = segment.get(LONG, c.offset + (long) (start + i) * Long.BYTES);
+                        long to = segment.get(LONG, c.offset + (long) (start + i + 1) * Long.BYTES);
+                        byte[] bytes = new byte[(int) (to - from)];
+                        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, c.offset2 + from, bytes, 0, bytes.length);
+                        v.setLabel(i, new String(bytes, StandardCharsets.UTF_8));
+                    } else {
+                        v.setMissing(i);
+                    }
+                }
+                yield v;
+            }
+        };
+        return var.name(name);
+    }
+
+    private boolean isMissing(Column c, int row) {
+        if (c.missingOffset < 0) {
+            return false;
+        }
+        long bits = segment.get(LONG, c.missingOffset + (long) (row >>> 6) * Long.BYTES);
+        return (bits & (1L << (row & 63))) != 0;
+    }
+
+    /**
+     * @return true if the value at the given row of a variable is missing, false otherwise
+     */
+    public boolean isMissing(String name, int row) {
+        return isMissing(column(name), row);
+    }
+
+    public Frame frame() {
+        return frame(0, rows, names.toArray(String[]::new));
+    }
+
+    public Frame frame(String... varNames) {
+        return frame(0, rows, varNames);
+    }
+
+    /**
+     * Reads the given range of rows from selected variables.
+     *
+     * @param start    first row, inclusive
+     * @param end      last row, exclusive
+     * @param varNames names of the variables to read, all variables if no names are given
+     * @return new frame with selected rows and variables
+     */
+    public Frame frame(int start, int end, String... varNames) {
+        String[] selection = varNames.length == 0 ? names.toArray(String[]::new) : varNames;
+        return SolidFrame.byVars(Arrays.stream(selection).map(name -> var(name, start, end)).toList());
+    }
+
+    /**
+     * Builds a one dimensional array view over the values of a double, float or int variable. The values are
+     * not copied, the array is backed by the mapped file and is valid as long as this file is not closed.
+     * Missing values are represented by the variable missing value ({@code NaN} for double and float variables).
+     * <p>
+     * Memory segment storages use native byte order. On big endian platforms the values are copied instead.
+     *
+     * @param name variable name
+     * @return read only array view over variable values
+     */
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> darray(String name) {
+        Column c = column(name);
+        DType<?> dt = switch (c.type) {
+            case DOUBLE -> DType.DOUBLE;
+            case FLOAT -> DType.FLOAT;
+            case INT -> DType.INTEGER;
+            default -> throw new IllegalArgumentException("Variable " + name + " of type " + c.type
+                    + " cannot be viewed as an array.");
+        };
+        MemorySegment slice = segment.asSlice(c.offset, (long) rows * dt.byteCount());
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            slice = Arena.ofAuto().allocate(slice.byteSize(), Long.BYTES).copyFrom(slice);
+            switch (c.type) {
+                case DOUBLE -> {
+                    for (int i = 0; i < rows; i++) {
+                        slice.setAtIndex(ValueLayout.JAVA_DOUBLE_UNALIGNED, i, slice.getAtIndex(DOUBLE, i));
+                    }
+                }
+                case FLOAT -> {
+                    for (int i = 0; i < rows; i++) {
+                        slice.setAtIndex(ValueLayout.JAVA_FLOAT_UNALIGNED, i, slice.getAtIndex(FLOAT, i));
+                    }
+                }
+                default -> {
+                    for (int i = 0; i < rows; i++) {
+                        slice.setAtIndex(ValueLayout.JAVA_INT_UNALIGNED, i, slice.getAtIndex(INT, i));
+                    }
+                }
+            }
+        }
+        SegmentStorageManager sm = new SegmentStorageManager(arena);
+        return (DArray<N>) DArrayManager.base().stride((DType<N>) dt, Shape.of(rows), Order.C, sm.wrap(dt, slice));
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
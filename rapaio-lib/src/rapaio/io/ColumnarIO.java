@@ -0,0 +1,410 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarFloat;
+import rapaio.data.VarInt;
+import rapaio.data.VarType;
+
+/**
+ * Binary columnar persistence for frames.
+ * <p>
+ * Each variable is stored as a contiguous typed block of values, followed by an optional bitmap of missing values.
+ * Nominal variables are stored as dictionary indexes, with the dictionary kept in metadata. Values are split in chunks
+ * of rows and for each chunk the count of missing values and the minimum and maximum values are stored in metadata,
+ * such that readers can skip row ranges without reading values.
+ * <p>
+ * File layout, all values are written in little endian byte order:
+ * <pre>
+ * header   : magic (long), version (int), rows (int), chunk rows (int), variables (int), metadata offset (long)
+ * blocks   : for each variable a value block and an optional missing bitmap, each block aligned at 8 bytes
+ * metadata : for each variable name, type, block offsets, dictionary and chunk statistics
+ * </pre>
+ * Value blocks have the following content:
+ * <ul>
+ *     <li>double and long variables as 8 bytes values, float and int variables as 4 bytes values;</li>
+ *     <li>binary variables as one byte for each value;</li>
+ *     <li>nominal variables as 4 bytes dictionary indexes, with -1 for missing values;</li>
+ *     <li>instant variables as 8 bytes epoch seconds followed by 4 bytes nanosecond adjustments;</li>
+ *     <li>string variables as {@code rows + 1} 8 bytes offsets followed by utf-8 encoded bytes.</li>
+ * </ul>
+ * Missing values are stored as the variable missing value, thus numeric blocks can be used directly.
+ * Files are read through {@link ColumnarFile} which memory maps the file and reads only requested variables and rows.
+ */
+public final class ColumnarIO {
+
+    static final long MAGIC = 0x31434F4941504152L; // "RAPAIOC1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * Default number of rows in a chunk.
+     */
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+    private ColumnarIO() {
+    }
+
+    public static void write(Frame df, Path path) throws IOException {
+        write(df, path, DEFAULT_CHUNK_ROWS);
+    }
+
+    /**
+     * Writes a frame in columnar format.
+     *
+     * @param df        frame to write
+     * @param path      destination file, which is replaced if it exists
+     * @param chunkRows number of rows in a chunk used for statistics
+     */
+    public static void write(Frame df, Path path, int chunkRows) throws IOException {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Number of rows in a chunk must be positive.");
+        }
+        int rows = df.rowCount();
+        int chunks = Math.ceilDiv(rows, chunkRows);
+        long[][] offsets = new long[df.varCount()][];
+        try (Sink sink = new Sink(path)) {
+            sink.skip(HEADER_BYTES);
+            for (int i = 0; i < df.varCount(); i++) {
+                offsets[i] = writeBlocks(sink, df.rvar(i));
+            }
+
+            long metaOffset = sink.position();
+            for (int i = 0; i < df.varCount(); i++) {
+                Var var = df.rvar(i);
+                sink.putString(var.name());
+                sink.putString(var.type().name());
+                for (long offset : offsets[i]) {
+                    sink.putLong(offset);
+                }
+                List<String> dict = var.type() == VarType.NOMINAL ? var.levels() : List.of();
+                sink.putInt(dict.size());
+                for (String label : dict) {
+                    sink.putString(label);
+                }
+                for (int c = 0; c < chunks; c++) {
+                    int start = c * chunkRows;
+                    writeStats(sink, var, start, Math.min(rows, start + chunkRows));
+                }
+            }
+            sink.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(rows).putInt(chunkRows).putInt(df.varCount()).putLong(metaOffset);
+            sink.write(header.flip(), 0);
+        }
+    }
+
+    /**
+     * Opens a columnar file for reading.
+     */
+    public static ColumnarFile open(Path path) throws IOException {
+        return new ColumnarFile(path);
+    }
+
+    /**
+     * Reads variables from a columnar file. If no variable names are given all variables are read.
+     */
+    public static Frame read(Path path, String... varNames) throws IOException {
+        try (ColumnarFile file = open(path)) {
+            return varNames.length == 0 ? file.frame() : file.frame(varNames);
+        }
+    }
+
+    /**
+     * Writes value block and missing bitmap and returns offsets of value block, second value block, and missing bitmap.
+     * Offsets of absent blocks are -1.
+     */
+    private static long[] writeBlocks(Sink sink, Var var) throws IOException {
+        int rows = var.size();
+        long[] offsets = new long[] {sink.position(), -1, -1};
+        switch (var.type()) {
+            case DOUBLE -> {
+                if (var instanceof VarDouble v) {
+                    sink.putDoubles(v.elements(), rows);
+                } else {
+                    for (int i = 0; i < rows; i++) {
+                        sink.putDouble(var.getDouble(i));
+                    }
+                }
+            }
+            case FLOAT -> {
+                if (var instanceof VarFloat v) {
+                    sink.putFloats(v.elements(), rows);
+                } else {
+                    for (int i = 0; i < rows; i++) {
+                        sink.putFloat(var.getFloat(i));
+                    }
+                }
+            }
+            case INT -> {
+                if (var instanceof VarInt v) {
+                    sink.putInts(v.elements(), rows);
+                } else {
+                    for (int i = 0; i < rows; i++) {
+                        sink.putInt(var.getInt(i));
+                    }
+                }
+            }
+            case LONG -> {
+                for (int i = 0; i < rows; i++) {
+                    sink.putLong(var.getLong(i));
+                }
+            }
+            case BINARY -> {
+                for (int i = 0; i < rows; i++) {
+                    sink.putByte((byte) (var.isMissing(i) ? 0 : var.getInt(i)));
+                }
+            }
+            case NOMINAL -> {
+                for (int i = 0; i < rows; i++) {
+                    sink.putInt(var.isMissing(i) ? -1 : var.getInt(i));
+                }
+            }
+            case INSTANT -> {
+                for (int i = 0; i < rows; i++) {
+                    sink.putLong(var.isMissing(i) ? 0 : var.getInstant(i).getEpochSecond());
+                }
+                sink.align();
+                offsets[1] = sink.position();
+                for (int i = 0; i < rows; i++) {
+                    sink.putInt(var.isMissing(i) ? 0 : var.getInstant(i).getNano());
+                }
+            }
+            case STRING -> {
+                byte[][] bytes = new byte[rows][];
+                long offset = 0;
+                for (int i = 0; i < rows; i++) {
+                    bytes[i] = isMissing(var, i) ? new byte[0] : var.getLabel(i).getBytes(StandardCharsets.UTF_8);
+                    sink.putLong(offset);
+                    offset += bytes[i].length;
+                }
+                sink.putLong(offset);
+                offsets[1] = sink.position();
+                for (byte[] b : bytes) {
+                    sink.putBytes(b);
+                }
+            }
+        }
+        sink.align();
+
+        long[] missing = new long[Math.ceilDiv(rows, 64)];
+        boolean hasMissing = false;
+        for (int i = 0; i < rows; i++) {
+            if (isMissing(var, i)) {
+                missing[i >>> 6] |= 1L << (i & 63);
+                hasMissing = true;
+            }
+        }
+        if (hasMissing) {
+            offsets[2] = sink.position();
+            for (long bits : missing) {
+                sink.putLong(bits);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * String variables can contain unset {@code null} values, which are stored as missing values.
+     */
+    private static boolean isMissing(Var var, int row) {
+        return var.isMissing(row) || (var.type() == VarType.STRING && var.getLabel(row) == null);
+    }
+
+    private static void writeStats(Sink sink, Var var, int start, int end) throws IOException {
+        int missing = 0;
+        double min = Double.NaN;
+        double max = Double.NaN;
+        boolean numeric = switch (var.type()) {
+            case STRING, INSTANT -> false;
+            default -> true;
+        };
+        for (int i = start; i < end; i++) {
+            if (isMissing(var, i)) {
+                missing++;
+                continue;
+            }
+            if (numeric) {
+                double value = var.type() == VarType.NOMINAL ? var.getInt(i) : var.getDouble(i);
+                min = Double.isNaN(min) ? value : Math.min(min, value);
+                max = Double.isNaN(max) ? value : Math.max(max, value);
+            }
+        }
+        sink.putInt(missing);
+        sink.putDouble(min);
+        sink.putDouble(max);
+    }
+
+    /**
+     * Buffered little endian writer over a file channel which keeps track of the written position.
+     */
+    private static final class Sink implements Closeable {
+
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Sink(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        long position() {
+            return position;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void write(ByteBuffer bytes, long offset) throws IOException {
+            while (bytes.hasRemaining()) {
+                offset += channel.write(bytes, offset);
+            }
+        }
+
+        void skip(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) {
+                putByte((byte) 0);
+            }
+        }
+
+        void align() throws IOException {
+            while ((position & 7) != 0) {
+                putByte((byte) 0);
+            }
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            int pos = 0;
+            while (pos < values.length) {
+                ensure(1);
+                int len = Math.min(buffer.remaining(), values.length - pos);
+                buffer.put(values, pos, len);
+                pos += len;
+                position += len;
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+            position += Float.BYTES;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+            position += Double.BYTES;
+        }
+
+        void putInts(int[] values, int len) throws IOException {
+            int pos = 0;
+            while (pos < len) {
+                ensure(Integer.BYTES);
+                int n = Math.min(buffer.remaining() / Integer.BYTES, len - pos);
+                buffer.asIntBuffer().put(values, pos, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                pos += n;
+                position += (long) n * Integer.BYTES;
+            }
+        }
+
+        void putFloats(float[] values, int len) throws IOException {
+            int pos = 0;
+            while (pos < len) {
+                ensure(Float.BYTES);
+                int n = Math.min(buffer.remaining() / Float.BYTES, len - pos);
+                buffer.asFloatBuffer().put(values, pos, n);
+                buffer.position(buffer.position() + n * Float.BYTES);
+                pos += n;
+                position += (long) n * Float.BYTES;
+            }
+        }
+
+        void putDoubles(double[] values, int len) throws IOException {
+            int pos = 0;
+            while (pos < len) {
+                ensure(Double.BYTES);
+                int n = Math.min(buffer.remaining() / Double.BYTES, len - pos);
+                buffer.asDoubleBuffer().put(values, pos, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                pos += n;
+                position += (long) n * Double.BYTES;
+            }
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
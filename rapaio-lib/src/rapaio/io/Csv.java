@@ -36,6 +36,8 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -179,8 +181,35 @@ public class Csv extends ParamSet<Csv> {
      */
     public final ValueParam<Frame, Csv> template = new ValueParam<>(this, null, "template", _ -> true);
 
+    /**
+     * Number of threads used to parse csv files. A negative value means all available cores except one.
+     * Parallel parsing is used only when reading from files, see {@link #read(File)}.
+     */
+    public final ValueParam<Integer, Csv> poolSize = new ValueParam<>(this, -1, "poolSize", _ -> true);
+
+    /**
+     * Number of data rows used to infer the variable types before a file is parsed in parallel chunks.
+     * If a value which does not fit the inferred type is found later in the file, the type of the variable
+     * is upgraded and the variable is parsed again.
+     */
+    public final ValueParam<Integer, Csv> sampleRows = new ValueParam<>(this, 1_000, "sampleRows", x -> x != null && x > 0);
+
+    /**
+     * Reads a frame from a csv file. When the configured parameters allows it, the file is memory mapped,
+     * split in chunks aligned with line boundaries and the chunks are parsed in parallel directly from bytes.
+     * Parallel parsing is not used when a template, custom parsers, row filters or start and end rows are configured.
+     *
+     * @param file csv file
+     * @return parsed frame
+     */
     public Frame read(File file) {
         try {
+            if (canReadChunks()) {
+                Frame df = new CsvChunkReader(this).read(file.toPath());
+                if (df != null) {
+                    return df;
+                }
+            }
             return read(new FileInputStream(file));
         } catch (IOException e) {
             throw new RuntimeException("error at reading file: " + file.getAbsolutePath(), e);
@@ -196,11 +225,7 @@ public class Csv extends ParamSet<Csv> {
     }
 
     public Frame read(String fileName) {
-        try {
-            return read(new FileInputStream(fileName));
-        } catch (IOException e) {
-            throw new RuntimeException("error at reading file", e);
-        }
+        return read(new File(fileName));
     }
 
     public Frame readUrl(String url) {
@@ -320,6 +345,49 @@ public class Csv extends ParamSet<Csv> {
         return SolidFrame.byVars(rows - startRow.get(), variables);
     }
 
+    /**
+     * Chunked parsing works on bytes and handles only default parsers, ascii separator and escape chars and
+     * no row filtering.
+     */
+    private boolean canReadChunks() {
+        return template.get() == null
+                && typeParsers.get().isEmpty()
+                && varParsers.get().isEmpty()
+                && keepRows.hasDefaultValue()
+                && startRow.get() == 0
+                && endRow.get() == Integer.MAX_VALUE
+                && separatorChar.get() < 128 && separatorChar.get() != '\n' && separatorChar.get() != '\r'
+                && escapeChar.get() < 128
+                && Charset.defaultCharset().equals(StandardCharsets.UTF_8);
+    }
+
+    int threads() {
+        return (poolSize.get() < 0)
+                ? Math.max(Runtime.getRuntime().availableProcessors() - 1, 1)
+                : Math.max(1, poolSize.get());
+    }
+
+    /**
+     * Infers variable types from a sample of rows, using the same type detection rules as the sequential read.
+     *
+     * @param names variable names
+     * @param rows  sample of parsed rows, no row should have more values than names
+     * @return inferred variable types
+     */
+    List<VarType> inferTypes(List<String> names, List<List<String>> rows) {
+        List<VarType> types = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            VarType type = varTypes.getReverseKey(name);
+            VarSlot slot = (type != null) ? new VarSlot(this, name, type, 0) : new VarSlot(this, name, 0);
+            for (List<String> row : rows) {
+                slot.addValue(i < row.size() ? row.get(i) : "?");
+            }
+            types.add(slot.var.type());
+        }
+        return types;
+    }
+
     public List<String> parseLine(String line) {
         List<String> data = new ArrayList<>();
         int start = 0;
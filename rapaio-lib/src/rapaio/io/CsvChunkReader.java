@@ -0,0 +1,914 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import rapaio.data.BoundVar;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarLong;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
+import rapaio.text.Parsers;
+import rapaio.text.TextParserException;
+import rapaio.util.IntRule;
+
+/**
+ * Parallel csv reader which parses values directly from the bytes of a memory mapped file.
+ * <p>
+ * The header and a sample of rows are parsed first as text, in order to obtain the variable names and the
+ * initial variable types. The data is split in chunks aligned to line boundaries and each chunk is parsed
+ * on its own thread into primitive buffers, without building a string for each field. If a chunk contains a
+ * value which does not fit the sampled type of a variable, that variable is upgraded to the next default type
+ * which accepts the value and only the upgraded variables are parsed again. At the end the buffers of all chunks
+ * are concatenated into variables.
+ * <p>
+ * The reader returns {@code null} when the file cannot be handled in chunks (empty files or rows with more values
+ * than the number of variables), in which case the caller falls back to the sequential reader.
+ */
+final class CsvChunkReader {
+
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private final Csv csv;
+    private final byte separator;
+    private final byte escape;
+    private final boolean strip;
+    private final IntRule keepCols;
+    private final byte[][] naValues;
+
+    CsvChunkReader(Csv csv) {
+        this.csv = csv;
+        this.separator = (byte) csv.separatorChar.get().charValue();
+        this.escape = (byte) csv.escapeChar.get().charValue();
+        this.strip = csv.stripSpaces.get();
+        this.keepCols = csv.keepCols.get();
+        this.naValues = csv.naValues.get().stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    }
+
+    Frame read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ); Arena arena = Arena.ofShared()) {
+            long size = channel.size();
+            if (size == 0) {
+                return null;
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena));
+        }
+    }
+
+    private Frame read(MemorySegment data) {
+        long size = data.byteSize();
+        long pos = 0;
+        List<String> names = new ArrayList<>();
+        if (csv.header.get()) {
+            long end = lineEnd(data, pos);
+            names = csv.parseLine(text(data, pos, end));
+            pos = nextLine(data, end);
+        }
+
+        long start = pos;
+        List<List<String>> sample = new ArrayList<>();
+        while (pos < size && sample.size() < csv.sampleRows.get()) {
+            long end = lineEnd(data, pos);
+            sample.add(csv.parseLine(text(data, pos, end)));
+            pos = nextLine(data, end);
+        }
+        if (sample.isEmpty()) {
+            return null;
+        }
+        for (int i = names.size(); i < sample.getFirst().size(); i++) {
+            names.add("V" + (i + 1));
+        }
+        for (List<String> row : sample) {
+            if (row.size() > names.size()) {
+                return null;
+            }
+        }
+        List<VarType> types = new ArrayList<>(csv.inferTypes(names, sample));
+
+        long[] bounds = chunkBounds(data, start);
+        int chunks = bounds.length - 1;
+        int cols = names.size();
+        Column[][] parsed = new Column[cols][];
+        int rows = 0;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(csv.threads(), chunks))) {
+            while (true) {
+                VarType[] active = new VarType[cols];
+                boolean pending = false;
+                for (int i = 0; i < cols; i++) {
+                    if (parsed[i] == null) {
+                        active[i] = types.get(i);
+                        pending = true;
+                    }
+                }
+                if (!pending) {
+                    break;
+                }
+                List<Future<Chunk>> futures = new ArrayList<>();
+                for (int c = 0; c < chunks; c++) {
+                    long from = bounds[c];
+                    long to = bounds[c + 1];
+                    futures.add(executor.submit(() -> parseChunk(data, from, to, active)));
+                }
+                Chunk[] results = new Chunk[chunks];
+                for (int c = 0; c < chunks; c++) {
+                    results[c] = await(futures.get(c));
+                    if (results[c].ragged) {
+                        return null;
+                    }
+                }
+                rows = 0;
+                for (Chunk chunk : results) {
+                    rows += chunk.rows;
+                }
+                for (int i = 0; i < cols; i++) {
+                    if (active[i] == null) {
+                        continue;
+                    }
+                    Column failed = null;
+                    Column[] columns = new Column[chunks];
+                    for (int c = 0; c < chunks; c++) {
+                        columns[c] = results[c].columns[i];
+                        if (failed == null && columns[c].failure != null) {
+                            failed = columns[c];
+                        }
+                    }
+                    if (failed == null) {
+                        parsed[i] = columns;
+                    } else {
+                        types.set(i, upgrade(names.get(i), types.get(i), failed));
+                    }
+                }
+            }
+        }
+
+        List<Var> vars = new ArrayList<>(cols);
+        for (int i = 0; i < cols; i++) {
+            vars.add(merge(types.get(i), parsed[i], rows).name(names.get(i)));
+        }
+        return SolidFrame.byVars(rows, vars);
+    }
+
+    private static Chunk await(Future<Chunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing csv file.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Error while parsing csv file.", e.getCause());
+        }
+    }
+
+    /**
+     * Splits the data starting from a given position into chunks which starts at the beginning of a line.
+     */
+    private long[] chunkBounds(MemorySegment data, long start) {
+        long size = data.byteSize();
+        long len = size - start;
+        int chunks = (int) Math.max(1, Math.min((long) csv.threads() * CHUNKS_PER_THREAD, len / MIN_CHUNK_BYTES));
+        long[] bounds = new long[chunks + 1];
+        int count = 0;
+        bounds[count++] = start;
+        for (int i = 1; i < chunks; i++) {
+            long p = Math.max(start + len * i / chunks, bounds[count - 1]);
+            while (p < size && data.get(BYTE, p) != '\n') {
+                p++;
+            }
+            p++;
+            if (p < size && p > bounds[count - 1]) {
+                bounds[count++] = p;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private VarType upgrade(String name, VarType type, Column failed) {
+        if (csv.varTypes.getReverseKey(name) != null) {
+            throw new IllegalArgumentException(
+                    String.format("Could not parse value %s in type %s for variable with name: %s. Error: %s",
+                            failed.failure, type, name, failed.message));
+        }
+        List<VarType> defaultTypes = csv.defaultTypes.get();
+        for (int i = defaultTypes.indexOf(type) + 1; i < defaultTypes.size(); i++) {
+            try {
+                defaultTypes.get(i).newInstance().addLabel(failed.failure);
+                return defaultTypes.get(i);
+            } catch (TextParserException | IllegalArgumentException _) {
+                // try next default type
+            }
+        }
+        throw new TextParserException(
+                String.format("Could not parse value %s in type %s. Error: %s", failed.failure, type, failed.message));
+    }
+
+    private Chunk parseChunk(MemorySegment data, long from, long to, VarType[] types) {
+        int cols = types.length;
+        Column[] columns = new Column[cols];
+        for (int i = 0; i < cols; i++) {
+            if (types[i] != null) {
+                columns[i] = Column.newInstance(types[i]);
+            }
+        }
+        int rows = 0;
+        long pos = from;
+        while (pos < to) {
+            long lineEnd = lineEnd(data, pos);
+            int col = 0;
+            int colNum = 0;
+            long start = pos;
+            while (start < lineEnd) {
+                long end = start;
+                boolean inQuotes = false;
+                boolean special = false;
+                while (end < lineEnd) {
+                    byte ch = data.get(BYTE, end++);
+                    if (ch == '"' || ch == escape) {
+                        special = true;
+                    }
+                    if (!inQuotes && ch == '"') {
+                        inQuotes = true;
+                        continue;
+                    }
+                    if (inQuotes && ch == escape && end < lineEnd && data.get(BYTE, end) == '"') {
+                        end++;
+                        continue;
+                    }
+                    if (inQuotes && ch == '"') {
+                        if (escape == '"' && end < lineEnd && data.get(BYTE, end) == '"') {
+                            end++;
+                            continue;
+                        }
+                        inQuotes = false;
+                        continue;
+                    }
+                    if (!inQuotes && ch == separator) {
+                        end--;
+                        break;
+                    }
+                }
+                if (keepCols.test(colNum)) {
+                    if (col >= cols) {
+                        return new Chunk(0, null, true);
+                    }
+                    Column column = columns[col];
+                    if (column != null && column.failure == null) {
+                        addValue(column, data, start, end, special);
+                    }
+                    col++;
+                }
+                start = end + 1;
+                colNum++;
+            }
+            for (; col < cols; col++) {
+                if (columns[col] != null && columns[col].failure == null) {
+                    columns[col].addMissing();
+                }
+            }
+            rows++;
+            pos = nextLine(data, lineEnd);
+        }
+        return new Chunk(rows, columns, false);
+    }
+
+    private void addValue(Column column, MemorySegment data, long start, long end, boolean special) {
+        long s = start;
+        long e = end;
+        if (!special && strip) {
+            while (s < e && isSpace(data.get(BYTE, s))) {
+                s++;
+            }
+            while (e > s && isSpace(data.get(BYTE, e - 1))) {
+                e--;
+            }
+            // non ascii chars at the edges could be white spaces
+            special = s < e && (data.get(BYTE, s) < 0 || data.get(BYTE, e - 1) < 0);
+        }
+        if (special) {
+            String value = csv.clean(text(data, start, end));
+            if (csv.naValues.get().contains(value)) {
+                column.addMissing();
+            } else {
+                column.addLabel(value);
+            }
+            return;
+        }
+        if (isNaValue(data, s, e)) {
+            column.addMissing();
+            return;
+        }
+        column.addBytes(data, s, e);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+
+    private boolean isNaValue(MemorySegment data, long start, long end) {
+        long len = end - start;
+        for (byte[] na : naValues) {
+            if (na.length != len) {
+                continue;
+            }
+            boolean equal = true;
+            for (int i = 0; i < na.length; i++) {
+                if (data.get(BYTE, start + i) != na[i]) {
+                    equal = false;
+                    break;
+                }
+            }
+            if (equal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long lineEnd(MemorySegment data, long pos) {
+        long size = data.byteSize();
+        while (pos < size) {
+            byte b = data.get(BYTE, pos);
+            if (b == '\n' || b == '\r') {
+                return pos;
+            }
+            pos++;
+        }
+        return size;
+    }
+
+    private static long nextLine(MemorySegment data, long lineEnd) {
+        long size = data.byteSize();
+        if (lineEnd >= size) {
+            return size;
+        }
+        if (data.get(BYTE, lineEnd) == '\r' && lineEnd + 1 < size && data.get(BYTE, lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+        return lineEnd + 1;
+    }
+
+    private static String text(MemorySegment data, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        MemorySegment.copy(data, BYTE, start, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Var merge(VarType type, Column[] parts, int rows) {
+        int pos = 0;
+        switch (type) {
+            case BINARY -> {
+                VarBinary var = VarBinary.empty(rows);
+                for (Column part : parts) {
+                    byte[] values = ((BinaryColumn) part).values;
+                    for (int i = 0; i < part.rows; i++) {
+                        if (values[i] >= 0) {
+                            var.setInt(pos, values[i]);
+                        }
+                        pos++;
+                    }
+                }
+                return var;
+            }
+            case INT -> {
+                int[] values = new int[rows];
+                for (Column part : parts) {
+                    System.arraycopy(((IntColumn) part).values, 0, values, pos, part.rows);
+                    pos += part.rows;
+                }
+                return VarInt.wrap(values);
+            }
+            case LONG -> {
+                long[] values = new long[rows];
+                for (Column part : parts) {
+                    System.arraycopy(((LongColumn) part).values, 0, values, pos, part.rows);
+                    pos += part.rows;
+                }
+                return VarLong.wrap(values);
+            }
+            case DOUBLE -> {
+                double[] values = new double[rows];
+                for (Column part : parts) {
+                    System.arraycopy(((DoubleColumn) part).values, 0, values, pos, part.rows);
+                    pos += part.rows;
+                }
+                return VarDouble.wrap(values);
+            }
+            case NOMINAL -> {
+                List<String> dict = new ArrayList<>();
+                HashMap<String, Integer> reverse = new HashMap<>();
+                int[][] maps = new int[parts.length][];
+                for (int j = 0; j < parts.length; j++) {
+                    List<String> labels = ((NominalColumn) parts[j]).labels;
+                    maps[j] = new int[labels.size()];
+                    for (int i = 0; i < labels.size(); i++) {
+                        maps[j][i] = reverse.computeIfAbsent(labels.get(i), label -> {
+                            dict.add(label);
+                            return dict.size() - 1;
+                        });
+                    }
+                }
+                if (dict.size() > Short.MAX_VALUE - 1) {
+                    throw new IllegalStateException("Cannot add new label since dictionary achieved it's maximum size.");
+                }
+                VarNominal var = VarNominal.empty(rows, dict);
+                for (int j = 0; j < parts.length; j++) {
+                    int[] codes = ((NominalColumn) parts[j]).values;
+                    for (int i = 0; i < parts[j].rows; i++) {
+                        if (codes[i] >= 0) {
+                            var.setInt(pos, maps[j][codes[i]]);
+                        }
+                        pos++;
+                    }
+                }
+                return var;
+            }
+            case STRING -> {
+                List<String> values = new ArrayList<>(rows);
+                for (Column part : parts) {
+                    values.addAll(((StringColumn) part).values);
+                }
+                return VarString.wrap(values);
+            }
+            default -> {
+                List<Var> vars = new ArrayList<>(parts.length);
+                for (Column part : parts) {
+                    vars.add(((VarColumn) part).var);
+                }
+                return vars.size() == 1 ? vars.getFirst() : BoundVar.from(vars).copy();
+            }
+        }
+    }
+
+    private record Chunk(int rows, Column[] columns, boolean ragged) {
+    }
+
+    /**
+     * Buffer of parsed values of a variable from a single chunk. When a value cannot be parsed, the value and
+     * the error message are stored and the column does not receive further values.
+     */
+    private abstract static class Column {
+
+        static Column newInstance(VarType type) {
+            return switch (type) {
+                case BINARY -> new BinaryColumn();
+                case INT -> new IntColumn();
+                case LONG -> new LongColumn();
+                case DOUBLE -> new DoubleColumn();
+                case NOMINAL -> new NominalColumn();
+                case STRING -> new StringColumn();
+                default -> new VarColumn(type);
+            };
+        }
+
+        int rows;
+        String failure;
+        String message;
+
+        abstract void addMissing();
+
+        abstract void addLabel(String value);
+
+        void addBytes(MemorySegment data, long start, long end) {
+            addLabel(text(data, start, end));
+        }
+
+        void fail(String value, Exception ex) {
+            failure = value;
+            message = ex.getMessage();
+        }
+    }
+
+    private static final class BinaryColumn extends Column {
+
+        byte[] values = new byte[64];
+
+        private void add(int value) {
+            if (rows == values.length) {
+                values = Arrays.copyOf(values, rows * 2);
+            }
+            values[rows++] = (byte) value;
+        }
+
+        @Override
+        void addMissing() {
+            add(-1);
+        }
+
+        @Override
+        void addBytes(MemorySegment data, long start, long end) {
+            if (end - start == 1) {
+                byte b = data.get(BYTE, start);
+                if (b == '0' || b == '1') {
+                    add(b - '0');
+                    return;
+                }
+            }
+            addLabel(text(data, start, end));
+        }
+
+        @Override
+        void addLabel(String value) {
+            try {
+                Boolean b = Parsers.DEFAULT_VAR_BINARY_PARSER.parse(value);
+                add(b == null ? -1 : (b ? 1 : 0));
+            } catch (TextParserException | IllegalArgumentException ex) {
+                fail(value, ex);
+            }
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        int[] values = new int[64];
+
+        private void add(int value) {
+            if (rows == values.length) {
+                values = Arrays.copyOf(values, rows * 2);
+            }
+            values[rows++] = value;
+        }
+
+        @Override
+        void addMissing() {
+            add(VarInt.MISSING_VALUE);
+        }
+
+        @Override
+        void addBytes(MemorySegment data, long start, long end) {
+            long p = start;
+            boolean negative = false;
+            byte sign = p < end ? data.get(BYTE, p) : 0;
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                p++;
+            }
+            // at most 9 digits cannot overflow
+            if (end - p > 0 && end - p <= 9) {
+                int value = 0;
+                for (; p < end; p++) {
+                    int d = data.get(BYTE, p) - '0';
+                    if (d < 0 || d > 9) {
+                        break;
+                    }
+                    value = value * 10 + d;
+                }
+                if (p == end) {
+                    add(negative ? -value : value);
+                    return;
+                }
+            }
+            addLabel(text(data, start, end));
+        }
+
+        @Override
+        void addLabel(String value) {
+            try {
+                add(Parsers.DEFAULT_VAR_INT_PARSER.parse(value));
+            } catch (TextParserException | IllegalArgumentException ex) {
+                fail(value, ex);
+            }
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        long[] values = new long[64];
+
+        private void add(long value) {
+            if (rows == values.length) {
+                values = Arrays.copyOf(values, rows * 2);
+            }
+            values[rows++] = value;
+        }
+
+        @Override
+        void addMissing() {
+            add(VarLong.MISSING_VALUE);
+        }
+
+        @Override
+        void addBytes(MemorySegment data, long start, long end) {
+            long p = start;
+            boolean negative = false;
+            byte sign = p < end ? data.get(BYTE, p) : 0;
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                p++;
+            }
+            // at most 18 digits cannot overflow
+            if (end - p > 0 && end - p <= 18) {
+                long value = 0;
+                for (; p < end; p++) {
+                    int d = data.get(BYTE, p) - '0';
+                    if (d < 0 || d > 9) {
+                        break;
+                    }
+                    value = value * 10 + d;
+                }
+                if (p == end) {
+                    add(negative ? -value : value);
+                    return;
+                }
+            }
+            addLabel(text(data, start, end));
+        }
+
+        @Override
+        void addLabel(String value) {
+            try {
+                add(Parsers.DEFAULT_VAR_LONG_PARSER.parse(value));
+            } catch (TextParserException | IllegalArgumentException ex) {
+                fail(value, ex);
+            }
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private static final double[] POW10 = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+
+        double[] values = new double[64];
+
+        private void add(double value) {
+            if (rows == values.length) {
+                values = Arrays.copyOf(values, rows * 2);
+            }
+            values[rows++] = value;
+        }
+
+        @Override
+        void addMissing() {
+            add(VarDouble.MISSING_VALUE);
+        }
+
+        /**
+         * Parses plain decimal numbers with at most 18 significant digits. When both the mantissa and the
+         * power of ten are exactly representable as doubles, a single multiplication or division is correctly
+         * rounded, so the result is identical with {@link Double#parseDouble(String)}. All other values
+         * are delegated to the default parser.
+         */
+        @Override
+        void addBytes(MemorySegment data, long start, long end) {
+            long p = start;
+            boolean negative = false;
+            byte sign = p < end ? data.get(BYTE, p) : 0;
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                p++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exp = 0;
+            int d;
+            while (p < end && (d = data.get(BYTE, p) - '0') >= 0 && d <= 9) {
+                mantissa = mantissa * 10 + d;
+                digits++;
+                p++;
+            }
+            if (p < end && data.get(BYTE, p) == '.') {
+                p++;
+                while (p < end && (d = data.get(BYTE, p) - '0') >= 0 && d <= 9) {
+                    mantissa = mantissa * 10 + d;
+                    digits++;
+                    exp--;
+                    p++;
+                }
+            }
+            boolean fast = digits > 0 && digits <= 18;
+            if (fast && p < end && (data.get(BYTE, p) == 'e' || data.get(BYTE, p) == 'E')) {
+                p++;
+                boolean negativeExp = false;
+                if (p < end && (data.get(BYTE, p) == '-' || data.get(BYTE, p) == '+')) {
+                    negativeExp = data.get(BYTE, p) == '-';
+                    p++;
+                }
+                int e = 0;
+                int expDigits = 0;
+                while (p < end && (d = data.get(BYTE, p) - '0') >= 0 && d <= 9 && expDigits < 3) {
+                    e = e * 10 + d;
+                    expDigits++;
+                    p++;
+                }
+                fast = expDigits > 0;
+                exp += negativeExp ? -e : e;
+            }
+            if (fast && p == end && mantissa <= (1L << 53) && exp >= -22 && exp <= 22) {
+                double value = exp < 0 ? mantissa / POW10[-exp] : mantissa * POW10[exp];
+                add(negative ? -value : value);
+                return;
+            }
+            addLabel(text(data, start, end));
+        }
+
+        @Override
+        void addLabel(String value) {
+            try {
+                add(Parsers.DEFAULT_VAR_DOUBLE_PARSER.parse(value));
+            } catch (TextParserException | IllegalArgumentException ex) {
+                fail(value, ex);
+            }
+        }
+    }
+
+    /**
+     * Nominal values are identified by their bytes with an open addressing hash table, so a string is built
+     * only once for each distinct value from a chunk.
+     */
+    private static final class NominalColumn extends Column {
+
+        int[] values = new int[64];
+        final List<String> labels = new ArrayList<>();
+        private final HashMap<String, Integer> reverse = new HashMap<>();
+
+        private long[] keyStart = new long[64];
+        private int[] keyLen = filled(64);
+        private int[] keyHash = new int[64];
+        private int[] keyCode = new int[64];
+        private int keys = 0;
+
+        private static int[] filled(int len) {
+            int[] array = new int[len];
+            Arrays.fill(array, -1);
+            return array;
+        }
+
+        private void add(int code) {
+            if (rows == values.length) {
+                values = Arrays.copyOf(values, rows * 2);
+            }
+            values[rows++] = code;
+        }
+
+        private int code(String label) {
+            if (VarNominal.MISSING_VALUE.equals(label)) {
+                return -1;
+            }
+            Integer code = reverse.get(label);
+            if (code == null) {
+                code = labels.size();
+                labels.add(label);
+                reverse.put(label, code);
+            }
+            return code;
+        }
+
+        @Override
+        void addMissing() {
+            add(-1);
+        }
+
+        @Override
+        void addLabel(String value) {
+            add(code(value));
+        }
+
+        @Override
+        void addBytes(MemorySegment data, long start, long end) {
+            int len = (int) (end - start);
+            int hash = 1;
+            for (long p = start; p < end; p++) {
+                hash = 31 * hash + data.get(BYTE, p);
+            }
+            hash ^= (hash >>> 16);
+            int mask = keyLen.length - 1;
+            int slot = hash & mask;
+            while (keyLen[slot] >= 0) {
+                if (keyHash[slot] == hash && keyLen[slot] == len
+                        && MemorySegment.mismatch(data, keyStart[slot], keyStart[slot] + len, data, start, end) == -1) {
+                    add(keyCode[slot]);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int code = code(text(data, start, end));
+            keyStart[slot] = start;
+            keyLen[slot] = len;
+            keyHash[slot] = hash;
+            keyCode[slot] = code;
+            keys++;
+            if (2 * keys > keyLen.length) {
+                rehash();
+            }
+            add(code);
+        }
+
+        private void rehash() {
+            int capacity = keyLen.length * 2;
+            long[] newStart = new long[capacity];
+            int[] newLen = filled(capacity);
+            int[] newHash = new int[capacity];
+            int[] newCode = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < keyLen.length; i++) {
+                if (keyLen[i] < 0) {
+                    continue;
+                }
+                int slot = keyHash[i] & mask;
+                while (newLen[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newStart[slot] = keyStart[i];
+                newLen[slot] = keyLen[i];
+                newHash[slot] = keyHash[i];
+                newCode[slot] = keyCode[i];
+            }
+            keyStart = newStart;
+            keyLen = newLen;
+            keyHash = newHash;
+            keyCode = newCode;
+        }
+    }
+
+    private static final class StringColumn extends Column {
+
+        final List<String> values = new ArrayList<>();
+
+        @Override
+        void addMissing() {
+            addLabel(VarString.MISSING_VALUE);
+        }
+
+        @Override
+        void addLabel(String value) {
+            values.add(value);
+            rows++;
+        }
+    }
+
+    /**
+     * Column for types without a specialized buffer, values are parsed by the variable itself.
+     */
+    private static final class VarColumn extends Column {
+
+        final Var var;
+
+        VarColumn(VarType type) {
+            this.var = type.newInstance();
+        }
+
+        @Override
+        void addMissing() {
+            addLabel(VarNominal.MISSING_VALUE);
+        }
+
+        @Override
+        void addLabel(String value) {
+            try {
+                var.addLabel(value);
+                rows++;
+            } catch (TextParserException | IllegalArgumentException ex) {
+                fail(value, ex);
+            }
+        }
+    }
+}
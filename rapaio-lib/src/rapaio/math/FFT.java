@@ -0,0 +1,178 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math;
+
+/**
+ * Fast Fourier Transform on complex sequences stored as separate real and imaginary arrays.
+ * <p>
+ * The implementation is an iterative in-place radix 2 Cooley-Tukey transform, thus the length
+ * of the sequences must be a power of 2. Use {@link #nextPowerOf2(int)} to find a suitable padded length.
+ */
+public final class FFT {
+
+    private FFT() {
+    }
+
+    /**
+     * Computes the smallest power of 2 greater or equal with the given value.
+     *
+     * @param n positive value
+     * @return smallest power of 2 not smaller than n
+     */
+    public static int nextPowerOf2(int n) {
+        if (n <= 1) {
+            return 1;
+        }
+        int p = Integer.highestOneBit(n - 1) << 1;
+        if (p <= 0) {
+            throw new IllegalArgumentException("Length is too large for a power of 2 array: " + n);
+        }
+        return p;
+    }
+
+    /**
+     * Computes in place the forward discrete Fourier transform.
+     *
+     * @param re real parts, replaced by the real parts of the transform
+     * @param im imaginary parts, replaced by the imaginary parts of the transform
+     */
+    public static void fft(double[] re, double[] im) {
+        transform(re, im, false);
+    }
+
+    /**
+     * Computes in place the inverse discrete Fourier transform, including the {@code 1/n} scaling.
+     *
+     * @param re real parts, replaced by the real parts of the inverse transform
+     * @param im imaginary parts, replaced by the imaginary parts of the inverse transform
+     */
+    public static void ifft(double[] re, double[] im) {
+        transform(re, im, true);
+        int n = re.length;
+        for (int i = 0; i < n; i++) {
+            re[i] /= n;
+            im[i] /= n;
+        }
+    }
+
+    /**
+     * Computes the linear convolution of two real sequences. The sequences are zero padded
+     * to a power of 2 length which avoids circular wrapping, and the result has length
+     * {@code x.length + y.length - 1}.
+     *
+     * @param x first real sequence
+     * @param y second real sequence
+     * @return linear convolution of the two sequences
+     */
+    public static double[] convolve(double[] x, double[] y) {
+        if (x.length == 0 || y.length == 0) {
+            return new double[0];
+        }
+        int len = x.length + y.length - 1;
+        int n = nextPowerOf2(len);
+        double[] xr = new double[n];
+        double[] xi = new double[n];
+        double[] yr = new double[n];
+        double[] yi = new double[n];
+        System.arraycopy(x, 0, xr, 0, x.length);
+        System.arraycopy(y, 0, yr, 0, y.length);
+        fft(xr, xi);
+        fft(yr, yi);
+        multiply(xr, xi, yr, yi);
+        ifft(xr, xi);
+        double[] result = new double[len];
+        System.arraycopy(xr, 0, result, 0, len);
+        return result;
+    }
+
+    /**
+     * Multiplies in place two complex sequences element wise, storing the result in the first sequence.
+     *
+     * @param ar real parts of the first sequence, replaced by the real parts of the product
+     * @param ai imaginary parts of the first sequence, replaced by the imaginary parts of the product
+     * @param br real parts of the second sequence
+     * @param bi imaginary parts of the second sequence
+     */
+    public static void multiply(double[] ar, double[] ai, double[] br, double[] bi) {
+        for (int i = 0; i < ar.length; i++) {
+            double r = ar[i] * br[i] - ai[i] * bi[i];
+            double m = ar[i] * bi[i] + ai[i] * br[i];
+            ar[i] = r;
+            ai[i] = m;
+        }
+    }
+
+    private static void transform(double[] re, double[] im, boolean inverse) {
+        int n = re.length;
+        if (im.length != n) {
+            throw new IllegalArgumentException("Real and imaginary parts must have the same length.");
+        }
+        if (Integer.bitCount(n) > 1) {
+            throw new IllegalArgumentException("Length is not a power of 2: " + n);
+        }
+        if (n <= 1) {
+            return;
+        }
+
+        // bit reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        // butterflies, twiddle factors are computed once per stage
+        double sign = inverse ? 1 : -1;
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            double[] wr = new double[half];
+            double[] wi = new double[half];
+            for (int k = 0; k < half; k++) {
+                double angle = sign * 2 * Math.PI * k / len;
+                wr[k] = Math.cos(angle);
+                wi[k] = Math.sin(angle);
+            }
+            for (int i = 0; i < n; i += len) {
+                for (int k = 0; k < half; k++) {
+                    int p = i + k;
+                    int q = p + half;
+                    double tr = re[q] * wr[k] - im[q] * wi[k];
+                    double ti = re[q] * wi[k] + im[q] * wr[k];
+                    re[q] = re[p] - tr;
+                    im[q] = im[p] - ti;
+                    re[p] += tr;
+                    im[p] += ti;
+                }
+            }
+        }
+    }
+}
@@ -24,12 +24,17 @@ package rapaio.ml.analysis;
 import java.io.Serial;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.StreamSupport;
 
 import rapaio.core.param.ParamSet;
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
+import rapaio.darray.matrix.RandomizedSVDecomposition;
+import rapaio.darray.matrix.StreamingSVDecomposition;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
@@ -73,6 +78,48 @@ public class PCA extends ParamSet<PCA> implements Printable {
      */
     public final ValueParam<Boolean, PCA> standardize = new ValueParam<>(this, false, "standardize");
 
+    /**
+     * Method used to compute principal components.
+     */
+    public final ValueParam<Method, PCA> method = new ValueParam<>(this, Method.EIGEN, "method", Objects::nonNull);
+
+    /**
+     * Number of principal components to compute, if the value is 0 all components are computed.
+     */
+    public final ValueParam<Integer, PCA> components = new ValueParam<>(this, 0, "components", c -> c != null && c >= 0);
+
+    /**
+     * Number of additional random directions used by randomized methods.
+     */
+    public final ValueParam<Integer, PCA> oversampling = new ValueParam<>(this,
+            RandomizedSVDecomposition.DEFAULT_OVERSAMPLING, "oversampling", o -> o != null && o >= 0);
+
+    /**
+     * Number of power iterations used by randomized methods.
+     */
+    public final ValueParam<Integer, PCA> powerIterations = new ValueParam<>(this,
+            RandomizedSVDecomposition.DEFAULT_POWER_ITERATIONS, "powerIterations", p -> p != null && p >= 0);
+
+    /**
+     * Seed of the random number generator used by randomized methods, if the value is 0 a random seed is used.
+     */
+    public final ValueParam<Long, PCA> seed = new ValueParam<>(this, 0L, "seed", Objects::nonNull);
+
+    public enum Method {
+        /**
+         * Full eigen decomposition of the scatter matrix.
+         */
+        EIGEN,
+        /**
+         * Randomized truncated singular value decomposition of the input matrix.
+         */
+        RANDOMIZED_SVD,
+        /**
+         * Lanczos eigen decomposition of the scatter matrix for the largest eigen values.
+         */
+        LANCZOS
+    }
+
     private int inputRows;
     private int inputVars;
     private String[] inputNames;
@@ -84,6 +131,7 @@ public class PCA extends ParamSet<PCA> implements Printable {
     protected DArray<Double> eigenVectors;
     protected DArray<Double> mean;
     protected DArray<Double> sd;
+    protected double totalVariance;
 
     public DArray<Double> getValues() {
         return eigenValues;
@@ -101,6 +149,25 @@ public class PCA extends ParamSet<PCA> implements Printable {
         return sd;
     }
 
+    /**
+     * @return sum of variances of all principal components, which is available also when only some components
+     * are computed
+     */
+    public double getTotalVariance() {
+        return totalVariance;
+    }
+
+    /**
+     * @return a new model with the same parameter values
+     */
+    public PCA newInstance() {
+        return new PCA().copyParameterValues(this);
+    }
+
+    private Random getRandom() {
+        return seed.get() == 0 ? new Random() : new Random(seed.get());
+    }
+
     public PCA fit(Frame df) {
         preFit(df);
 
@@ -116,21 +183,119 @@ public class PCA extends ParamSet<PCA> implements Printable {
             x.div_(sd);
         }
 
-        logger.fine("build scatter");
-        DArray<Double> s = x.t().mm(x);
-
-        logger.fine("compute eigenvalues");
-        var evd = s.eig();
-        eigenValues = evd.real().div(x.dim(0) - 1.);
-        eigenVectors = evd.v();
-
-        logger.fine("sort eigen values and vectors");
-
-        int[] mapping = Ints.seq(0, eigenValues.size());
-        eigenValues.externalSort(mapping, false);
+        int k = components.get() == 0 ? inputVars : Math.min(components.get(), inputVars);
+        double scale = x.dim(0) - 1.;
+        switch (method.get()) {
+            case EIGEN -> {
+                logger.fine("build scatter");
+                DArray<Double> s = x.t().mm(x);
+
+                logger.fine("compute eigenvalues");
+                var evd = s.eig();
+                eigenValues = evd.real().div(scale);
+                eigenVectors = evd.v();
+
+                logger.fine("sort eigen values and vectors");
+                int[] mapping = Ints.seq(0, eigenValues.size());
+                eigenValues.externalSort(mapping, false);
+                totalVariance = eigenValues.sum();
+
+                mapping = Arrays.copyOf(mapping, k);
+                eigenValues = eigenValues.sel(0, mapping);
+                eigenVectors = eigenVectors.sel(1, mapping);
+            }
+            case RANDOMIZED_SVD -> {
+                logger.fine("compute randomized svd");
+                var svd = new RandomizedSVDecomposition<>(x, k, oversampling.get(), powerIterations.get(), getRandom());
+                eigenValues = svd.singularValues().sqr().div_(scale);
+                eigenVectors = svd.v();
+                totalVariance = Math.pow(x.norm(), 2) / scale;
+            }
+            case LANCZOS -> {
+                logger.fine("compute largest eigenvalues of scatter");
+                var evd = x.t().mm(x).eig(k, getRandom());
+                eigenValues = evd.real().div_(scale);
+                eigenVectors = evd.v();
+                totalVariance = Math.pow(x.norm(), 2) / scale;
+            }
+        }
+        return this;
+    }
 
-        eigenValues = eigenValues.sel(0, mapping);
-        eigenVectors = eigenVectors.sel(1, mapping);
+    /**
+     * Fits principal components from a data frame which is given as a sequence of chunks of rows. The chunks
+     * are traversed multiple times, once for computing mean and standard deviation and then for accumulating
+     * randomized sketches with {@link StreamingSVDecomposition}, thus the whole data does not have to be in memory.
+     * The iterable must produce the same chunks each time it is traversed.
+     * <p>
+     * The number of computed components is given by {@link #components}, and the method parameter is ignored.
+     *
+     * @param chunks chunks of rows with the same variables
+     * @return fitted model
+     */
+    public PCA fit(Iterable<Frame> chunks) {
+        logger.fine("compute mean, sd and rows");
+        int rows = 0;
+        DArray<Double> sum = null;
+        DArray<Double> m2 = null;
+        for (Frame chunk : chunks) {
+            if (sum == null) {
+                preFit(chunk);
+            }
+            DArray<Double> x = chunk.mapVars(inputNames).darray();
+            if (x.dim(0) == 0) {
+                continue;
+            }
+            // merge sums of squared deviations from chunk means
+            DArray<Double> chunkMean = x.mean1d(0);
+            DArray<Double> chunkM2 = x.sub(chunkMean).sqr_().sum1d(0);
+            if (sum == null) {
+                sum = chunkMean.mul(x.dim(0));
+                m2 = chunkM2;
+            } else {
+                DArray<Double> delta = chunkMean.sub(sum.div(rows));
+                m2.add_(chunkM2).add_(delta.sqr_().mul_((double) rows * x.dim(0) / (rows + x.dim(0))));
+                sum.add_(chunkMean.mul_(x.dim(0)));
+            }
+            rows += x.dim(0);
+        }
+        if (rows == 0) {
+            throw new IllegalArgumentException("Cannot fit principal components without rows.");
+        }
+        inputRows = rows;
+        DArray<Double> totalMean = sum.div(rows);
+        DArray<Double> variance = m2.div(rows);
+        mean = center.get() ? totalMean : null;
+        sd = standardize.get() ? variance.sqrt() : null;
+
+        double scale = rows - 1.;
+        double total = 0;
+        for (int j = 0; j < inputVars; j++) {
+            double ss = m2.getDouble(j);
+            if (!center.get()) {
+                ss += rows * totalMean.getDouble(j) * totalMean.getDouble(j);
+            }
+            total += standardize.get() ? ss / variance.getDouble(j) : ss;
+        }
+        totalVariance = total / scale;
+
+        Iterable<DArray<Double>> xs = () -> StreamSupport.stream(chunks.spliterator(), false)
+                .map(chunk -> {
+                    DArray<Double> x = chunk.mapVars(inputNames).darray();
+                    if (mean != null) {
+                        x.sub_(mean);
+                    }
+                    if (sd != null) {
+                        x.div_(sd);
+                    }
+                    return x;
+                }).iterator();
+
+        logger.fine("compute streaming svd");
+        int k = components.get() == 0 ? inputVars : Math.min(components.get(), inputVars);
+        var svd = new StreamingSVDecomposition(xs, inputVars, k, oversampling.get(), powerIterations.get(), getRandom());
+        eigenValues = svd.singularValues().sqr().div_(scale);
+        eigenVectors = svd.v();
         return this;
     }
 
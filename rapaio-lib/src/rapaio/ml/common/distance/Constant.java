@@ -67,6 +67,16 @@ public class Constant implements Distance {
         return constant;
     }
 
+    @Override
+    public double compute(double[] x, double[] y) {
+        return constant;
+    }
+
+    @Override
+    public double reduced(double[] x, double[] y) {
+        return constant;
+    }
+
     @Override
     public boolean equalOnParams(Distance d) {
         if (d instanceof Constant cd) {
@@ -23,6 +23,7 @@ package rapaio.ml.common.distance;
 
 import rapaio.core.param.ParametricEquals;
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
 import rapaio.data.Frame;
 
 /**
@@ -94,4 +95,28 @@ public interface Distance extends ParametricEquals<Distance> {
      * @return computed reduced distance
      */
     double reduced(Frame df1, int row1, Frame df2, int row2);
+
+    /**
+     * Compute distance between two arrays of doubles. Implementations are encouraged to
+     * override this method since it is used in hot loops, like nearest neighbour searches.
+     *
+     * @param x first parameter
+     * @param y second parameter
+     * @return computed distance
+     */
+    default double compute(double[] x, double[] y) {
+        return compute(DArrays.stride(x), DArrays.stride(y));
+    }
+
+    /**
+     * Compute reduced distance between two arrays of doubles.
+     *
+     * @param x first parameter
+     * @param y second parameter
+     * @return computed reduced distance
+     * @see #reduced(DArray, DArray)
+     */
+    default double reduced(double[] x, double[] y) {
+        return reduced(DArrays.stride(x), DArrays.stride(y));
+    }
 }
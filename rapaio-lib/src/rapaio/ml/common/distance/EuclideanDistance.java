@@ -59,6 +59,21 @@ public class EuclideanDistance implements Distance {
         return sum;
     }
 
+    @Override
+    public double compute(double[] x, double[] y) {
+        return sqrt(reduced(x, y));
+    }
+
+    @Override
+    public double reduced(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            double delta = x[i] - y[i];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
     @Override
     public boolean equalOnParams(Distance d) {
         return d instanceof EuclideanDistance;
@@ -58,6 +58,20 @@ public class Manhattan implements Distance {
         return compute(df1, row1, df2, row2);
     }
 
+    @Override
+    public double compute(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += abs(x[i] - y[i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double reduced(double[] x, double[] y) {
+        return compute(x, y);
+    }
+
     @Override
     public boolean equalOnParams(Distance d) {
         return d instanceof Manhattan;
@@ -23,7 +23,13 @@ package rapaio.ml.common.kernel;
 
 import java.io.Serial;
 
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
 import rapaio.darray.DArray;
+import rapaio.darray.Simd;
+import rapaio.darray.Storage;
+import rapaio.darray.layout.StrideLayout;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 1/16/15.
@@ -33,14 +39,88 @@ public abstract class AbstractKernel implements Kernel {
     @Serial
     private static final long serialVersionUID = -2216556261751685749L;
 
+    private static final VectorSpecies<Double> vsd = Simd.vsd;
+
     @Override
     public boolean isLinear() {
         return false;
     }
 
     protected double deltaSumSquares(DArray<Double> u, DArray<Double> v) {
-        return u.sub(v).sqr().sum();
+        double sum = 0;
+        for (int i = 0; i < u.size(); i++) {
+            double delta = u.getDouble(i) - v.getDouble(i);
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the squared euclidean distance between a vector copied into an array and a vector.
+     * When the second vector is contiguous in a storage with vector support, vector operations are used.
+     * It is used by batched implementations, which copy the first vector once for all the other vectors.
+     */
+    protected static double deltaSumSquares(double[] v, DArray<Double> u) {
+        int off = contiguousOffset(u);
+        if (off < 0) {
+            double sum = 0;
+            for (int i = 0; i < v.length; i++) {
+                double delta = v[i] - u.getDouble(i);
+                sum += delta * delta;
+            }
+            return sum;
+        }
+        Storage storage = u.storage();
+        int bound = vsd.loopBound(v.length);
+        DoubleVector acc = DoubleVector.zero(vsd);
+        int i = 0;
+        for (; i < bound; i += vsd.length()) {
+            DoubleVector delta = DoubleVector.fromArray(vsd, v, i).sub(storage.getDoubleVector(off + i));
+            acc = delta.fma(delta, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < v.length; i++) {
+            double delta = v[i] - storage.getDouble(off + i);
+            sum += delta * delta;
+        }
+        return sum;
     }
 
+    /**
+     * Computes the dot product between a vector copied into an array and a vector.
+     * When the second vector is contiguous in a storage with vector support, vector operations are used.
+     */
+    protected static double dot(double[] v, DArray<Double> u) {
+        int off = contiguousOffset(u);
+        if (off < 0) {
+            double sum = 0;
+            for (int i = 0; i < v.length; i++) {
+                sum += v[i] * u.getDouble(i);
+            }
+            return sum;
+        }
+        Storage storage = u.storage();
+        int bound = vsd.loopBound(v.length);
+        DoubleVector acc = DoubleVector.zero(vsd);
+        int i = 0;
+        for (; i < bound; i += vsd.length()) {
+            acc = DoubleVector.fromArray(vsd, v, i).fma(storage.getDoubleVector(off + i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < v.length; i++) {
+            sum += v[i] * storage.getDouble(off + i);
+        }
+        return sum;
+    }
+
+    /**
+     * @return offset of the first element if the vector is contiguous in a storage with vector support, -1 otherwise
+     */
+    private static int contiguousOffset(DArray<Double> u) {
+        if (u.rank() == 1 && u.layout() instanceof StrideLayout layout && layout.stride(0) == 1 && u.storage().supportSimd()) {
+            return layout.offset();
+        }
+        return -1;
+    }
 }
 
@@ -39,4 +39,21 @@ public interface Kernel extends Serializable {
     boolean isLinear();
 
     double compute(DArray<Double> v, DArray<Double> u);
+
+    /**
+     * Computes kernel values between a vector and a range of vectors from an array.
+     * Kernel values are stored in the output array at the same positions as the vectors.
+     * Implementations can override this method to compute all values in a single pass.
+     *
+     * @param v     first vector
+     * @param us    array of vectors
+     * @param start first position, inclusive
+     * @param end   last position, exclusive
+     * @param out   output array
+     */
+    default void compute(DArray<Double> v, DArray<Double>[] us, int start, int end, double[] out) {
+        for (int i = start; i < end; i++) {
+            out[i] = compute(v, us[i]);
+        }
+    }
 }
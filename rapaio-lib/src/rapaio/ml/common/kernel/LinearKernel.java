@@ -62,4 +62,12 @@ public class LinearKernel extends AbstractKernel {
     public double compute(DArray<Double> v, DArray<Double> u) {
         return v.inner(u) + c;
     }
+
+    @Override
+    public void compute(DArray<Double> v, DArray<Double>[] us, int start, int end, double[] out) {
+        double[] values = v.toDoubleArray();
+        for (int i = start; i < end; i++) {
+            out[i] = dot(values, us[i]) + c;
+        }
+    }
 }
@@ -92,4 +92,14 @@ public class PolyKernel extends AbstractKernel {
         }
         return Math.pow(slope * v.inner(u) + bias, exponent);
     }
+
+    @Override
+    public void compute(DArray<Double> v, DArray<Double>[] us, int start, int end, double[] out) {
+        double[] values = v.toDoubleArray();
+        boolean linear = isLinear();
+        for (int i = start; i < end; i++) {
+            double value = slope * dot(values, us[i]) + bias;
+            out[i] = linear ? value : Math.pow(value, exponent);
+        }
+    }
 }
\ No newline at end of file
@@ -72,6 +72,14 @@ public class RBFKernel extends AbstractKernel {
         return Math.exp(-gamma * value);
     }
 
+    @Override
+    public void compute(DArray<Double> v, DArray<Double>[] us, int start, int end, double[] out) {
+        double[] values = v.toDoubleArray();
+        for (int i = start; i < end; i++) {
+            out[i] = Math.exp(-gamma * deltaSumSquares(values, us[i]));
+        }
+    }
+
     @Override
     public Kernel newInstance() {
         return new RBFKernel(gamma);
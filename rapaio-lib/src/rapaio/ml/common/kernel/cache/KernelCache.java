@@ -18,124 +18,247 @@
  *    limitations under the License.
  *
  */
-
 package rapaio.ml.common.kernel.cache;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import rapaio.darray.DArray;
 import rapaio.ml.common.kernel.Kernel;
 
 /**
- * Defines operations available on a kernel cache.
- * A kernel cache is a in memory data structure which is able to cache results of
- * operations to fasten th training and prediction of a svm.
+ * Memory bounded cache of kernel matrix rows. A kernel cache is an in memory data structure which is able to
+ * cache results of kernel evaluations to fasten the training and prediction of a svm.
+ * <p>
+ * Rows are stored as primitive arrays and are evicted in least recently used order when the memory budget
+ * is exceeded, as in libsvm. A cached row can be partially filled: a request for the first {@code len} values
+ * of a row computes only the values which are not already available. Missing values are computed
+ * in a single call of a {@link RowFunction} for each block of columns and large blocks are computed in parallel.
  * <p>
+ * All operations are synchronized, thus a cache can be shared between threads.
  *
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 1/25/16.
  */
 public class KernelCache {
 
-    private final Cache cache;
-    private final Kernel kernel;
+    /**
+     * Default memory budget in bytes.
+     */
+    public static final long DEFAULT_SIZE = 100L << 20;
 
-    public KernelCache(DArray<Double> df, Kernel kernel) {
-        if (df.dim(0) <= 10_000) {
-            cache = new SolidCache(df.dim(0));
-        } else {
-            cache = new MapCache();
-        }
-        this.kernel = kernel;
-    }
+    /**
+     * Number of values computed by a single task when a row is filled in parallel.
+     */
+    private static final int BLOCK = 1024;
 
-    public double cachedCompute(int row1, int row2, DArray<Double> r1, DArray<Double> r2) {
-        Double value = cache.retrieve(row1, row2);
-        if (value == null) {
-            value = kernel.compute(r1, r2);
-            cache.store(row1, row2, value);
-        }
-        return value;
-    }
+    /**
+     * Computes a range of values from a row of the cached matrix.
+     */
+    @FunctionalInterface
+    public interface RowFunction {
 
-    public void clean() {
-        cache.clear();
+        /**
+         * Computes values for columns in range {@code [start, end)} from given row and stores them in the
+         * same positions of the output array.
+         */
+        void compute(int row, int start, int end, double[] out);
     }
 
-    private interface Cache {
-
-        void store(int row1, int row2, double value);
+    private final RowFunction fun;
 
-        Double retrieve(int row1, int row2);
+    // cached rows, a row has cached values for the first data[i].length columns
+    private double[][] data;
+    // doubly linked list of cached rows, in least recently used order, with head at position len
+    private final int[] prev;
+    private final int[] next;
+    private final int head;
+    // number of doubles which can be allocated
+    private final long capacity;
+    private long available;
 
-        void clear();
+    /**
+     * Builds a cache for a square kernel matrix over the rows of a matrix, with default memory budget.
+     *
+     * @param df     matrix with instances on rows
+     * @param kernel kernel function
+     */
+    public KernelCache(DArray<Double> df, Kernel kernel) {
+        this(df.dim(0), DEFAULT_SIZE, rowFunction(rows(df), kernel));
     }
 
-    private static final class MapCache implements Cache {
+    /**
+     * Builds a cache for a square matrix.
+     *
+     * @param len  number of rows of the matrix
+     * @param size memory budget in bytes
+     * @param fun  function which computes values of a row
+     */
+    public KernelCache(int len, long size, RowFunction fun) {
+        this.fun = fun;
+        this.data = new double[len][];
+        this.prev = new int[len + 1];
+        this.next = new int[len + 1];
+        this.head = len;
+        prev[head] = next[head] = head;
+        // we need at least two rows to be able to solve a svm subproblem
+        this.capacity = Math.max(size / Double.BYTES, 2L * len);
+        this.available = capacity;
+    }
 
-        final transient private Map<Long, Double> cache = new HashMap<>();
+    /**
+     * Builds a row function which evaluates a kernel over an array of instances. The kernel values
+     * of a row are computed with {@link Kernel#compute(DArray, DArray[], int, int, double[])}.
+     */
+    public static RowFunction rowFunction(DArray<Double>[] xs, Kernel kernel) {
+        return (row, start, end, out) -> kernel.compute(xs[row], xs, start, end, out);
+    }
 
-        @Override
-        public void store(int row1, int row2, double value) {
-            long id = ((long) row1 << 32) | ((long) row2 & 0xffffffffL);
-            cache.put(id, value);
+    @SuppressWarnings("unchecked")
+    private static DArray<Double>[] rows(DArray<Double> df) {
+        DArray<Double>[] rows = new DArray[df.dim(0)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = df.selsq(0, i);
         }
+        return rows;
+    }
 
-        @Override
-        public Double retrieve(int row1, int row2) {
-            return cache.get(((long) row1 << 32) | (row2 & 0xffffffffL));
+    /**
+     * @return number of rows of the cached matrix
+     */
+    public int len() {
+        return data.length;
+    }
+
+    /**
+     * Returns a row with at least the first {@code len} values computed. The returned array is owned by cache and
+     * remains valid even if the row is later evicted. Its values must not be changed by the caller.
+     *
+     * @param index row index
+     * @param len   number of requested values
+     * @return array which contains the requested values
+     */
+    public synchronized double[] row(int index, int len) {
+        lruUnlink(index);
+        double[] row = data[index];
+        int start = row == null ? 0 : row.length;
+        if (start < len) {
+            int more = len - start;
+            // evict least recently used rows until the increased row fits into memory budget
+            while (available < more && next[head] != head) {
+                int old = next[head];
+                lruUnlink(old);
+                available += data[old].length;
+                data[old] = null;
+            }
+            row = (row == null) ? new double[len] : Arrays.copyOf(row, len);
+            available -= more;
+            fill(index, start, len, row);
+            data[index] = row;
         }
+        lruLink(index);
+        return row;
+    }
 
-        @Override
-        public void clear() {
-            cache.clear();
+    /**
+     * Returns value at given row and column. If none of the corresponding rows contains the value,
+     * the whole row is computed and cached.
+     */
+    public synchronized double get(int row, int col) {
+        if (data[row] != null && data[row].length > col) {
+            return data[row][col];
         }
+        if (data[col] != null && data[col].length > row) {
+            return data[col][row];
+        }
+        return row(row, data.length)[col];
     }
 
-    private static final class SolidCache implements Cache {
-        private final int n;
-        private boolean[] flag;
-        private double[] cache;
+    /**
+     * Returns the cached kernel value between two rows.
+     * Kept for compatibility, the given instances are not used since values are computed by row function.
+     */
+    public double cachedCompute(int row1, int row2, DArray<Double> r1, DArray<Double> r2) {
+        return get(row1, row2);
+    }
 
-        public SolidCache(int n) {
-            this.n = n;
-            flag = new boolean[n * n];
-            cache = new double[n * n];
+    private void fill(int index, int start, int end, double[] row) {
+        if (end - start <= BLOCK) {
+            fun.compute(index, start, end, row);
+            return;
         }
+        IntStream.range(0, Math.ceilDiv(end - start, BLOCK)).parallel().forEach(b -> {
+            int s = start + b * BLOCK;
+            fun.compute(index, s, Math.min(end, s + BLOCK), row);
+        });
+    }
 
-        @Override
-        public Double retrieve(int row1, int row2) {
-            if (cache == null) {
-                return null;
-            }
-            if (row1 > row2) {
-                return retrieve(row2, row1);
-            }
-            int p = row1 * n + row2;
-            if (flag[p]) {
-                return cache[p];
-            }
-            return null;
+    /**
+     * Swaps two rows and the corresponding columns, used by solvers which shrink the active set.
+     * Cached rows which contain only one of the swapped columns are evicted.
+     */
+    public synchronized void swapIndex(int i, int j) {
+        if (i == j) {
+            return;
+        }
+        if (i > j) {
+            int tmp = i;
+            i = j;
+            j = tmp;
         }
 
-        @Override
-        public void store(int row1, int row2, double value) {
-            if (cache == null) {
-                return;
-            }
-            if (row1 > row2) {
-                store(row2, row1, value);
-                return;
+        lruUnlink(i);
+        lruUnlink(j);
+        double[] buf = data[i];
+        data[i] = data[j];
+        data[j] = buf;
+        lruLink(i);
+        lruLink(j);
+
+        int h = next[head];
+        while (h != head) {
+            int nextH = next[h];
+            double[] row = data[h];
+            if (row.length > i) {
+                if (row.length > j) {
+                    double tmp = row[i];
+                    row[i] = row[j];
+                    row[j] = tmp;
+                } else {
+                    // give up
+                    lruUnlink(h);
+                    available += row.length;
+                    data[h] = null;
+                }
             }
-            int p = row1 * n + row2;
-            flag[p] = true;
-            cache[p] = value;
+            h = nextH;
+        }
+    }
+
+    /**
+     * Removes all cached rows.
+     */
+    public synchronized void clean() {
+        Arrays.fill(data, null);
+        prev[head] = next[head] = head;
+        available = capacity;
+    }
+
+    private void lruUnlink(int h) {
+        if (data[h] == null) {
+            return;
         }
+        next[prev[h]] = next[h];
+        prev[next[h]] = prev[h];
+    }
 
-        @Override
-        public void clear() {
-            flag = null;
-            cache = null;
+    private void lruLink(int h) {
+        if (data[h] == null) {
+            return;
         }
+        // insert to last position
+        next[h] = head;
+        prev[h] = prev[head];
+        next[prev[h]] = h;
+        prev[head] = h;
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Ball tree nearest neighbours index.
+ * <p>
+ * Each node of the tree is a ball described by the centroid of its points and the largest distance from the centroid
+ * to a point. A node is split at the median of the dimension with the largest spread.
+ * A query skips a node if the distance to the ball, which is the distance to the centroid minus the radius,
+ * is larger than the distance to the current k-th neighbour.
+ * <p>
+ * Since pruning relies only on the triangle inequality, a ball tree can be used with any metric distance. It also
+ * degrades more gracefully than a KD-tree when the number of dimensions increases.
+ */
+public final class BallTreeIndex implements NeighborIndex {
+
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final double[][] points;
+    private final Distance distance;
+    private final int leafSize;
+
+    // permutation of points, each node holds a contiguous range
+    private final int[] order;
+
+    private final List<double[]> centers = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    private record Node(int start, int end, double radius, int left, int right) {
+        boolean leaf() {
+            return left < 0;
+        }
+    }
+
+    public BallTreeIndex(double[][] points, Distance distance) {
+        this(points, distance, DEFAULT_LEAF_SIZE);
+    }
+
+    public BallTreeIndex(double[][] points, Distance distance, int leafSize) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Leaf size must be positive.");
+        }
+        this.points = points;
+        this.distance = distance;
+        this.leafSize = leafSize;
+        this.order = new int[points.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (points.length > 0) {
+            build(0, points.length);
+        }
+    }
+
+    private int build(int lo, int hi) {
+        int dims = points[order[lo]].length;
+        double[] center = new double[dims];
+        for (int i = lo; i < hi; i++) {
+            double[] p = points[order[i]];
+            for (int d = 0; d < dims; d++) {
+                center[d] += p[d];
+            }
+        }
+        for (int d = 0; d < dims; d++) {
+            center[d] /= hi - lo;
+        }
+        double radius = 0;
+        for (int i = lo; i < hi; i++) {
+            radius = Math.max(radius, distance.compute(points[order[i]], center));
+        }
+
+        int node = nodes.size();
+        centers.add(center);
+        nodes.add(null);
+        // split at median of the dimension with the largest spread, which keeps the tree balanced
+        int dim = (hi - lo <= leafSize || radius == 0) ? -1 : Partitions.maxSpreadDim(points, order, lo, hi);
+        if (dim < 0) {
+            nodes.set(node, new Node(lo, hi, radius, -1, -1));
+            return node;
+        }
+        int mid = (lo + hi) >>> 1;
+        Partitions.select(points, order, lo, hi - 1, mid, dim);
+        int leftNode = build(lo, mid);
+        int rightNode = build(mid, hi);
+        nodes.set(node, new Node(lo, hi, radius, leftNode, rightNode));
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return points.length;
+    }
+
+    @Override
+    public Distance distance() {
+        return distance;
+    }
+
+    @Override
+    public Neighbors query(double[] x, int k) {
+        NeighborHeap heap = new NeighborHeap(Math.min(k, points.length));
+        if (!nodes.isEmpty()) {
+            search(0, distance.compute(x, centers.get(0)), x, heap);
+        }
+        return heap.toNeighbors();
+    }
+
+    private void search(int id, double centerDistance, double[] x, NeighborHeap heap) {
+        Node node = nodes.get(id);
+        if (centerDistance - node.radius > heap.bound()) {
+            return;
+        }
+        if (node.leaf()) {
+            for (int i = node.start; i < node.end; i++) {
+                heap.offer(order[i], distance.compute(points[order[i]], x));
+            }
+            return;
+        }
+        double leftDistance = distance.compute(x, centers.get(node.left));
+        double rightDistance = distance.compute(x, centers.get(node.right));
+        if (leftDistance <= rightDistance) {
+            search(node.left, leftDistance, x, heap);
+            search(node.right, rightDistance, x, heap);
+        } else {
+            search(node.right, rightDistance, x, heap);
+            search(node.left, leftDistance, x, heap);
+        }
+    }
+}
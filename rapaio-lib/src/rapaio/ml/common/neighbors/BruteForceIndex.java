@@ -0,0 +1,58 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Brute force nearest neighbours search. Each query computes the distance to all indexed points and keeps
+ * the closest ones in a bounded heap. Works with any distance and it is the best option for small data sets
+ * or for points with many dimensions.
+ */
+public final class BruteForceIndex implements NeighborIndex {
+
+    private final double[][] points;
+    private final Distance distance;
+
+    public BruteForceIndex(double[][] points, Distance distance) {
+        this.points = points;
+        this.distance = distance;
+    }
+
+    @Override
+    public int size() {
+        return points.length;
+    }
+
+    @Override
+    public Distance distance() {
+        return distance;
+    }
+
+    @Override
+    public Neighbors query(double[] x, int k) {
+        NeighborHeap heap = new NeighborHeap(Math.min(k, points.length));
+        for (int i = 0; i < points.length; i++) {
+            heap.offer(i, distance.compute(points[i], x));
+        }
+        return heap.toNeighbors();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.distance.MinkowskiDistance;
+
+/**
+ * KD-tree nearest neighbours index.
+ * <p>
+ * The points are split recursively at the median of the dimension with the largest spread until a node contains
+ * at most leaf size points. A query descends first into the half which contains the query point and visits the
+ * other half only if the distance to the split plane is not larger than the distance to the current k-th neighbour.
+ * <p>
+ * The distance to the split plane is a lower bound of the distance to the points on the other side only for
+ * Minkowski distances, thus the KD-tree accepts only {@link EuclideanDistance}, {@link Manhattan} and
+ * {@link MinkowskiDistance}. It works best for points with few dimensions.
+ */
+public final class KDTreeIndex implements NeighborIndex {
+
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    /**
+     * @param distance distance function
+     * @return true if the distance can be used with a KD-tree
+     */
+    public static boolean supports(Distance distance) {
+        return distance instanceof EuclideanDistance || distance instanceof Manhattan || distance instanceof MinkowskiDistance;
+    }
+
+    private final double[][] points;
+    private final Distance distance;
+    private final int leafSize;
+
+    // permutation of points, each node holds a contiguous range
+    private final int[] order;
+
+    private final int[] start;
+    private final int[] end;
+    private final int[] splitDim;
+    private final double[] splitValue;
+    private final int[] left;
+    private final int[] right;
+    private int nodeCount;
+
+    public KDTreeIndex(double[][] points, Distance distance) {
+        this(points, distance, DEFAULT_LEAF_SIZE);
+    }
+
+    public KDTreeIndex(double[][] points, Distance distance, int leafSize) {
+        if (!supports(distance)) {
+            throw new IllegalArgumentException("KD-tree index requires a Minkowski distance, found: " + distance.name());
+        }
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Leaf size must be positive.");
+        }
+        this.points = points;
+        this.distance = distance;
+        this.leafSize = leafSize;
+
+        int n = points.length;
+        this.order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        // leaves contain at least half of leaf size points since splits are done at median
+        int maxNodes = 2 * (n / Math.max(1, (leafSize + 1) / 2)) + 1;
+        this.start = new int[maxNodes];
+        this.end = new int[maxNodes];
+        this.splitDim = new int[maxNodes];
+        this.splitValue = new double[maxNodes];
+        this.left = new int[maxNodes];
+        this.right = new int[maxNodes];
+        if (n > 0) {
+            build(0, n);
+        }
+    }
+
+    private int build(int lo, int hi) {
+        int node = nodeCount++;
+        start[node] = lo;
+        end[node] = hi;
+        splitDim[node] = -1;
+        if (hi - lo <= leafSize) {
+            return node;
+        }
+
+        int bestDim = Partitions.maxSpreadDim(points, order, lo, hi);
+        if (bestDim < 0) {
+            // all points are identical
+            return node;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        Partitions.select(points, order, lo, hi - 1, mid, bestDim);
+        splitDim[node] = bestDim;
+        splitValue[node] = points[order[mid]][bestDim];
+        left[node] = build(lo, mid);
+        right[node] = build(mid, hi);
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return points.length;
+    }
+
+    @Override
+    public Distance distance() {
+        return distance;
+    }
+
+    @Override
+    public Neighbors query(double[] x, int k) {
+        NeighborHeap heap = new NeighborHeap(Math.min(k, points.length));
+        if (nodeCount > 0) {
+            search(0, x, heap);
+        }
+        return heap.toNeighbors();
+    }
+
+    private void search(int node, double[] x, NeighborHeap heap) {
+        int dim = splitDim[node];
+        if (dim < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                heap.offer(order[i], distance.compute(points[order[i]], x));
+            }
+            return;
+        }
+        double diff = x[dim] - splitValue[node];
+        search(diff <= 0 ? left[node] : right[node], x, heap);
+        if (Math.abs(diff) <= heap.bound()) {
+            search(diff <= 0 ? right[node] : left[node], x, heap);
+        }
+    }
+}
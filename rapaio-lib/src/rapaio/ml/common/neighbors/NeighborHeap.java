@@ -0,0 +1,117 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+/**
+ * Bounded max heap of primitive (distance, index) pairs used to collect the closest points during a query.
+ * The top of the heap is the worst neighbour found so far, thus it can be replaced in logarithmic time
+ * when a closer point is found.
+ */
+final class NeighborHeap {
+
+    private final int capacity;
+    private final int[] indexes;
+    private final double[] distances;
+    private int size;
+
+    NeighborHeap(int capacity) {
+        this.capacity = capacity;
+        this.indexes = new int[capacity];
+        this.distances = new double[capacity];
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * @return distance of the worst neighbour if the heap is full, infinity otherwise
+     */
+    double bound() {
+        return size == capacity ? distances[0] : Double.POSITIVE_INFINITY;
+    }
+
+    void offer(int index, double distance) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!worse(distance, index, distances[parent], indexes[parent])) {
+                    break;
+                }
+                distances[pos] = distances[parent];
+                indexes[pos] = indexes[parent];
+                pos = parent;
+            }
+            distances[pos] = distance;
+            indexes[pos] = index;
+            return;
+        }
+        if (!worse(distances[0], indexes[0], distance, index)) {
+            return;
+        }
+        siftDown(0, index, distance);
+    }
+
+    private void siftDown(int pos, int index, double distance) {
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && worse(distances[right], indexes[right], distances[child], indexes[child])) {
+                child = right;
+            }
+            if (!worse(distances[child], indexes[child], distance, index)) {
+                break;
+            }
+            distances[pos] = distances[child];
+            indexes[pos] = indexes[child];
+            pos = child;
+        }
+        distances[pos] = distance;
+        indexes[pos] = index;
+    }
+
+    private static boolean worse(double d1, int i1, double d2, int i2) {
+        return d1 > d2 || (d1 == d2 && i1 > i2);
+    }
+
+    /**
+     * Empties the heap and returns the neighbours sorted ascending by distance.
+     */
+    Neighbors toNeighbors() {
+        int len = size;
+        int[] sortedIndexes = new int[len];
+        double[] sortedDistances = new double[len];
+        for (int i = len - 1; i >= 0; i--) {
+            sortedIndexes[i] = indexes[0];
+            sortedDistances[i] = distances[0];
+            size--;
+            if (size > 0) {
+                siftDown(0, indexes[size], distances[size]);
+            }
+        }
+        return new Neighbors(sortedIndexes, sortedDistances);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import java.util.stream.IntStream;
+
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Index over a fixed set of points which answers k nearest neighbours queries.
+ * <p>
+ * Indexes are read only after they are built, thus they can be queried concurrently.
+ * Instances are created with {@link NeighborSearch#build(double[][], Distance)}.
+ */
+public interface NeighborIndex {
+
+    /**
+     * @return number of indexed points
+     */
+    int size();
+
+    /**
+     * @return distance used to compare points
+     */
+    Distance distance();
+
+    /**
+     * Finds the closest indexed points to a query point.
+     *
+     * @param x query point
+     * @param k number of neighbours
+     * @return at most {@code k} neighbours sorted ascending by distance
+     */
+    Neighbors query(double[] x, int k);
+
+    /**
+     * Finds the closest indexed points for each query point. Queries run in parallel.
+     *
+     * @param xs query points
+     * @param k  number of neighbours
+     * @return neighbours for each query point
+     */
+    default Neighbors[] query(double[][] xs, int k) {
+        Neighbors[] neighbors = new Neighbors[xs.length];
+        IntStream.range(0, xs.length).parallel().forEach(i -> neighbors[i] = query(xs[i], k));
+        return neighbors;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import rapaio.ml.common.distance.Distance;
+
+/**
+ * Nearest neighbours search methods. Each method builds a {@link NeighborIndex} over a set of points.
+ */
+public enum NeighborSearch {
+
+    /**
+     * Computes distances to all points, see {@link BruteForceIndex}.
+     */
+    BruteForce {
+        @Override
+        public NeighborIndex build(double[][] points, Distance distance) {
+            return new BruteForceIndex(points, distance);
+        }
+    },
+    /**
+     * KD-tree, works only with Minkowski distances, see {@link KDTreeIndex}.
+     */
+    KDTree {
+        @Override
+        public NeighborIndex build(double[][] points, Distance distance) {
+            return new KDTreeIndex(points, distance);
+        }
+    },
+    /**
+     * Ball tree, works with any metric distance, see {@link BallTreeIndex}.
+     */
+    BallTree {
+        @Override
+        public NeighborIndex build(double[][] points, Distance distance) {
+            return new BallTreeIndex(points, distance);
+        }
+    },
+    /**
+     * Selects a method based on the number of points, the number of dimensions and the distance.
+     * Brute force is used for small data sets and for points with many dimensions, where space partitioning
+     * does not help. Otherwise, a KD-tree is used if the distance allows it and a ball tree if not.
+     */
+    Auto {
+        @Override
+        public NeighborIndex build(double[][] points, Distance distance) {
+            int dims = points.length == 0 ? 0 : points[0].length;
+            if (points.length <= 4 * KDTreeIndex.DEFAULT_LEAF_SIZE || dims > 50) {
+                return BruteForce.build(points, distance);
+            }
+            if (dims <= 16 && KDTreeIndex.supports(distance)) {
+                return KDTree.build(points, distance);
+            }
+            return BallTree.build(points, distance);
+        }
+    };
+
+    /**
+     * Builds an index over the given points. The points are not copied, thus they must not be changed
+     * while the index is used.
+     *
+     * @param points   points to be indexed, all with the same number of dimensions
+     * @param distance distance used to compare points
+     * @return new index
+     */
+    public abstract NeighborIndex build(double[][] points, Distance distance);
+}
@@ -0,0 +1,46 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+/**
+ * Result of a nearest neighbours query. Contains the indexes of the neighbour points and
+ * the distances to them, sorted ascending by distance. Ties are sorted by point index.
+ *
+ * @param indexes   indexes of the neighbour points
+ * @param distances distances from the query point to neighbours
+ */
+public record Neighbors(int[] indexes, double[] distances) {
+
+    /**
+     * @return number of neighbours
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    public int index(int i) {
+        return indexes[i];
+    }
+
+    public double distance(int i) {
+        return distances[i];
+    }
+}
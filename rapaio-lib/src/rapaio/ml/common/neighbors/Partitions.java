@@ -0,0 +1,89 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+/**
+ * Partitioning utilities used to build space partitioning trees over a permutation of points.
+ */
+final class Partitions {
+
+    private Partitions() {
+    }
+
+    /**
+     * Finds the dimension with the largest spread of values for the points in the range {@code [lo, hi)}.
+     *
+     * @return dimension index or -1 if all points are identical
+     */
+    static int maxSpreadDim(double[][] points, int[] order, int lo, int hi) {
+        int dims = points[order[lo]].length;
+        int bestDim = -1;
+        double bestSpread = 0;
+        for (int d = 0; d < dims; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double v = points[order[i]][d];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                bestDim = d;
+            }
+        }
+        return bestDim;
+    }
+
+    /**
+     * Rearranges the range {@code [lo, hi]} such that the element at position k is the one which would be there
+     * in sorted order by the given dimension, elements before are not greater and elements after are not smaller.
+     */
+    static void select(double[][] points, int[] order, int lo, int hi, int k, int dim) {
+        while (lo < hi) {
+            double pivot = points[order[(lo + hi) >>> 1]][dim];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points[order[i]][dim] < pivot) {
+                    i++;
+                }
+                while (points[order[j]][dim] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 import rapaio.core.param.ValueParam;
 import rapaio.data.Frame;
@@ -40,6 +43,8 @@ import rapaio.ml.model.tree.CTree;
 import rapaio.printer.Printable;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
+import rapaio.util.Pair;
+import rapaio.util.parralel.ParallelStreamCollector;
 
 /**
  * AdaBoost SAMME classifier is the classical version of AdaBoost which has
@@ -170,12 +175,24 @@ public class AdaBoost extends ClassifierModel<AdaBoost, ClassifierResult, RunInf
     @Override
     protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         ClassifierResult fit = ClassifierResult.build(this, df, withClasses, true);
-        for (int i = 0; i < learners.size(); i++) {
-            ClassifierResult hp = learners.get(i).predict(df, true, false);
-            for (int j = 0; j < df.rowCount(); j++) {
-                int index = hp.firstClasses().getInt(j);
-                fit.firstDensity().setDouble(j, index, fit.firstDensity().getDouble(j, index) + alphas.get(i));
-            }
+
+        // weak learners predict concurrently, votes are accumulated in learners order
+        int threads = computeThreads();
+        ExecutorService executor = Executors.newWorkStealingPool(threads);
+        try {
+            IntStream.range(0, learners.size()).boxed()
+                    .collect(ParallelStreamCollector.streamingOrdered(i -> Pair.from(i, learners.get(i).predict(df, true, false)),
+                            executor, threads))
+                    .forEach(p -> {
+                        Var classes = p.v2.firstClasses();
+                        double alpha = alphas.get(p.v1);
+                        for (int j = 0; j < df.rowCount(); j++) {
+                            int index = classes.getInt(j);
+                            fit.firstDensity().setDouble(j, index, fit.firstDensity().getDouble(j, index) + alpha);
+                        }
+                    });
+        } finally {
+            executor.shutdownNow();
         }
 
         // simply predict
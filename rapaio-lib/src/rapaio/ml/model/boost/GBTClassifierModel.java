@@ -41,8 +41,9 @@ import rapaio.ml.loss.KDevianceLossFunction;
 import rapaio.ml.loss.L2LossFunction;
 import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
-import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.FlatForest;
 import rapaio.ml.model.tree.RTree;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
@@ -82,6 +83,9 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
 
     private List<List<RTree>> trees;
 
+    // compiled form used for prediction, built lazily and discarded when trees are added
+    private transient List<FlatForest> compiled;
+
     private GBTClassifierModel() {
     }
 
@@ -119,6 +123,7 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
         residual = DArrays.zeros(Shape.of(K, df.rowCount()));
 
         trees = IntStream.range(0, K).mapToObj(i -> new ArrayList<RTree>()).collect(Collectors.toList());
+        compiled = null;
 
         // build individual regression targets for each class
 
@@ -127,8 +132,15 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
             yk.setDouble(1, df.getInt(i, firstTargetName()), i);
         }
 
+        // numeric variables are discretized once for all trees which use histogram search
+        FeatureBins featureBins = null;
+        if (model.get().bins.get() > 0) {
+            Frame x = df.removeVars(targetNames);
+            featureBins = FeatureBins.from(x, model.get().bins.get());
+        }
+
         for (int m = 0; m < runs.get(); m++) {
-            buildAdditionalTree(random, df, weights, yk);
+            buildAdditionalTree(random, df, weights, yk, featureBins);
             if (runningHook.get() != null) {
                 runningHook.get().accept(RunInfo.forClassifier(this, m));
             }
@@ -136,7 +148,7 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
         return true;
     }
 
-    private void buildAdditionalTree(Random random, Frame df, Var w, DArray<Double> yk) {
+    private void buildAdditionalTree(Random random, Frame df, Var w, DArray<Double> yk, FeatureBins featureBins) {
 
         // a) Set p_k(x)
 
@@ -157,16 +169,18 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
 
         Frame x = df.removeVars(targetNames);
         RowSampler.Sample sample = rowSampler.get().nextSample(random, x, w);
+        FeatureBins sampleBins = featureBins == null ? null : featureBins.mapRows(sample.mapping());
 
         for (int k = 0; k < K; k++) {
 
             Var residual_k = residual.selsq(0, k).dv().mapRows(sample.mapping()).name("##tt##");
 
             var tree = model.get().newInstance();
-            tree.fit(sample.df().bindVars(residual_k), sample.weights(), "##tt##");
+            tree.fit(sample.df().bindVars(residual_k), sample.weights(), sampleBins, null, "##tt##");
             tree.boostUpdate(df, yk.selsq(0, k).dv(), p.selsq(0, k).dv(), new KDevianceLossFunction(K));
 
             trees.get(k).add(tree);
+            compiled = null;
 
             var prediction = tree.predict(df, false).firstPrediction();
             for (int i = 0; i < df.rowCount(); i++) {
@@ -175,18 +189,37 @@ public class GBTClassifierModel extends ClassifierModel<GBTClassifierModel, Clas
         }
     }
 
+    /**
+     * Compiles the fitted regression trees into a flat form used for fast batch prediction.
+     * There is one compiled ensemble for each target level, which predicts the additive
+     * score of that level with {@code predict(df, shrinkage, null)}.
+     *
+     * @return compiled trees, one ensemble for each target level
+     */
+    public List<FlatForest> compile() {
+        return trees.stream().map(FlatForest::ofRTrees).toList();
+    }
+
+    private List<FlatForest> compiled() {
+        List<FlatForest> forests = compiled;
+        if (forests == null) {
+            forests = compile();
+            compiled = forests;
+        }
+        return forests;
+    }
+
     @Override
     public ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         ClassifierResult cr = ClassifierResult.build(this, df, withClasses, withDistributions);
 
         DArray<Double> p_f = DArrays.zeros(Shape.of(K, df.rowCount()));
 
+        List<FlatForest> forests = compiled();
         for (int k = 0; k < K; k++) {
-            for (RegressionModel<?, ?, ?> tree : trees.get(k)) {
-                var rr = tree.predict(df, false).firstPrediction();
-                for (int i = 0; i < df.rowCount(); i++) {
-                    p_f.setDouble(p_f.getDouble(k, i) + shrinkage.get() * rr.getDouble(i), k, i);
-                }
+            double[] values = forests.get(k).predict(df, shrinkage.get(), null);
+            for (int i = 0; i < df.rowCount(); i++) {
+                p_f.setDouble(values[i], k, i);
             }
         }
 
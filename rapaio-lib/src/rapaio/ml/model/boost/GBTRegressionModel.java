@@ -23,17 +23,21 @@ package rapaio.ml.model.boost;
 
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import rapaio.core.param.ValueParam;
 import rapaio.data.Frame;
 import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
+import rapaio.io.ColumnarFile;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.loss.L2LossFunction;
 import rapaio.ml.loss.LossFunction;
@@ -41,6 +45,8 @@ import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
 import rapaio.ml.model.simple.L2Regression;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.FlatForest;
 import rapaio.ml.model.tree.RTree;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
@@ -87,10 +93,18 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
      */
     public final ValueParam<Double, GBTRegressionModel> eps = new ValueParam<>(this, 1e-10, "eps", Double::isFinite);
 
+    /**
+     * Maximum number of rows used to compute bin splits when the model is fitted on a columnar file.
+     */
+    public static final int STREAM_BIN_SAMPLE_ROWS = 1 << 20;
+
     private VarDouble fitValues;
 
     private List<GBTRtree<? extends RegressionModel<?, ?, ?>, ? extends RegressionResult, ?>> trees;
 
+    // compiled form used for prediction, built lazily and discarded when trees are added
+    private transient FlatForest compiled;
+
     @Override
     public GBTRegressionModel newInstance() {
         return new GBTRegressionModel().copyParameterValues(this);
@@ -120,6 +134,7 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
     protected boolean coreFit(Frame df, Var weights) {
 
         trees = new ArrayList<>();
+        compiled = null;
 
         Random random = getRandom();
         Var y = df.rvar(firstTargetName());
@@ -128,6 +143,12 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
         initModel.get().fit(df, weights, firstTargetName());
         fitValues = initModel.get().predict(df, false).firstPrediction().copy();
 
+        // numeric variables are discretized once for all trees which use histogram search
+        FeatureBins featureBins = null;
+        if (model.get() instanceof RTree rtree && rtree.bins.get() > 0) {
+            featureBins = FeatureBins.from(x, rtree.bins.get());
+        }
+
         for (int i = 1; i <= runs.get(); i++) {
 
             Var gradient = loss.get().gradient(y, fitValues).name("target");
@@ -143,7 +164,12 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
 
             // build regions
 
-            tree.fit(xmLearn, "target");
+            if (featureBins != null && tree instanceof RTree rtree) {
+                rtree.fit(xmLearn, VarDouble.fill(xmLearn.rowCount(), 1).name("weights"),
+                        featureBins.mapRows(sampleRows), null, "target");
+            } else {
+                tree.fit(xmLearn, "target");
+            }
 
             // predict residuals
 
@@ -164,15 +190,192 @@ public class GBTRegressionModel extends RegressionModel<GBTRegressionModel, Regr
                 fitValues = nextFit;
                 // add tree in the predictors list
                 trees.add(tree);
+                compiled = null;
             }
             runningHook.get().accept(RunInfo.forRegression(this, i));
         }
         return true;
     }
 
+    /**
+     * Fits the model on a columnar file which is read in blocks of rows, without loading the whole data set in memory.
+     * All rows have equal weights.
+     *
+     * @param file          columnar file with input and target variables
+     * @param blockRows     number of rows read in a block
+     * @param targetVarName target variable name
+     * @return fitted model
+     * @see #fit(ColumnarFile, int, Var, String)
+     */
+    public GBTRegressionModel fit(ColumnarFile file, int blockRows, String targetVarName) {
+        return fit(file, blockRows, VarDouble.fill(file.rowCount(), 1).name("weights"), targetVarName);
+    }
+
+    /**
+     * Fits the model on a columnar file which is read in blocks of rows, without loading the whole data set in memory.
+     * <p>
+     * The weak learner must be a regression tree with histogram search enabled through {@link RTree#bins}.
+     * Numeric inputs are binned with splits computed on at most {@link #STREAM_BIN_SAMPLE_ROWS} rows evenly
+     * spread over the file, and the resident state is made of the bin codes (one byte for each value),
+     * the target, weights, gradient and fitted values of each row. At each boosting round the weak tree
+     * is fitted from the bin codes and gradient of the sampled rows with {@link RTree#fit(FeatureBins, Var, Var)},
+     * thus only numeric inputs are used as tests. Fitted values are updated with {@link RTree#predict(FeatureBins)},
+     * which routes all rows through the new tree by their bin codes, thus the file is read only when bin codes are built.
+     * <p>
+     * The initial model is fitted on a frame which contains only the target variable.
+     * With the same parameters, the fitted model is the same as the one fitted on the whole frame,
+     * as long as the number of rows is not larger than the number of rows used to compute bin splits.
+     *
+     * @param file          columnar file with input and target variables
+     * @param blockRows     number of rows read in a block
+     * @param weights       instance weights
+     * @param targetVarName target variable name
+     * @return fitted model
+     */
+    public GBTRegressionModel fit(ColumnarFile file, int blockRows, Var weights, String targetVarName) {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("Block rows must be positive.");
+        }
+        if (weights.size() != file.rowCount()) {
+            throw new IllegalArgumentException("Weights must have the same size as the number of rows.");
+        }
+        if (!(model.get() instanceof RTree rtree) || rtree.bins.get() == 0) {
+            throw new IllegalStateException("Columnar fit requires regression trees with histogram search as weak learners.");
+        }
+        Frame head = file.frame(0, Math.min(file.rowCount(), blockRows));
+        prepareFit(head, weights.mapRows(Mapping.range(head.rowCount())), targetVarName);
+        hasLearned = coreFit(file, blockRows, weights, rtree);
+        return this;
+    }
+
+    private boolean coreFit(ColumnarFile file, int blockRows, Var weights, RTree rtree) {
+
+        trees = new ArrayList<>();
+        compiled = null;
+        Random random = getRandom();
+        int rows = file.rowCount();
+        Var y = file.var(firstTargetName());
+        Frame yf = SolidFrame.byVars(y);
+
+        initModel.get().fit(yf, weights, firstTargetName());
+        fitValues = initModel.get().predict(yf, false).firstPrediction().copy();
+
+        // numeric variables are binned on a sample, then encoded block by block
+        List<String> numeric = Arrays.stream(inputNames).filter(name -> file.type(name).isNumeric()).toList();
+        int sampleSize = Math.min(rows, STREAM_BIN_SAMPLE_ROWS);
+        int[] binRows = IntStream.range(0, sampleSize).map(i -> (int) ((long) i * rows / sampleSize)).toArray();
+        FeatureBins featureBins = FeatureBins.from(readRows(file, binRows, blockRows, numeric), numeric, rtree.bins.get())
+                .allocate(rows);
+        for (int start = 0; start < rows; start += blockRows) {
+            int end = Math.min(rows, start + blockRows);
+            featureBins.encode(file.frame(start, end, numeric.toArray(String[]::new)), start);
+        }
+
+        for (int i = 1; i <= runs.get(); i++) {
+
+            Var gradient = loss.get().gradient(y, fitValues).name("target");
+
+            // the tree is fitted and its leaves are updated only from bin codes of sampled rows,
+            // with unit weights for the sampled rows like in the in memory fit
+
+            Mapping sampleRows = rowSampler.get().nextSample(random, yf, weights).mapping();
+            FeatureBins sampleBins = featureBins.mapRows(sampleRows);
+            RTree tree = rtree.newInstance();
+            tree.fit(sampleBins, gradient.mapRows(sampleRows), VarDouble.fill(sampleRows.size(), 1).name("weights"));
+            tree.boostUpdate(sampleBins, y.mapRows(sampleRows), fitValues.mapRows(sampleRows), loss.get());
+
+            // fitted values are updated by routing all rows through the tree with their resident bin codes
+            double[] pred = tree.predict(featureBins);
+            VarDouble nextFit = VarDouble.fill(rows, 0);
+            for (int j = 0; j < rows; j++) {
+                nextFit.setDouble(j, Math.fma(pred[j], shrinkage.get(), fitValues.getDouble(j)));
+            }
+
+            double initScore = loss.get().errorScore(y, fitValues);
+            double nextScore = loss.get().errorScore(y, nextFit);
+
+            if (Math.abs(initScore - nextScore) < eps.get()) {
+                break;
+            }
+
+            if (initScore > nextScore) {
+                fitValues = nextFit;
+                trees.add(tree);
+                compiled = null;
+            }
+            runningHook.get().accept(RunInfo.forRegression(this, i));
+        }
+        return true;
+    }
+
+    /**
+     * Reads the values of numeric variables for the given rows, which must be sorted in ascending order.
+     */
+    private static Frame readRows(ColumnarFile file, int[] rows, int blockRows, List<String> varNames) {
+        double[][] values = new double[varNames.size()][rows.length];
+        int pos = 0;
+        while (pos < rows.length) {
+            int start = rows[pos] / blockRows * blockRows;
+            Frame block = file.frame(start, Math.min(file.rowCount(), start + blockRows), varNames.toArray(String[]::new));
+            int first = pos;
+            while (pos < rows.length && rows[pos] < start + blockRows) {
+                pos++;
+            }
+            for (int i = 0; i < varNames.size(); i++) {
+                Var var = block.rvar(varNames.get(i));
+                for (int j = first; j < pos; j++) {
+                    values[i][j] = var.isMissing(rows[j] - start) ? VarDouble.MISSING_VALUE : var.getDouble(rows[j] - start);
+                }
+            }
+        }
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < varNames.size(); i++) {
+            vars.add(VarDouble.wrap(values[i]).name(varNames.get(i)));
+        }
+        return SolidFrame.byVars(vars);
+    }
+
+    /**
+     * Compiles the fitted regression trees into a flat form used for fast batch prediction.
+     * The initial model is not compiled, the ensemble prediction is obtained with
+     * {@code compile().predict(df, shrinkage, init)}, where {@code init} are the initial model predictions.
+     *
+     * @return compiled trees
+     * @throws IllegalStateException if weak learners are not regression trees
+     */
+    public FlatForest compile() {
+        List<RTree> rtrees = new ArrayList<>(trees.size());
+        for (var tree : trees) {
+            if (!(tree instanceof RTree rtree)) {
+                throw new IllegalStateException("Only ensembles of regression trees can be compiled.");
+            }
+            rtrees.add(rtree);
+        }
+        return FlatForest.ofRTrees(rtrees);
+    }
+
+    private FlatForest compiled() {
+        FlatForest forest = compiled;
+        if (forest == null) {
+            forest = compile();
+            compiled = forest;
+        }
+        return forest;
+    }
+
     @Override
     protected RegressionResult corePredict(final Frame df, final boolean withResiduals, double[] quantiles) {
         RegressionResult result = RegressionResult.build(this, df, withResiduals, quantiles);
+        if (trees.stream().allMatch(RTree.class::isInstance)) {
+            double[] init = initModel.get().predict(df, false).firstPrediction().darray_().toDoubleArray();
+            double[] values = compiled().predict(df, shrinkage.get(), init);
+            VarDouble pred = result.firstPrediction();
+            for (int i = 0; i < values.length; i++) {
+                pred.setDouble(i, values[i]);
+            }
+            result.buildComplete();
+            return result;
+        }
         var prediction = result.firstPrediction().darray_();
 
         prediction.apply_(v -> 0.0);
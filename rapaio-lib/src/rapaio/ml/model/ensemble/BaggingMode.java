@@ -46,17 +46,7 @@ public enum BaggingMode implements Serializable {
                     densities.setDouble(i, best, densities.getDouble(i, best));
                 }
             });
-            for (int i = 0; i < classes.size(); i++) {
-                var dv = DensityVector.emptyByLabels(false, dictionary);
-                for (int j = 0; j < dictionary.size(); j++) {
-                    dv.increment(dictionary.get(j), densities.getDouble(i, j));
-                }
-                dv.normalize();
-                for (int j = 0; j < dictionary.size(); j++) {
-                    densities.setDouble(i, j, dv.get(dictionary.get(j)));
-                }
-                classes.setDouble(i, dv.findBestIndex());
-            }
+            normalizeDensity(dictionary, classes, densities);
         }
     },
     SOFT_VOTE(false, true) {
@@ -78,17 +68,7 @@ public enum BaggingMode implements Serializable {
                     }
                 }
             });
-            for (int i = 0; i < classes.size(); i++) {
-                var dv = DensityVector.emptyByLabels(false, dictionary);
-                for (int j = 0; j < dictionary.size(); j++) {
-                    dv.increment(dictionary.get(j), densities.getDouble(i, j));
-                }
-                dv.normalize();
-                for (int j = 0; j < dictionary.size(); j++) {
-                    densities.setDouble(i, j, dv.get(dictionary.get(j)));
-                }
-                classes.setDouble(i, dv.findBestIndex());
-            }
+            normalizeDensity(dictionary, classes, densities);
         }
     };
 
@@ -108,5 +88,22 @@ public enum BaggingMode implements Serializable {
         return useDensities;
     }
 
+    /**
+     * Normalizes accumulated densities for each row and assigns the class with the highest density.
+     */
+    static void normalizeDensity(List<String> dictionary, Var classes, Frame densities) {
+        for (int i = 0; i < classes.size(); i++) {
+            var dv = DensityVector.emptyByLabels(false, dictionary);
+            for (int j = 0; j < dictionary.size(); j++) {
+                dv.increment(dictionary.get(j), densities.getDouble(i, j));
+            }
+            dv.normalize();
+            for (int j = 0; j < dictionary.size(); j++) {
+                densities.setDouble(i, j, dv.get(dictionary.get(j)));
+            }
+            classes.setDouble(i, dv.findBestIndex());
+        }
+    }
+
     abstract void computeDensity(List<String> dictionary, ClassWeights classWeights, List<ClassifierResult> treeFits, Var classes, Frame densities);
 }
@@ -59,6 +59,9 @@ import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
 import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.FlatForest;
+import rapaio.ml.model.tree.SortedIndex;
 import rapaio.ml.model.tree.ctree.Node;
 import rapaio.printer.Format;
 import rapaio.printer.Printer;
@@ -116,6 +119,9 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
 
     // learning artifacts
     private List<ClassifierModel<?, ?, ?>> predictors = new ArrayList<>();
+
+    // compiled form used for prediction, built lazily and discarded when the ensemble changes
+    private transient FlatForest compiled;
     private double oobError = Double.NaN;
     private DArray<Double> oobDensities;
     private Var oobPredictedClasses;
@@ -235,6 +241,7 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
         // same moment when weak tree was built
         // for a real running hook behavior run without threading
         predictors = new ArrayList<>();
+        compiled = null;
         int threads = computeThreads();
 
         Random random = getRandom();
@@ -242,9 +249,16 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
                 .mapToLong(__ -> random.nextLong())
                 .toArray();
 
+        // numeric variables are sorted and binned once and the read only structures are shared by all trees
+        Frame x = df.removeVars(targetNames);
+        SortedIndex sortedIndex = (model.get() instanceof CTree) ? SortedIndex.from(x) : null;
+        FeatureBins featureBins = (model.get() instanceof CTree tree && tree.bins.get() > 0)
+                ? FeatureBins.from(x, tree.bins.get()) : null;
+
         ExecutorService executor = Executors.newWorkStealingPool(threads);
         IntStream.range(0, runs.get()).boxed()
-                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, s, seeds[s]), executor, threads))
+                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, featureBins, sortedIndex, s, seeds[s]),
+                        executor, threads))
                 .forEach(info -> {
                     predictors.add(info.model);
                     if (oob.get()) {
@@ -372,16 +386,64 @@ public class CForest extends ClassifierModel<CForest, ClassifierResult, RunInfo<
     private record WeakPredictorInfo(ClassifierModel<?, ?, ?> model, Mapping mapping, int run) {
     }
 
-    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, int run, long seed) {
+    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex,
+            int run, long seed) {
         var weak = model.get().newInstance().seed.set(seed);
         RowSampler.Sample sample = rowSampler.get().nextSample(new Random(seed), df, weights);
-        weak.fit(sample.df(), sample.weights(), firstTargetName());
+        if (weak instanceof CTree tree) {
+            tree.fit(sample.df(), sample.weights(),
+                    featureBins == null ? null : featureBins.mapRows(sample.mapping()),
+                    sortedIndex == null ? null : sortedIndex.mapRows(sample.mapping()),
+                    firstTargetName());
+        } else {
+            weak.fit(sample.df(), sample.weights(), firstTargetName());
+        }
         return new WeakPredictorInfo(weak, sample.getComplementMapping(), run);
     }
 
+    /**
+     * Compiles the fitted classification trees into a flat form used for fast batch prediction.
+     * Soft voting is obtained from the compiled trees with normalized tree densities.
+     *
+     * @return compiled trees
+     * @throws IllegalStateException if weak learners are not classification trees
+     */
+    public FlatForest compile() {
+        List<CTree> trees = new ArrayList<>(predictors.size());
+        for (var predictor : predictors) {
+            if (!(predictor instanceof CTree tree)) {
+                throw new IllegalStateException("Only ensembles of classification trees can be compiled.");
+            }
+            trees.add(tree);
+        }
+        return FlatForest.ofCTrees(trees);
+    }
+
+    private FlatForest compiled() {
+        FlatForest forest = compiled;
+        if (forest == null) {
+            forest = compile();
+            compiled = forest;
+        }
+        return forest;
+    }
+
     @Override
     protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDensities) {
         ClassifierResult cp = ClassifierResult.build(this, df, true, true);
+        if (baggingMode.get() == BaggingMode.SOFT_VOTE && !predictors.isEmpty()
+                && predictors.stream().allMatch(CTree.class::isInstance)) {
+            double[] votes = compiled().densities(df, true, null);
+            Frame densities = cp.firstDensity();
+            int len = densities.varCount();
+            for (int i = 0; i < densities.rowCount(); i++) {
+                for (int j = 0; j < len; j++) {
+                    densities.setDouble(i, j, votes[i * len + j]);
+                }
+            }
+            BaggingMode.normalizeDensity(firstTargetLevels(), cp.firstClasses(), densities);
+            return cp;
+        }
         List<ClassifierResult> predictions = new ArrayList<>();
         for (var predictor : predictors) {
             predictions.add(predictor.predict(df,
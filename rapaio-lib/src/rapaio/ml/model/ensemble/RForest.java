@@ -42,7 +42,10 @@ import rapaio.ml.common.VarSelector;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.FlatForest;
 import rapaio.ml.model.tree.RTree;
+import rapaio.ml.model.tree.SortedIndex;
 import rapaio.ml.model.tree.rtree.Splitter;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
@@ -91,6 +94,9 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
 
     private final List<RegressionModel<?, ?, ?>> regressions = new ArrayList<>();
 
+    // compiled form used for prediction, built lazily and discarded when the ensemble changes
+    private transient FlatForest compiled;
+
     @Override
     public RForest newInstance() {
         return new RForest().copyParameterValues(this);
@@ -111,12 +117,20 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
     @Override
     protected boolean coreFit(Frame df, Var weights) {
         regressions.clear();
+        compiled = null;
         Random random = getRandom();
         long[] seeds = IntStream.range(0, runs.get()).mapToLong(i -> random.nextLong()).toArray();
         int threads = computeThreads();
+        // numeric variables are sorted and binned once and the read only structures are shared by all trees
+        Frame x = df.removeVars(targetNames);
+        SortedIndex sortedIndex = (model.get() instanceof RTree) ? SortedIndex.from(x) : null;
+        FeatureBins featureBins = (model.get() instanceof RTree tree && tree.bins.get() > 0)
+                ? FeatureBins.from(x, tree.bins.get()) : null;
+
         ExecutorService executor = Executors.newWorkStealingPool(threads);
         IntStream.range(0, runs.get()).boxed()
-                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, s, seeds[s]), executor, threads))
+                .collect(ParallelStreamCollector.streamingOrdered(s -> buildWeakPredictor(df, weights, featureBins, sortedIndex, s, seeds[s]),
+                        executor, threads))
                 .forEach(info -> {
                     regressions.add(info.model);
                     runningHook.get().accept(RunInfo.forRegression(this, info.run));
@@ -128,9 +142,16 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
     private record WeakPredictorInfo(RegressionModel<?, ?, ?> model, int run) {
     }
 
-    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, int run, long seed) {
+    private WeakPredictorInfo buildWeakPredictor(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex,
+            int run, long seed) {
         RowSampler.Sample sample = rowSampler.get().nextSample(new Random(seed), df, weights);
         RegressionModel<?, ?, ?> m = model.get().newInstance().seed.set(seed);
+        if (m instanceof RTree tree) {
+            return new WeakPredictorInfo(tree.fit(sample.df(), sample.weights(),
+                    featureBins == null ? null : featureBins.mapRows(sample.mapping()),
+                    sortedIndex == null ? null : sortedIndex.mapRows(sample.mapping()),
+                    targetNames), run);
+        }
         return new WeakPredictorInfo(m.fit(sample.df(), sample.weights(), targetNames), run);
     }
 
@@ -138,9 +159,47 @@ public class RForest extends RegressionModel<RForest, RegressionResult, RunInfo<
         return regressions;
     }
 
+    /**
+     * Compiles the fitted regression trees into a flat form used for fast batch prediction.
+     * The ensemble prediction is the compiled prediction divided by the number of trees.
+     *
+     * @return compiled trees
+     * @throws IllegalStateException if weak learners are not regression trees
+     */
+    public FlatForest compile() {
+        List<RTree> trees = new ArrayList<>(regressions.size());
+        for (var regression : regressions) {
+            if (!(regression instanceof RTree tree)) {
+                throw new IllegalStateException("Only ensembles of regression trees can be compiled.");
+            }
+            trees.add(tree);
+        }
+        return FlatForest.ofRTrees(trees);
+    }
+
+    private FlatForest compiled() {
+        FlatForest forest = compiled;
+        if (forest == null) {
+            forest = compile();
+            compiled = forest;
+        }
+        return forest;
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double[] quantiles) {
         RegressionResult fit = RegressionResult.build(this, df, withResiduals, quantiles);
+        if (!regressions.isEmpty() && regressions.stream().allMatch(RTree.class::isInstance)) {
+            double[] values = compiled().predict(df, 1, null);
+            VarDouble pred = fit.firstPrediction();
+            for (int i = 0; i < values.length; i++) {
+                pred.setDouble(i, values[i] / regressions.size());
+            }
+            if (withResiduals) {
+                fit.buildComplete();
+            }
+            return fit;
+        }
         List<VarDouble> results = regressions
                 .parallelStream()
                 .map(r -> r.predict(df, false).firstPrediction()).toList();
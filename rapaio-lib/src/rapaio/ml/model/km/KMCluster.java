@@ -22,6 +22,7 @@
 package rapaio.ml.model.km;
 
 import java.io.Serial;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Objects;
@@ -29,8 +30,8 @@ import java.util.Random;
 import java.util.stream.IntStream;
 
 import rapaio.core.param.ValueParam;
-import rapaio.core.stat.Mean;
 import rapaio.darray.DArray;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Unique;
@@ -79,18 +80,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         }
 
         public void recomputeCentroids(int k, DArray<Double> c, DArray<Double> instances, int[] assignment) {
-
-            // we compute mean for each feature separately
-            for (int j = 0; j < instances.dim(1); j++) {
-                // collect values for each cluster in mean, for a given input feature
-                Var[] means = IntStream.range(0, k).mapToObj(i -> VarDouble.empty()).toArray(VarDouble[]::new);
-                for (int i = 0; i < instances.dim(0); i++) {
-                    means[assignment[i]].addDouble(instances.getDouble(i, j));
-                }
-                for (int i = 0; i < k; i++) {
-                    c.setDouble(Mean.of(means[i]).value(), i, j);
-                }
-            }
+            new KMeansEngine(instances, k).recomputeCentroids(c, assignment);
         }
 
         @Override
@@ -156,11 +146,25 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
      */
     public final ValueParam<Double, KMCluster> eps = new ValueParam<>(this, 1e-20, "eps");
 
+    /**
+     * Number of rows sampled at each iteration for mini-batch KMeans. The default value 0 uses all rows
+     * at each iteration. Mini-batch iterations are noisy, thus the tolerance is not used to stop them.
+     * It is used only with KMeans method.
+     */
+    public final ValueParam<Integer, KMCluster> batchSize = new ValueParam<>(this, 0, "batchSize", v -> v != null && v >= 0);
+
+    /**
+     * If true, the rows are stored as a sparse matrix for distance computations and centroid updates.
+     * It pays off for inputs with many zero values. It is used only with KMeans method.
+     */
+    public final ValueParam<Boolean, KMCluster> sparse = new ValueParam<>(this, false, "sparse");
+
     // clustering artifacts
 
     private DArray<Double> c;
     private Frame centroids;
     private VarDouble errors;
+    private transient KMeansEngine engine;
 
     @Override
     public KMCluster newInstance() {
@@ -197,47 +201,103 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
 
     @Override
     public KMCluster coreFit(Frame initialDf, Var weights) {
+        if (method.get() == KMeans && sparse.get()) {
+            engine = new KMeansEngine(SparseMatrix.from(initialDf), k.get());
+            return fitCentroids(null, initialDf.rowCount());
+        }
+        DArray<Double> m = initialDf.darray();
+        engine = method.get() == KMeans ? new KMeansEngine(m, k.get()) : null;
+        return fitCentroids(m, m.dim(0));
+    }
+
+    /**
+     * Fits the model on a sparse matrix with a row for each instance. Input variables are named {@code x0},
+     * {@code x1} and so on. Distance computations and centroid updates touch only the stored values.
+     * Sparse inputs are supported only by KMeans method.
+     *
+     * @param x sparse matrix of inputs
+     * @return fitted model
+     */
+    public KMCluster fit(SparseMatrix x) {
+        checkSparseMethod();
+        inputNames = IntStream.range(0, x.cols()).mapToObj(i -> "x" + i).toArray(String[]::new);
+        inputTypes = new VarType[x.cols()];
+        Arrays.fill(inputTypes, VarType.DOUBLE);
+        engine = new KMeansEngine(x, k.get());
+        return fitCentroids(null, x.rows());
+    }
+
+    private void checkSparseMethod() {
+        if (method.get() != KMeans) {
+            throw new IllegalArgumentException("Sparse matrix is supported only by KMeans method.");
+        }
+    }
+
+    /**
+     * Runs the fit iterations. Rows are read from the dense matrix {@code m} if it is not null,
+     * otherwise from the engine.
+     */
+    private KMCluster fitCentroids(DArray<Double> m, int rows) {
 
         Random random = getRandom();
-        DArray<Double> m = initialDf.darray();
         c = initializeClusters(random, m);
 
-        int[] assignment = Ints.fill(m.dim(0), -1);
+        int[] assignment = Ints.fill(rows, -1);
         errors = VarDouble.empty().name("errors");
 
-        assignToCentroids(m, assignment, true);
-        repairEmptyClusters(random, m, assignment);
-
-        int rounds = runs.get();
-        while (rounds-- > 0) {
-            method.get().recomputeCentroids(k.get(), c, m, assignment);
+        if (engine != null && batchSize.get() > 0) {
+            fitMiniBatch(random, m, assignment);
+        } else {
             assignToCentroids(m, assignment, true);
             repairEmptyClusters(random, m, assignment);
 
-            if (runningHook != null) {
-                learned = true;
-                runningHook.get().accept(RunInfo.forClustering(this, runs.get() - rounds));
-            }
-            int erc = errors.size();
-            if (erc > 1 && errors.getDouble(erc - 2) - errors.getDouble(erc - 1) < eps.get()
-                    && errors.getDouble(erc - 1) <= errors.getDouble(erc - 2)) {
-                break;
+            int rounds = runs.get();
+            while (rounds-- > 0) {
+                recomputeCentroids(m, assignment);
+                assignToCentroids(m, assignment, true);
+                repairEmptyClusters(random, m, assignment);
+
+                if (runningHook != null) {
+                    learned = true;
+                    runningHook.get().accept(RunInfo.forClustering(this, runs.get() - rounds));
+                }
+                int erc = errors.size();
+                if (erc > 1 && errors.getDouble(erc - 2) - errors.getDouble(erc - 1) < eps.get()
+                        && errors.getDouble(erc - 1) <= errors.getDouble(erc - 2)) {
+                    break;
+                }
             }
         }
+        engine = null;
         centroids = SolidFrame.matrix(c, inputNames);
         learned = true;
         return this;
     }
 
+    private void fitMiniBatch(Random random, DArray<Double> m, int[] assignment) {
+        long[] counts = new long[k.get()];
+        int size = Math.min(batchSize.get(), assignment.length);
+        int rounds = runs.get();
+        while (rounds-- > 0) {
+            errors.addDouble(engine.miniBatch(random, c, size, counts));
+            if (runningHook != null) {
+                learned = true;
+                runningHook.get().accept(RunInfo.forClustering(this, runs.get() - rounds));
+            }
+        }
+        // final pass on all rows to have the assignment and the inertia of the learned centroids
+        assignToCentroids(m, assignment, true);
+    }
+
     private DArray<Double> initializeClusters(Random random, DArray<Double> m) {
-        DArray<Double> bestCentroids = init.get().init(random, method.get().distance(), m, k.get());
+        DArray<Double> bestCentroids = initCentroids(random, m);
         double bestError = computeInitError(m, bestCentroids);
 
         // compute initial restarts if nstart is greater than 1
         // the best restart is kept as initial centroids
 
         for (int i = 1; i < nstart.get(); i++) {
-            DArray<Double> nextCentroids = init.get().init(random, method.get().distance(), m, k.get());
+            DArray<Double> nextCentroids = initCentroids(random, m);
             double nextError = computeInitError(m, nextCentroids);
             if (nextError < bestError) {
                 bestCentroids = nextCentroids;
@@ -247,45 +307,76 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         return bestCentroids;
     }
 
+    private DArray<Double> initCentroids(Random random, DArray<Double> m) {
+        return m != null
+                ? init.get().init(random, method.get().distance(), m, k.get())
+                : init.get().init(random, engine, k.get());
+    }
+
     private double computeInitError(DArray<Double> m, DArray<Double> centroids) {
-        double sum = 0;
-        for (int i = 0; i < m.dim(0); i++) {
-            DArray<Double> mrow = m.selsq(0, i);
-            int cluster = findClosestCentroid(mrow, centroids);
-            sum += method.get().distance().reduced(centroids.selsq(0, cluster), mrow);
+        if (m == null) {
+            int[] assignment = new int[engine.rows()];
+            engine.assignAll(centroids, assignment);
+            return engine.inertia(centroids, assignment);
         }
-        return sum;
+        return closestCentroids(m, centroids, new int[m.dim(0)]);
     }
 
-    private void assignToCentroids(DArray<Double> m, int[] assignment, boolean withErrors) {
-        double totalError = 0.0;
-        for (int i = 0; i < m.dim(0); i++) {
-            DArray<Double> row = m.selsq(0, i);
-            int cluster = findClosestCentroid(row, c);
-            if (withErrors) {
-                totalError += method.get().distance().reduced(c.selsq(0, cluster), row);
-            }
-            assignment[i] = cluster;
+    private void recomputeCentroids(DArray<Double> m, int[] assignment) {
+        if (engine != null) {
+            engine.recomputeCentroids(c, assignment);
+        } else {
+            method.get().recomputeCentroids(k.get(), c, m, assignment);
         }
+    }
+
+    private void assignToCentroids(DArray<Double> m, int[] assignment, boolean withErrors) {
+        double totalError = engine != null ? engine.assign(c, assignment) : closestCentroids(m, c, assignment);
         if (withErrors) {
             errors.addDouble(totalError);
         }
     }
 
-    private int findClosestCentroid(DArray<Double> mrow, DArray<Double> centroids) {
-        int cluster = 0;
-        double d = method.get().distance().compute(mrow, centroids.selsq(0, 0));
-        for (int j = 1; j < centroids.dim(0); j++) {
-            double dd = method.get().distance().compute(mrow, centroids.selsq(0, j));
-            if (d > dd) {
-                d = dd;
-                cluster = j;
+    /**
+     * Assigns each row to the closest centroid using the method distance and returns the sum of reduced distances.
+     * Rows are processed in parallel, the total is summed in row order.
+     */
+    private double closestCentroids(DArray<Double> m, DArray<Double> centroids, int[] assignment) {
+        Distance distance = method.get().distance();
+        double[][] rows = rows(m);
+        double[][] cs = rows(centroids);
+        double[] rowErrors = new double[rows.length];
+        IntStream.range(0, rows.length).parallel().forEach(i -> {
+            int cluster = 0;
+            double d = distance.compute(rows[i], cs[0]);
+            for (int j = 1; j < cs.length; j++) {
+                double dd = distance.compute(rows[i], cs[j]);
+                if (d > dd) {
+                    d = dd;
+                    cluster = j;
+                }
             }
+            assignment[i] = cluster;
+            rowErrors[i] = distance.reduced(cs[cluster], rows[i]);
+        });
+        double totalError = 0.0;
+        for (double rowError : rowErrors) {
+            totalError += rowError;
         }
-        return cluster;
+        return totalError;
     }
 
-    private void repairEmptyClusters(Random random, DArray<Double> df, int[] assignment) {
+    private static double[][] rows(DArray<Double> m) {
+        double[][] rows = new double[m.dim(0)][m.dim(1)];
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows[i].length; j++) {
+                rows[i][j] = m.getDouble(i, j);
+            }
+        }
+        return rows;
+    }
+
+    private void repairEmptyClusters(Random random, DArray<Double> m, int[] assignment) {
         // check for empty clusters, if any is found then
         // select random points to be new clusters, different than
         // existing clusters
@@ -308,7 +399,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         while (it.hasNext()) {
             int next = it.next();
             while (true) {
-                int selection = random.nextInt(df.dim(0));
+                int selection = random.nextInt(assignment.length);
                 boolean found = false;
 
                 // check if it does not collide with existent valid clusters
@@ -317,7 +408,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
                     if (emptyCentroids.contains(i)) {
                         continue;
                     }
-                    if (!checkIfEqual(c, i, df, next)) {
+                    if (!checkIfEqual(c, i, m, next)) {
                         found = true;
                         break;
                     }
@@ -329,7 +420,7 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
                 // we found a valid centroid, it will be assigned
 
                 for (int j = 0; j < c.dim(1); j++) {
-                    c.setDouble(df.getDouble(selection, j), next, j);
+                    c.setDouble(value(m, selection, j), next, j);
                 }
                 break;
             }
@@ -344,27 +435,61 @@ public class KMCluster extends ClusteringModel<KMCluster, KMClusterResult, RunIn
         // the stopping criterion is given by a bound on error or a
         // maximum iteration
 
-        method.get().recomputeCentroids(k.get(), c, df, assignment);
+        recomputeCentroids(m, assignment);
     }
 
-    private boolean checkIfEqual(DArray<Double> centroids, int c, DArray<Double> df, int i) {
+    private boolean checkIfEqual(DArray<Double> centroids, int c, DArray<Double> m, int i) {
         int count = 0;
         for (int j = 0; j < centroids.dim(1); j++) {
-            if (centroids.getDouble(c, j) == df.getDouble(i, j)) {
+            if (centroids.getDouble(c, j) == value(m, i, j)) {
                 count++;
             }
         }
         return count == inputNames.length;
     }
 
+    private double value(DArray<Double> m, int i, int j) {
+        return m != null ? m.getDouble(i, j) : engine.get(i, j);
+    }
+
     @Override
     public KMClusterResult corePredict(Frame df, boolean withScores) {
+        if (method.get() == KMeans && sparse.get()) {
+            return predict(new KMeansEngine(SparseMatrix.from(df), k.get()), df);
+        }
         int[] assignment = Ints.fill(df.rowCount(), -1);
         DArray<Double> m = df.darray();
-        assignToCentroids(m, assignment, false);
+        if (method.get() == KMeans) {
+            new KMeansEngine(m, k.get()).assignAll(c, assignment);
+        } else {
+            closestCentroids(m, c, assignment);
+        }
         return KMClusterResult.valueOf(this, df, VarInt.wrap(assignment));
     }
 
+    /**
+     * Assigns the rows of a sparse matrix to the learned centroids. The frame of the result has no variables.
+     *
+     * @param x sparse matrix of inputs, with the same columns as the inputs used at fit time
+     * @return clustering result
+     */
+    public KMClusterResult predict(SparseMatrix x) {
+        checkSparseMethod();
+        if (!hasLearned()) {
+            throw new IllegalArgumentException("Model has not been trained");
+        }
+        if (x.cols() != inputNames.length) {
+            throw new IllegalArgumentException("Sparse matrix must have " + inputNames.length + " columns.");
+        }
+        return predict(new KMeansEngine(x, k.get()), SolidFrame.byVars(x.rows()));
+    }
+
+    private KMClusterResult predict(KMeansEngine rows, Frame df) {
+        int[] assignment = Ints.fill(rows.rows(), -1);
+        rows.assignAll(c, assignment);
+        return KMClusterResult.valueOf(this, df, VarInt.wrap(assignment), rows.errors(c, assignment));
+    }
+
     @Override
     public String toString() {
         return fullName() + ", fitted=" + hasLearned();
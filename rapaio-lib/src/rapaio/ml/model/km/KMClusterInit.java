@@ -43,7 +43,12 @@ public enum KMClusterInit implements Serializable {
 
     Forgy {
         public DArray<Double> init(Random random, Distance distance, DArray<Double> m, int k) {
-            return m.sel(0, SamplingTools.sampleWOR(random, m.dim(0), k));
+            return m.sel(0, SamplingTools.sampleWOR(random, m.dim(0), k)).copy();
+        }
+
+        @Override
+        DArray<Double> init(Random random, KMeansEngine engine, int k) {
+            return engine.select(SamplingTools.sampleWOR(random, engine.rows(), k));
         }
     },
     PlusPlus {
@@ -79,9 +84,45 @@ public enum KMClusterInit implements Serializable {
                 ids.add(next);
             }
 
-            return m.sel(0, centroids);
+            return m.sel(0, centroids).copy();
+        }
+
+        @Override
+        DArray<Double> init(Random random, KMeansEngine engine, int k) {
+
+            int n = engine.rows();
+            int[] centroids = Ints.fill(k, -1);
+
+            centroids[0] = random.nextInt(n);
+            Set<Integer> ids = new HashSet<>();
+            ids.add(centroids[0]);
+
+            // minimum distance from each row to the selected centers, updated with the last selected center
+            double[] min = Doubles.newFill(n, Double.POSITIVE_INFINITY);
+            double[] p = new double[n];
+            for (int i = 1; i < k; i++) {
+                double[] d2 = engine.distances2(centroids[i - 1]);
+                for (int j = 0; j < n; j++) {
+                    min[j] = Math.min(min[j], Math.sqrt(d2[j]));
+                    p[j] = ids.contains(j) ? 0 : min[j];
+                }
+                // normalize the weights
+                double sum = Doubles.sum(p, 0, p.length);
+                Doubles.div(p, 0, sum, p.length);
+
+                int next = SamplingTools.sampleWeightedWR(random, 1, p)[0];
+                centroids[i] = next;
+                ids.add(next);
+            }
+
+            return engine.select(centroids);
         }
     };
 
     public abstract DArray<Double> init(Random random, Distance distance, DArray<Double> m, int k);
+
+    /**
+     * Produces initial centroids from the rows of a KMeans engine, using Euclidean distance.
+     */
+    abstract DArray<Double> init(Random random, KMeansEngine engine, int k);
 }
@@ -43,18 +43,30 @@ import rapaio.printer.opt.POpt;
 public class KMClusterResult extends ClusteringResult<KMCluster> {
 
     public static KMClusterResult valueOf(KMCluster model, Frame df, VarInt clusterAssignment) {
-        return new KMClusterResult(model, df, clusterAssignment);
+        DArray<Double> c = model.getCentroidsMatrix();
+        DArray<Double> m = df.darray();
+        double[] errors = new double[m.dim(0)];
+        for (int i = 0; i < m.dim(0); i++) {
+            double d = model.method.get().distance().compute(c.selsq(0, clusterAssignment.getInt(i)), m.selsq(0, i));
+            errors[i] = d * d;
+        }
+        return new KMClusterResult(model, df, clusterAssignment, errors);
+    }
+
+    /**
+     * Builds a result from already computed squared distances from each row to its assigned centroid.
+     */
+    static KMClusterResult valueOf(KMCluster model, Frame df, VarInt clusterAssignment, double[] errors) {
+        return new KMClusterResult(model, df, clusterAssignment, errors);
     }
 
     private final Frame clusterSummary;
     private final Var distances;
 
-    private KMClusterResult(KMCluster model, Frame df, VarInt assignment) {
+    private KMClusterResult(KMCluster model, Frame df, VarInt assignment, double[] rowErrors) {
         super(model, df, assignment);
 
-        DArray<Double> c = model.getCentroidsMatrix();
-        DArray<Double> m = df.darray();
-        int ccount = c.dim(0);
+        int ccount = model.getCentroidsMatrix().dim(0);
 
         Var id = VarInt.seq(1, ccount).name("ID");
         Var count = VarInt.fill(ccount, 0).name("count");
@@ -67,10 +79,9 @@ public class KMClusterResult extends ClusteringResult<KMCluster> {
 
         Map<Integer, VarDouble> errors = new HashMap<>();
 
-        for (int i = 0; i < m.dim(0); i++) {
-            double d = model.method.get().distance().compute(c.selsq(0, assignment.getInt(i)), m.selsq(0, i));
-            errors.computeIfAbsent(assignment.getInt(i), row -> VarDouble.empty()).addDouble(d * d);
-            distances.addDouble(d * d);
+        for (int i = 0; i < rowErrors.length; i++) {
+            errors.computeIfAbsent(assignment.getInt(i), row -> VarDouble.empty()).addDouble(rowErrors[i]);
+            distances.addDouble(rowErrors[i]);
         }
         double totalVariance = Variance.of(distances).value();
         for (Map.Entry<Integer, VarDouble> e : errors.entrySet()) {
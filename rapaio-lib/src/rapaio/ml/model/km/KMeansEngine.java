@@ -0,0 +1,516 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.km;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.gemm.DoubleGemm;
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.darray.storage.array.DoubleArrayStorage;
+
+/**
+ * Euclidean KMeans engine which works over flat row major arrays.
+ * <p>
+ * The first assignment is computed in blocks of rows. For each block the squared distances are obtained from
+ * {@code ||x||^2 + ||c||^2 - 2 x c} where the dot products are computed with a matrix multiplication.
+ * Subsequent assignments use Hamerly bounds: each row keeps an upper bound to its assigned centroid
+ * and a lower bound to the second-closest centroid. Bounds are moved with the centroid shifts and a row is
+ * scanned against all centroids only when the bounds can not prove that its assignment did not change.
+ * <p>
+ * Rows can also be given as a sparse matrix in CSR format. In that case the dot products of the first assignment
+ * are computed with a sparse dense matrix product, distances use {@code ||c||^2 + sum((x - c)^2 - c^2)} over the
+ * stored values only and centroid sums touch only the stored values.
+ * <p>
+ * Rows are processed in parallel over fixed blocks and partial results are reduced in block order,
+ * thus the results do not depend on the number of available threads.
+ * <p>
+ * The engine keeps the bounds for a single assignment array, which must not be modified by the caller
+ * between calls of {@link #assign(DArray, int[])}.
+ */
+final class KMeansEngine {
+
+    /**
+     * Number of rows processed by a single task.
+     */
+    static final int BLOCK = 512;
+
+    /**
+     * Maximum number of partial sums used for centroid accumulation.
+     */
+    private static final int MAX_CHUNKS = 64;
+
+    /**
+     * Dense rows in row major order, null if the rows are sparse.
+     */
+    private final double[] x;
+    /**
+     * Sparse rows in CSR format, null if the rows are dense.
+     */
+    private final SparseMatrix sx;
+    private final int n;
+    private final int d;
+    private final int k;
+    private final double[] xnorm;
+
+    private double[] upper;
+    private double[] lower;
+    private double[] boundCentroids;
+
+    KMeansEngine(DArray<Double> m, int k) {
+        this(m.toDoubleArray(Order.C), m.dim(0), m.dim(1), k);
+    }
+
+    KMeansEngine(double[] x, int n, int d, int k) {
+        this(x, null, n, d, k);
+    }
+
+    KMeansEngine(SparseMatrix m, int k) {
+        this(null, m.toCsr(), m.rows(), m.cols(), k);
+    }
+
+    private KMeansEngine(double[] x, SparseMatrix sx, int n, int d, int k) {
+        this.x = x;
+        this.sx = sx;
+        this.n = n;
+        this.d = d;
+        this.k = k;
+        this.xnorm = new double[n];
+        for (int i = 0; i < n; i++) {
+            xnorm[i] = rowNorm(i);
+        }
+    }
+
+    int rows() {
+        return n;
+    }
+
+    /**
+     * Value of row {@code i} and column {@code j}.
+     */
+    double get(int i, int j) {
+        return sx == null ? x[i * d + j] : sx.get(i, j);
+    }
+
+    /**
+     * Copies the given rows into a new dense array.
+     */
+    DArray<Double> select(int[] rows) {
+        DArray<Double> out = DArrays.zeros(Shape.of(rows.length, d));
+        for (int r = 0; r < rows.length; r++) {
+            double[] row = denseRow(rows[r]);
+            for (int l = 0; l < d; l++) {
+                out.setDouble(row[l], r, l);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Computes squared distances from all rows to row {@code row}.
+     */
+    double[] distances2(int row) {
+        double[] c = denseRow(row);
+        double[] cnorm = new double[] {xnorm[row]};
+        double[] dist = new double[n];
+        IntStream.range(0, Math.ceilDiv(n, BLOCK)).parallel().forEach(b -> {
+            int end = Math.min(n, (b + 1) * BLOCK);
+            for (int i = b * BLOCK; i < end; i++) {
+                dist[i] = rowDistance2(i, c, 0, cnorm);
+            }
+        });
+        return dist;
+    }
+
+    /**
+     * Assigns each row to the closest centroid and returns the sum of squared distances.
+     * The first call computes all distances, the next calls use the bounds computed at the previous call.
+     */
+    double assign(DArray<Double> centroids, int[] assignment) {
+        double[] c = centroids.toDoubleArray(Order.C);
+        if (upper == null) {
+            upper = new double[n];
+            lower = new double[n];
+            assignBlocked(c, assignment, upper, lower);
+        } else {
+            assignBounded(c, assignment);
+        }
+        boundCentroids = c;
+        return inertia(c, assignment);
+    }
+
+    /**
+     * Assigns each row to the closest centroid without using or changing the bounds.
+     */
+    void assignAll(DArray<Double> centroids, int[] assignment) {
+        assignBlocked(centroids.toDoubleArray(Order.C), assignment, null, null);
+    }
+
+    private void assignBlocked(double[] c, int[] assignment, double[] up, double[] lo) {
+        double[] cnorm = centroidNorms(c);
+        DoubleArrayStorage xs = sx == null ? new DoubleArrayStorage(x) : null;
+        DoubleArrayStorage cs = new DoubleArrayStorage(c);
+        DArray<Double> ct = sx == null ? null : DArrays.stride(Shape.of(k, d), Order.C, c).t();
+        IntStream.range(0, Math.ceilDiv(n, BLOCK)).parallel().forEach(b -> {
+            int start = b * BLOCK;
+            int len = Math.min(n, start + BLOCK) - start;
+            // dots = X[start:start+len] * C^T
+            double[] dots;
+            if (sx == null) {
+                dots = new double[len * k];
+                DoubleGemm.mm(len, k, d, xs, start * d, d, 1, cs, 0, 1, d, new DoubleArrayStorage(dots), 0, k, 1, 1);
+            } else {
+                dots = sx.rowRange(start, start + len).mm(ct).toDoubleArray(Order.C);
+            }
+            for (int r = 0; r < len; r++) {
+                int i = start + r;
+                int best = 0;
+                double d1 = Double.POSITIVE_INFINITY;
+                double d2 = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < k; j++) {
+                    double dist = Math.max(0, xnorm[i] + cnorm[j] - 2 * dots[r * k + j]);
+                    if (dist < d1) {
+                        d2 = d1;
+                        d1 = dist;
+                        best = j;
+                    } else if (dist < d2) {
+                        d2 = dist;
+                    }
+                }
+                assignment[i] = best;
+                if (up != null) {
+                    // upper bound is computed exactly since it is used to skip rows
+                    up[i] = Math.sqrt(rowDistance2(i, c, best, cnorm));
+                    lo[i] = Math.sqrt(d2);
+                }
+            }
+        });
+    }
+
+    private void assignBounded(double[] c, int[] assignment) {
+
+        // centroid shifts since the bounds were computed
+
+        double[] shift = new double[k];
+        for (int j = 0; j < k; j++) {
+            shift[j] = Math.sqrt(distance2(c, j * d, boundCentroids, j * d, d));
+        }
+        int maxShiftIndex = argmax(shift);
+        double maxShift = shift[maxShiftIndex];
+        double secondShift = secondMax(shift, maxShiftIndex);
+        double[] cnorm = centroidNorms(c);
+
+
+        // half of the distance from each centroid to its closest centroid
+
+        double[] s = new double[k];
+        Arrays.fill(s, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < k; j++) {
+            for (int l = j + 1; l < k; l++) {
+                double dist = 0.5 * Math.sqrt(distance2(c, j * d, c, l * d, d));
+                s[j] = Math.min(s[j], dist);
+                s[l] = Math.min(s[l], dist);
+            }
+        }
+
+        IntStream.range(0, Math.ceilDiv(n, BLOCK)).parallel().forEach(b -> {
+            int end = Math.min(n, (b + 1) * BLOCK);
+            for (int i = b * BLOCK; i < end; i++) {
+                int a = assignment[i];
+                upper[i] += shift[a];
+                lower[i] -= (a == maxShiftIndex) ? secondShift : maxShift;
+
+                double bound = Math.max(s[a], lower[i]);
+                if (upper[i] <= bound) {
+                    continue;
+                }
+                upper[i] = Math.sqrt(rowDistance2(i, c, a, cnorm));
+                if (upper[i] <= bound) {
+                    continue;
+                }
+                int best = 0;
+                double d1 = Double.POSITIVE_INFINITY;
+                double d2 = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < k; j++) {
+                    double dist = rowDistance2(i, c, j, cnorm);
+                    if (dist < d1) {
+                        d2 = d1;
+                        d1 = dist;
+                        best = j;
+                    } else if (dist < d2) {
+                        d2 = dist;
+                    }
+                }
+                assignment[i] = best;
+                upper[i] = Math.sqrt(d1);
+                lower[i] = Math.sqrt(d2);
+            }
+        });
+    }
+
+    /**
+     * Computes the sum of squared distances from rows to the assigned centroids.
+     */
+    double inertia(DArray<Double> centroids, int[] assignment) {
+        return inertia(centroids.toDoubleArray(Order.C), assignment);
+    }
+
+    private double inertia(double[] c, int[] assignment) {
+        double sum = 0;
+        for (double error : errors(c, assignment)) {
+            sum += error;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the squared distance from each row to its assigned centroid.
+     */
+    double[] errors(DArray<Double> centroids, int[] assignment) {
+        return errors(centroids.toDoubleArray(Order.C), assignment);
+    }
+
+    private double[] errors(double[] c, int[] assignment) {
+        double[] cnorm = centroidNorms(c);
+        double[] errors = new double[n];
+        IntStream.range(0, Math.ceilDiv(n, BLOCK)).parallel().forEach(b -> {
+            int end = Math.min(n, (b + 1) * BLOCK);
+            for (int i = b * BLOCK; i < end; i++) {
+                errors[i] = rowDistance2(i, c, assignment[i], cnorm);
+            }
+        });
+        return errors;
+    }
+
+    /**
+     * Replaces each centroid with the mean of its assigned rows. Centroids without assigned rows are left unchanged.
+     */
+    void recomputeCentroids(DArray<Double> centroids, int[] assignment) {
+        int chunkLen = Math.max(BLOCK, Math.ceilDiv(n, MAX_CHUNKS));
+        int chunks = Math.ceilDiv(n, chunkLen);
+        double[][] sums = new double[chunks][k * d];
+        int[][] counts = new int[chunks][k];
+        IntStream.range(0, chunks).parallel().forEach(ch -> {
+            double[] sum = sums[ch];
+            int[] count = counts[ch];
+            int end = Math.min(n, (ch + 1) * chunkLen);
+            for (int i = ch * chunkLen; i < end; i++) {
+                addRow(i, sum, assignment[i] * d);
+                count[assignment[i]]++;
+            }
+        });
+        for (int ch = 1; ch < chunks; ch++) {
+            for (int p = 0; p < k * d; p++) {
+                sums[0][p] += sums[ch][p];
+            }
+            for (int j = 0; j < k; j++) {
+                counts[0][j] += counts[ch][j];
+            }
+        }
+        for (int j = 0; j < k; j++) {
+            if (counts[0][j] == 0) {
+                continue;
+            }
+            for (int l = 0; l < d; l++) {
+                centroids.setDouble(sums[0][j * d + l] / counts[0][j], j, l);
+            }
+        }
+    }
+
+    /**
+     * Performs one mini-batch update as described by Sculley in <i>Web-Scale K-Means Clustering</i>.
+     * A sample of rows is drawn with replacement, assigned to the closest centroids and each centroid is moved
+     * towards its sampled rows with a per centroid learning rate given by the number of rows it received so far.
+     *
+     * @param random    random number generator used for sampling
+     * @param centroids centroids which are updated in place
+     * @param batchSize number of sampled rows
+     * @param counts    number of rows received so far by each centroid, updated in place
+     * @return sum of squared distances of the sampled rows, scaled to the number of rows
+     */
+    double miniBatch(Random random, DArray<Double> centroids, int batchSize, long[] counts) {
+        double[] c = centroids.toDoubleArray(Order.C);
+        double[] cnorm = centroidNorms(c);
+        int[] rows = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            rows[i] = random.nextInt(n);
+        }
+        int[] assignment = new int[batchSize];
+        double[] errors = new double[batchSize];
+        IntStream.range(0, Math.ceilDiv(batchSize, BLOCK)).parallel().forEach(b -> {
+            int end = Math.min(batchSize, (b + 1) * BLOCK);
+            for (int r = b * BLOCK; r < end; r++) {
+                int best = 0;
+                double d1 = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < k; j++) {
+                    double dist = rowDistance2(rows[r], c, j, cnorm);
+                    if (dist < d1) {
+                        d1 = dist;
+                        best = j;
+                    }
+                }
+                assignment[r] = best;
+                errors[r] = d1;
+            }
+        });
+        double error = 0;
+        for (int r = 0; r < batchSize; r++) {
+            double eta = 1.0 / ++counts[assignment[r]];
+            moveTowards(rows[r], c, assignment[r] * d, eta);
+            error += errors[r];
+        }
+        for (int j = 0; j < k; j++) {
+            for (int l = 0; l < d; l++) {
+                centroids.setDouble(c[j * d + l], j, l);
+            }
+        }
+        return error * n / batchSize;
+    }
+
+    private double[] centroidNorms(double[] c) {
+        double[] cnorm = new double[k];
+        for (int j = 0; j < k; j++) {
+            cnorm[j] = dot(c, j * d, c, j * d, d);
+        }
+        return cnorm;
+    }
+
+    private double rowNorm(int i) {
+        if (sx == null) {
+            return dot(x, i * d, x, i * d, d);
+        }
+        int[] ptr = sx.ptr();
+        double[] values = sx.values();
+        double sum = 0;
+        for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+            sum += values[p] * values[p];
+        }
+        return sum;
+    }
+
+    /**
+     * Squared distance from row {@code i} to centroid {@code j}, {@code cnorm} is used only for sparse rows.
+     */
+    private double rowDistance2(int i, double[] c, int j, double[] cnorm) {
+        if (sx == null) {
+            return distance2(x, i * d, c, j * d, d);
+        }
+        int[] ptr = sx.ptr();
+        int[] idx = sx.idx();
+        double[] values = sx.values();
+        int off = j * d;
+        // ||x - c||^2 = ||c||^2 + sum over stored values of (x - c)^2 - c^2
+        double sum = cnorm[j];
+        for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+            double cl = c[off + idx[p]];
+            double delta = values[p] - cl;
+            sum += delta * delta - cl * cl;
+        }
+        return Math.max(0, sum);
+    }
+
+    private double[] denseRow(int i) {
+        double[] row = new double[d];
+        if (sx == null) {
+            System.arraycopy(x, i * d, row, 0, d);
+        } else {
+            addRow(i, row, 0);
+        }
+        return row;
+    }
+
+    private void addRow(int i, double[] sum, int off) {
+        if (sx == null) {
+            int xoff = i * d;
+            for (int l = 0; l < d; l++) {
+                sum[off + l] += x[xoff + l];
+            }
+            return;
+        }
+        int[] ptr = sx.ptr();
+        int[] idx = sx.idx();
+        double[] values = sx.values();
+        for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+            sum[off + idx[p]] += values[p];
+        }
+    }
+
+    private void moveTowards(int i, double[] c, int off, double eta) {
+        if (sx == null) {
+            int xoff = i * d;
+            for (int l = 0; l < d; l++) {
+                c[off + l] += eta * (x[xoff + l] - c[off + l]);
+            }
+            return;
+        }
+        for (int l = 0; l < d; l++) {
+            c[off + l] *= 1 - eta;
+        }
+        int[] ptr = sx.ptr();
+        int[] idx = sx.idx();
+        double[] values = sx.values();
+        for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+            c[off + idx[p]] += eta * values[p];
+        }
+    }
+
+    private static int argmax(double[] values) {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static double secondMax(double[] values, int maxIndex) {
+        double max = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i != maxIndex) {
+                max = Math.max(max, values[i]);
+            }
+        }
+        return max;
+    }
+
+    private static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    private static double distance2(double[] a, int aOff, double[] b, int bOff, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            double delta = a[aOff + i] - b[bOff + i];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+}
@@ -32,6 +32,7 @@ import rapaio.core.param.ValueParam;
 import rapaio.core.stat.Quantiles;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
+import rapaio.darray.Order;
 import rapaio.darray.Shape;
 import rapaio.data.Frame;
 import rapaio.data.Var;
@@ -222,30 +223,49 @@ public class MWKMeans extends ClusteringModel<MWKMeans, MWKMeansResult, RunInfo<
     }
 
     private int[] computeAssignmentAndError(DArray<Double> x, boolean withErrors) {
-        int[] assignment = new int[x.dim(0)];
-        double totalError = 0.0;
-        for (int i = 0; i < x.dim(0); i++) {
-            double error = Double.NaN;
-            int cluster = -1;
-            for (int j = 0; j < c.dim(0); j++) {
-                DArray<Double> w = subspace.get() ? weights.selsq(0, j) : weights.selsq(0, 0);
-                double currentError = error(x.selsq(0, i), c.selsq(0, j), w, p.get());
-                if (!Double.isFinite(currentError)) {
-                    continue;
+        int n = x.dim(0);
+        int d = x.dim(1);
+        int k = c.dim(0);
+        int beta = p.get();
+        double[] xs = x.toDoubleArray(Order.C);
+        double[] cs = c.toDoubleArray(Order.C);
+        double[] ws = weights.toDoubleArray(Order.C);
+        boolean sub = subspace.get();
+
+        int[] assignment = new int[n];
+        double[] rowErrors = new double[n];
+        IntStream.range(0, Math.ceilDiv(n, KMeansEngine.BLOCK)).parallel().forEach(b -> {
+            int end = Math.min(n, (b + 1) * KMeansEngine.BLOCK);
+            for (int i = b * KMeansEngine.BLOCK; i < end; i++) {
+                double error = Double.NaN;
+                int cluster = -1;
+                for (int j = 0; j < k; j++) {
+                    int woff = sub ? j * d : 0;
+                    double currentError = 0;
+                    for (int l = 0; l < d; l++) {
+                        currentError += pow(abs((xs[i * d + l] - cs[j * d + l]) * ws[woff + l]), beta);
+                    }
+                    if (!Double.isFinite(currentError)) {
+                        continue;
+                    }
+                    if (Double.isNaN(error) || (currentError < error)) {
+                        error = currentError;
+                        cluster = j;
+                    }
                 }
-                if (Double.isNaN(error) || (currentError < error)) {
-                    error = currentError;
-                    cluster = j;
+                if (cluster == -1) {
+                    LOGGER.severe("Cluster could not be found during assign to centroids.");
+                    throw new RuntimeException("Cluster could not be computed");
                 }
+                rowErrors[i] = error;
+                assignment[i] = cluster;
             }
-            if (cluster == -1) {
-                LOGGER.severe("Cluster could not be found during assign to centroids.");
-                throw new RuntimeException("Cluster could not be computed");
-            }
-            totalError += error;
-            assignment[i] = cluster;
-        }
+        });
         if (withErrors) {
+            double totalError = 0.0;
+            for (double rowError : rowErrors) {
+                totalError += rowError;
+            }
             errors.addDouble(totalError);
         }
         return assignment;
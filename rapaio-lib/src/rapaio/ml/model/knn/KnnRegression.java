@@ -28,9 +28,7 @@ import static java.lang.StrictMath.pow;
 import static rapaio.math.MathTools.HALF_PI;
 import static rapaio.math.MathTools.PI;
 
-import java.util.Arrays;
 import java.util.Objects;
-import java.util.TreeSet;
 
 import rapaio.core.distributions.Normal;
 import rapaio.core.param.ValueParam;
@@ -45,6 +43,9 @@ import rapaio.data.VarType;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.distance.Distance;
 import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.neighbors.NeighborIndex;
+import rapaio.ml.common.neighbors.NeighborSearch;
+import rapaio.ml.common.neighbors.Neighbors;
 import rapaio.ml.model.RegressionModel;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
@@ -90,8 +91,14 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
      */
     public final ValueParam<Double, KnnRegression> eps = new ValueParam<>(this, 1e-6, "eps");
 
-    private DArray<Double>[] instances;
-    private DArray<Double> target;
+    /**
+     * Method used to search for nearest neighbours
+     */
+    public final ValueParam<NeighborSearch, KnnRegression> search = new ValueParam<>(this, NeighborSearch.Auto, "search",
+            Objects::nonNull);
+
+    private NeighborIndex index;
+    private double[] target;
 
     @Override
     public KnnRegression newInstance() {
@@ -110,57 +117,32 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
                 .targets(1, 1, false, VarType.DOUBLE, VarType.INT, VarType.LONG, VarType.BINARY);
     }
 
-    private DArray<Double> buildInstance(Frame df, int row) {
-        DArray<Double> instance = DArrays.zeros(Shape.of(inputNames.length));
+    private double[][] buildInstances(Frame df) {
+        double[][] instances = new double[df.rowCount()][inputNames.length];
         for (int j = 0; j < inputNames.length; j++) {
-            instance.setDouble(df.getDouble(row, inputNames[j]), j);
+            Var var = df.rvar(inputNames[j]);
+            for (int i = 0; i < instances.length; i++) {
+                instances[i][j] = var.getDouble(i);
+            }
         }
-        return instance;
+        return instances;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected boolean coreFit(Frame df, Var weights) {
         if (df.rowCount() < 2) {
             throw new IllegalArgumentException("Not enough data for regression.");
         }
-        this.instances = new DArray[df.rowCount()];
-        for (int i = 0; i < df.rowCount(); i++) {
-            instances[i] = buildInstance(df, i);
-        }
-        this.target = df.rvar(targetNames[0]).darray_();
+        this.index = search.get().build(buildInstances(df), distance.get());
+        this.target = df.rvar(targetNames[0]).darray_().toDoubleArray();
         return true;
     }
 
-    private int[] computeTop(DArray<Double>[] instances, DArray<Double> x, int k) {
-        TreeSet<Integer> top = new TreeSet<>((o1, o2) -> {
-            double d1 = distance.get().compute(instances[o1], x);
-            double d2 = distance.get().compute(instances[o2], x);
-            return Double.compare(d1, d2);
-        });
-        for (int i = 0; i < instances.length; i++) {
-            top.add(i);
-            if (top.size() > k) {
-                top.remove(top.last());
-            }
-        }
-        int[] indexes = new int[k];
-        int pos = 0;
-        for (int i : top) {
-            indexes[pos++] = i;
-        }
-        return indexes;
-    }
-
-    private DArray<Double> computeWeights(int[] top, int ref, DArray<Double> x) {
-
-        var d = distance.get();
-        DArray<Double> w = DArrays.zeros(Shape.of(top.length));
-        w.apply_(Order.C, (i, p) -> d.compute(x, instances[top[i]]));
-
-        double wref = d.compute(x, instances[ref]);
+    private DArray<Double> computeWeights(Neighbors neighbors, int len) {
         // normalize by k+1 distance
-        w.div_(wref);
+        double wref = neighbors.distance(neighbors.size() - 1);
+        DArray<Double> w = DArrays.zeros(Shape.of(len));
+        w.apply_(Order.C, (i, _) -> neighbors.distance(i) / wref);
         // cut values to avoid division by zero
         w.clamp_(1 - eps.get(), eps.get());
         // transform into similarity
@@ -173,14 +155,16 @@ public class KnnRegression extends RegressionModel<KnnRegression, RegressionResu
         RegressionResult result = RegressionResult.build(this, df, withResiduals, quantiles);
 
         VarDouble prediction = result.firstPrediction();
+        Neighbors[] neighbors = index.query(buildInstances(df), k.get() + 1);
         for (int i = 0; i < prediction.size(); i++) {
-            DArray<Double> x = buildInstance(df, i);
-
-            int[] topIndexesEx = computeTop(instances, x, k.get() + 1);
-            int[] topIndexes = Arrays.copyOf(topIndexesEx, topIndexesEx.length - 1);
-            int ref = topIndexesEx[topIndexesEx.length - 1];
-            DArray<Double> weights = computeWeights(topIndexes, ref, x);
-            prediction.setDouble(i, target.sel(0, topIndexes).mul(weights).sum() / weights.sum());
+            // the last neighbour is used only as reference for normalization
+            int len = Math.max(1, neighbors[i].size() - 1);
+            DArray<Double> weights = computeWeights(neighbors[i], len);
+            double sum = 0;
+            for (int j = 0; j < len; j++) {
+                sum += target[neighbors[i].index(j)] * weights.getDouble(j);
+            }
+            prediction.setDouble(i, sum / weights.sum());
         }
         result.buildComplete();
         return result;
@@ -24,13 +24,17 @@ package rapaio.ml.model.linear;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
 import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
@@ -100,6 +104,12 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
      */
     public final ValueParam<Double, BinaryLogistic> eps = new ValueParam<>(this, 1e-10, "eps");
 
+    /**
+     * If true, the design matrix is stored as a sparse matrix, which pays off for inputs with many zero values.
+     * It is supported only by IRLS solver.
+     */
+    public final ValueParam<Boolean, BinaryLogistic> sparse = new ValueParam<>(this, false, "sparse");
+
     // learning artifacts
 
     // True if the model is trained and has converged to a solution in less than maximum number of iterations (runs), false otherwise.
@@ -156,7 +166,13 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
-        var x = computeInputMatrix(df, firstTargetName());
+        if (sparse.get()) {
+            checkSparseSolver();
+            return fitSparse(SparseMatrix.from(SolidFrame.byVars(inputVariables(df, firstTargetName()))),
+                    computeTargetVector(df.rvar(firstTargetName())));
+        }
+
+        var x = SolidFrame.byVars(inputVariables(df, firstTargetName())).darray();
         var y = computeTargetVector(df.rvar(firstTargetName()));
         var w0 = DArrays.full(Shape.of(x.dim(1)), init.get().getFunction().apply(y));
 
@@ -193,6 +209,57 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
         return true;
     }
 
+    /**
+     * Fits the model on a sparse matrix of inputs. Input variables are named {@code x0}, {@code x1} and so on.
+     * Memory and the cost of an iteration are proportional with the number of stored values.
+     * Sparse inputs are supported only by IRLS solver.
+     *
+     * @param x      sparse matrix of inputs, with a row for each instance
+     * @param target nominal or binary target variable
+     * @return fitted model
+     */
+    public BinaryLogistic fit(SparseMatrix x, Var target) {
+        checkSparseSolver();
+        if (x.rows() != target.size()) {
+            throw new IllegalArgumentException("Target variable must have the same size as the number of rows.");
+        }
+        if (target.type() != VarType.NOMINAL && target.type() != VarType.BINARY) {
+            throw new IllegalArgumentException("Target variable must be nominal or binary.");
+        }
+        targetNames = new String[] {target.name()};
+        targetTypes = new VarType[] {target.type()};
+        targetLevels = Map.of(target.name(), target.levels());
+        inputNames = IntStream.range(0, x.cols()).mapToObj(i -> "x" + i).toArray(String[]::new);
+        inputTypes = new VarType[x.cols()];
+        Arrays.fill(inputTypes, VarType.DOUBLE);
+
+        hasIntercept = intercept.get() != 0;
+        learned = fitSparse(hasIntercept ? x.prependColumn(intercept.get()) : x, computeTargetVector(target));
+        return this;
+    }
+
+    private void checkSparseSolver() {
+        if (solver.get() != Method.IRLS) {
+            throw new IllegalArgumentException("Sparse design matrix is supported only by IRLS solver.");
+        }
+    }
+
+    private boolean fitSparse(SparseMatrix sx, DArray<Double> y) {
+        BinaryLogisticIRLS.Result irlsResult = new BinaryLogisticIRLS()
+                .eps.set(eps.get())
+                .maxIter.set(runs.get())
+                .lambdap.set(l2penalty.get())
+                .sxp.set(sx)
+                .yp.set(y)
+                .w0.set(DArrays.full(Shape.of(sx.cols()), init.get().getFunction().apply(y)))
+                .fit();
+        w = irlsResult.w().dv();
+        iterationLoss = new ArrayList<>(irlsResult.nlls());
+        iterationWeights = new ArrayList<>(irlsResult.ws());
+        converged = irlsResult.converged();
+        return true;
+    }
+
     private DArray<Double> computeTargetVector(Var target) {
         switch (target.type()) {
             case BINARY -> {
@@ -218,7 +285,7 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
         return null;
     }
 
-    private DArray<Double> computeInputMatrix(Frame df, String targetName) {
+    private List<Var> inputVariables(Frame df, String targetName) {
         List<Var> variables = new ArrayList<>();
         if (intercept.get() != 0) {
             hasIntercept = true;
@@ -229,7 +296,7 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
         df.varStream()
                 .filter(v -> !targetName.equals(v.name()))
                 .forEach(variables::add);
-        return SolidFrame.byVars(variables).darray();
+        return variables;
     }
 
     @Override
@@ -238,14 +305,41 @@ public class BinaryLogistic extends ClassifierModel<BinaryLogistic, ClassifierRe
             throw new IllegalArgumentException("Model has not been trained");
         }
 
-        ClassifierResult cr = ClassifierResult.build(this, df, withClasses, withDistributions);
-
         int offset = hasIntercept ? 1 : 0;
 
         var p = DArrays.full(Shape.of(df.rowCount()), hasIntercept ? intercept.get() * w.getDouble(0) : 0);
         for (int i = 0; i < inputNames.length; i++) {
             p.fma_(w.getDouble(i + offset), df.rvar(inputName(i)).darray_());
         }
+        return buildResult(df, p, withClasses, withDistributions);
+    }
+
+    /**
+     * Predicts classes and densities for the rows of a sparse matrix of inputs, with the same columns as
+     * the inputs used at fit time. The frame of the result has no variables.
+     *
+     * @param x                 sparse matrix of inputs
+     * @param withClasses       generate classes
+     * @param withDistributions generate densities for classes
+     * @return classifier result
+     */
+    public ClassifierResult predict(SparseMatrix x, boolean withClasses, boolean withDistributions) {
+        if (!hasLearned()) {
+            throw new IllegalArgumentException("Model has not been trained");
+        }
+        if (x.cols() != inputNames.length) {
+            throw new IllegalArgumentException("Sparse matrix must have " + inputNames.length + " columns.");
+        }
+        int offset = hasIntercept ? 1 : 0;
+        var p = x.mv(w.darray_().narrow(0, offset, w.size()));
+        if (hasIntercept) {
+            p.add_(intercept.get() * w.getDouble(0));
+        }
+        return buildResult(SolidFrame.byVars(x.rows()), p, withClasses, withDistributions);
+    }
+
+    private ClassifierResult buildResult(Frame df, DArray<Double> p, boolean withClasses, boolean withDistributions) {
+        ClassifierResult cr = ClassifierResult.build(this, df, withClasses, withDistributions);
         p.apply_(MathTools::logistic);
 
         for (int r = 0; r < df.rowCount(); r++) {
@@ -33,13 +33,28 @@ public enum Centering {
         public double compute(Var x) {
             return 0;
         }
+
+        @Override
+        public double compute(int count, double sum) {
+            return 0;
+        }
     },
     MEAN {
         @Override
         public double compute(Var x) {
             return Mean.of(x).value();
         }
+
+        @Override
+        public double compute(int count, double sum) {
+            return sum / count;
+        }
     };
 
     public abstract double compute(Var x);
+
+    /**
+     * Computes the centering value from the number of values and their sum.
+     */
+    public abstract double compute(int count, double sum);
 }
@@ -24,6 +24,9 @@ package rapaio.ml.model.linear;
 import java.io.Serial;
 
 import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.transform.AddIntercept;
@@ -73,4 +76,12 @@ public class LinearRegressionModel extends BaseLinearRegressionModel<LinearRegre
         beta = X.qr().solve(Y);
         return true;
     }
+
+    @Override
+    protected boolean coreFit(SparseMatrix x, Var weights, DArray<Double> y) {
+        // normal equations X^T X beta = X^T Y
+        SparseMatrix X = designMatrix(x);
+        beta = X.gram(DArrays.full(Shape.of(X.rows()), 1.0)).qr().solve(X.t().mm(y));
+        return true;
+    }
 }
@@ -27,8 +27,10 @@ import java.util.Map;
 import java.util.Objects;
 
 import rapaio.core.param.ValueParam;
+import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
 import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.transform.AddIntercept;
@@ -171,33 +173,112 @@ public class RidgeRegressionModel extends BaseLinearRegressionModel<RidgeRegress
         var scaledBeta = A.qr().solve(B);
 
         if (intercept.get()) {
-            beta = DArrays.zeros(Shape.of(scaledBeta.dim(0) + 1, scaledBeta.dim(1)));
-
-            for (int i = 0; i < targetNames.length; i++) {
-                String targetName = targetName(i);
-                double targetScale = this.targetScale.get(targetName);
-                for (int j = 0; j < inputNames.length; j++) {
-                    if (AddIntercept.INTERCEPT.equals(inputNames[j])) {
-                        double interceptValue = targetMean.get(targetName);
-                        for (int k = 0; k < inputNames.length; k++) {
-                            if (k == j) {
-                                continue;
-                            }
-                            int offset = k >= interceptIndex ? 1 : 0;
-                            interceptValue -= scaledBeta.getDouble(k - offset, i) * targetScale * inputMean.get(inputNames[k]) / inputScale.get(
-                                    inputNames[k]);
+            unscaleCoefficients(scaledBeta, interceptIndex);
+        } else {
+            beta = scaledBeta;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean coreFit(SparseMatrix x, Var weights, DArray<Double> y) {
+        int n = x.rows();
+        int d = x.cols();
+        var gram = x.gram(DArrays.full(Shape.of(n), 1.0));
+        var xy = x.t().mm(y);
+
+        if (!intercept.get()) {
+            // if we do not have intercept we ignore centering and scaling
+            beta = gram.add_(DArrays.eye(d).mul_(lambda.get())).qr().solve(xy);
+            return true;
+        }
+
+        // column sums and sums of squares over stored values, inputs are the columns after intercept
+        double[] inputSum = new double[d];
+        double[] inputSquares = new double[d];
+        int[] idx = x.idx();
+        double[] values = x.values();
+        for (int p = 0; p < x.nnz(); p++) {
+            inputSum[idx[p]] += values[p];
+            inputSquares[idx[p]] += values[p] * values[p];
+        }
+        double[] mu = new double[d];
+        double[] sd = new double[d];
+        inputMean = new HashMap<>();
+        inputScale = new HashMap<>();
+        inputMean.put(AddIntercept.INTERCEPT, 0.0);
+        inputScale.put(AddIntercept.INTERCEPT, 1.0);
+        for (int j = 0; j < d; j++) {
+            mu[j] = centering.get().compute(n, inputSum[j]);
+            sd[j] = scaling.get().compute(n, inputSum[j], inputSquares[j]);
+            inputMean.put(inputNames[j + 1], mu[j]);
+            inputScale.put(inputNames[j + 1], sd[j]);
+        }
+
+        int t = targetNames.length;
+        double[] targetSum = new double[t];
+        double[] nu = new double[t];
+        double[] tsd = new double[t];
+        targetMean = new HashMap<>();
+        targetScale = new HashMap<>();
+        for (int c = 0; c < t; c++) {
+            double squares = 0;
+            for (int i = 0; i < n; i++) {
+                double value = y.getDouble(i, c);
+                targetSum[c] += value;
+                squares += value * value;
+            }
+            nu[c] = centering.get().compute(n, targetSum[c]);
+            tsd[c] = scaling.get().compute(n, targetSum[c], squares);
+            targetMean.put(targetNames[c], nu[c]);
+            targetScale.put(targetNames[c], tsd[c]);
+        }
+
+        // scaled system is obtained from raw products, where s are input column sums and u are target column sums
+        // A = D^-1 (X^T X - mu s^T - s mu^T + n mu mu^T) D^-1 + lambda I
+        // B = D^-1 (X^T Y - mu u^T - s nu^T + n mu nu^T) E^-1
+        var A = DArrays.zeros(Shape.of(d, d));
+        var B = DArrays.zeros(Shape.of(d, t));
+        for (int a = 0; a < d; a++) {
+            for (int b = 0; b < d; b++) {
+                double value = gram.getDouble(a, b) - mu[a] * inputSum[b] - inputSum[a] * mu[b] + n * mu[a] * mu[b];
+                A.setDouble(value / (sd[a] * sd[b]) + (a == b ? lambda.get() : 0), a, b);
+            }
+            for (int c = 0; c < t; c++) {
+                double value = xy.getDouble(a, c) - mu[a] * targetSum[c] - inputSum[a] * nu[c] + n * mu[a] * nu[c];
+                B.setDouble(value / (sd[a] * tsd[c]), a, c);
+            }
+        }
+        unscaleCoefficients(A.qr().solve(B), 0);
+        return true;
+    }
+
+    /**
+     * Computes the coefficients of the original inputs from the coefficients fitted on centered and scaled values.
+     */
+    private void unscaleCoefficients(DArray<Double> scaledBeta, int interceptIndex) {
+        beta = DArrays.zeros(Shape.of(scaledBeta.dim(0) + 1, scaledBeta.dim(1)));
+        for (int i = 0; i < targetNames.length; i++) {
+            String targetName = targetName(i);
+            double targetScale = this.targetScale.get(targetName);
+            for (int j = 0; j < inputNames.length; j++) {
+                if (AddIntercept.INTERCEPT.equals(inputNames[j])) {
+                    double interceptValue = targetMean.get(targetName);
+                    for (int k = 0; k < inputNames.length; k++) {
+                        if (k == j) {
+                            continue;
                         }
-                        beta.setDouble(interceptValue, j, i);
-                    } else {
-                        int offset = j >= interceptIndex ? 1 : 0;
-                        beta.setDouble(scaledBeta.getDouble(j - offset, i) * targetScale / inputScale.get(inputNames[j]), j, i);
+                        int offset = k >= interceptIndex ? 1 : 0;
+                        interceptValue -= scaledBeta.getDouble(k - offset, i) * targetScale * inputMean.get(inputNames[k]) / inputScale.get(
+                                inputNames[k]);
                     }
+                    beta.setDouble(interceptValue, j, i);
+                } else {
+                    int offset = j >= interceptIndex ? 1 : 0;
+                    beta.setDouble(scaledBeta.getDouble(j - offset, i) * targetScale / inputScale.get(inputNames[j]), j, i);
                 }
             }
-        } else {
-            beta = scaledBeta;
         }
-        return true;
     }
 
 }
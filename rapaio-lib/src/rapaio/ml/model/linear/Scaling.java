@@ -33,19 +33,40 @@ public enum Scaling {
         public double compute(Var x) {
             return 1;
         }
+
+        @Override
+        public double compute(int count, double sum, double sumSquares) {
+            return 1;
+        }
     },
     SD {
         @Override
         public double compute(Var x) {
             return Variance.of(x).biasedSdValue();
         }
+
+        @Override
+        public double compute(int count, double sum, double sumSquares) {
+            double mean = sum / count;
+            return Math.sqrt(Math.max(0, sumSquares / count - mean * mean));
+        }
     },
     NORM {
         @Override
         public double compute(Var x) {
             return Math.sqrt(x.darray().sqr_().nanSum());
         }
+
+        @Override
+        public double compute(int count, double sum, double sumSquares) {
+            return Math.sqrt(sumSquares);
+        }
     };
 
     public abstract double compute(Var x);
+
+    /**
+     * Computes the scaling value from the number of values, their sum and the sum of their squares.
+     */
+    public abstract double compute(int count, double sum, double sumSquares);
 }
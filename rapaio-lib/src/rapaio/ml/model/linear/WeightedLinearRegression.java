@@ -24,6 +24,7 @@ package rapaio.ml.model.linear;
 import java.io.Serial;
 
 import rapaio.darray.DArray;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.transform.AddIntercept;
@@ -73,4 +74,13 @@ public class WeightedLinearRegression extends BaseLinearRegressionModel<Weighted
         beta = X.qr().solve(Y);
         return true;
     }
+
+    @Override
+    protected boolean coreFit(SparseMatrix x, Var weights, DArray<Double> y) {
+        // weighted normal equations X^T W X beta = X^T W Y
+        SparseMatrix X = designMatrix(x);
+        DArray<Double> w = weights.darray();
+        beta = X.gram(w).qr().solve(X.t().mm(y.mul(w.stretch(1))));
+        return true;
+    }
 }
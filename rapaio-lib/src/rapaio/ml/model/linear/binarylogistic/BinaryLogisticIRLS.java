@@ -33,6 +33,7 @@ import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
 import rapaio.darray.Shape;
 import rapaio.darray.matrix.CholeskyDecomposition;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.math.MathTools;
 
 /**
@@ -60,6 +61,12 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
 
     public final ValueParam<DArray<Double>, BinaryLogisticIRLS> xp = new ValueParam<>(this, null, "x");
 
+    /**
+     * Sparse design matrix, used instead of the dense one when it is set. The cost of an iteration
+     * is proportional with the number of stored values and not with the number of cells.
+     */
+    public final ValueParam<SparseMatrix, BinaryLogisticIRLS> sxp = new ValueParam<>(this, null, "sparseX");
+
     public final ValueParam<DArray<Double>, BinaryLogisticIRLS> yp = new ValueParam<>(this, null, "y");
 
     /**
@@ -87,11 +94,12 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
     public BinaryLogisticIRLS.Result fit() {
 
         DArray<Double> x = xp.get();
+        SparseMatrix sx = sxp.get();
         DArray<Double> y = yp.get();
         DArray<Double> ny = DArrays.full(Shape.of(y.size()), 1.).sub_(y);
         DArray<Double> w = w0.get();
         double lambda = lambdap.get();
-        DArray<Double> p = x.mv(w).apply_(MathTools::logistic);
+        DArray<Double> p = mv(x, sx, w).apply_(MathTools::logistic);
         DArray<Double> np = p.apply(v -> 1 - v);
 
         int it = 0;
@@ -103,9 +111,9 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
 
         while (it++ < maxIter.get()) {
 
-            DArray<Double> wnew = iterate(w, x, y, lambda, p, np);
+            DArray<Double> wnew = (sx != null) ? iterateSparse(w, sx, y, lambda, p, np) : iterate(w, x, y, lambda, p, np);
 
-            p = x.mv(wnew).apply(MathTools::logistic);
+            p = mv(x, sx, wnew).apply(MathTools::logistic);
             np = p.apply(v -> 1 - v);
             double nll = negativeLogLikelihood(y, ny, wnew, lambda, p, np);
 
@@ -120,6 +128,10 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
         return new BinaryLogisticIRLS.Result(nlls, ws, false);
     }
 
+    private static DArray<Double> mv(DArray<Double> x, SparseMatrix sx, DArray<Double> w) {
+        return (sx != null) ? sx.mv(w) : x.mv(w);
+    }
+
     private double negativeLogLikelihood(
             DArray<Double> y, DArray<Double> ny, DArray<Double> w, double lambda, DArray<Double> p, DArray<Double> np) {
         DArray<Double> logp = p.clamp(1e-6, Double.NaN).log();
@@ -155,4 +167,31 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
             return h.qr().solve(right);
         }
     }
+
+    private DArray<Double> iterateSparse(
+            DArray<Double> vw, SparseMatrix mx, DArray<Double> vy, double lambda, DArray<Double> vp, DArray<Double> vnp) {
+
+        // p(1-p) diag from p diag
+        DArray<Double> pvar = vp.mul(vnp).clamp(1e-6, Double.NaN);
+
+        // H = X^t * I{p(1-p)} * X + I_lambda, computed with sparse rows
+        DArray<Double> h = mx.gram(pvar);
+        if (lambda > 0) {
+            for (int i = 0; i < h.dim(0); i++) {
+                h.incDouble(lambda, i, i);
+            }
+        }
+
+        // z = Xw + I{p(1-p)}^{-1} (y-p)
+        DArray<Double> z = mx.mv(vw).add(vy.sub(vp).div_(pvar));
+        DArray<Double> right = mx.tmv(z.mul_(pvar));
+
+        // solve IRLS
+        CholeskyDecomposition<Double> chol = h.cholesky();
+        if (chol.isSPD()) {
+            return chol.solve(right);
+        } else {
+            return h.qr().solve(right);
+        }
+    }
 }
@@ -22,11 +22,15 @@
 package rapaio.ml.model.linear.impl;
 
 import java.io.Serial;
+import java.util.Arrays;
 import java.util.Objects;
 
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
 import rapaio.data.VarType;
 import rapaio.data.transform.AddIntercept;
 import rapaio.ml.common.Capabilities;
@@ -73,6 +77,89 @@ public abstract class BaseLinearRegressionModel<M extends BaseLinearRegressionMo
                 .targets(1, 1_000_000, false, VarType.DOUBLE);
     }
 
+    /**
+     * Fits the model on a sparse matrix of inputs with unit row weights.
+     *
+     * @param x       sparse matrix of inputs, with a row for each instance
+     * @param targets frame with numeric target variables
+     * @return fitted model
+     * @see #fit(SparseMatrix, Var, Frame)
+     */
+    public M fit(SparseMatrix x, Frame targets) {
+        return fit(x, VarDouble.fill(x.rows(), 1).name("weights"), targets);
+    }
+
+    /**
+     * Fits the model on a sparse matrix of inputs. Input variables are named {@code x0}, {@code x1} and so on,
+     * preceded by {@link AddIntercept#INTERCEPT} if the model has an intercept. The normal equations are built
+     * from the stored values, thus the inputs are never materialized as a dense matrix.
+     *
+     * @param x       sparse matrix of inputs, with a row for each instance
+     * @param weights instance weights
+     * @param targets frame with numeric target variables
+     * @return fitted model
+     */
+    public M fit(SparseMatrix x, Var weights, Frame targets) {
+        if (x.rows() != targets.rowCount() || x.rows() != weights.size()) {
+            throw new IllegalArgumentException("Sparse matrix, weights and targets must have the same number of rows.");
+        }
+        int offset = intercept.get() ? 1 : 0;
+        inputNames = new String[x.cols() + offset];
+        if (intercept.get()) {
+            inputNames[0] = AddIntercept.INTERCEPT;
+        }
+        for (int i = 0; i < x.cols(); i++) {
+            inputNames[i + offset] = "x" + i;
+        }
+        inputTypes = new VarType[inputNames.length];
+        Arrays.fill(inputTypes, VarType.DOUBLE);
+        targetNames = targets.varNames();
+        targetTypes = Arrays.stream(targetNames).map(targets::type).toArray(VarType[]::new);
+
+        hasLearned = coreFit(x.toCsr(), weights, targets.darray());
+        return (M) this;
+    }
+
+    /**
+     * Fits the model on a sparse matrix of inputs in CSR format, without an intercept column.
+     *
+     * @param x       sparse matrix of inputs
+     * @param weights instance weights
+     * @param y       dense matrix of target values, with a column for each target
+     * @return true if the model was fitted
+     */
+    protected abstract boolean coreFit(SparseMatrix x, Var weights, DArray<Double> y);
+
+    /**
+     * Builds the design matrix from a sparse matrix of inputs, by adding a first column filled with ones
+     * if the model has an intercept.
+     */
+    protected SparseMatrix designMatrix(SparseMatrix x) {
+        return intercept.get() ? x.prependColumn(1) : x;
+    }
+
+    /**
+     * Predicts target values for the rows of a sparse matrix of inputs, which has the same columns as the inputs
+     * used at fit time, without the intercept.
+     *
+     * @param x sparse matrix of inputs
+     * @return dense matrix of predictions, with a row for each instance and a column for each target
+     */
+    public DArray<Double> predict(SparseMatrix x) {
+        if (!hasLearned) {
+            throw new IllegalArgumentException("Model has not been trained");
+        }
+        int offset = AddIntercept.INTERCEPT.equals(inputNames[0]) ? 1 : 0;
+        if (x.cols() != inputNames.length - offset) {
+            throw new IllegalArgumentException("Sparse matrix must have " + (inputNames.length - offset) + " columns.");
+        }
+        DArray<Double> fit = x.mm(beta.narrow(0, offset, beta.dim(0)));
+        if (offset == 1) {
+            fit.add_(beta.narrow(0, 0, 1));
+        }
+        return fit;
+    }
+
     @Override
     protected PredSetup preparePredict(Frame df, boolean withResiduals, final double[] quantiles) {
         Frame transformed = intercept.get() ? AddIntercept.transform().fitApply(df) : df;
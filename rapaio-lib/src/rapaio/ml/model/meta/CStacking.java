@@ -25,11 +25,20 @@ import java.io.Serial;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
+import rapaio.core.SamplingTools;
 import rapaio.core.param.ListParam;
 import rapaio.core.param.ValueParam;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarType;
@@ -38,6 +47,7 @@ import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
 import rapaio.printer.Printable;
+import rapaio.util.parralel.ParallelStreamCollector;
 
 /**
  * Stacking with a stacking classifier
@@ -57,6 +67,13 @@ public class CStacking extends ClassifierModel<CStacking, ClassifierResult, RunI
     public final ListParam<ClassifierModel<?, ?, ?>, CStacking> learners = new ListParam<>(this, List.of(), "learners", (__, ___) -> true);
     public final ValueParam<ClassifierModel<?, ?, ?>, CStacking> stackModel = new ValueParam<>(this, null, "stacker", Objects::nonNull);
 
+    /**
+     * Number of folds used to build level-1 features. With a single fold the weak learners are fitted on all rows
+     * and predict the same rows. With more folds, the level-1 features of each row are predicted by weak learners
+     * fitted on the other folds.
+     */
+    public final ValueParam<Integer, CStacking> folds = new ValueParam<>(this, 1, "folds", value -> value >= 1);
+
     private List<ClassifierModel<?, ?, ?>> weaks;
     private ClassifierModel<?, ?, ?> stack;
 
@@ -102,37 +119,120 @@ public class CStacking extends ClassifierModel<CStacking, ClassifierResult, RunI
         learned = false;
 
         logger.fine("started learning for stacker classifier...");
-        List<Var> vars = new ArrayList<>();
-        int max = firstTargetLevels().size();
-        for (int i = 0; i < weaks.size(); i++) {
-            logger.fine("started fitting weak learner " + i + " from " + weaks.size());
-            var weak = weaks.get(i);
-            weak.seed.set(seed.get());
-            weak.fit(df, weights, targetNames);
-            logger.fine("started prediction for weak learner " + i + " from " + weaks.size());
-            var density = weak.predict(df, true, true).firstDensity();
-            for (int j = 1; j < max; j++) {
-                vars.add(density.rvar(j).name(density.rvar(j).name() + "_" + i));
+        int threads = computeThreads();
+        DArray<Double> features = DArrays.zeros(Shape.of(weaks.size() * (firstTargetLevels().size() - 1), df.rowCount()));
+        ExecutorService executor = Executors.newWorkStealingPool(threads);
+        try {
+            // weak learners are fitted on all rows concurrently
+            runTasks(executor, threads, weaks.size(), i -> {
+                logger.fine("started fitting weak learner " + i + " from " + weaks.size());
+                var weak = weaks.get(i);
+                weak.seed.set(seed.get());
+                weak.fit(df, weights, targetNames);
+            });
+
+            if (folds.get() == 1) {
+                runTasks(executor, threads, weaks.size(), i -> {
+                    logger.fine("started prediction for weak learner " + i + " from " + weaks.size());
+                    fillFeatures(features, i, weaks.get(i).predict(df, true, true).firstDensity(), null);
+                });
+            } else {
+                // out of fold predictions: each pair of weak learner and fold is fitted and predicted concurrently
+                int k = folds.get();
+                List<Mapping> testRows = foldRows(df.rowCount());
+                runTasks(executor, threads, weaks.size() * k, task -> {
+                    Mapping test = testRows.get(task % k);
+                    Mapping train = Mapping.empty();
+                    for (int f = 0; f < k; f++) {
+                        if (f != task % k) {
+                            train.addAll(testRows.get(f).iterator());
+                        }
+                    }
+                    var weak = learners.get().get(task / k).newInstance();
+                    weak.seed.set(seed.get());
+                    weak.fit(df.mapRows(train), weights.mapRows(train), targetNames);
+                    fillFeatures(features, task / k, weak.predict(df.mapRows(test), true, true).firstDensity(), test);
+                });
             }
+        } finally {
+            executor.shutdownNow();
         }
+
+        List<Var> vars = new ArrayList<>(featureVars(features));
         vars.addAll(df.mapVars(targetNames).copy().varList());
         stack.seed.set(seed.get());
         stack.fit(SolidFrame.byVars(vars), weights, targetNames);
         return true;
     }
 
-    @Override
-    protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
-        logger.fine("predict method called.");
+    /**
+     * Runs the tasks with the given indexes on executor and waits for all of them to complete.
+     */
+    private static void runTasks(ExecutorService executor, int threads, int tasks, IntConsumer task) {
+        IntStream.range(0, tasks).boxed()
+                .collect(ParallelStreamCollector.streaming(i -> {
+                    task.accept(i);
+                    return i;
+                }, executor, threads))
+                .forEach(__ -> {
+                });
+    }
+
+    /**
+     * Splits shuffled rows into folds of almost equal sizes.
+     */
+    private List<Mapping> foldRows(int rows) {
+        int[] shuffle = SamplingTools.sampleWOR(getRandom(), rows, rows);
+        List<Mapping> mappings = new ArrayList<>();
+        for (int f = 0; f < folds.get(); f++) {
+            mappings.add(Mapping.empty());
+        }
+        for (int i = 0; i < shuffle.length; i++) {
+            mappings.get(i % folds.get()).add(shuffle[i]);
+        }
+        return mappings;
+    }
+
+    /**
+     * Writes level densities of the weak learner with the given index into its own rows of the level-1 feature array.
+     * The density of the first level is skipped since it is redundant, densities sum up to one. Weak learners write
+     * disjoint regions, thus it can be called concurrently. If rows mapping is not null, density rows are stored on
+     * the mapped positions.
+     */
+    private void fillFeatures(DArray<Double> features, int weak, Frame density, Mapping rows) {
+        int levels = firstTargetLevels().size() - 1;
+        for (int j = 0; j < levels; j++) {
+            int feature = weak * levels + j;
+            for (int r = 0; r < density.rowCount(); r++) {
+                features.setDouble(density.getDouble(r, j + 1), feature, rows == null ? r : rows.get(r));
+            }
+        }
+    }
+
+    private List<Var> featureVars(DArray<Double> features) {
+        int levels = firstTargetLevels().size() - 1;
         List<Var> vars = new ArrayList<>();
-        int max = firstTargetLevels().size();
         for (int i = 0; i < weaks.size(); i++) {
-            var weak = weaks.get(i);
-            var density = weak.predict(df, true, true).firstDensity();
-            for (int j = 0; j < max; j++) {
-                vars.add(density.rvar(j).name(density.rvar(j).name() + "_" + i));
+            for (int j = 0; j < levels; j++) {
+                vars.add(features.selsq(0, i * levels + j).dv().name(firstTargetLevels().get(j + 1) + "_" + i));
             }
         }
-        return ClassifierResult.copy(this, df, withClasses, withDistributions, stack.predict(SolidFrame.byVars(vars)));
+        return vars;
+    }
+
+    @Override
+    protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
+        logger.fine("predict method called.");
+        int threads = computeThreads();
+        ExecutorService executor = Executors.newWorkStealingPool(threads);
+        DArray<Double> features = DArrays.zeros(Shape.of(weaks.size() * (firstTargetLevels().size() - 1), df.rowCount()));
+        try {
+            runTasks(executor, threads, weaks.size(),
+                    i -> fillFeatures(features, i, weaks.get(i).predict(df, true, true).firstDensity(), null));
+        } finally {
+            executor.shutdownNow();
+        }
+        var stackResult = stack.predict(SolidFrame.byVars(featureVars(features)));
+        return ClassifierResult.copy(this, df, withClasses, withDistributions, stackResult);
     }
 }
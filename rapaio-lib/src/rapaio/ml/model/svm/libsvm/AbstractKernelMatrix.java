@@ -18,32 +18,46 @@
  *    limitations under the License.
  *
  */
-
 package rapaio.ml.model.svm.libsvm;
 
-import java.util.Arrays;
-
 import rapaio.darray.DArray;
 import rapaio.ml.common.kernel.Kernel;
+import rapaio.ml.common.kernel.cache.KernelCache;
 import rapaio.util.collection.TArrays;
 
 public abstract class AbstractKernelMatrix {
 
     protected final DArray<Double>[] xs;
     protected final Kernel kernel;
-    protected final Cache cache;
+    protected final KernelCache cache;
     protected final double[] qd;
 
-    AbstractKernelMatrix(DArray<Double>[] xs, Kernel kernel, Cache cache, double[] qd) {
+    /**
+     * The row function of the cache is built by subclasses from the same arrays they own and swap,
+     * thus the matrix does not escape during construction.
+     *
+     * @param xs    vectors owned by the matrix, swapped together with the cache rows
+     * @param cache cache of matrix rows
+     */
+    AbstractKernelMatrix(DArray<Double>[] xs, Kernel kernel, double[] qd, KernelCache cache) {
         this.kernel = kernel;
-        this.xs = Arrays.copyOf(xs, xs.length);
+        this.xs = xs;
         this.cache = cache;
         this.qd = qd;
     }
 
+    /**
+     * @param cacheLen  number of cached rows
+     * @param cacheSize cache size in MB
+     * @param fun       function which computes values of a row
+     */
+    static KernelCache newCache(int cacheLen, long cacheSize, KernelCache.RowFunction fun) {
+        return new KernelCache(cacheLen, cacheSize << 20, fun);
+    }
+
     abstract double[] getQD();
 
-    abstract DArray<Double> getQ(int column, int len);
+    abstract double[] getQ(int column, int len);
 
     void swapIndex(int i, int j) {
         TArrays.swap(xs, i, j);
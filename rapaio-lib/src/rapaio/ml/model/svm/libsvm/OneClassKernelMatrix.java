@@ -18,31 +18,30 @@
  *    limitations under the License.
  *
  */
-
 package rapaio.ml.model.svm.libsvm;
 
+import java.util.Arrays;
+
 import rapaio.darray.DArray;
-import rapaio.util.Reference;
+import rapaio.ml.common.kernel.Kernel;
+import rapaio.ml.common.kernel.cache.KernelCache;
 import rapaio.util.collection.TArrays;
 
 class OneClassKernelMatrix extends AbstractKernelMatrix {
 
     OneClassKernelMatrix(SvmProblem prob, SvmParameter param) {
-        super(prob.xs, param.kernel, new Cache(prob.len, param.cacheSize * (1 << 20)), new double[prob.len]);
-        for (int i = 0; i < prob.len; i++) {
+        this(Arrays.copyOf(prob.xs, prob.xs.length), param.kernel, prob.len, param.cacheSize);
+    }
+
+    private OneClassKernelMatrix(DArray<Double>[] xs, Kernel kernel, int len, long cacheSize) {
+        super(xs, kernel, new double[len], newCache(len, cacheSize, KernelCache.rowFunction(xs, kernel)));
+        for (int i = 0; i < len; i++) {
             qd[i] = kernel.compute(xs[i], xs[i]);
         }
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
-        int start = cache.getData(i, data, len);
-        if (start < len) {
-            for (int j = start; j < len; j++) {
-                data.get().set(kernel.compute(xs[i], xs[j]), j);
-            }
-        }
-        return data.get();
+    double[] getQ(int i, int len) {
+        return cache.row(i, len);
     }
 
     double[] getQD() {
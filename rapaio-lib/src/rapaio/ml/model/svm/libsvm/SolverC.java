@@ -23,7 +23,6 @@ package rapaio.ml.model.svm.libsvm;
 
 import java.util.logging.Logger;
 
-import rapaio.darray.DArray;
 import rapaio.util.collection.TArrays;
 
 /**
@@ -131,20 +130,20 @@ public class SolverC {
 
         if (nr_free * len > 2 * activeSize * (len - activeSize)) {
             for (i = activeSize; i < len; i++) {
-                DArray<Double> Q_i = q.getQ(i, activeSize);
+                double[] Q_i = q.getQ(i, activeSize);
                 for (j = 0; j < activeSize; j++) {
                     if (is_free(j)) {
-                        grad[i] += alpha[j] * Q_i.get(j);
+                        grad[i] += alpha[j] * Q_i[j];
                     }
                 }
             }
         } else {
             for (i = 0; i < activeSize; i++) {
                 if (is_free(i)) {
-                    DArray<Double> Q_i = q.getQ(i, len);
+                    double[] Q_i = q.getQ(i, len);
                     double alpha_i = alpha[i];
                     for (j = activeSize; j < len; j++) {
-                        grad[j] += alpha_i * Q_i.get(j);
+                        grad[j] += alpha_i * Q_i[j];
                     }
                 }
             }
@@ -175,15 +174,15 @@ public class SolverC {
         }
         for (int i = 0; i < trainingSize; i++) {
             if (!isLowerBound(i)) {
-                DArray<Double> Q_i = q.getQ(i, trainingSize);
+                double[] Q_i = q.getQ(i, trainingSize);
                 double alpha_i = alpha[i];
                 int j;
                 for (j = 0; j < trainingSize; j++) {
-                    grad[j] += alpha_i * Q_i.get(j);
+                    grad[j] += alpha_i * Q_i[j];
                 }
                 if (isUpperBound(i)) {
                     for (j = 0; j < trainingSize; j++) {
-                        gradBar[j] += getC(i) * Q_i.get(j);
+                        gradBar[j] += getC(i) * Q_i[j];
                     }
                 }
             }
@@ -252,8 +251,8 @@ public class SolverC {
 
             // update alpha[i] and alpha[j], handle bounds carefully
 
-            DArray<Double> qi = Q.getQ(i, activeSize);
-            DArray<Double> qj = Q.getQ(j, activeSize);
+            double[] qi = Q.getQ(i, activeSize);
+            double[] qj = Q.getQ(j, activeSize);
 
             double ci = getC(i);
             double cj = getC(j);
@@ -262,7 +261,7 @@ public class SolverC {
             double old_alpha_j = alpha[j];
 
             if (y[i] != y[j]) {
-                double quad_coef = qd[i] + qd[j] + 2 * qi.get(j);
+                double quad_coef = qd[i] + qd[j] + 2 * qi[j];
                 if (quad_coef <= 0) {
                     quad_coef = 1e-12;
                 }
@@ -294,7 +293,7 @@ public class SolverC {
                     }
                 }
             } else {
-                double quad_coef = qd[i] + qd[j] - 2 * qi.get(j);
+                double quad_coef = qd[i] + qd[j] - 2 * qi[j];
                 if (quad_coef <= 0) {
                     quad_coef = 1e-12;
                 }
@@ -333,7 +332,7 @@ public class SolverC {
             double delta_alpha_j = alpha[j] - old_alpha_j;
 
             for (int k = 0; k < activeSize; k++) {
-                grad[k] += qi.get(k) * delta_alpha_i + qj.get(k) * delta_alpha_j;
+                grad[k] += qi[k] * delta_alpha_i + qj[k] * delta_alpha_j;
             }
 
             // update alpha_status and G_bar
@@ -347,11 +346,11 @@ public class SolverC {
                 qi = Q.getQ(i, len);
                 if (ui) {
                     for (k = 0; k < len; k++) {
-                        gradBar[k] -= ci * qi.get(k);
+                        gradBar[k] -= ci * qi[k];
                     }
                 } else {
                     for (k = 0; k < len; k++) {
-                        gradBar[k] += ci * qi.get(k);
+                        gradBar[k] += ci * qi[k];
                     }
                 }
             }
@@ -360,11 +359,11 @@ public class SolverC {
                 qj = Q.getQ(j, len);
                 if (uj) {
                     for (k = 0; k < len; k++) {
-                        gradBar[k] -= cj * qj.get(k);
+                        gradBar[k] -= cj * qj[k];
                     }
                 } else {
                     for (k = 0; k < len; k++) {
-                        gradBar[k] += cj * qj.get(k);
+                        gradBar[k] += cj * qj[k];
                     }
                 }
             }
@@ -438,7 +437,7 @@ public class SolverC {
         }
 
         int i = Gmax_idx;
-        DArray<Double> Q_i = null;
+        double[] Q_i = null;
         // null Q_i not accessed: Gmax=-INF if i=-1
         if (i != -1) {
             Q_i = q.getQ(i, activeSize);
@@ -453,7 +452,7 @@ public class SolverC {
                     }
                     if (grad_diff > 0) {
                         double obj_diff;
-                        double quad_coef = qd[i] + qd[j] - 2.0 * y[i] * Q_i.get(j);
+                        double quad_coef = qd[i] + qd[j] - 2.0 * y[i] * Q_i[j];
                         if (quad_coef > 0) {
                             obj_diff = -(grad_diff * grad_diff) / quad_coef;
                         } else {
@@ -474,7 +473,7 @@ public class SolverC {
                     }
                     if (grad_diff > 0) {
                         double obj_diff;
-                        double quad_coef = qd[i] + qd[j] + 2.0 * y[i] * Q_i.get(j);
+                        double quad_coef = qd[i] + qd[j] + 2.0 * y[i] * Q_i[j];
                         if (quad_coef > 0) {
                             obj_diff = -(grad_diff * grad_diff) / quad_coef;
                         } else {
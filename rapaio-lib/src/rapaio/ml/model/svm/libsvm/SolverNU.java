@@ -21,7 +21,6 @@
 
 package rapaio.ml.model.svm.libsvm;
 
-import rapaio.darray.DArray;
 
 /**
  * Solver for nu-svm classification and regression.
@@ -77,8 +76,8 @@ public final class SolverNU extends SolverC {
 
         int ip = gmaxpIdx;
         int in = gmaxnIdx;
-        DArray<Double> qip = null;
-        DArray<Double> qin = null;
+        double[] qip = null;
+        double[] qin = null;
 
         // null Q_ip not accessed: Gmaxp=-INF if ip=-1
         if (ip != -1) {
@@ -97,7 +96,7 @@ public final class SolverNU extends SolverC {
                     }
                     if (gradDiff > 0) {
                         double objDiff;
-                        double quadCoef = qd[ip] + qd[j] - 2 * qip.get(j);
+                        double quadCoef = qd[ip] + qd[j] - 2 * qip[j];
                         if (quadCoef > 0) {
                             objDiff = -(gradDiff * gradDiff) / quadCoef;
                         } else {
@@ -118,7 +117,7 @@ public final class SolverNU extends SolverC {
                     }
                     if (gradDiff > 0) {
                         double objDiff;
-                        double quadCoef = qd[in] + qd[j] - 2 * qin.get(j);
+                        double quadCoef = qd[in] + qd[j] - 2 * qin[j];
                         if (quadCoef > 0) {
                             objDiff = -(gradDiff * gradDiff) / quadCoef;
                         } else {
@@ -18,14 +18,13 @@
  *    limitations under the License.
  *
  */
-
 package rapaio.ml.model.svm.libsvm;
 
 import java.util.Arrays;
 
 import rapaio.darray.DArray;
 import rapaio.ml.common.kernel.Kernel;
-import rapaio.util.Reference;
+import rapaio.ml.common.kernel.cache.KernelCache;
 import rapaio.util.collection.TArrays;
 
 /**
@@ -35,22 +34,28 @@ class SvcKernelMatrix extends AbstractKernelMatrix {
     private final byte[] y;
 
     public SvcKernelMatrix(int l, DArray<Double>[] xs, Kernel kernel, long cacheSize, byte[] y) {
-        super(xs, kernel, new Cache(l, cacheSize * (1 << 20)), new double[l]);
-        this.y = Arrays.copyOf(y, y.length);
+        this(Arrays.copyOf(xs, xs.length), Arrays.copyOf(y, y.length), kernel, l, cacheSize);
+    }
+
+    private SvcKernelMatrix(DArray<Double>[] xs, byte[] y, Kernel kernel, int l, long cacheSize) {
+        super(xs, kernel, new double[l], newCache(l, cacheSize, rowFunction(xs, y, kernel)));
+        this.y = y;
         for (int i = 0; i < l; i++) {
             this.qd[i] = kernel.compute(xs[i], xs[i]);
         }
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
-        int start = cache.getData(i, data, len);
-        if (start < len) {
-            for (int j = start; j < len; j++) {
-                data.get().set(y[i] * y[j] * kernel.compute(xs[i], xs[j]), j);
+    private static KernelCache.RowFunction rowFunction(DArray<Double>[] xs, byte[] y, Kernel kernel) {
+        return (i, start, end, out) -> {
+            kernel.compute(xs[i], xs, start, end, out);
+            for (int j = start; j < end; j++) {
+                out[j] *= y[i] * y[j];
             }
-        }
-        return data.get();
+        };
+    }
+
+    double[] getQ(int i, int len) {
+        return cache.row(i, len);
     }
 
     double[] getQD() {
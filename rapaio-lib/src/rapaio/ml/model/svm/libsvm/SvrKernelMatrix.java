@@ -18,14 +18,13 @@
  *    limitations under the License.
  *
  */
-
 package rapaio.ml.model.svm.libsvm;
 
+import java.util.Arrays;
+
 import rapaio.darray.DArray;
-import rapaio.darray.DArrays;
-import rapaio.darray.Shape;
 import rapaio.ml.common.kernel.Kernel;
-import rapaio.util.Reference;
+import rapaio.ml.common.kernel.cache.KernelCache;
 import rapaio.util.collection.TArrays;
 
 class SvrKernelMatrix extends AbstractKernelMatrix {
@@ -34,15 +33,16 @@ class SvrKernelMatrix extends AbstractKernelMatrix {
     private final byte[] sign;
     private final int[] index;
     private int nextBuffer;
-    private final DArray<Double>[] buffer;
+    private final double[][] buffer;
 
     SvrKernelMatrix(int len, DArray<Double>[] xs, Kernel kernel, long cacheSize) {
-        super(xs, kernel, new Cache(len, cacheSize * (1 << 20)), new double[2 * len]);
+        this(Arrays.copyOf(xs, xs.length), kernel, len, cacheSize);
+    }
+
+    private SvrKernelMatrix(DArray<Double>[] xs, Kernel kernel, int len, long cacheSize) {
+        super(xs, kernel, new double[2 * len], newCache(len, cacheSize, KernelCache.rowFunction(xs, kernel)));
         this.l = len;
-        buffer = new DArray[] {
-                DArrays.zeros(Shape.of(2 * len)),
-                DArrays.zeros(Shape.of(2 * len))
-        };
+        buffer = new double[][] {new double[2 * len], new double[2 * len]};
         sign = new byte[2 * len];
         index = new int[2 * len];
         for (int k = 0; k < len; k++) {
@@ -62,20 +62,15 @@ class SvrKernelMatrix extends AbstractKernelMatrix {
         TArrays.swap(qd, i, j);
     }
 
-    DArray<Double> getQ(int i, int len) {
-        Reference<DArray<Double>> data = new Reference<>();
-        if (cache.getData(index[i], data, l) < l) {
-            for (int j = 0; j < l; j++) {
-                data.get().set(kernel.compute(xs[index[i]], xs[j]), j);
-            }
-        }
+    double[] getQ(int i, int len) {
+        double[] data = cache.row(index[i], l);
 
         // reorder and copy
-        DArray<Double> buf = buffer[nextBuffer];
+        double[] buf = buffer[nextBuffer];
         nextBuffer = 1 - nextBuffer;
         byte si = sign[i];
         for (int j = 0; j < len; j++) {
-            buf.set(si * sign[j] * data.get().get(index[j]), j);
+            buf[j] = si * sign[j] * data[index[j]];
         }
         return buf;
     }
@@ -36,6 +36,7 @@ import rapaio.core.param.ParametricEquals;
 import rapaio.core.param.ValueParam;
 import rapaio.core.tools.DensityVector;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarType;
 import rapaio.ml.common.Capabilities;
@@ -44,6 +45,7 @@ import rapaio.ml.model.ClassifierModel;
 import rapaio.ml.model.ClassifierResult;
 import rapaio.ml.model.RunInfo;
 import rapaio.ml.model.tree.ctree.Candidate;
+import rapaio.ml.model.tree.ctree.HistogramSearch;
 import rapaio.ml.model.tree.ctree.Node;
 import rapaio.ml.model.tree.ctree.Pruning;
 import rapaio.ml.model.tree.ctree.Purity;
@@ -174,6 +176,18 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
      */
     public final ValueParam<Pruning, CTree> pruning = new ValueParam<>(this, Pruning.None, "prunning");
 
+    /**
+     * Maximum number of bins used by histogram based split search for numeric variables.
+     * <p>
+     * If the value is {@code 0} the exact split search is used and all distinct values of a numeric variable
+     * are evaluated as split points. Otherwise, the numeric variables which use {@link Search#NumericBinary}
+     * are discretized once before the tree is grown, using at most the given number of bins, and the splits are
+     * evaluated only at bin boundaries using per node histograms. The valid values are between 2 and
+     * {@link FeatureBins#MAX_BINS}.
+     */
+    public final ValueParam<Integer, CTree> bins = new ValueParam<>(this, 0, "bins",
+            x -> x != null && (x == 0 || (x >= 2 && x <= FeatureBins.MAX_BINS)));
+
     /**
      * Data frame used by pruning method as a test set.
      */
@@ -181,10 +195,34 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
 
     private Node root;
 
+    // compiled form used for prediction, built lazily and discarded when the tree changes
+    private transient FlatForest compiled;
+
     public Node getRoot() {
         return root;
     }
 
+    /**
+     * Fit a tree on instances specified by frame, with row weights and target variable, using feature bins
+     * and a sorted index computed in advance on the rows of the training frame. This allows ensemble methods
+     * which fit many trees on samples of the same data to discretize and sort numeric variables only once.
+     * <p>
+     * Feature bins are used only if histogram search is enabled through {@link #bins}. Any of the feature bins
+     * or sorted index can be {@code null}, in which case the tree works as if they were not given.
+     *
+     * @param df          training frame
+     * @param weights     instance weights
+     * @param featureBins feature bins with the same rows as the training frame, or {@code null}
+     * @param sortedIndex sorted index with the same rows as the training frame, or {@code null}
+     * @param targetVars  target variables
+     * @return fitted tree
+     */
+    public CTree fit(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex, String... targetVars) {
+        FitSetup setup = prepareFit(df, weights, targetVars);
+        learned = coreFit(setup.df, setup.w, featureBins, sortedIndex);
+        return this;
+    }
+
     @Override
     public CTree newInstance() {
         return new CTree().copyParameterValues(this);
@@ -204,6 +242,11 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
 
     @Override
     protected boolean coreFit(Frame df, Var weights) {
+        return coreFit(df, weights, null, null);
+    }
+
+    private boolean coreFit(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex) {
+        compiled = null;
 
         Random random = getRandom();
 
@@ -214,13 +257,26 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
         int id = 1;
         root = new Node(null, id++, 0, "root", RowPredicate.all());
 
+        HistogramSearch histogramSearch = buildHistogramSearch(df, featureBins);
+
         Queue<QueueNode> queue = new ConcurrentLinkedQueue<>();
-        queue.add(new QueueNode(root, df, weights));
+        queue.add(new QueueNode(root, df, weights,
+                histogramSearch == null ? null : NodeHistograms.root(weights),
+                (sortedIndex == null || sortedIndex.rows() != df.rowCount()) ? null : NodeSortedRows.root(sortedIndex)));
 
         while (!queue.isEmpty()) {
             var last = queue.poll();
 
-            learnNode(last.node, last.df, last.weight, nodeVarSelector, random);
+            if (last.sortedRows != null) {
+                last.sortedRows.open();
+            }
+            learnNode(last.node, last.df, last.weight, last.histograms, histogramSearch, last.sortedRows, nodeVarSelector, random);
+            if (last.histograms != null) {
+                last.histograms.detach();
+            }
+            if (last.sortedRows != null) {
+                last.sortedRows.close();
+            }
 
             if (last.node.leaf) {
                 continue;
@@ -228,16 +284,25 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
             Candidate bestCandidate = last.node.bestCandidate;
 
             // now that we have a best candidate, do the effective split
-            Pair<List<Frame>, List<Var>> frames = splitter.get().performSplit(last.df, last.weight,
+            Pair<List<Mapping>, List<Var>> split = splitter.get().performSplitMapping(last.df, last.weight,
                     bestCandidate.groupPredicates(), random);
 
+            List<NodeHistograms> childHistograms = null;
+            if (last.histograms != null) {
+                int size = split.v1.stream().mapToInt(Mapping::size).sum();
+                childHistograms = last.histograms.children(split.v1, split.v2, size == last.df.rowCount());
+            }
+            List<NodeSortedRows> childSortedRows = last.sortedRows == null ? null : last.sortedRows.children(split.v1);
+
             for (RowPredicate predicate : bestCandidate.groupPredicates()) {
                 var child = new Node(last.node, id++, last.node.depth + 1, predicate.toString(), predicate);
                 last.node.children.add(child);
             }
             for (int i = 0; i < last.node.children.size(); i++) {
                 var child = last.node.children.get(i);
-                queue.add(new QueueNode(child, frames.v1.get(i), frames.v2.get(i)));
+                queue.add(new QueueNode(child, last.df.mapRows(split.v1.get(i)), split.v2.get(i),
+                        childHistograms == null ? null : childHistograms.get(i),
+                        childSortedRows == null ? null : childSortedRows.get(i)));
             }
         }
 
@@ -245,9 +310,30 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
         return true;
     }
 
-    record QueueNode(Node node, Frame df, Var weight){}
+    record QueueNode(Node node, Frame df, Var weight, NodeHistograms histograms, NodeSortedRows sortedRows) {
+    }
+
+    private HistogramSearch buildHistogramSearch(Frame df, FeatureBins featureBins) {
+        if (bins.get() == 0) {
+            return null;
+        }
+        if (featureBins == null || featureBins.rows() != df.rowCount()) {
+            List<String> binNames = new ArrayList<>();
+            for (String inputName : inputNames()) {
+                if (searchMap.get().get(df.type(inputName)) == Search.NumericBinary) {
+                    binNames.add(inputName);
+                }
+            }
+            if (binNames.isEmpty()) {
+                return null;
+            }
+            featureBins = FeatureBins.from(df, binNames, bins.get());
+        }
+        return new HistogramSearch(featureBins, df.rvar(firstTargetName()));
+    }
 
-    private void learnNode(Node node, Frame df, Var weights, VarSelector nodeVarSelector, Random random) {
+    private void learnNode(Node node, Frame df, Var weights, NodeHistograms histograms, HistogramSearch histogramSearch,
+            NodeSortedRows sortedRows, VarSelector nodeVarSelector, Random random) {
         node.density = DensityVector.fromLevelWeights(false, df.rvar(firstTargetName()), weights);
         node.counter = DensityVector.fromLevelCounts(false, df.rvar(firstTargetName()));
         node.bestLabel = node.density.findBestLabel();
@@ -276,7 +362,16 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
                 throw new IllegalArgumentException("No test for given variable type: " + testCol + " [" + df.type(testCol).name() + "]");
             }
             var test = searchMap.get().get(df.type(testCol));
-            var candidate = test.computeCandidate(this, df, weights, testCol, firstTargetName(), purity.get(), random);
+            Candidate candidate;
+            if (histograms != null && test == Search.NumericBinary && histogramSearch.accepts(testCol)) {
+                candidate = histogramSearch.computeCandidate(this, histograms, testCol, purity.get());
+            } else if (sortedRows != null && test == Search.NumericBinary && sortedRows.contains(testCol)
+                    && sortedRows.sorted(testCol) != null) {
+                candidate = test.computeCandidate(this, df, weights, testCol, firstTargetName(), purity.get(), random,
+                        sortedRows.sorted(testCol));
+            } else {
+                candidate = test.computeCandidate(this, df, weights, testCol, firstTargetName(), purity.get(), random);
+            }
             if (candidate != null) {
                 candidateList.add(candidate);
                 m--;
@@ -301,53 +396,47 @@ public class CTree extends ClassifierModel<CTree, ClassifierResult, RunInfo<CTre
 
     public void prune(Frame df, boolean all) {
         pruning.get().prune(this, df, all);
+        compiled = null;
+    }
+
+    /**
+     * Compiles the fitted tree into a flat form used for fast batch prediction.
+     * The compiled tree is a snapshot, later changes of the tree like pruning are not reflected.
+     *
+     * @return compiled tree
+     */
+    public FlatForest compile() {
+        return FlatForest.ofCTrees(List.of(this));
+    }
+
+    private FlatForest compiled() {
+        FlatForest forest = compiled;
+        if (forest == null) {
+            forest = compile();
+            compiled = forest;
+        }
+        return forest;
     }
 
     @Override
     protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDensities) {
         ClassifierResult prediction = ClassifierResult.build(this, df, withClasses, withDensities);
+        int[] classes = new int[df.rowCount()];
+        double[] densities = compiled().densities(df, false, classes);
+        int len = firstTargetLevels().size();
         for (int i = 0; i < df.rowCount(); i++) {
-            Pair<String, DensityVector<String>> res = predictPoint(this, root, i, df);
-            String label = res.v1;
-            var dv = res.v2;
             if (withClasses) {
-                prediction.firstClasses().setLabel(i, label);
+                prediction.firstClasses().setLabel(i, firstTargetLevel(classes[i]));
             }
             if (withDensities) {
-                for (int j = 0; j < firstTargetLevels().size(); j++) {
-                    prediction.firstDensity().setDouble(i, j, dv.get(firstTargetLevel(j)));
+                for (int j = 0; j < len; j++) {
+                    prediction.firstDensity().setDouble(i, j, densities[i * len + j]);
                 }
             }
         }
         return prediction;
     }
 
-    protected Pair<String, DensityVector<String>> predictPoint(CTree tree, Node node, int row, Frame df) {
-        if (node.leaf) {
-            return Pair.from(node.bestLabel, node.density.copy().normalize());
-        }
-
-        for (Node child : node.children) {
-            if (child.predicate.test(row, df)) {
-                return this.predictPoint(tree, child, row, df);
-            }
-        }
-
-        List<String> dict = tree.firstTargetLevels();
-        var dv = DensityVector.emptyByLabels(false, dict);
-        double w = 0.0;
-        for (Node child : node.children) {
-            var d = this.predictPoint(tree, child, row, df).v2;
-            double wc = child.density.sum();
-            dv.plus(d, wc);
-            w += wc;
-        }
-        for (int i = 1; i < dict.size(); i++) {
-            dv.set(tree.firstTargetLevel(i), dv.get(tree.firstTargetLevel(i)) / w);
-        }
-        return Pair.from(dv.findBestLabel(), dv);
-    }
-
     private void additionalValidation(Frame df) {
         df.varStream().forEach(var -> {
             if (searchMap.get().containsKey(var.type())) {
@@ -0,0 +1,270 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+
+/**
+ * Quantization of numeric variables into a small number of bins, used by histogram based split search.
+ * <p>
+ * Each variable is binned once, before a tree is grown. If a variable has no more distinct values than the
+ * maximum number of bins, each distinct value has its own bin and a histogram search evaluates the same splits
+ * as the exact search. Otherwise, the bins are built from quantiles and contain approximately the same number
+ * of observations.
+ * <p>
+ * Bin codes are stored as one byte for each observation, the last code {@link #MISSING} being reserved for
+ * missing values. The split value of a bin is the middle point between the largest value of the bin and the smallest
+ * value of the next bin, thus an observation belongs to a bin lower or equal than {@code b} if and only if its value
+ * is lower or equal than the split value of the bin {@code b}.
+ */
+public final class FeatureBins {
+
+    /**
+     * Maximum number of bins for a variable.
+     */
+    public static final int MAX_BINS = 255;
+
+    /**
+     * Bin code used for missing values.
+     */
+    public static final int MISSING = 255;
+
+    /**
+     * Builds bins for all numeric variables of a data frame.
+     *
+     * @param df      data frame
+     * @param maxBins maximum number of bins for each variable, at most {@link #MAX_BINS}
+     * @return new instance of feature bins
+     */
+    public static FeatureBins from(Frame df, int maxBins) {
+        List<String> varNames = Arrays.stream(df.varNames()).filter(name -> df.type(name).isNumeric()).toList();
+        return from(df, varNames, maxBins);
+    }
+
+    /**
+     * Builds bins for the given variables of a data frame.
+     *
+     * @param df       data frame
+     * @param varNames names of numeric variables to be binned
+     * @param maxBins  maximum number of bins for each variable, at most {@link #MAX_BINS}
+     * @return new instance of feature bins
+     */
+    public static FeatureBins from(Frame df, List<String> varNames, int maxBins) {
+        if (maxBins < 2 || maxBins > MAX_BINS) {
+            throw new IllegalArgumentException("Number of bins must be between 2 and " + MAX_BINS + ".");
+        }
+        byte[][] codes = new byte[varNames.size()][];
+        double[][] splits = new double[varNames.size()][];
+        IntStream.range(0, varNames.size()).parallel().forEach(i -> {
+            Var var = df.rvar(varNames.get(i));
+            splits[i] = computeSplits(var, maxBins);
+            codes[i] = computeCodes(var, splits[i]);
+        });
+        return new FeatureBins(df.rowCount(), varNames, codes, splits);
+    }
+
+    private static double[] computeSplits(Var var, int maxBins) {
+        double[] values = new double[var.size()];
+        int len = 0;
+        for (int i = 0; i < var.size(); i++) {
+            if (!var.isMissing(i)) {
+                values[len++] = var.getDouble(i);
+            }
+        }
+        Arrays.sort(values, 0, len);
+
+        // distinct values and their counts
+        double[] distinct = new double[len];
+        int[] counts = new int[len];
+        int size = 0;
+        for (int i = 0; i < len; i++) {
+            if (size > 0 && distinct[size - 1] == values[i]) {
+                counts[size - 1]++;
+            } else {
+                distinct[size] = values[i];
+                counts[size++] = 1;
+            }
+        }
+        if (size <= 1) {
+            return new double[0];
+        }
+        if (size <= maxBins) {
+            double[] splits = new double[size - 1];
+            for (int i = 0; i < size - 1; i++) {
+                splits[i] = (distinct[i] + distinct[i + 1]) / 2.0;
+            }
+            return splits;
+        }
+        double[] splits = new double[maxBins - 1];
+        int bins = 0;
+        long cumulative = 0;
+        for (int i = 0; i < size - 1 && bins < maxBins - 1; i++) {
+            cumulative += counts[i];
+            if (cumulative * (long) maxBins >= (long) (bins + 1) * len) {
+                splits[bins++] = (distinct[i] + distinct[i + 1]) / 2.0;
+            }
+        }
+        return Arrays.copyOf(splits, bins);
+    }
+
+    private static byte[] computeCodes(Var var, double[] splits) {
+        byte[] codes = new byte[var.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (var.isMissing(i) ? MISSING : bin(splits, var.getDouble(i)));
+        }
+        return codes;
+    }
+
+    private static int bin(double[] splits, double value) {
+        int pos = Arrays.binarySearch(splits, value);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private final int rows;
+    private final List<String> varNames;
+    private final HashMap<String, Integer> index = new HashMap<>();
+    private final byte[][] codes;
+    private final double[][] splits;
+
+    private FeatureBins(int rows, List<String> varNames, byte[][] codes, double[][] splits) {
+        this.rows = rows;
+        this.varNames = List.copyOf(varNames);
+        this.codes = codes;
+        this.splits = splits;
+        for (int i = 0; i < varNames.size(); i++) {
+            index.put(varNames.get(i), i);
+        }
+    }
+
+    /**
+     * @return number of binned observations
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return names of binned variables
+     */
+    public List<String> varNames() {
+        return varNames;
+    }
+
+    public boolean contains(String varName) {
+        return index.containsKey(varName);
+    }
+
+    /**
+     * @param varName variable name
+     * @return number of bins used for the given variable, without the missing bin
+     */
+    public int bins(String varName) {
+        return splits[index.get(varName)].length + 1;
+    }
+
+    /**
+     * @param varName variable name
+     * @return bin codes for each observation, codes must be read as unsigned bytes
+     */
+    public byte[] codes(String varName) {
+        return codes[index.get(varName)];
+    }
+
+    /**
+     * Value which separates the given bin from the next one.
+     *
+     * @param varName variable name
+     * @param bin     bin index, lower than the number of bins minus one
+     * @return split value
+     */
+    public double split(String varName, int bin) {
+        return splits[index.get(varName)][bin];
+    }
+
+    /**
+     * Bin of a value, such that a value is lower or equal than the split value of a bin if and only if
+     * its bin is lower or equal than the given bin.
+     *
+     * @param varName variable name
+     * @param value   non missing value
+     * @return bin index
+     */
+    public int bin(String varName, double value) {
+        return bin(splits[index.get(varName)], value);
+    }
+
+    /**
+     * Builds feature bins with the same bin splits for a given number of observations. All codes are set
+     * to {@link #MISSING} and are filled with {@link #encode(Frame, int)}. This is useful when the observations
+     * are read in blocks, and bin splits are computed on a sample.
+     *
+     * @param rows number of observations
+     * @return feature bins with the same splits and missing codes
+     */
+    public FeatureBins allocate(int rows) {
+        byte[][] newCodes = new byte[codes.length][rows];
+        for (byte[] c : newCodes) {
+            Arrays.fill(c, (byte) MISSING);
+        }
+        return new FeatureBins(rows, varNames, newCodes, splits);
+    }
+
+    /**
+     * Encodes bin codes for a block of consecutive observations.
+     *
+     * @param block frame which contains the binned variables
+     * @param start position of the first observation of the block
+     */
+    public void encode(Frame block, int start) {
+        if (start < 0 || start + block.rowCount() > rows) {
+            throw new IllegalArgumentException("Block rows are outside of binned observations.");
+        }
+        IntStream.range(0, varNames.size()).parallel().forEach(i -> {
+            byte[] blockCodes = computeCodes(block.rvar(varNames.get(i)), splits[i]);
+            System.arraycopy(blockCodes, 0, codes[i], start, blockCodes.length);
+        });
+    }
+
+    /**
+     * Builds feature bins for a subset of observations, the bin splits are kept unchanged.
+     * This is useful when multiple models are fitted on samples of the same data.
+     *
+     * @param mapping row mapping
+     * @return feature bins for the mapped rows
+     */
+    public FeatureBins mapRows(Mapping mapping) {
+        byte[][] mappedCodes = new byte[codes.length][mapping.size()];
+        for (int i = 0; i < codes.length; i++) {
+            for (int j = 0; j < mapping.size(); j++) {
+                mappedCodes[i][j] = codes[i][mapping.get(j)];
+            }
+        }
+        return new FeatureBins(mapping.size(), varNames, mappedCodes, splits);
+    }
+}
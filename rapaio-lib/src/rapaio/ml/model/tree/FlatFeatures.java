@@ -0,0 +1,175 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarNominal;
+import rapaio.data.VarType;
+
+/**
+ * Dictionary of features used by compiled trees. Features are identified by position, and nominal labels
+ * used in tests are identified by integer codes, where missing label has always code {@code 0}.
+ * <p>
+ * A dictionary is shared by all trees of a compiled ensemble, thus input columns are encoded only once
+ * for all trees.
+ */
+final class FlatFeatures implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2840719465031283341L;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<Map<String, Integer>> labels = new ArrayList<>();
+    private final List<Boolean> numeric = new ArrayList<>();
+    private final List<Boolean> nominal = new ArrayList<>();
+
+    int size() {
+        return names.size();
+    }
+
+    int numericFeature(String name) {
+        int f = feature(name);
+        numeric.set(f, true);
+        return f;
+    }
+
+    int nominalFeature(String name) {
+        int f = feature(name);
+        nominal.set(f, true);
+        return f;
+    }
+
+    int labelCode(int feature, String label) {
+        Map<String, Integer> codes = labels.get(feature);
+        return codes.computeIfAbsent(label, key -> codes.size());
+    }
+
+    private int feature(String name) {
+        return index.computeIfAbsent(name, key -> {
+            names.add(key);
+            Map<String, Integer> codes = new HashMap<>();
+            codes.put(VarNominal.MISSING_VALUE, 0);
+            labels.add(codes);
+            numeric.add(false);
+            nominal.add(false);
+            return names.size() - 1;
+        });
+    }
+
+    /**
+     * Binds the features to the variables of a frame. Variables are looked up by name only once,
+     * and level dictionaries of nominal variables are translated into label codes.
+     */
+    Input bind(Frame df) {
+        int size = names.size();
+        Var[] vars = new Var[size];
+        boolean[] generic = new boolean[size];
+        int[][] levelCodes = new int[size][];
+        for (int f = 0; f < size; f++) {
+            Var var = df.rvar(names.get(f));
+            vars[f] = var;
+            VarType type = var.type();
+            if (numeric.get(f) && type != VarType.DOUBLE && type != VarType.INT && type != VarType.BINARY) {
+                // missing values of other types are not encoded as NaN, those tests are delegated to row predicates
+                generic[f] = true;
+            }
+            if (nominal.get(f)) {
+                if (type == VarType.NOMINAL) {
+                    List<String> levels = var.levels();
+                    levelCodes[f] = new int[levels.size()];
+                    for (int i = 0; i < levels.size(); i++) {
+                        levelCodes[f][i] = labels.get(f).getOrDefault(levels.get(i), -1);
+                    }
+                } else {
+                    generic[f] = true;
+                }
+            }
+        }
+        return new Input(df, vars, generic, levelCodes);
+    }
+
+    /**
+     * Frame bound to a feature dictionary.
+     */
+    final class Input {
+
+        final Frame df;
+        final Var[] vars;
+        final boolean[] generic;
+        final int[][] levelCodes;
+
+        private Input(Frame df, Var[] vars, boolean[] generic, int[][] levelCodes) {
+            this.df = df;
+            this.vars = vars;
+            this.generic = generic;
+            this.levelCodes = levelCodes;
+        }
+
+        /**
+         * Encodes a contiguous range of rows into primitive columns.
+         */
+        Block block(int start, int end) {
+            int len = end - start;
+            double[][] values = new double[vars.length][];
+            int[][] codes = new int[vars.length][];
+            for (int f = 0; f < vars.length; f++) {
+                if (generic[f]) {
+                    continue;
+                }
+                Var var = vars[f];
+                if (numeric.get(f)) {
+                    double[] column = new double[len];
+                    for (int i = 0; i < len; i++) {
+                        column[i] = var.getDouble(start + i);
+                    }
+                    values[f] = column;
+                }
+                if (nominal.get(f)) {
+                    int[] map = levelCodes[f];
+                    int[] column = new int[len];
+                    for (int i = 0; i < len; i++) {
+                        column[i] = var.isMissing(start + i) ? 0 : map[var.getInt(start + i)];
+                    }
+                    codes[f] = column;
+                }
+            }
+            return new Block(this, start, values, codes);
+        }
+    }
+
+    /**
+     * Encoded range of rows. Numeric features are stored as double values, where missing values of
+     * double, integer and binary variables are {@code NaN}, nominal features are stored as label codes
+     * with {@code -1} for labels which do not appear in any test.
+     */
+    record Block(Input input, int start, double[][] values, int[][] codes) {
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import rapaio.data.Frame;
+
+/**
+ * Ensemble of decision trees compiled for fast batch inference.
+ * <p>
+ * Each tree is flattened into a struct of arrays form with feature indexes, thresholds, children ranges
+ * and node outputs. Variables are looked up by name only once for each prediction, after which rows
+ * are encoded in blocks of primitive columns and all trees are traversed over a block before moving
+ * to the next one. Blocks are processed in parallel.
+ * <p>
+ * A compiled ensemble is a snapshot: later changes of the source trees, like pruning, are not reflected.
+ * Predictions are the same as the ones produced by the source trees.
+ */
+public final class FlatForest implements Serializable {
+
+    /**
+     * Compiles regression trees.
+     *
+     * @param trees fitted regression trees
+     * @return compiled ensemble
+     */
+    public static FlatForest ofRTrees(List<? extends RTree> trees) {
+        FlatFeatures features = new FlatFeatures();
+        List<FlatTree> flat = new ArrayList<>(trees.size());
+        for (RTree tree : trees) {
+            flat.add(FlatTree.of(tree, features));
+        }
+        return new FlatForest(features, flat, null);
+    }
+
+    /**
+     * Compiles classification trees. All trees must be fitted on the same target levels.
+     *
+     * @param trees fitted classification trees
+     * @return compiled ensemble
+     */
+    public static FlatForest ofCTrees(List<? extends CTree> trees) {
+        if (trees.isEmpty()) {
+            throw new IllegalArgumentException("Cannot compile an empty list of classification trees.");
+        }
+        List<String> levels = trees.getFirst().firstTargetLevels();
+        FlatFeatures features = new FlatFeatures();
+        List<FlatTree> flat = new ArrayList<>(trees.size());
+        for (CTree tree : trees) {
+            if (!levels.equals(tree.firstTargetLevels())) {
+                throw new IllegalArgumentException("All classification trees must have the same target levels.");
+            }
+            flat.add(FlatTree.of(tree, features));
+        }
+        return new FlatForest(features, flat, List.copyOf(levels));
+    }
+
+    @Serial
+    private static final long serialVersionUID = 7406381915416425862L;
+
+    /**
+     * Number of rows encoded and traversed together.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    private final FlatFeatures features;
+    private final List<FlatTree> trees;
+    private final List<String> levels;
+
+    private FlatForest(FlatFeatures features, List<FlatTree> trees, List<String> levels) {
+        this.features = features;
+        this.trees = trees;
+        this.levels = levels;
+    }
+
+    /**
+     * @return number of compiled trees
+     */
+    public int size() {
+        return trees.size();
+    }
+
+    /**
+     * @return total number of nodes from all compiled trees
+     */
+    public int nodeCount() {
+        return trees.stream().mapToInt(FlatTree::nodeCount).sum();
+    }
+
+    /**
+     * @return true if the ensemble contains classification trees
+     */
+    public boolean isClassification() {
+        return levels != null;
+    }
+
+    /**
+     * @return target levels for classification trees, null for regression trees
+     */
+    public List<String> levels() {
+        return levels;
+    }
+
+    /**
+     * Predicts the additive combination of regression trees. For each row the prediction starts from
+     * the initial value and tree predictions are added in order as {@code fma(tree, shrinkage, value)}.
+     *
+     * @param df        frame with input variables
+     * @param shrinkage factor applied to each tree prediction
+     * @param init      initial values, or null for zero initial values
+     * @return predicted values, one for each row
+     */
+    public double[] predict(Frame df, double shrinkage, double[] init) {
+        if (isClassification()) {
+            throw new IllegalStateException("Cannot predict regression values from classification trees.");
+        }
+        int rows = df.rowCount();
+        if (init != null && init.length != rows) {
+            throw new IllegalArgumentException("Initial values must have the same length as the number of rows.");
+        }
+        double[] out = init == null ? new double[rows] : init.clone();
+        FlatFeatures.Input input = features.bind(df);
+        blocks(rows).forEach(block -> {
+            int start = block * BLOCK_SIZE;
+            int end = Math.min(rows, start + BLOCK_SIZE);
+            FlatFeatures.Block b = input.block(start, end);
+            for (FlatTree tree : trees) {
+                for (int r = 0; r < end - start; r++) {
+                    out[start + r] = Math.fma(tree.regress(b, r), shrinkage, out[start + r]);
+                }
+            }
+        });
+        return out;
+    }
+
+    /**
+     * Predicts class densities by summing the densities of classification trees. Densities are
+     * stored in row major order, with one value for each target level.
+     * <p>
+     * If voting is enabled, the densities of each tree are divided by their sum before being added,
+     * which is soft voting. Predicted classes are the classes predicted by the tree if there is a single
+     * tree, otherwise the first level with maximum density.
+     *
+     * @param df      frame with input variables
+     * @param vote    if true, densities of each tree are normalized before being added
+     * @param classes array where predicted class indexes are stored, or null if not needed
+     * @return densities for each row and target level
+     */
+    public double[] densities(Frame df, boolean vote, int[] classes) {
+        if (!isClassification()) {
+            throw new IllegalStateException("Cannot predict densities from regression trees.");
+        }
+        int rows = df.rowCount();
+        int len = levels.size();
+        double[] out = new double[rows * len];
+        FlatFeatures.Input input = features.bind(df);
+        blocks(rows).forEach(block -> {
+            int start = block * BLOCK_SIZE;
+            int end = Math.min(rows, start + BLOCK_SIZE);
+            FlatFeatures.Block b = input.block(start, end);
+            double[] d = new double[len];
+            for (FlatTree tree : trees) {
+                for (int r = 0; r < end - start; r++) {
+                    int cls = tree.classify(b, r, d, 0);
+                    if (classes != null && trees.size() == 1) {
+                        classes[start + r] = cls;
+                    }
+                    double t = 1;
+                    if (vote) {
+                        t = 0.0;
+                        for (int j = 0; j < len; j++) {
+                            t += d[j];
+                        }
+                    }
+                    int offset = (start + r) * len;
+                    for (int j = 0; j < len; j++) {
+                        out[offset + j] += vote ? d[j] / t : d[j];
+                    }
+                }
+            }
+            if (classes != null && trees.size() != 1) {
+                for (int r = start; r < end; r++) {
+                    int argmax = 0;
+                    for (int j = 1; j < len; j++) {
+                        if (out[r * len + j] > out[r * len + argmax]) {
+                            argmax = j;
+                        }
+                    }
+                    classes[r] = argmax;
+                }
+            }
+        });
+        return out;
+    }
+
+    private IntStream blocks(int rows) {
+        int count = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream stream = IntStream.range(0, count);
+        return count > 1 ? stream.parallel() : stream;
+    }
+}
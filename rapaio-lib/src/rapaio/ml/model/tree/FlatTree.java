@@ -0,0 +1,439 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import rapaio.core.tools.DensityVector;
+import rapaio.ml.model.tree.rowpredicate.All;
+import rapaio.ml.model.tree.rowpredicate.BinaryEqual;
+import rapaio.ml.model.tree.rowpredicate.BinaryNotEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalInSet;
+import rapaio.ml.model.tree.rowpredicate.NominalNotEqual;
+import rapaio.ml.model.tree.rowpredicate.NominalNotInSet;
+import rapaio.ml.model.tree.rowpredicate.NumGreater;
+import rapaio.ml.model.tree.rowpredicate.NumGreaterEqual;
+import rapaio.ml.model.tree.rowpredicate.NumLess;
+import rapaio.ml.model.tree.rowpredicate.NumLessEqual;
+
+/**
+ * Decision tree compiled into a struct of arrays form.
+ * <p>
+ * Nodes are stored in breadth first order, such that the children of a node are stored contiguously.
+ * For each node there are stored the test which routes rows into it (test kind, feature index, threshold
+ * or label codes), the range of its children and its output values. Known row predicates are compiled into
+ * primitive comparisons over encoded columns, any other predicate is evaluated directly on the frame.
+ * <p>
+ * Prediction follows the same rules as the tree it was compiled from. When no child accepts a row,
+ * the output is the weighted combination of all children outputs.
+ */
+final class FlatTree implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -6113407214375329848L;
+
+    private static final byte ALL = 0;
+    private static final byte NUM_LE = 1;
+    private static final byte NUM_LT = 2;
+    private static final byte NUM_GE = 3;
+    private static final byte NUM_GT = 4;
+    private static final byte BIN_EQ = 5;
+    private static final byte BIN_NE = 6;
+    private static final byte NOM_EQ = 7;
+    private static final byte NOM_NE = 8;
+    private static final byte NOM_IN = 9;
+    private static final byte NOM_NOT_IN = 10;
+    private static final byte OTHER = 11;
+
+    private final boolean[] leaf;
+    private final int[] childStart;
+    private final int[] childEnd;
+
+    private final byte[] kind;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[][] codes;
+    private final RowPredicate[] predicates;
+
+    // number of output values for each node, 1 for regression and number of levels for classification
+    private final int outputs;
+    private final double[] values;
+    private final double[] weights;
+    private final int[] best;
+
+    /**
+     * Compiles a regression tree.
+     */
+    static FlatTree of(RTree tree, FlatFeatures features) {
+        List<rapaio.ml.model.tree.rtree.Node> nodes = new ArrayList<>();
+        nodes.add(tree.root());
+        Builder b = new Builder(features, 1);
+        for (int i = 0; i < nodes.size(); i++) {
+            var node = nodes.get(i);
+            int children = node.leaf ? 0 : node.children.size();
+            b.node(node.predicate, node.leaf, nodes.size(), nodes.size() + children);
+            b.values.add(node.value);
+            b.weights.add(node.weight);
+            b.best.add(0);
+            if (!node.leaf) {
+                nodes.addAll(node.children);
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Compiles a classification tree. Outputs of a node are the normalized densities in the order of target levels.
+     */
+    static FlatTree of(CTree tree, FlatFeatures features) {
+        List<rapaio.ml.model.tree.ctree.Node> nodes = new ArrayList<>();
+        nodes.add(tree.getRoot());
+        List<String> levels = tree.firstTargetLevels();
+        Builder b = new Builder(features, levels.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            var node = nodes.get(i);
+            int children = node.leaf ? 0 : node.children.size();
+            b.node(node.predicate, node.leaf, nodes.size(), nodes.size() + children);
+            DensityVector<String> density = node.density.copy().normalize();
+            for (String level : levels) {
+                b.values.add(density.get(level));
+            }
+            b.weights.add(node.density.sum());
+            b.best.add(levels.indexOf(node.bestLabel));
+            if (!node.leaf) {
+                nodes.addAll(node.children);
+            }
+        }
+        return b.build();
+    }
+
+    private FlatTree(Builder b) {
+        int n = b.kind.size();
+        leaf = new boolean[n];
+        childStart = new int[n];
+        childEnd = new int[n];
+        kind = new byte[n];
+        feature = new int[n];
+        threshold = new double[n];
+        codes = new int[n][];
+        predicates = new RowPredicate[n];
+        outputs = b.outputs;
+        values = new double[n * outputs];
+        weights = new double[n];
+        best = new int[n];
+        for (int i = 0; i < n; i++) {
+            leaf[i] = b.leaf.get(i);
+            childStart[i] = b.childStart.get(i);
+            childEnd[i] = b.childEnd.get(i);
+            kind[i] = b.kind.get(i);
+            feature[i] = b.feature.get(i);
+            threshold[i] = b.threshold.get(i);
+            codes[i] = b.codes.get(i);
+            predicates[i] = b.predicates.get(i);
+            weights[i] = b.weights.get(i);
+            best[i] = b.best.get(i);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = b.values.get(i);
+        }
+    }
+
+    int outputs() {
+        return outputs;
+    }
+
+    int nodeCount() {
+        return kind.length;
+    }
+
+    /**
+     * Finds the leaf which handles a row, or {@code -1 - node} if the row reaches
+     * an interior node which has no child accepting the row.
+     */
+    private int leafOf(FlatFeatures.Block b, int r) {
+        int node = 0;
+        while (!leaf[node]) {
+            int next = -1;
+            for (int c = childStart[node]; c < childEnd[node]; c++) {
+                if (test(c, b, r)) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next < 0) {
+                return -1 - node;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    /**
+     * Predicts the regression value for a row of an encoded block.
+     */
+    double regress(FlatFeatures.Block b, int r) {
+        int node = leafOf(b, r);
+        if (node >= 0) {
+            return values[node];
+        }
+        double[] result = new double[2];
+        regress(-1 - node, b, r, result);
+        return result[0];
+    }
+
+    private void regress(int node, FlatFeatures.Block b, int r, double[] result) {
+        if (leaf[node]) {
+            result[0] = values[node];
+            result[1] = weights[node];
+            return;
+        }
+        for (int c = childStart[node]; c < childEnd[node]; c++) {
+            if (test(c, b, r)) {
+                regress(c, b, r, result);
+                return;
+            }
+        }
+        // missing value for the test feature, children predictions are combined
+        int len = childEnd[node] - childStart[node];
+        double[] v = new double[len];
+        double[] w = new double[len];
+        for (int i = 0; i < len; i++) {
+            regress(childStart[node] + i, b, r, result);
+            v[i] = result[0];
+            w[i] = result[1];
+        }
+        result[0] = weightedMean(v, w);
+        result[1] = mean(w);
+    }
+
+    /**
+     * Predicts the class densities for a row of an encoded block. Densities are written into
+     * the given array at the given offset.
+     *
+     * @return index of the predicted class
+     */
+    int classify(FlatFeatures.Block b, int r, double[] out, int offset) {
+        int node = leafOf(b, r);
+        if (node >= 0) {
+            System.arraycopy(values, node * outputs, out, offset, outputs);
+            return best[node];
+        }
+        double[] density = new double[outputs];
+        int cls = classify(-1 - node, b, r, density);
+        System.arraycopy(density, 0, out, offset, outputs);
+        return cls;
+    }
+
+    private int classify(int node, FlatFeatures.Block b, int r, double[] density) {
+        if (leaf[node]) {
+            System.arraycopy(values, node * outputs, density, 0, outputs);
+            return best[node];
+        }
+        for (int c = childStart[node]; c < childEnd[node]; c++) {
+            if (test(c, b, r)) {
+                return classify(c, b, r, density);
+            }
+        }
+        // missing value for the test feature, children densities are combined by children weights
+        double[] sum = new double[outputs];
+        double[] d = new double[outputs];
+        double w = 0.0;
+        for (int c = childStart[node]; c < childEnd[node]; c++) {
+            classify(c, b, r, d);
+            for (int j = 0; j < outputs; j++) {
+                sum[j] += d[j] * weights[c];
+            }
+            w += weights[c];
+        }
+        for (int j = 1; j < outputs; j++) {
+            sum[j] /= w;
+        }
+        System.arraycopy(sum, 0, density, 0, outputs);
+        int argmax = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < outputs; j++) {
+            if (sum[j] > max) {
+                max = sum[j];
+                argmax = j;
+            }
+        }
+        return argmax;
+    }
+
+    private boolean test(int node, FlatFeatures.Block b, int r) {
+        int f = feature[node];
+        if (f >= 0 && b.input().generic[f]) {
+            return predicates[node].test(b.start() + r, b.input().df);
+        }
+        return switch (kind[node]) {
+            case ALL -> true;
+            case NUM_LE -> b.values()[f][r] <= threshold[node];
+            case NUM_LT -> b.values()[f][r] < threshold[node];
+            case NUM_GE -> b.values()[f][r] >= threshold[node];
+            case NUM_GT -> b.values()[f][r] > threshold[node];
+            case BIN_EQ -> b.values()[f][r] == threshold[node];
+            case BIN_NE -> {
+                double x = b.values()[f][r];
+                yield !Double.isNaN(x) && x != threshold[node];
+            }
+            case NOM_EQ -> b.codes()[f][r] == codes[node][0];
+            case NOM_NE -> b.codes()[f][r] != codes[node][0];
+            case NOM_IN -> contains(codes[node], b.codes()[f][r]);
+            case NOM_NOT_IN -> !contains(codes[node], b.codes()[f][r]);
+            default -> predicates[node].test(b.start() + r, b.input().df);
+        };
+    }
+
+    private static boolean contains(int[] set, int code) {
+        for (int c : set) {
+            if (c == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Weighted mean computed in the same way as {@link rapaio.core.stat.WeightedMean}.
+     */
+    static double weightedMean(double[] v, double[] w) {
+        double total = 0;
+        int count = 0;
+        double[] cv = new double[v.length];
+        double[] cw = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            if (Double.isNaN(v[i]) || Double.isNaN(w[i])) {
+                continue;
+            }
+            total += w[i];
+            cv[count] = v[i];
+            cw[count] = w[i];
+            count++;
+        }
+        if (count == 0 || total == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += cw[i] * cv[i];
+        }
+        double avg = sum / total;
+        double residual = 0;
+        for (int i = 0; i < count; i++) {
+            residual += cw[i] * (cv[i] - avg);
+        }
+        return avg + residual / total;
+    }
+
+    /**
+     * Mean computed in the same way as {@link rapaio.core.stat.Mean}.
+     */
+    static double mean(double[] v) {
+        double sum = 0;
+        int count = 0;
+        for (double x : v) {
+            if (!Double.isNaN(x)) {
+                sum += x;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double mean = sum / count;
+        double residual = 0;
+        for (double x : v) {
+            if (!Double.isNaN(x)) {
+                residual += x - mean;
+            }
+        }
+        return mean + residual / count;
+    }
+
+    private static final class Builder {
+
+        private final FlatFeatures features;
+        private final int outputs;
+
+        private final List<Boolean> leaf = new ArrayList<>();
+        private final List<Integer> childStart = new ArrayList<>();
+        private final List<Integer> childEnd = new ArrayList<>();
+        private final List<Byte> kind = new ArrayList<>();
+        private final List<Integer> feature = new ArrayList<>();
+        private final List<Double> threshold = new ArrayList<>();
+        private final List<int[]> codes = new ArrayList<>();
+        private final List<RowPredicate> predicates = new ArrayList<>();
+        private final List<Double> values = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Integer> best = new ArrayList<>();
+
+        private Builder(FlatFeatures features, int outputs) {
+            this.features = features;
+            this.outputs = outputs;
+        }
+
+        private void node(RowPredicate predicate, boolean isLeaf, int start, int end) {
+            leaf.add(isLeaf);
+            childStart.add(start);
+            childEnd.add(end);
+            predicates.add(predicate);
+            switch (predicate) {
+                case All p -> test(ALL, -1, 0, null);
+                case NumLessEqual p -> test(NUM_LE, features.numericFeature(p.testName()), p.testValue(), null);
+                case NumLess p -> test(NUM_LT, features.numericFeature(p.testName()), p.testValue(), null);
+                case NumGreaterEqual p -> test(NUM_GE, features.numericFeature(p.testName()), p.testValue(), null);
+                case NumGreater p -> test(NUM_GT, features.numericFeature(p.testName()), p.testValue(), null);
+                case BinaryEqual p -> test(BIN_EQ, features.numericFeature(p.testName()), p.testValue() ? 1 : 0, null);
+                case BinaryNotEqual p -> test(BIN_NE, features.numericFeature(p.testName()), p.testValue() ? 1 : 0, null);
+                case NominalEqual p -> nominal(NOM_EQ, p.testName(), List.of(p.testValue()));
+                case NominalNotEqual p -> nominal(NOM_NE, p.testName(), List.of(p.testValue()));
+                case NominalInSet p -> nominal(NOM_IN, p.testName(), p.testValues());
+                case NominalNotInSet p -> nominal(NOM_NOT_IN, p.testName(), p.testValues());
+                default -> test(OTHER, -1, 0, null);
+            }
+        }
+
+        private void nominal(byte k, String name, Iterable<String> labels) {
+            int f = features.nominalFeature(name);
+            List<Integer> list = new ArrayList<>();
+            for (String label : labels) {
+                list.add(features.labelCode(f, label));
+            }
+            test(k, f, 0, list.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private void test(byte k, int f, double value, int[] labelCodes) {
+            kind.add(k);
+            feature.add(f);
+            threshold.add(value);
+            codes.add(labelCodes);
+        }
+
+        private FlatTree build() {
+            return new FlatTree(this);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+
+/**
+ * Histograms computed for a tree node during histogram based split search.
+ * <p>
+ * A node knows the rows it contains from the frame used to build the {@link FeatureBins} and the weights of those rows.
+ * Histograms are flat arrays of sums which are computed on demand for each variable and cached for the
+ * lifetime of the node. When the children of a node partition its rows without changing their weights,
+ * the histogram of the largest child is obtained by subtracting the histograms of its siblings from the
+ * histogram of the parent, which avoids a pass over the rows of the largest child.
+ */
+public final class NodeHistograms {
+
+    /**
+     * Builds histogram holder for the root node of a tree.
+     *
+     * @param weights weights of the rows
+     * @return root node histograms
+     */
+    public static NodeHistograms root(Var weights) {
+        int[] rows = new int[weights.size()];
+        double[] w = new double[weights.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+            w[i] = weights.getDouble(i);
+        }
+        return new NodeHistograms(rows, w);
+    }
+
+    private final int[] rows;
+    private final double[] weights;
+    private final Map<String, double[]> cache = new ConcurrentHashMap<>();
+    private NodeHistograms parent;
+    private List<NodeHistograms> siblings;
+
+    private NodeHistograms(int[] rows, double[] weights) {
+        this.rows = rows;
+        this.weights = weights;
+    }
+
+    /**
+     * @return rows of the node, as indexes of the binned frame
+     */
+    public int[] rows() {
+        return rows;
+    }
+
+    /**
+     * @return weights of the node rows
+     */
+    public double[] weights() {
+        return weights;
+    }
+
+    /**
+     * Builds histogram holders for child nodes.
+     *
+     * @param mappings  rows of each child node, relative to the rows of this node
+     * @param weights   weights of each child node
+     * @param partition true if children rows are a partition of parent rows and weights are unchanged
+     * @return histogram holders for children
+     */
+    public List<NodeHistograms> children(List<Mapping> mappings, List<Var> weights, boolean partition) {
+        List<NodeHistograms> children = new ArrayList<>(mappings.size());
+        int largest = 0;
+        for (int i = 0; i < mappings.size(); i++) {
+            Mapping mapping = mappings.get(i);
+            Var weight = weights.get(i);
+            int[] childRows = new int[mapping.size()];
+            double[] childWeights = new double[mapping.size()];
+            for (int j = 0; j < childRows.length; j++) {
+                childRows[j] = rows[mapping.get(j)];
+                childWeights[j] = weight.getDouble(j);
+            }
+            children.add(new NodeHistograms(childRows, childWeights));
+            if (mapping.size() > mappings.get(largest).size()) {
+                largest = i;
+            }
+        }
+        if (partition && children.size() > 1) {
+            NodeHistograms child = children.get(largest);
+            child.parent = this;
+            child.siblings = new ArrayList<>(children);
+            child.siblings.remove(largest);
+        }
+        return children;
+    }
+
+    /**
+     * Returns the histogram for a variable, computing it if it was not computed before.
+     *
+     * @param varName variable name
+     * @param builder function which computes the histogram from node rows and weights
+     * @return histogram of the variable
+     */
+    public double[] get(String varName, BiFunction<int[], double[], double[]> builder) {
+        double[] histogram = cache.get(varName);
+        if (histogram != null) {
+            return histogram;
+        }
+        double[] parentHistogram = (parent != null) ? parent.cache.get(varName) : null;
+        if (parentHistogram != null) {
+            histogram = parentHistogram.clone();
+            for (NodeHistograms sibling : siblings) {
+                double[] siblingHistogram = sibling.get(varName, builder);
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] -= siblingHistogram[i];
+                }
+            }
+        } else {
+            histogram = builder.apply(rows, weights);
+        }
+        cache.put(varName, histogram);
+        return histogram;
+    }
+
+    /**
+     * Releases references to parent and siblings after the node was learned, such that
+     * histograms not needed anymore can be collected.
+     */
+    public void detach() {
+        parent = null;
+        siblings = null;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rapaio.data.Mapping;
+
+/**
+ * Sorted rows of a tree node, obtained from a {@link SortedIndex} built on the frame used to fit the tree.
+ * <p>
+ * A node knows the rows it contains from the indexed frame. For each variable the rows of the node sorted by
+ * value are computed on demand and cached for the lifetime of the node. Instead of sorting, the sorted rows are
+ * obtained by a stable filtering of the sorted rows of the parent node, if the parent computed them, or of the
+ * sorted index otherwise. Thus, the cost for a node is linear in the number of rows.
+ * <p>
+ * Filtering uses a lookup table shared by all nodes of a tree, which has to be filled by {@link #open()} before the
+ * sorted rows of a node are requested and cleaned by {@link #close()} after the node was learned. Nodes of the same
+ * tree must be learned one at a time, while sorted rows of a node can be requested concurrently.
+ */
+public final class NodeSortedRows {
+
+    /**
+     * Builds sorted rows for the root node of a tree.
+     *
+     * @param index sorted index of the frame used to fit the tree
+     * @return root node sorted rows
+     */
+    public static NodeSortedRows root(SortedIndex index) {
+        int[] rows = new int[index.rows()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        int[] local = new int[index.rows()];
+        Arrays.fill(local, -1);
+        return new NodeSortedRows(index, local, rows, null);
+    }
+
+    private final SortedIndex index;
+    private final int[] local;
+    private final int[] rows;
+    private final Map<String, int[]> cache = new ConcurrentHashMap<>();
+    private NodeSortedRows parent;
+
+    private NodeSortedRows(SortedIndex index, int[] local, int[] rows, NodeSortedRows parent) {
+        this.index = index;
+        this.local = local;
+        this.rows = rows;
+        this.parent = parent;
+    }
+
+    public boolean contains(String varName) {
+        return index.contains(varName);
+    }
+
+    /**
+     * Builds sorted rows holders for child nodes.
+     *
+     * @param mappings rows of each child node, relative to the rows of this node
+     * @return sorted rows holders for children
+     */
+    public List<NodeSortedRows> children(List<Mapping> mappings) {
+        List<NodeSortedRows> children = new ArrayList<>(mappings.size());
+        for (Mapping mapping : mappings) {
+            int[] childRows = new int[mapping.size()];
+            for (int j = 0; j < childRows.length; j++) {
+                childRows[j] = rows[mapping.get(j)];
+            }
+            children.add(new NodeSortedRows(index, local, childRows, this));
+        }
+        return children;
+    }
+
+    /**
+     * Fills the shared lookup table with the rows of this node.
+     */
+    public void open() {
+        for (int i = 0; i < rows.length; i++) {
+            local[rows[i]] = i;
+        }
+    }
+
+    /**
+     * Cleans the shared lookup table and releases the reference to the parent node.
+     */
+    public void close() {
+        for (int row : rows) {
+            local[row] = -1;
+        }
+        parent = null;
+    }
+
+    /**
+     * Returns the rows of the node with non-missing values for the given variable, sorted by value.
+     * The rows are given as indexes in the node frame.
+     * <p>
+     * If the parent node has not computed sorted rows for the variable and the node is small compared with
+     * the indexed frame, filtering the whole index costs more than sorting the node rows. In this case
+     * {@code null} is returned and the caller is expected to sort the node rows itself.
+     *
+     * @param varName variable name
+     * @return sorted node rows or {@code null} if it is cheaper to sort node rows directly
+     */
+    public int[] sorted(String varName) {
+        int[] sorted = cache.get(varName);
+        if (sorted != null) {
+            return sorted;
+        }
+        NodeSortedRows p = parent;
+        int[] parentSorted = (p != null) ? p.cache.get(varName) : null;
+        if (parentSorted == null) {
+            long sortCost = (long) rows.length * (32 - Integer.numberOfLeadingZeros(rows.length));
+            if (sortCost < index.order(varName).length) {
+                return null;
+            }
+        }
+        sorted = new int[rows.length];
+        int len = 0;
+        if (parentSorted != null) {
+            for (int row : parentSorted) {
+                int pos = local[p.rows[row]];
+                if (pos >= 0) {
+                    sorted[len++] = pos;
+                }
+            }
+        } else {
+            for (int row : index.order(varName)) {
+                int pos = local[row];
+                if (pos >= 0) {
+                    sorted[len++] = pos;
+                }
+            }
+        }
+        sorted = Arrays.copyOf(sorted, len);
+        cache.put(varName, sorted);
+        return sorted;
+    }
+}
@@ -24,22 +24,23 @@ package rapaio.ml.model.tree;
 import static rapaio.printer.Format.floatFlex;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import rapaio.core.param.MultiParam;
 import rapaio.core.param.ValueParam;
-import rapaio.core.stat.Mean;
 import rapaio.core.stat.Sum;
-import rapaio.core.stat.WeightedMean;
 import rapaio.data.Frame;
 import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarType;
@@ -50,13 +51,15 @@ import rapaio.ml.loss.LossFunction;
 import rapaio.ml.model.RegressionResult;
 import rapaio.ml.model.RunInfo;
 import rapaio.ml.model.boost.GBTRtree;
+import rapaio.ml.model.tree.rowpredicate.NumGreater;
+import rapaio.ml.model.tree.rowpredicate.NumLessEqual;
 import rapaio.ml.model.tree.rtree.Candidate;
+import rapaio.ml.model.tree.rtree.HistogramSearch;
 import rapaio.ml.model.tree.rtree.Node;
 import rapaio.ml.model.tree.rtree.Search;
 import rapaio.ml.model.tree.rtree.Splitter;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POpt;
-import rapaio.util.DoublePair;
 
 /**
  * Implements a regression decision tree.
@@ -152,10 +155,24 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
      */
     public final MultiParam<VarType, Search, RTree> test = new MultiParam<>(this, DEFAULT_TEST_MAP, "testMap", Objects::nonNull);
 
+    /**
+     * Maximum number of bins used by histogram based split search for numeric variables.
+     * <p>
+     * If the value is {@code 0} the exact split search is used. Otherwise, the numeric variables which
+     * use {@link Search#NumericBinary} are discretized once before the tree is grown, using at most the
+     * given number of bins, and the splits are evaluated only at bin boundaries using per node histograms.
+     * The valid values are between 2 and {@link FeatureBins#MAX_BINS}.
+     */
+    public final ValueParam<Integer, RTree> bins = new ValueParam<>(this, 0, "bins",
+            x -> x != null && (x == 0 || (x >= 2 && x <= FeatureBins.MAX_BINS)));
+
     // tree root node
 
     private Node root;
 
+    // compiled form used for prediction, built lazily and discarded when the tree changes
+    private transient FlatForest compiled;
+
     private RTree() {
     }
 
@@ -180,8 +197,59 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
         return root;
     }
 
+    /**
+     * Fit a tree on instances specified by frame, with row weights and target variable, using feature bins
+     * and a sorted index computed in advance on the rows of the training frame. This allows ensemble methods
+     * which fit many trees on samples of the same data to discretize and sort numeric variables only once.
+     * <p>
+     * Feature bins are used only if histogram search is enabled through {@link #bins}. Any of the feature bins
+     * or sorted index can be {@code null}, in which case the tree works as if they were not given.
+     *
+     * @param df             training frame
+     * @param weights        instance weights
+     * @param featureBins    feature bins with the same rows as the training frame, or {@code null}
+     * @param sortedIndex    sorted index with the same rows as the training frame, or {@code null}
+     * @param targetVarNames target variables
+     * @return fitted tree
+     */
+    public RTree fit(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex, String... targetVarNames) {
+        FitSetup setup = prepareFit(df, weights, targetVarNames);
+        hasLearned = coreFit(setup.df, setup.w, featureBins, sortedIndex);
+        return this;
+    }
+
+    /**
+     * Fit a tree on binned numeric variables, without the values of the variables. Splits are searched using
+     * histograms over bin codes and observations are assigned to child nodes using their bin codes, thus only
+     * binned variables are used as tests and parameters {@link #bins} and {@link #test} are not used.
+     * Since splits are placed at bin boundaries, the fitted tree predicts on frames with the original values.
+     * <p>
+     * This allows fitting trees on data kept only in binned form, like in the out-of-core fit of gradient boosting.
+     *
+     * @param featureBins feature bins of training observations
+     * @param target      target variable
+     * @param weights     instance weights
+     * @return fitted tree
+     */
+    public RTree fit(FeatureBins featureBins, Var target, Var weights) {
+        // a frame without rows describes the input and target variables
+        List<Var> vars = new ArrayList<>();
+        for (String varName : featureBins.varNames()) {
+            vars.add(VarDouble.empty().name(varName));
+        }
+        vars.add(VarDouble.empty().name(target.name()));
+        prepareFit(SolidFrame.byVars(vars), weights, target.name());
+        hasLearned = coreFit(featureBins, target, weights);
+        return this;
+    }
+
     @Override
     protected boolean coreFit(Frame df, Var weights) {
+        return coreFit(df, weights, null, null);
+    }
+
+    private boolean coreFit(Frame df, Var weights, FeatureBins featureBins, SortedIndex sortedIndex) {
+        compiled = null;
 
         Random random = getRandom();
         capabilities().checkAtLearnPhase(df, weights, targetNames);
@@ -193,14 +261,27 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
 
         VarSelector nodeVarSelector = this.varSelector.get().withVarNames(inputNames);
 
+        HistogramSearch histogramSearch = buildHistogramSearch(df, featureBins);
+
         // make queue and initialize it
 
         Queue<QueueNode> queue = new ConcurrentLinkedQueue<>();
-        queue.add(new QueueNode(root, df, weights));
+        queue.add(new QueueNode(root, df, weights,
+                histogramSearch == null ? null : NodeHistograms.root(weights),
+                (sortedIndex == null || sortedIndex.rows() != df.rowCount()) ? null : NodeSortedRows.root(sortedIndex)));
 
         while (!queue.isEmpty()) {
             QueueNode last = queue.poll();
-            learnNode(last.node, last.df, last.weight, nodeVarSelector, random);
+            if (last.sortedRows != null) {
+                last.sortedRows.open();
+            }
+            learnNode(last.node, last.df, last.weight, last.histograms, histogramSearch, last.sortedRows, nodeVarSelector, random);
+            if (last.histograms != null) {
+                last.histograms.detach();
+            }
+            if (last.sortedRows != null) {
+                last.sortedRows.close();
+            }
 
             if (last.node.leaf) {
                 continue;
@@ -209,21 +290,128 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
 
             List<RowPredicate> predicates = last.node.bestCandidate.getGroupPredicates();
             List<Mapping> mappings = splitter.get().performSplitMapping(last.df, last.weight, predicates, random);
+            List<Var> childWeights = mappings.stream().<Var>map(last.weight::mapRows).toList();
+
+            List<NodeHistograms> childHistograms = null;
+            if (last.histograms != null) {
+                int size = mappings.stream().mapToInt(Mapping::size).sum();
+                childHistograms = last.histograms.children(mappings, childWeights, size == last.df.rowCount());
+            }
+            List<NodeSortedRows> childSortedRows = last.sortedRows == null ? null : last.sortedRows.children(mappings);
+
+            for (int i = 0; i < predicates.size(); i++) {
+                RowPredicate predicate = predicates.get(i);
+                Node child = new Node(last.node, id++, predicate.toString(), predicate, last.node.depth + 1);
+                last.node.children.add(child);
+                queue.add(new QueueNode(child, last.df.mapRows(mappings.get(i)), childWeights.get(i),
+                        childHistograms == null ? null : childHistograms.get(i),
+                        childSortedRows == null ? null : childSortedRows.get(i)));
+            }
+        }
+        return true;
+    }
+
+    record QueueNode(Node node, Frame df, Var weight, NodeHistograms histograms, NodeSortedRows sortedRows) {
+    }
+
+    private boolean coreFit(FeatureBins featureBins, Var target, Var weights) {
+        compiled = null;
+        Random random = getRandom();
+
+        int id = 1;
+        root = new Node(null, id++, "root", (row, frame) -> true, 1);
+
+        VarSelector nodeVarSelector = this.varSelector.get().withVarNames(inputNames);
+        HistogramSearch histogramSearch = new HistogramSearch(featureBins, target);
+
+        Queue<BinnedQueueNode> queue = new ConcurrentLinkedQueue<>();
+        queue.add(new BinnedQueueNode(root, NodeHistograms.root(weights)));
+
+        while (!queue.isEmpty()) {
+            BinnedQueueNode last = queue.poll();
+            learnBinnedNode(last.node, target, last.histograms, histogramSearch, nodeVarSelector, random);
+            last.histograms.detach();
+
+            if (last.node.leaf) {
+                continue;
+            }
+
+            List<RowPredicate> predicates = last.node.bestCandidate.getGroupPredicates();
+            int[] rows = last.histograms.rows();
+            Var nodeWeights = VarDouble.wrap(last.histograms.weights());
+            List<Mapping> mappings = splitter.get().performSplitMapping(
+                    binnedGroups(featureBins, rows, predicates), predicates.size(), nodeWeights, random);
+            List<Var> childWeights = mappings.stream().<Var>map(nodeWeights::mapRows).toList();
+            int size = mappings.stream().mapToInt(Mapping::size).sum();
+            List<NodeHistograms> childHistograms = last.histograms.children(mappings, childWeights, size == rows.length);
 
             for (int i = 0; i < predicates.size(); i++) {
                 RowPredicate predicate = predicates.get(i);
                 Node child = new Node(last.node, id++, predicate.toString(), predicate, last.node.depth + 1);
                 last.node.children.add(child);
-                queue.add(new QueueNode(child, last.df.mapRows(mappings.get(i)), last.weight.mapRows(mappings.get(i))));
+                queue.add(new BinnedQueueNode(child, childHistograms.get(i)));
             }
         }
         return true;
     }
 
-    record QueueNode(Node node, Frame df, Var weight) {
+    record BinnedQueueNode(Node node, NodeHistograms histograms) {
     }
 
-    private void learnNode(Node node, Frame df, Var weights, VarSelector nodeVarSelector, Random random) {
+    /**
+     * Computes for each row the index of the first matched predicate using bin codes, or {@code -1} if
+     * no predicate is matched. Histogram search produces only numeric predicates placed at bin boundaries.
+     */
+    private static int[] binnedGroups(FeatureBins featureBins, int[] rows, List<RowPredicate> predicates) {
+        int[] groups = new int[rows.length];
+        Arrays.fill(groups, -1);
+        for (int i = 0; i < predicates.size(); i++) {
+            String testName;
+            double testValue;
+            boolean lessEqual;
+            switch (predicates.get(i)) {
+                case NumLessEqual p -> {
+                    testName = p.testName();
+                    testValue = p.testValue();
+                    lessEqual = true;
+                }
+                case NumGreater p -> {
+                    testName = p.testName();
+                    testValue = p.testValue();
+                    lessEqual = false;
+                }
+                default -> throw new IllegalStateException("Predicate cannot be evaluated on bin codes: " + predicates.get(i));
+            }
+            byte[] codes = featureBins.codes(testName);
+            int bin = featureBins.bin(testName, testValue);
+            for (int j = 0; j < rows.length; j++) {
+                int code = codes[rows[j]] & 0xFF;
+                if (groups[j] == -1 && code != FeatureBins.MISSING && (code <= bin) == lessEqual) {
+                    groups[j] = i;
+                }
+            }
+        }
+        return groups;
+    }
+
+    private HistogramSearch buildHistogramSearch(Frame df, FeatureBins featureBins) {
+        if (bins.get() == 0) {
+            return null;
+        }
+        if (featureBins == null || featureBins.rows() != df.rowCount()) {
+            List<String> binNames = Arrays.stream(inputNames)
+                    .filter(name -> test.get().get(df.type(name)) == Search.NumericBinary)
+                    .toList();
+            if (binNames.isEmpty()) {
+                return null;
+            }
+            featureBins = FeatureBins.from(df, binNames, bins.get());
+        }
+        return new HistogramSearch(featureBins, df.rvar(firstTargetName()));
+    }
+
+    private void learnNode(Node node, Frame df, Var weights, NodeHistograms histograms, HistogramSearch histogramSearch,
+            NodeSortedRows sortedRows, VarSelector nodeVarSelector, Random random) {
 
         node.leaf = true;
         node.value = loss.get().scalarMinimizer(df.rvar(firstTargetName()), weights);
@@ -240,12 +428,54 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
 
         List<Candidate> candidates = Arrays.stream(nodeVarSelector.nextVarNames(random))
                 .parallel()
-                .map(testCol -> test.get(df.type(testCol))
-                        .computeCandidate(this, df, weights, testCol, firstTargetName(), random)
-                        .orElse(null))
+                .map(testCol -> {
+                    Search search = test.get(df.type(testCol));
+                    Optional<Candidate> candidate;
+                    if (histograms != null && search == Search.NumericBinary && histogramSearch.accepts(testCol)) {
+                        candidate = histogramSearch.computeCandidate(this, histograms, testCol, random);
+                    } else if (sortedRows != null && search == Search.NumericBinary && sortedRows.contains(testCol)
+                            && sortedRows.sorted(testCol) != null) {
+                        candidate = search.computeCandidate(this, df, weights, testCol, firstTargetName(), random,
+                                sortedRows.sorted(testCol));
+                    } else {
+                        candidate = search.computeCandidate(this, df, weights, testCol, firstTargetName(), random);
+                    }
+                    return candidate.orElse(null);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        selectCandidate(node, candidates);
+    }
+
+    private void learnBinnedNode(Node node, Var target, NodeHistograms histograms, HistogramSearch histogramSearch,
+            VarSelector nodeVarSelector, Random random) {
+
+        int[] rows = histograms.rows();
+        Var weights = VarDouble.wrap(histograms.weights());
+
+        node.leaf = true;
+        node.value = loss.get().scalarMinimizer(target.mapRows(Mapping.wrap(rows)), weights);
+        node.weight = Sum.of(weights).value();
+
+        if (node.weight == 0) {
+            node.value = node.parent != null ? node.parent.value : Double.NaN;
+            node.weight = node.parent != null ? node.parent.value : Double.NaN;
+            return;
+        }
+        if (rows.length <= minCount.get() || node.depth >= (maxDepth.get() == -1 ? Integer.MAX_VALUE : maxDepth.get())) {
+            return;
+        }
+
+        List<Candidate> candidates = Arrays.stream(nodeVarSelector.nextVarNames(random))
+                .parallel()
+                .filter(histogramSearch::accepts)
+                .map(testCol -> histogramSearch.computeCandidate(this, histograms, testCol, random).orElse(null))
                 .filter(Objects::nonNull)
                 .toList();
+        selectCandidate(node, candidates);
+    }
 
+    private void selectCandidate(Node node, List<Candidate> candidates) {
         Candidate bestCandidate = null;
         for (Candidate candidate : candidates) {
             if (bestCandidate == null || candidate.getScore() >= bestCandidate.getScore()) {
@@ -262,45 +492,37 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
         node.leaf = false;
     }
 
+    /**
+     * Compiles the fitted tree into a flat form used for fast batch prediction.
+     * The compiled tree is a snapshot, later changes of the tree like boosting updates are not reflected.
+     *
+     * @return compiled tree
+     */
+    public FlatForest compile() {
+        return FlatForest.ofRTrees(List.of(this));
+    }
+
+    private FlatForest compiled() {
+        FlatForest forest = compiled;
+        if (forest == null) {
+            forest = compile();
+            compiled = forest;
+        }
+        return forest;
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double... quantiles) {
         RegressionResult prediction = RegressionResult.build(this, df, withResiduals, quantiles);
-
-        for (int i = 0; i < df.rowCount(); i++) {
-            DoublePair result = predict(i, df, root);
-            prediction.prediction(firstTargetName()).setDouble(i, result.v1);
+        double[] values = compiled().predict(df, 1, null);
+        VarDouble pred = prediction.prediction(firstTargetName());
+        for (int i = 0; i < values.length; i++) {
+            pred.setDouble(i, values[i]);
         }
         prediction.buildComplete();
         return prediction;
     }
 
-    private DoublePair predict(int row, Frame df, Node node) {
-
-        // if we are at a leaf node we simply return what we found there
-        if (node.leaf) {
-            return DoublePair.of(node.value, node.weight);
-        }
-
-        // if is an interior node, we check to see if there is a child
-        // which can handle the instance
-        for (Node child : node.children) {
-            if (child.predicate.test(row, df)) {
-                return predict(row, df, child);
-            }
-        }
-
-        // so is a missing value for the current test feature
-
-        VarDouble values = VarDouble.empty();
-        VarDouble weights = VarDouble.empty();
-        for (Node child : node.children) {
-            DoublePair prediction = predict(row, df, child);
-            values.addDouble(prediction.v1);
-            weights.addDouble(prediction.v2);
-        }
-        return DoublePair.of(WeightedMean.of(values, weights).value(), Mean.of(weights).value());
-    }
-
     @Override
     public String toSummary(Printer printer, POpt<?>... options) {
         StringBuilder sb = new StringBuilder();
@@ -363,5 +585,113 @@ public class RTree extends GBTRtree<RTree, RegressionResult, RunInfo<RTree>> {
      */
     public void boostUpdate(Frame x, Var y, Var fx, LossFunction lossFunction) {
         root.boostUpdate(x, y, fx, lossFunction, splitter.get(), getRandom());
+        compiled = null;
+    }
+
+    /**
+     * Updates leaf values for boosting like {@link #boostUpdate(Frame, Var, Var, LossFunction)}, where
+     * observations are assigned to nodes using their bin codes. This is the counterpart of
+     * {@link #fit(FeatureBins, Var, Var)} and requires a tree fitted on the same binned variables.
+     *
+     * @param featureBins  feature bins of observations
+     * @param y            target values
+     * @param fx           current fitted values
+     * @param lossFunction loss function
+     */
+    public void boostUpdate(FeatureBins featureBins, Var y, Var fx, LossFunction lossFunction) {
+        int[] rows = new int[featureBins.rows()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        boostUpdate(root, featureBins, rows, y, fx, lossFunction, getRandom());
+        compiled = null;
+    }
+
+    /**
+     * Predicts values of observations which are assigned to nodes using their bin codes. This is the counterpart
+     * of {@link #fit(FeatureBins, Var, Var)} and requires a tree fitted on the same binned variables.
+     * Since splits are placed at bin boundaries, predicted values are the same as the values predicted
+     * from a frame with the original values. Observations with missing values for a test variable
+     * receive the weighted mean of children predictions.
+     *
+     * @param featureBins feature bins of observations
+     * @return predicted values, one for each observation
+     */
+    public double[] predict(FeatureBins featureBins) {
+        int[] rows = new int[featureBins.rows()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        double[] values = new double[rows.length];
+        double[] weights = new double[rows.length];
+        predict(root, featureBins, rows, values, weights);
+        return values;
+    }
+
+    private static void predict(Node node, FeatureBins featureBins, int[] rows, double[] values, double[] weights) {
+        if (node.leaf) {
+            for (int row : rows) {
+                values[row] = node.value;
+                weights[row] = node.weight;
+            }
+            return;
+        }
+        List<RowPredicate> predicates = node.children.stream().map(child -> child.predicate).toList();
+        int[] groups = binnedGroups(featureBins, rows, predicates);
+        int[] counts = new int[predicates.size() + 1];
+        for (int group : groups) {
+            counts[group + 1]++;
+        }
+        int[][] groupRows = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            groupRows[i] = new int[counts[i]];
+        }
+        Arrays.fill(counts, 0);
+        for (int j = 0; j < rows.length; j++) {
+            groupRows[groups[j] + 1][counts[groups[j] + 1]++] = rows[j];
+        }
+        for (int i = 0; i < predicates.size(); i++) {
+            predict(node.children.get(i), featureBins, groupRows[i + 1], values, weights);
+        }
+
+        // missing value for the test variable, children predictions are combined
+        int[] missing = groupRows[0];
+        if (missing.length == 0) {
+            return;
+        }
+        int len = node.children.size();
+        double[][] v = new double[missing.length][len];
+        double[][] w = new double[missing.length][len];
+        for (int i = 0; i < len; i++) {
+            predict(node.children.get(i), featureBins, missing, values, weights);
+            for (int j = 0; j < missing.length; j++) {
+                v[j][i] = values[missing[j]];
+                w[j][i] = weights[missing[j]];
+            }
+        }
+        for (int j = 0; j < missing.length; j++) {
+            values[missing[j]] = FlatTree.weightedMean(v[j], w[j]);
+            weights[missing[j]] = FlatTree.mean(w[j]);
+        }
+    }
+
+    private void boostUpdate(Node node, FeatureBins featureBins, int[] rows, Var y, Var fx, LossFunction lossFunction,
+            Random random) {
+        if (node.leaf) {
+            Mapping mapping = Mapping.wrap(rows);
+            node.value = lossFunction.additiveScalarMinimizer(y.mapRows(mapping), fx.mapRows(mapping));
+            return;
+        }
+        List<RowPredicate> predicates = node.children.stream().map(child -> child.predicate).toList();
+        List<Mapping> mappings = splitter.get().performSplitMapping(binnedGroups(featureBins, rows, predicates),
+                predicates.size(), VarDouble.fill(rows.length, 1), random);
+        for (int i = 0; i < node.children.size(); i++) {
+            Mapping mapping = mappings.get(i);
+            int[] childRows = new int[mapping.size()];
+            for (int j = 0; j < childRows.length; j++) {
+                childRows[j] = rows[mapping.get(j)];
+            }
+            boostUpdate(node.children.get(i), featureBins, childRows, y, fx, lossFunction, random);
+        }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.tree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+import rapaio.util.collection.Ints;
+
+/**
+ * Presorted index of the numeric variables of a data frame.
+ * <p>
+ * For each indexed variable the index contains the rows with non-missing values, sorted ascending by value, ties being
+ * sorted by row number. The index is computed once and is read only, thus it can be shared between threads. It is used
+ * by ensembles of trees which fit many trees on samples of the same data. The index of a sample is obtained with
+ * {@link #mapRows(Mapping)} in linear time, without sorting again.
+ */
+public final class SortedIndex {
+
+    /**
+     * Builds sorted index for all numeric variables of a data frame.
+     *
+     * @param df data frame
+     * @return new instance of sorted index
+     */
+    public static SortedIndex from(Frame df) {
+        List<String> varNames = Arrays.stream(df.varNames()).filter(name -> df.type(name).isNumeric()).toList();
+        return from(df, varNames);
+    }
+
+    /**
+     * Builds sorted index for the given variables of a data frame. The variables are sorted in parallel.
+     *
+     * @param df       data frame
+     * @param varNames names of numeric variables to be indexed
+     * @return new instance of sorted index
+     */
+    public static SortedIndex from(Frame df, List<String> varNames) {
+        int[][] orders = new int[varNames.size()][];
+        IntStream.range(0, varNames.size()).parallel().forEach(i -> orders[i] = sortedRows(df.rvar(varNames.get(i))));
+        return new SortedIndex(df.rowCount(), varNames, orders);
+    }
+
+    private static int[] sortedRows(Var var) {
+        int[] rows = var.rowsComplete();
+        double[] values = new double[var.size()];
+        for (int row : rows) {
+            values[row] = var.getDouble(row);
+        }
+        Ints.quickSort(rows, 0, rows.length, (i, j) -> {
+            int cmp = Double.compare(values[i], values[j]);
+            return cmp != 0 ? cmp : Integer.compare(i, j);
+        });
+        return rows;
+    }
+
+    private final int rows;
+    private final List<String> varNames;
+    private final HashMap<String, Integer> index = new HashMap<>();
+    private final int[][] orders;
+
+    private SortedIndex(int rows, List<String> varNames, int[][] orders) {
+        this.rows = rows;
+        this.varNames = List.copyOf(varNames);
+        this.orders = orders;
+        for (int i = 0; i < varNames.size(); i++) {
+            index.put(varNames.get(i), i);
+        }
+    }
+
+    /**
+     * @return number of indexed observations
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return names of indexed variables
+     */
+    public List<String> varNames() {
+        return varNames;
+    }
+
+    public boolean contains(String varName) {
+        return index.containsKey(varName);
+    }
+
+    /**
+     * @param varName variable name
+     * @return rows with non-missing values sorted ascending by the values of the given variable
+     */
+    public int[] order(String varName) {
+        return orders[index.get(varName)];
+    }
+
+    /**
+     * Builds the sorted index of a frame obtained by mapping the rows of the indexed frame.
+     * The mapping can contain repeated rows, as in the case of bootstrap samples. The cost is
+     * linear in the number of rows of the indexed frame plus the size of the mapping, for each variable.
+     *
+     * @param mapping row mapping
+     * @return sorted index for the mapped rows
+     */
+    public SortedIndex mapRows(Mapping mapping) {
+        // positions in mapping grouped by original row, in increasing order
+        int[] start = new int[rows + 1];
+        for (int i = 0; i < mapping.size(); i++) {
+            start[mapping.get(i) + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] positions = new int[mapping.size()];
+        int[] next = Arrays.copyOf(start, rows);
+        for (int i = 0; i < mapping.size(); i++) {
+            positions[next[mapping.get(i)]++] = i;
+        }
+
+        int[][] mappedOrders = new int[orders.length][];
+        IntStream.range(0, orders.length).parallel().forEach(v -> {
+            int[] order = orders[v];
+            int[] mapped = new int[mapping.size()];
+            int len = 0;
+            for (int row : order) {
+                for (int j = start[row]; j < start[row + 1]; j++) {
+                    mapped[len++] = positions[j];
+                }
+            }
+            mappedOrders[v] = Arrays.copyOf(mapped, len);
+        });
+        return new SortedIndex(mapping.size(), varNames, mappedOrders);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree.ctree;
+
+import java.util.List;
+
+import rapaio.core.tools.DensityTable;
+import rapaio.data.Var;
+import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.NodeHistograms;
+import rapaio.ml.model.tree.RowPredicate;
+
+/**
+ * Histogram based binary split search for numeric variables of a classification tree.
+ * <p>
+ * This is the binned counterpart of {@link Search#NumericBinary}. Instead of sorting node rows for each test variable,
+ * the class weights of node rows are accumulated into histograms over the {@link FeatureBins} of the variable and
+ * the split points are evaluated only at bin boundaries.
+ * <p>
+ * For each bin the histogram contains the number of rows followed by the weight of each target class. The last
+ * bin of the histogram contains the rows with missing values. Rows with missing target are not accumulated.
+ */
+public final class HistogramSearch {
+
+    private final FeatureBins bins;
+    private final int[] target;
+    private final List<String> targetLevels;
+
+    /**
+     * @param bins   feature bins computed on training frame
+     * @param target target variable from training frame
+     */
+    public HistogramSearch(FeatureBins bins, Var target) {
+        this.bins = bins;
+        this.target = new int[target.size()];
+        for (int i = 0; i < this.target.length; i++) {
+            this.target[i] = target.getInt(i);
+        }
+        this.targetLevels = target.levels();
+    }
+
+    public FeatureBins bins() {
+        return bins;
+    }
+
+    public boolean accepts(String testName) {
+        return bins.contains(testName);
+    }
+
+    private double[] histogram(String testName, int[] rows, double[] weights) {
+        int binCount = bins.bins(testName);
+        int stride = targetLevels.size() + 1;
+        byte[] codes = bins.codes(testName);
+        double[] h = new double[(binCount + 1) * stride];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            if (target[row] < 0) {
+                // rows with missing target are neither counted nor weighted
+                continue;
+            }
+            int bin = codes[row] & 0xFF;
+            int offset = (bin == FeatureBins.MISSING ? binCount : bin) * stride;
+            h[offset]++;
+            h[offset + 1 + target[row]] += weights[i];
+        }
+        return h;
+    }
+
+    public Candidate computeCandidate(CTree c, NodeHistograms node, String testName, Purity function) {
+
+        double[] h = node.get(testName, (rows, weights) -> histogram(testName, rows, weights));
+        int binCount = bins.bins(testName);
+        int classes = targetLevels.size();
+        int stride = classes + 1;
+
+        var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, targetLevels);
+        double len = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            if (h[bin * stride] <= 0) {
+                continue;
+            }
+            len += h[bin * stride];
+            for (int j = 0; j < classes; j++) {
+                dt.inc(1, j, weight(h, bin * stride + 1 + j));
+            }
+        }
+
+        double bestScore = Double.NaN;
+        int bestBin = -1;
+        double left = 0;
+        for (int bin = 0; bin < binCount - 1; bin++) {
+            double count = h[bin * stride];
+            if (count <= 0) {
+                continue;
+            }
+            for (int j = 0; j < classes; j++) {
+                double w = weight(h, bin * stride + 1 + j);
+                dt.inc(0, j, +w);
+                dt.inc(1, j, -w);
+            }
+            left += count;
+            if (left > c.minCount.get() && len - left >= c.minCount.get()) {
+                double currentScore = function.compute(dt);
+                if (Double.isNaN(bestScore) || bestScore < currentScore) {
+                    bestScore = currentScore;
+                    bestBin = bin;
+                }
+            }
+        }
+
+        if (Double.isNaN(bestScore)) {
+            return null;
+        }
+
+        if (c.missingPenalty.get()) {
+            double sum = 0;
+            for (double w : node.weights()) {
+                if (!Double.isNaN(w)) {
+                    sum += w;
+                }
+            }
+            double missingWeight = 0;
+            for (int j = 0; j < classes; j++) {
+                missingWeight += weight(h, binCount * stride + 1 + j);
+            }
+            bestScore = bestScore * (sum - missingWeight) / sum;
+        }
+
+        double testValue = bins.split(testName, bestBin);
+        Candidate best = new Candidate(bestScore, testName);
+        best.addGroup(RowPredicate.numLessEqual(testName, testValue));
+        best.addGroup(RowPredicate.numGreater(testName, testValue));
+        return best;
+    }
+
+    /**
+     * Weights obtained by histogram subtraction can have tiny negative round off errors.
+     */
+    private static double weight(double[] h, int pos) {
+        return Math.max(0.0, h[pos]);
+    }
+}
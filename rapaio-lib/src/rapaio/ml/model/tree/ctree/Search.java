@@ -86,26 +86,31 @@ public enum Search implements Serializable {
     NumericBinary {
         @Override
         public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function, Random random) {
+            int[] rows = df.rvar(testName).rowsComplete();
+            double[] values = df.rvar(testName).stream().mapToDouble().toArray();
+            Ints.quickSort(rows, 0, rows.length, (i, j) -> Double.compare(values[i], values[j]));
+            return computeCandidate(c, df, weights, testName, targetName, function, random, rows);
+        }
+
+        @Override
+        public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function,
+                Random random, int[] rows) {
 
             int testIndex = df.varIndex(testName);
             int targetIndex = df.varIndex(targetName);
             var dt = DensityTable.empty(true, DensityTable.NUMERIC_DEFAULT_LABELS, df.levels(targetName));
 
-            int[] rows = new int[df.rowCount()];
             double missingWeight = 0;
-            int len = 0;
             for (int i = 0; i < df.rowCount(); i++) {
                 if (df.isMissing(i, testIndex)) {
                     missingWeight += weights.getDouble(i);
-                    continue;
                 }
-                rows[len++] = i;
-                dt.inc(1, dt.colIndex().getIndex(df, targetName, i), weights.getDouble(i));
+            }
+            for (int row : rows) {
+                dt.inc(1, dt.colIndex().getIndex(df, targetName, row), weights.getDouble(row));
             }
 
-            double[] values = df.rvar(testIndex).stream().mapToDouble().toArray();
-            Ints.quickSort(rows, 0, len, (i, j) -> Double.compare(values[i], values[j]));
-
+            int len = rows.length;
             double bestScore = Double.NaN;
             double bestTestValue = Double.NaN;
 
@@ -117,11 +122,15 @@ public enum Search implements Serializable {
                 dt.inc(0, index, +w);
                 dt.inc(1, index, -w);
 
-                if (i >= c.minCount.get() && i < len - c.minCount.get() && values[rows[i]] < values[rows[i + 1]]) {
-                    double currentScore = function.compute(dt);
-                    if (Double.isNaN(bestScore) || bestScore < currentScore) {
-                        bestScore = currentScore;
-                        bestTestValue = (values[rows[i]] + values[rows[i + 1]]) / 2.0;
+                if (i >= c.minCount.get() && i < len - c.minCount.get()) {
+                    double value = df.getDouble(rows[i], testIndex);
+                    double nextValue = df.getDouble(rows[i + 1], testIndex);
+                    if (value < nextValue) {
+                        double currentScore = function.compute(dt);
+                        if (Double.isNaN(bestScore) || bestScore < currentScore) {
+                            bestScore = currentScore;
+                            bestTestValue = (value + nextValue) / 2.0;
+                        }
                     }
                 }
             }
@@ -299,4 +308,15 @@ public enum Search implements Serializable {
 
     public abstract Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function,
             Random random);
+
+    /**
+     * Computes a candidate using node rows already sorted by the values of the test variable.
+     * Only searches which need sorted rows use them, the others ignore the sorted rows.
+     *
+     * @param rows node rows with non-missing test values, sorted ascending by test values
+     */
+    public Candidate computeCandidate(CTree c, Frame df, Var w, String testName, String targetName, Purity function,
+            Random random, int[] rows) {
+        return computeCandidate(c, df, w, testName, targetName, function, random);
+    }
 }
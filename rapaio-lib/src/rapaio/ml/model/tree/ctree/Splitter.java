@@ -46,7 +46,7 @@ public enum Splitter implements Serializable {
      */
     Ignore {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> p, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> p, Random random) {
             List<Mapping> mappings = new ArrayList<>(p.size());
             for (int i = 0; i < p.size(); i++) {
                 mappings.add(Mapping.empty());
@@ -60,15 +60,12 @@ public enum Splitter implements Serializable {
                     }
                 }
             }
-            return Pair.from(
-                    mappings.stream().map(df::mapRows).collect(toList()),
-                    mappings.stream().map(weights::mapRows).collect(toList())
-            );
+            return Pair.from(mappings, mappings.stream().map(weights::mapRows).collect(toList()));
         }
     },
     Majority {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> p, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> p, Random random) {
             List<Mapping> mappings = new ArrayList<>(p.size());
             for (int i = 0; i < p.size(); i++) {
                 mappings.add(Mapping.empty());
@@ -102,10 +99,7 @@ public enum Splitter implements Serializable {
 
             mappings.get(index).addAll(missingSpots.iterator());
 
-            return Pair.from(
-                    mappings.stream().map(df::mapRows).collect(toList()),
-                    mappings.stream().map(weights::mapRows).collect(toList())
-            );
+            return Pair.from(mappings, mappings.stream().map(weights::mapRows).collect(toList()));
         }
     },
     /**
@@ -113,7 +107,7 @@ public enum Splitter implements Serializable {
      */
     Weighted {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> pred, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> pred, Random random) {
 
             List<Mapping> mappings = new ArrayList<>();
             List<Var> weighting = new ArrayList<>();
@@ -154,8 +148,7 @@ public enum Splitter implements Serializable {
                     }
                 }
             }
-            List<Frame> frames = mappings.stream().map(df::mapRows).collect(toList());
-            return Pair.from(frames, weighting);
+            return Pair.from(mappings, weighting);
         }
     },
     /**
@@ -163,7 +156,7 @@ public enum Splitter implements Serializable {
      */
     Random {
         @Override
-        public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> pred, Random random) {
+        public Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> pred, Random random) {
             // first we collect the prediction category for each observation
             // and the counts from each category,
             // missing values are placed randomly
@@ -199,16 +192,29 @@ public enum Splitter implements Serializable {
                 pos[t]++;
             }
             // and split the observations
-            List<Frame> frameList = new ArrayList<>();
+            List<Mapping> mappingList = new ArrayList<>();
             List<Var> weightList = new ArrayList<>();
             for (int i = 0; i < pred.size(); i++) {
-                frameList.add(df.mapRows(maps[i]));
+                mappingList.add(Mapping.wrap(maps[i]));
                 weightList.add(weights.mapRows(maps[i]));
             }
-            return Pair.from(frameList, weightList);
+            return Pair.from(mappingList, weightList);
         }
     };
 
+    /**
+     * Splits the initial data set into pairs of row mappings and weights according with the
+     * policy for missing values implemented splitter.
+     *
+     * @param df         initial data set
+     * @param weights    initial weights
+     * @param predicates rules/criteria used to perform the splitting
+     * @param random
+     * @return a pair with a list of row mappings and a list of weights
+     */
+    public abstract Pair<List<Mapping>, List<Var>> performSplitMapping(Frame df, Var weights, List<RowPredicate> predicates,
+            Random random);
+
     /**
      * Splits the initial data set into pairs of frame and weights according with the
      * policy for missing values implemented splitter.
@@ -219,5 +225,8 @@ public enum Splitter implements Serializable {
      * @param random
      * @return a pair with a list of frames and a list of weights
      */
-    public abstract Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> predicates, Random random);
+    public Pair<List<Frame>, List<Var>> performSplit(Frame df, Var weights, List<RowPredicate> predicates, Random random) {
+        Pair<List<Mapping>, List<Var>> split = performSplitMapping(df, weights, predicates, random);
+        return Pair.from(split.v1.stream().map(df::mapRows).collect(toList()), split.v2);
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree.rtree;
+
+import java.util.Optional;
+import java.util.Random;
+
+import rapaio.data.Var;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.NodeHistograms;
+import rapaio.ml.model.tree.RTree;
+import rapaio.ml.model.tree.RowPredicate;
+
+/**
+ * Histogram based binary split search for numeric variables of a regression tree.
+ * <p>
+ * This is the binned counterpart of {@link Search#NumericBinary}. Instead of sorting node rows for each test variable,
+ * weighted sums of the target are accumulated into histograms over the {@link FeatureBins} of the variable and
+ * the split points are evaluated only at bin boundaries.
+ * <p>
+ * For each bin the histogram contains the number of rows, the sum of weights, the weighted sum of target values and the
+ * weighted sum of squared target values. The last bin of the histogram contains the rows with missing values.
+ * Rows with missing target are not accumulated.
+ */
+public final class HistogramSearch {
+
+    private static final int STRIDE = 4;
+
+    private final FeatureBins bins;
+    private final double[] target;
+
+    /**
+     * @param bins   feature bins computed on training frame
+     * @param target target variable from training frame
+     */
+    public HistogramSearch(FeatureBins bins, Var target) {
+        this.bins = bins;
+        this.target = new double[target.size()];
+        for (int i = 0; i < this.target.length; i++) {
+            this.target[i] = target.getDouble(i);
+        }
+    }
+
+    public FeatureBins bins() {
+        return bins;
+    }
+
+    public boolean accepts(String testName) {
+        return bins.contains(testName);
+    }
+
+    private double[] histogram(String testName, int[] rows, double[] weights) {
+        int binCount = bins.bins(testName);
+        byte[] codes = bins.codes(testName);
+        double[] h = new double[(binCount + 1) * STRIDE];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            double y = target[row];
+            if (Double.isNaN(y)) {
+                // rows with missing target are neither counted nor weighted
+                continue;
+            }
+            int bin = codes[row] & 0xFF;
+            int offset = (bin == FeatureBins.MISSING ? binCount : bin) * STRIDE;
+            h[offset]++;
+            double w = weights[i];
+            // same observations as the ones accepted by weighted online statistics
+            if (w > 0 && Double.isFinite(w) && Double.isFinite(y)) {
+                h[offset + 1] += w;
+                h[offset + 2] += w * y;
+                h[offset + 3] += w * y * y;
+            }
+        }
+        return h;
+    }
+
+    private static double variance(double weight, double sum, double sumSquares) {
+        return Math.max(0.0, sumSquares - sum * sum / weight) / weight;
+    }
+
+    public Optional<Candidate> computeCandidate(RTree tree, NodeHistograms node, String testName, Random random) {
+
+        double[] h = node.get(testName, (rows, weights) -> histogram(testName, rows, weights));
+        int binCount = bins.bins(testName);
+
+        double len = 0;
+        double totalWeight = 0;
+        double totalSum = 0;
+        double totalSumSquares = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            int offset = bin * STRIDE;
+            len += h[offset];
+            totalWeight += h[offset + 1];
+            totalSum += h[offset + 2];
+            totalSumSquares += h[offset + 3];
+        }
+
+        SearchPayload p = new SearchPayload(2);
+        p.totalWeight = totalWeight;
+        p.totalVar = variance(totalWeight, totalSum, totalSumSquares);
+
+        Candidate best = null;
+        double bestScore = -1e100;
+
+        double left = 0;
+        double leftWeight = 0;
+        double leftSum = 0;
+        double leftSumSquares = 0;
+        for (int bin = 0; bin < binCount - 1; bin++) {
+            int offset = bin * STRIDE;
+            if (h[offset] <= 0) {
+                continue;
+            }
+            left += h[offset];
+            leftWeight += h[offset + 1];
+            leftSum += h[offset + 2];
+            leftSumSquares += h[offset + 3];
+
+            if (left <= tree.minCount.get() || len - left <= tree.minCount.get()) {
+                continue;
+            }
+
+            double rightWeight = totalWeight - leftWeight;
+            p.splitWeight[0] = leftWeight;
+            p.splitVar[0] = variance(leftWeight, leftSum, leftSumSquares);
+            p.splitWeight[1] = rightWeight;
+            p.splitVar[1] = variance(rightWeight, totalSum - leftSum, totalSumSquares - leftSumSquares);
+
+            double score = tree.loss.get().computeSplitLossScore(p);
+            if (score < bestScore) {
+                continue;
+            }
+            if (score == bestScore && random.nextDouble() < 0.5) {
+                continue;
+            }
+            bestScore = score;
+            best = new Candidate(score, testName);
+
+            double testValue = bins.split(testName, bin);
+            best.addGroup(RowPredicate.numLessEqual(testName, testValue));
+            best.addGroup(RowPredicate.numGreater(testName, testValue));
+        }
+        return Optional.ofNullable(best);
+    }
+}
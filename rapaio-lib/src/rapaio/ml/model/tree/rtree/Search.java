@@ -61,13 +61,21 @@ public enum Search implements Serializable {
     NumericBinary {
         @Override
         public Optional<Candidate> computeCandidate(RTree c, Frame df, Var weights, String testName, String targetName, Random random) {
+            int[] rows = df.rvar(testName).rowsComplete();
+            df.rvar(testName).darray_().externalSort(rows, true);
+            return computeCandidate(c, df, weights, testName, targetName, random, rows);
+        }
+
+        @Override
+        public Optional<Candidate> computeCandidate(RTree c, Frame df, Var weights, String testName, String targetName,
+                Random random, int[] rows) {
 
+            if (rows.length == 0) {
+                return Optional.empty();
+            }
             int testIndex = df.varIndex(testName);
             int targetIndex = df.varIndex(targetName);
 
-            int[] rows = df.rvar(testIndex).rowsComplete();
-            df.rvar(testIndex).darray_().externalSort(rows, true);
-
             double[] leftWeight = new double[rows.length];
             double[] leftVar = new double[rows.length];
             double[] rightWeight = new double[rows.length];
@@ -285,4 +293,16 @@ public enum Search implements Serializable {
      */
     public abstract Optional<Candidate> computeCandidate(RTree tree, Frame df, Var w, String testVarName, String targetVarName,
             Random random);
+
+    /**
+     * Computes the best candidate using node rows already sorted by the values of the test variable.
+     * Only searches which need sorted rows use them, the others ignore the sorted rows.
+     *
+     * @param rows node rows with non-missing test values, sorted ascending by test values
+     * @return the best candidate
+     */
+    public Optional<Candidate> computeCandidate(RTree tree, Frame df, Var w, String testVarName, String targetVarName,
+            Random random, int[] rows) {
+        return computeCandidate(tree, df, w, testVarName, targetVarName, random);
+    }
 }
\ No newline at end of file
@@ -53,12 +53,11 @@ public enum Splitter implements Serializable {
      */
     Ignore {
         @Override
-        public List<Mapping> performSplitMapping(Frame df, Var weights, List<RowPredicate> groupPredicates, Random random) {
-            List<Mapping> mapList = createMapList(df.rowCount(), groupPredicates);
-            for (int row = 0; row < df.rowCount(); row++) {
-                int group = getMatchedPredicate(df, row, groupPredicates);
-                if (group != -1) {
-                    mapList.get(group).add(row);
+        public List<Mapping> performSplitMapping(int[] groups, int groupCount, Var weights, Random random) {
+            List<Mapping> mapList = createMapList(groupCount);
+            for (int row = 0; row < groups.length; row++) {
+                if (groups[row] != -1) {
+                    mapList.get(groups[row]).add(row);
                 }
             }
             return mapList;
@@ -70,12 +69,12 @@ public enum Splitter implements Serializable {
      */
     Majority {
         @Override
-        public List<Mapping> performSplitMapping(Frame df, Var weights, List<RowPredicate> groupPredicates, Random random) {
-            List<Mapping> mapList = createMapList(df.rowCount(), groupPredicates);
+        public List<Mapping> performSplitMapping(int[] groups, int groupCount, Var weights, Random random) {
+            List<Mapping> mapList = createMapList(groupCount);
             double[] w = new double[mapList.size()];
             Mapping missing = Mapping.empty();
-            for (int row = 0; row < df.rowCount(); row++) {
-                int group = getMatchedPredicate(df, row, groupPredicates);
+            for (int row = 0; row < groups.length; row++) {
+                int group = groups[row];
                 if (group != -1) {
                     mapList.get(group).add(row);
                     w[group] += weights.getDouble(row);
@@ -111,23 +110,23 @@ public enum Splitter implements Serializable {
      */
     Random {
         @Override
-        public List<Mapping> performSplitMapping(Frame df, Var weights, List<RowPredicate> groups, Random random) {
-            int[] maps = new int[df.rowCount()];
-            int[] counts = new int[groups.size()];
-            for (int i = 0; i < df.rowCount(); i++) {
-                int group = getMatchedPredicate(df, i, groups);
+        public List<Mapping> performSplitMapping(int[] groups, int groupCount, Var weights, Random random) {
+            int[] maps = new int[groups.length];
+            int[] counts = new int[groupCount];
+            for (int i = 0; i < groups.length; i++) {
+                int group = groups[i];
                 if (group == -1) {
-                    group = random.nextInt(groups.size());
+                    group = random.nextInt(groupCount);
                 }
                 maps[i] = group;
                 counts[group]++;
             }
-            int[][] mappings = new int[groups.size()][];
-            for (int i = 0; i < groups.size(); i++) {
+            int[][] mappings = new int[groupCount][];
+            for (int i = 0; i < groupCount; i++) {
                 mappings[i] = new int[counts[i]];
             }
-            int[] pos = new int[groups.size()];
-            for (int i = 0; i < df.rowCount(); i++) {
+            int[] pos = new int[groupCount];
+            for (int i = 0; i < groups.length; i++) {
                 int group = maps[i];
                 mappings[group][pos[group]] = i;
                 pos[group]++;
@@ -144,10 +143,26 @@ public enum Splitter implements Serializable {
      * @param groupPredicates predicates used for splitting
      * @return a list of mappings, one for each rule
      */
-    public abstract List<Mapping> performSplitMapping(Frame df, Var weights, List<RowPredicate> groupPredicates, Random random);
+    public List<Mapping> performSplitMapping(Frame df, Var weights, List<RowPredicate> groupPredicates, Random random) {
+        int[] groups = new int[df.rowCount()];
+        for (int row = 0; row < groups.length; row++) {
+            groups[row] = getMatchedPredicate(df, row, groupPredicates);
+        }
+        return performSplitMapping(groups, groupPredicates.size(), weights, random);
+    }
+
+    /**
+     * Perform the splitting when the rule matched by each instance is already known.
+     *
+     * @param groups     index of the matched rule for each instance, {@code -1} if no rule is matched
+     * @param groupCount number of rules
+     * @param weights    source weights
+     * @return a list of mappings, one for each rule
+     */
+    public abstract List<Mapping> performSplitMapping(int[] groups, int groupCount, Var weights, Random random);
 
-    private static List<Mapping> createMapList(int capacity, List<RowPredicate> groupPredicates) {
-        return IntStream.range(0, groupPredicates.size()).boxed().map(i -> new ArrayMapping()).collect(Collectors.toList());
+    private static List<Mapping> createMapList(int groupCount) {
+        return IntStream.range(0, groupCount).boxed().map(i -> new ArrayMapping()).collect(Collectors.toList());
     }
 
     private static int getMatchedPredicate(Frame df, int row, List<RowPredicate> predicates) {
@@ -159,4 +174,4 @@ public enum Splitter implements Serializable {
         }
         return -1;
     }
-}
\ No newline at end of file
+}
@@ -21,11 +21,12 @@
 
 package rapaio.nn;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 
 import rapaio.darray.DArray;
@@ -106,68 +107,64 @@ public final class Autograd {
             }
         }
 
-        private void buildDeps() {
-            // build coverage
-            Set<Tensor> coverage = new HashSet<>();
-            coverage(coverage, root);
-
-            // build parents
-            HashMap<Tensor, List<Tensor>> parents = new HashMap<>();
-            coverage.forEach(node -> parents.put(node, new ArrayList<>()));
-            for (Tensor tensor : coverage) {
+        void buildDeps() {
+            // build coverage and parents
+            Map<Tensor, List<Tensor>> parents = new IdentityHashMap<>();
+            coverage(parents, root);
+            for (Tensor tensor : parents.keySet()) {
                 for (BackFunction edge : tensor.backFunctions()) {
                     parents.get(edge.ref()).add(tensor);
                 }
             }
 
             // build parent counters
-            HashMap<Tensor, Integer> counters = new HashMap<>();
-            coverage.forEach(node -> counters.put(node, parents.get(node).size()));
-
-            // build topological sort
-            reverse = new ArrayList<>();
-            HashSet<Tensor> frontier = new HashSet<>();
-            frontier.add(root);
-
-            while (!frontier.isEmpty()) {
-                Optional<Tensor> opNext = frontier.stream().filter(node -> counters.get(node) == 0).findFirst();
-                if (opNext.isEmpty()) {
-                    throw new IllegalArgumentException("Graph contains cycles.");
-                }
-                Tensor next = opNext.get();
-                frontier.remove(next);
+            Map<Tensor, int[]> counters = new IdentityHashMap<>();
+            parents.forEach((node, list) -> counters.put(node, new int[] {list.size()}));
+
+            // build topological sort, a node is ready when all its parents were visited
+            reverse = new ArrayList<>(parents.size());
+            ArrayDeque<Tensor> ready = new ArrayDeque<>();
+            if (counters.get(root)[0] == 0) {
+                ready.add(root);
+            }
+            while (!ready.isEmpty()) {
+                Tensor next = ready.poll();
                 for (BackFunction bf : next.backFunctions()) {
-                    counters.put(bf.ref(), counters.get(bf.ref()) - 1);
-                    frontier.add(bf.ref());
+                    if (--counters.get(bf.ref())[0] == 0) {
+                        ready.add(bf.ref());
+                    }
                 }
                 reverse.add(next);
             }
+            if (reverse.size() != parents.size()) {
+                throw new IllegalArgumentException("Graph contains cycles.");
+            }
 
-            // compute topological sort and compute gradient
+            // compute the set of nodes which needs gradient
 
             List<Tensor> sorted = reverse.reversed();
-            this.computeGrad = new HashSet<>();
+            this.computeGrad = Collections.newSetFromMap(new IdentityHashMap<>());
             for (Tensor tensor : sorted) {
                 if (tensor.requiresGrad() || computeGrad.contains(tensor)) {
                     computeGrad.add(tensor);
                     computeGrad.addAll(parents.get(tensor));
                 }
             }
-
-            // help gc
-            parents.clear();
-            coverage.clear();
-            counters.clear();
         }
 
-        private void coverage(Set<Tensor> visited, Tensor tensor) {
-            if (visited.contains(tensor)) {
-                return;
-            }
-            visited.add(tensor);
-            for (var edge : tensor.backFunctions()) {
-                coverage(visited, edge.ref());
+        private void coverage(Map<Tensor, List<Tensor>> visited, Tensor tensor) {
+            ArrayDeque<Tensor> stack = new ArrayDeque<>();
+            stack.push(tensor);
+            visited.put(tensor, new ArrayList<>());
+            while (!stack.isEmpty()) {
+                Tensor next = stack.pop();
+                for (var edge : next.backFunctions()) {
+                    if (!visited.containsKey(edge.ref())) {
+                        visited.put(edge.ref(), new ArrayList<>());
+                        stack.push(edge.ref());
+                    }
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -25,7 +25,6 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import rapaio.darray.DArray;
-import rapaio.darray.Order;
 
 public abstract class BackFunction {
 
@@ -74,7 +73,7 @@ public abstract class BackFunction {
 
         public void apply() {
             if (ref.grad == null) {
-                ref.setGrad(ref.tm.zerosArray(ref.tm.dt(), ref.shape(), Order.C));
+                ref.setGrad(ref.tm.bufferZeros(ref.tm.dt(), ref.shape()));
             }
             updater.accept(ref.grad());
         }
@@ -0,0 +1,108 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+
+/**
+ * Pool of dense arrays keyed by data type and shape, used to recycle tensor values and gradients between training steps.
+ * <p>
+ * Arrays are handed out by {@link #acquire(DType, Shape)} and are tracked in the current arena. When the arena is
+ * released with {@link #release()}, all the arrays handed out since the previous release become available again.
+ * After a release, the arrays from the previous arena can be overwritten at any time, so no tensor value or gradient
+ * computed before the release can be used after it.
+ * <p>
+ * The pool is thread safe, arrays can be acquired from multiple threads, as it happens for batched forward passes.
+ */
+public final class BufferPool {
+
+    private record Key(DType<?> dt, Shape shape) {
+    }
+
+    private final DArrayManager arrayManager;
+    private final ConcurrentHashMap<Key, ConcurrentLinkedDeque<DArray<?>>> free = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<DArray<?>> arena = new ConcurrentLinkedQueue<>();
+    private final AtomicLong allocations = new AtomicLong();
+
+    public BufferPool(DArrayManager arrayManager) {
+        this.arrayManager = arrayManager;
+    }
+
+    /**
+     * Hands out a dense array in row major order, with the given data type and shape. The content of the
+     * array is not specified, it can contain values from previous usages.
+     *
+     * @param dt    data type
+     * @param shape shape of the array
+     * @return array from the pool, or a new array if there is no free array with the given data type and shape
+     */
+    public DArray<?> acquire(DType<?> dt, Shape shape) {
+        ConcurrentLinkedDeque<DArray<?>> deque = free.get(new Key(dt, shape));
+        DArray<?> array = deque != null ? deque.pollFirst() : null;
+        if (array == null) {
+            array = arrayManager.zeros(dt, shape, Order.C);
+            allocations.incrementAndGet();
+        }
+        arena.add(array);
+        return array;
+    }
+
+    /**
+     * Releases the current arena, all the arrays handed out since the previous release are available again.
+     */
+    public void release() {
+        DArray<?> array;
+        while ((array = arena.poll()) != null) {
+            free.computeIfAbsent(new Key(array.dt(), array.shape()), key -> new ConcurrentLinkedDeque<>()).addFirst(array);
+        }
+    }
+
+    /**
+     * Releases the current arena and drops all the pooled arrays.
+     */
+    public void clear() {
+        arena.clear();
+        free.clear();
+    }
+
+    /**
+     * @return number of arrays allocated by the pool since its creation
+     */
+    public long allocations() {
+        return allocations.get();
+    }
+
+    /**
+     * @return number of arrays handed out since the last release
+     */
+    public int arenaSize() {
+        return arena.size();
+    }
+}
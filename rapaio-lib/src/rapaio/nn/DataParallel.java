@@ -0,0 +1,188 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import rapaio.darray.DArray;
+
+/**
+ * Data parallel training of a network on the outer executor of its tensor manager.
+ * <p>
+ * The network is replicated into a number of workers. The replicas share the parameter values of the
+ * original network, but each replica accumulates its own gradients. The original network is the first worker.
+ * <p>
+ * A call of {@link #backward(Loss, DArray[])} splits the batch into shards along the first dimension, runs the forward
+ * and backward passes for the shards concurrently, and reduces the gradients of the replicas into the parameters
+ * of the original network with a tree reduction. The gradient of each shard is weighted with the shard size, thus
+ * for a loss which averages over instances the reduced gradients are the gradients of the whole batch.
+ * Afterward, the optimizer created for the original network can perform its step as usual.
+ * <p>
+ * Only parameters are shared. State which is not exposed as parameters, like running statistics of
+ * batch normalization, is updated only on the replica which computed it.
+ */
+public final class DataParallel {
+
+    private final TensorManager tm;
+    private final List<Network> replicas = new ArrayList<>();
+    private final List<List<Tensor>> parameters = new ArrayList<>();
+
+    /**
+     * Creates a data parallel wrapper over a network.
+     *
+     * @param network network to train
+     * @param factory creates new instances of the network with the same architecture
+     * @param workers number of workers, including the original network
+     */
+    public DataParallel(Network network, Supplier<? extends Network> factory, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive.");
+        }
+        this.tm = network.tm();
+        List<Tensor> params = network.parameters();
+        replicas.add(network);
+        parameters.add(params);
+        for (int i = 1; i < workers; i++) {
+            Network replica = factory.get();
+            List<Tensor> replicaParams = replica.parameters();
+            if (replicaParams.size() != params.size()) {
+                throw new IllegalArgumentException("Replica has " + replicaParams.size()
+                        + " parameters, but the network has " + params.size() + " parameters.");
+            }
+            for (int j = 0; j < params.size(); j++) {
+                if (!params.get(j).shape().equals(replicaParams.get(j).shape())) {
+                    throw new IllegalArgumentException("Replica parameter " + j + " has shape " + replicaParams.get(j).shape()
+                            + ", but the network parameter has shape " + params.get(j).shape() + ".");
+                }
+                replicaParams.get(j).setValue(params.get(j).value());
+            }
+            replicas.add(replica);
+            parameters.add(replicaParams);
+        }
+    }
+
+    /**
+     * @return number of workers
+     */
+    public int workers() {
+        return replicas.size();
+    }
+
+    /**
+     * @return network instances, the first one being the original network
+     */
+    public List<Network> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Flags all replicas to be in train mode.
+     */
+    public void train() {
+        replicas.forEach(Network::train);
+    }
+
+    /**
+     * Flags all replicas to be in eval mode.
+     */
+    public void eval() {
+        replicas.forEach(Network::eval);
+    }
+
+    /**
+     * Computes the loss and the gradients for a batch. The last array contains the target values, the other arrays are
+     * the inputs of the network. After the call, the parameter gradients of the original network contain the
+     * accumulated gradients of all shards.
+     *
+     * @param loss   loss function, which must not hold state between calls
+     * @param arrays network inputs followed by target values
+     * @return loss value for the whole batch
+     */
+    public double backward(Loss loss, DArray<?>... arrays) {
+        if (arrays.length < 2) {
+            throw new IllegalArgumentException("At least one input and the target values are required.");
+        }
+        int rows = arrays[0].dim(0);
+        for (DArray<?> array : arrays) {
+            if (array.dim(0) != rows) {
+                throw new IllegalArgumentException("All arrays must have the same size on the first dimension.");
+            }
+        }
+        int shards = Math.min(rows, replicas.size());
+        double[] losses = new double[shards];
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            int worker = i;
+            int start = (int) ((long) rows * i / shards);
+            int end = (int) ((long) rows * (i + 1) / shards);
+            tasks.add(() -> {
+                Network replica = replicas.get(worker);
+                if (worker > 0) {
+                    parameters.get(worker).forEach(Tensor::zeroGrad);
+                }
+                Tensor[] xs = new Tensor[arrays.length - 1];
+                for (int j = 0; j < xs.length; j++) {
+                    xs[j] = tm.var(arrays[j].narrow(0, start, end));
+                }
+                Tensor y = tm.var(arrays[arrays.length - 1].narrow(0, start, end).copy());
+                Tensor[] outputs = replica.forward(xs);
+                if (outputs.length != 1) {
+                    throw new IllegalArgumentException("Only networks with a single output are supported.");
+                }
+                Loss.Output out = loss.forward(outputs[0], y);
+                double weight = (double) (end - start) / rows;
+                out.tensor().setGrad(tm.scalarArray(weight));
+                Autograd.backward(out.tensor());
+                losses[worker] = out.lossValue() * weight;
+            });
+        }
+        tm.runAll(tasks);
+        allReduce(shards);
+        return Arrays.stream(losses).sum();
+    }
+
+    /**
+     * Reduces the gradients of the first {@code n} workers into the first worker, pairing workers
+     * at increasing distances, so that the reduction takes a logarithmic number of rounds.
+     */
+    private void allReduce(int n) {
+        for (int stride = 1; stride < n; stride *= 2) {
+            List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i + stride < n; i += 2 * stride) {
+                List<Tensor> dst = parameters.get(i);
+                List<Tensor> src = parameters.get(i + stride);
+                tasks.add(() -> {
+                    for (int j = 0; j < dst.size(); j++) {
+                        Tensor s = src.get(j);
+                        if (s.grad() != null) {
+                            dst.get(j).addGrad(s.grad());
+                            s.zeroGrad();
+                        }
+                    }
+                });
+            }
+            tm.runAll(tasks);
+        }
+    }
+}
@@ -143,7 +143,8 @@ public interface Network extends Serializable {
      * The execution consists of splitting the input tensors in batches and parallel execution
      * of those batches in the forward step. The tradeoff consists in the fact that all the computational
      * graph will reside in memory, thus one can use this method if the dataset is small enough,
-     * depending on the available memory.
+     * depending on the available memory. For larger datasets, batches can be streamed with
+     * {@link rapaio.datasets.DataLoader}.
      * <p>
      * The result consists of a list of batches. Each batch contains input data and also contains the
      * network output tensors computed for the given specific batch.
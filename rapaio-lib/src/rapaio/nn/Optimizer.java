@@ -71,7 +71,8 @@ public interface Optimizer {
     }
 
     /**
-     * Deletes all the computed gradients for the tracked tensors
+     * Deletes all the computed gradients for the tracked tensors. If buffer pooling is enabled, the buffers handed out
+     * by the tensor manager are released, see {@link TensorManager#pooling(boolean)}.
      */
     void zeroGrad();
 
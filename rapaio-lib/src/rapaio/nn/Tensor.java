@@ -96,6 +96,7 @@ public abstract class Tensor {
     protected DArray<?> grad;
     protected boolean requiresGrad;
     protected final List<BackFunction> backFunctions = new ArrayList<>();
+    private Supplier<DArray<?>> forwardFunction;
 
     protected Tensor(TensorManager tm, String name) {
         this.tm = tm;
@@ -245,6 +246,35 @@ public abstract class Tensor {
         return backFunctions;
     }
 
+    /**
+     * Computes the value of the tensor with the given function and keeps the function,
+     * such that the value can be computed again from the current values of the inputs
+     * when a recorded computation is replayed.
+     * <p>
+     * All the state used by back propagation functions which depends on input values
+     * has to be computed by this function.
+     *
+     * @param fun function which computes the tensor value
+     */
+    protected final void forwardFunction(Supplier<DArray<?>> fun) {
+        this.forwardFunction = fun;
+        this.value = fun.get();
+    }
+
+    /**
+     * @return true if the value of this tensor can be computed again from its inputs
+     */
+    final boolean replayable() {
+        return forwardFunction != null;
+    }
+
+    /**
+     * Computes again the value of the tensor from the current values of its inputs.
+     */
+    final void replay() {
+        this.value = forwardFunction.get();
+    }
+
     protected final void backEdge(Tensor ref, Supplier<DArray<?>> addFun) {
         backFunctions.add(BackFunction.of(ref, addFun));
     }
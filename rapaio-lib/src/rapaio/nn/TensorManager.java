@@ -21,9 +21,12 @@
 
 package rapaio.nn;
 
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import rapaio.core.distributions.Distribution;
@@ -32,6 +35,7 @@ import rapaio.darray.DArrayManager;
 import rapaio.darray.DType;
 import rapaio.darray.Order;
 import rapaio.darray.Shape;
+import rapaio.darray.operator.Broadcast;
 import rapaio.nn.tensors.Variable;
 import rapaio.nn.tensors.shape.Cat;
 
@@ -62,6 +66,8 @@ public final class TensorManager implements AutoCloseable {
     private final int innerThreads;
 
     private final ExecutorService outerExecutor;
+    private final BufferPool pool;
+    private volatile boolean pooling = false;
 
     private TensorManager(DType<?> dt, int outerThreads, int innerThreads) {
         this.dt = dt;
@@ -71,6 +77,7 @@ public final class TensorManager implements AutoCloseable {
         this.innerThreads = innerThreads;
 
         this.outerExecutor = Executors.newFixedThreadPool(outerThreads);
+        this.pool = new BufferPool(arrayManager);
     }
 
     public TensorManager seed(long seed) {
@@ -94,6 +101,111 @@ public final class TensorManager implements AutoCloseable {
         return outerExecutor;
     }
 
+    /**
+     * Runs the given tasks on the outer executor and waits for all of them to complete.
+     * If there is a single task, or the outer executor has a single thread, tasks are executed
+     * on the calling thread, which avoids hand-off costs for small workloads.
+     *
+     * @param tasks tasks to be executed
+     */
+    public void runAll(List<? extends Runnable> tasks) {
+        if (tasks.size() < 2 || outerThreads < 2) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        Future<?>[] futures = new Future<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = outerExecutor.submit(tasks.get(i));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Enables or disables buffer pooling. When pooling is enabled, tensor operations take their values and
+     * gradient temporaries from the buffer pool, and the buffers are recycled when {@link #releaseBuffers()}
+     * is called, which is done by optimizers in {@link Optimizer#zeroGrad()}. Pooling makes the steady state
+     * of a training loop almost allocation free, but tensor values and gradients computed in a step can't be
+     * used after the buffers are released.
+     * <p>
+     * Pooling is disabled by default.
+     *
+     * @param pooling true to enable pooling, false otherwise
+     * @return tensor manager instance
+     */
+    public TensorManager pooling(boolean pooling) {
+        this.pooling = pooling;
+        if (!pooling) {
+            pool.clear();
+        }
+        return this;
+    }
+
+    public boolean pooling() {
+        return pooling;
+    }
+
+    public BufferPool pool() {
+        return pool;
+    }
+
+    /**
+     * Releases the buffers handed out by the pool since the previous release. Has no effect if pooling is disabled.
+     */
+    public void releaseBuffers() {
+        if (pooling) {
+            pool.release();
+        }
+    }
+
+    /**
+     * Creates a zero filled array, taken from the buffer pool if pooling is enabled.
+     *
+     * @param dt    data type
+     * @param shape shape of the array
+     * @return zero filled array
+     */
+    public DArray<?> bufferZeros(DType<?> dt, Shape shape) {
+        return pooling ? pool.acquire(dt, shape).fill_(0) : arrayManager.zeros(dt, shape, Order.C);
+    }
+
+    /**
+     * Creates a copy of the given array, taken from the buffer pool if pooling is enabled.
+     *
+     * @param array array to be copied
+     * @return copy of the array
+     */
+    @SuppressWarnings("unchecked")
+    public <N extends Number> DArray<N> bufferCopy(DArray<N> array) {
+        if (!pooling) {
+            return array.copy();
+        }
+        return array.copyTo((DArray<N>) pool.acquire(array.dt(), array.shape()));
+    }
+
+    /**
+     * Creates a copy of the given array broadcast to the given shape, taken from the buffer pool if pooling is enabled.
+     *
+     * @param array array to be copied
+     * @param shape shape of the copy, the array must be broadcast compatible with this shape
+     * @return copy of the array with the given shape
+     */
+    public <N extends Number> DArray<N> bufferCopy(DArray<N> array, Shape shape) {
+        if (array.shape().equals(shape)) {
+            return bufferCopy(array);
+        }
+        Broadcast.ElementWise broadcast = Broadcast.elementWise(array.shape(), shape);
+        if (!broadcast.valid() || !broadcast.shape().equals(shape)) {
+            throw new IllegalArgumentException("Array of shape " + array.shape() + " cannot be broadcast to shape " + shape + ".");
+        }
+        return bufferCopy(broadcast.transform(array));
+    }
+
     public int outerThreads() {
         return outerThreads;
     }
@@ -0,0 +1,222 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+
+/**
+ * Traced computation, recorded once and replayed many times.
+ * <p>
+ * A computation is recorded by running a program over input tensors, which are created from the given sample values.
+ * The program builds a computational graph using tensor operations, as usual, and returns the root tensor, which
+ * is usually a loss. The graph is analysed only once at recording time. The tensors which are computed from
+ * the inputs are stored in a flat list in forward order, and the back propagation functions which contribute
+ * to requested gradients are stored in a flat list in backward order. Gradient buffers are allocated once for
+ * the tensors which receive gradients from more than one place.
+ * <p>
+ * Each call of {@link #forward(DArray[])} copies new values into the input tensors and computes again the values
+ * of all the recorded tensors, without creating new tensors or back propagation functions. Each call of
+ * {@link #backward()} runs the recorded back propagation functions, which leaves the gradients of the
+ * parameters in place for the optimizer, as {@link Autograd#backward(Tensor)} does.
+ * <p>
+ * Since the graph is fixed at recording time, the values given to subsequent calls must have the same shapes as
+ * the values used for recording, and the program must not depend on input values in its control flow. Network
+ * mode is also fixed at recording time, for example dropout is traced only if the network is in train mode.
+ * Side effects produced by the program outside of tensor operations, like updating running statistics
+ * in a layer, are not replayed.
+ */
+public final class Trace {
+
+    /**
+     * Records a trace for the forward pass of a network which produces a single output.
+     *
+     * @param network network to be traced
+     * @param inputs  sample input values
+     * @return recorded trace
+     */
+    public static Trace record(Network network, DArray<?>... inputs) {
+        return record(network.tm(), xs -> {
+            Tensor[] outputs = network.forward(xs);
+            if (outputs.length != 1) {
+                throw new IllegalArgumentException("Only networks with a single output can be traced.");
+            }
+            return outputs[0];
+        }, inputs);
+    }
+
+    /**
+     * Records a trace for the given program.
+     *
+     * @param tm      tensor manager
+     * @param program function which builds the computation from input tensors and returns the root tensor
+     * @param inputs  sample input values
+     * @return recorded trace
+     */
+    public static Trace record(TensorManager tm, Function<Tensor[], Tensor> program, DArray<?>... inputs) {
+        Tensor[] xs = new Tensor[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            xs[i] = tm.var(inputs[i].copy()).name("input" + i);
+        }
+        return new Trace(xs, program.apply(xs));
+    }
+
+    private final Tensor[] inputs;
+    private final Tensor root;
+    private final DArray<?> rootGrad;
+    private final Tensor[] forward;
+    private final BackFunction[] backward;
+    private final Tensor[] buffered;
+    private final DArray<?>[] buffers;
+    private final Tensor[] cleared;
+
+    private Trace(Tensor[] inputs, Tensor root) {
+        this.inputs = inputs;
+        this.root = root;
+        this.rootGrad = root.grad() != null ? root.grad().copy() : root.tm().fullArray(root.shape(), 1);
+
+        Autograd.ComputeGraph graph = new Autograd.ComputeGraph(root, true);
+        graph.buildDeps();
+
+        Map<Tensor, Boolean> isInput = new IdentityHashMap<>();
+        for (Tensor input : inputs) {
+            isInput.put(input, true);
+        }
+
+        // forward instructions, in topological order, from inputs towards the root
+        List<Tensor> sorted = graph.reverse.reversed();
+        List<Tensor> forwardList = new ArrayList<>();
+        for (Tensor tensor : sorted) {
+            if (tensor.replayable()) {
+                forwardList.add(tensor);
+            } else if (!tensor.backFunctions().isEmpty() && !isInput.containsKey(tensor)) {
+                throw new IllegalArgumentException("Tensor " + tensor.name() + " cannot be traced since it does not "
+                        + "register a forward function.");
+            }
+        }
+        this.forward = forwardList.toArray(Tensor[]::new);
+
+        // backward instructions, only the edges which contribute to requested gradients
+        List<BackFunction> backwardList = new ArrayList<>();
+        Map<Tensor, int[]> incoming = new IdentityHashMap<>();
+        for (Tensor tensor : graph.reverse) {
+            for (BackFunction bf : tensor.backFunctions()) {
+                if (graph.computeGrad.contains(bf.ref())) {
+                    backwardList.add(bf);
+                    incoming.computeIfAbsent(bf.ref(), key -> new int[1])[0]++;
+                }
+            }
+        }
+        this.backward = backwardList.toArray(BackFunction[]::new);
+
+        // tensors computed by the trace have their gradients reset before each backward pass,
+        // those which accumulate gradients from multiple edges receive a preallocated buffer
+        List<Tensor> bufferedList = new ArrayList<>();
+        List<Tensor> clearedList = new ArrayList<>();
+        for (Tensor tensor : forwardList) {
+            if (tensor == root) {
+                continue;
+            }
+            int[] count = incoming.get(tensor);
+            if (count != null && count[0] > 1) {
+                bufferedList.add(tensor);
+            } else {
+                clearedList.add(tensor);
+            }
+        }
+        this.buffered = bufferedList.toArray(Tensor[]::new);
+        this.buffers = new DArray<?>[buffered.length];
+        for (int i = 0; i < buffered.length; i++) {
+            buffers[i] = root.tm().zerosArray(root.tm().dt(), buffered[i].shape(), Order.C);
+        }
+        this.cleared = clearedList.toArray(Tensor[]::new);
+    }
+
+    /**
+     * @return input tensors of the trace
+     */
+    public Tensor[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * @return root tensor of the trace, which contains the values computed by the last forward pass
+     */
+    public Tensor root() {
+        return root;
+    }
+
+    /**
+     * Copies the given values into the input tensors and computes again all the recorded tensors.
+     *
+     * @param values new input values, with the same shapes as the values used at recording
+     * @return root tensor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Tensor forward(DArray<?>... values) {
+        if (values.length != inputs.length) {
+            throw new IllegalArgumentException("Expected " + inputs.length + " input values, but received " + values.length + ".");
+        }
+        for (int i = 0; i < values.length; i++) {
+            DArray<?> dst = inputs[i].value();
+            DArray<?> src = values[i];
+            if (src.size() != dst.size()) {
+                throw new IllegalArgumentException("Input value has shape " + src.shape() + ", but the trace was recorded for "
+                        + dst.shape() + ".");
+            }
+            if (!src.shape().equals(dst.shape())) {
+                src = src.reshape(dst.shape());
+            }
+            if (src.dt() != dst.dt()) {
+                src = src.cast(dst.dt());
+            }
+            ((DArray) src).copyTo(dst);
+        }
+        for (Tensor tensor : forward) {
+            tensor.replay();
+        }
+        return root;
+    }
+
+    /**
+     * Runs the recorded back propagation functions, starting from the root gradient used at recording time,
+     * or from a gradient filled with ones if the root had no gradient.
+     */
+    public void backward() {
+        for (Tensor tensor : cleared) {
+            tensor.zeroGrad();
+        }
+        for (int i = 0; i < buffered.length; i++) {
+            buffers[i].fill_(0);
+            buffered[i].setGrad(buffers[i]);
+        }
+        root.setGrad(rootGrad);
+        for (BackFunction bf : backward) {
+            bf.apply();
+        }
+    }
+}
@@ -26,9 +26,11 @@ import java.util.List;
 import rapaio.core.distributions.Uniform;
 import rapaio.darray.Order;
 import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.nn.NetworkState;
 import rapaio.nn.Tensor;
 import rapaio.nn.TensorManager;
+import rapaio.nn.tensors.SparseMm;
 
 public class Linear extends AbstractNetwork {
 
@@ -83,4 +85,22 @@ public class Linear extends AbstractNetwork {
         }
         return x;
     }
+
+    /**
+     * Forward step for a batch of inputs given as a sparse matrix with a row for each instance.
+     * Products with the weights, in forward and backward steps, use only the stored values of the inputs.
+     *
+     * @param x sparse matrix of inputs with {@code inFeatures} columns
+     * @return output tensor with a row for each instance
+     */
+    public Tensor forward(SparseMatrix x) {
+        if (x.cols() != inFeatures) {
+            throw new IllegalArgumentException("Sparse input must have " + inFeatures + " columns, but has " + x.cols() + ".");
+        }
+        Tensor out = new SparseMm(x, w);
+        if (bias) {
+            out = out.add(b);
+        }
+        return out;
+    }
 }
@@ -24,23 +24,28 @@ package rapaio.nn.optimizer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import rapaio.core.param.Param;
 import rapaio.core.param.ParamSet;
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
-import rapaio.darray.DArrayManager;
 import rapaio.nn.Optimizer;
 import rapaio.nn.Tensor;
 import rapaio.nn.TensorManager;
 
+/**
+ * Adam optimizer, with optional weight decay and AMSGrad variant.
+ * <p>
+ * Optimizer state is allocated once for each parameter. Each parameter is updated with a single fused pass over
+ * value, gradient and moment estimates, and parameters are updated in parallel on the executor of the tensor manager.
+ */
 public class Adam extends ParamSet<Adam> implements Optimizer {
 
+    /**
+     * Minimum number of parameter values for which the parameters are updated in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
     public final Param<Double, Adam> lr = new ValueParam<>(this, 1e-3, "lr");
     public final Param<Double, Adam> beta1 = new ValueParam<>(this, 0.9, "beta1 used for computing running averages of gradient");
     public final Param<Double, Adam> beta2 = new ValueParam<>(this, 0.999, "beta2 used for computing running averages of squared gradient");
@@ -52,14 +57,20 @@ public class Adam extends ParamSet<Adam> implements Optimizer {
 
     private final TensorManager tm;
     private final List<Tensor> parameters;
+    private final List<Runnable> tasks;
+    private final boolean parallel;
     private double t = 1;
-    private final ConcurrentHashMap<Tensor, DArray<?>> mts = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Tensor, DArray<?>> vts = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Tensor, DArray<?>> vtmaxs = new ConcurrentHashMap<>();
 
     public Adam(TensorManager tm, Collection<Tensor> parameters) {
         this.tm = tm;
         this.parameters = new ArrayList<>(parameters);
+        this.tasks = new ArrayList<>(this.parameters.size());
+        long total = 0;
+        for (Tensor parameter : this.parameters) {
+            tasks.add(new Update(parameter));
+            total += parameter.value().size();
+        }
+        this.parallel = total >= PARALLEL_THRESHOLD;
     }
 
     @Override
@@ -67,77 +78,73 @@ public class Adam extends ParamSet<Adam> implements Optimizer {
         for (var parameter : parameters) {
             parameter.zeroGrad();
         }
+        tm.releaseBuffers();
     }
 
     @Override
     public void step() {
-        List<Future<?>> futures = new ArrayList<>();
-        try (ExecutorService executor = Executors.newFixedThreadPool(DArrayManager.base().cpuThreads())) {
-            for (var parameter : parameters) {
-                futures.add(executor.submit(() -> step(parameter)));
-            }
-            while (!futures.isEmpty()) {
-                Future<?> future = futures.removeFirst();
-                future.get();
-            }
-        } catch (ExecutionException | InterruptedException e) {
-            throw new RuntimeException(e);
+        if (parallel) {
+            tm.runAll(tasks);
+        } else {
+            tasks.forEach(Runnable::run);
         }
         t++;
     }
 
-    private void step(Tensor param) {
-        var gt = param.grad();
-        if(gt==null) {
-            throw new RuntimeException("Gradient is null for param: " + param);
-        }
-        if (maximize.get()) {
-            gt = gt.mul(-1);
-        }
+    /**
+     * Update of a single parameter, which owns the moment estimates of that parameter.
+     */
+    private final class Update implements Runnable {
 
-        if (weightDecay.get() > 0) {
-            gt = gt.add(param.value().mul(weightDecay.get()));
-        }
+        private final Tensor param;
+        private final DArray<?> mt;
+        private final DArray<?> vt;
+        private DArray<?> vtmax;
 
-        var mt = getMt(param).mul(beta1.get()).add_(gt.mul(1 - beta1.get()));
-        mts.put(param, mt);
+        private Update(Tensor param) {
+            this.param = param;
+            this.mt = OptimizerKernels.state(tm, param.value());
+            this.vt = OptimizerKernels.state(tm, param.value());
+        }
 
-        var vt = getVt(param).mul(beta2.get()).add_(gt.sqr().mul(1 - beta2.get()));
-        vts.put(param, vt);
+        @Override
+        public void run() {
+            DArray<?> value = param.value();
+            DArray<?> gt = param.grad();
+            if (gt == null) {
+                throw new RuntimeException("Gradient is null for param: " + param);
+            }
+            if (amsgrad.get() && vtmax == null) {
+                vtmax = OptimizerKernels.state(tm, value);
+            }
+            DArray<?> max = amsgrad.get() ? vtmax : null;
 
-        var amt = mt.div(1 - Math.pow(beta1.get(), t));
-        var avt = vt.div(1 - Math.pow(beta2.get(), t));
+            if (OptimizerKernels.fusable(value, gt, mt, vt, max)) {
+                OptimizerKernels.adam(value, gt, mt, vt, max, lr.get(), beta1.get(), beta2.get(), eps.get(),
+                        weightDecay.get(), maximize.get(), t);
+                return;
+            }
 
-        if (amsgrad.get()) {
-            var vtmax = getVtMax(param).max(avt);
-            vtmaxs.put(param, vtmax);
-            param.value().sub_(amt.mul(lr.get()).div_(vtmax.sqrt().add_(eps.get())));
-        } else {
-            param.value().sub_(amt.mul(lr.get()).div_(avt.sqrt().add_(eps.get())));
-        }
-    }
+            if (maximize.get()) {
+                gt = gt.mul(-1);
+            }
+            if (weightDecay.get() > 0) {
+                gt = gt.add(value.mul(weightDecay.get()));
+            }
 
-    private DArray<?> getMt(Tensor tensor) {
-        if (mts.containsKey(tensor)) {
-            return mts.get(tensor);
-        } else {
-            return tm.zerosArray(tensor.value().shape());
-        }
-    }
+            mt.mul_(beta1.get()).fma_(1 - beta1.get(), gt);
+            vt.mul_(beta2.get()).fma_(1 - beta2.get(), gt.sqr());
 
-    private DArray<?> getVt(Tensor tensor) {
-        if (vts.containsKey(tensor)) {
-            return vts.get(tensor);
-        } else {
-            return tm.zerosArray(tensor.value().shape());
-        }
-    }
+            var amt = mt.div(1 - Math.pow(beta1.get(), t));
+            var avt = vt.div(1 - Math.pow(beta2.get(), t));
 
-    private DArray<?> getVtMax(Tensor tensor) {
-        if (vtmaxs.containsKey(tensor)) {
-            return vtmaxs.get(tensor);
-        } else {
-            return tm.zerosArray(tensor.value().shape());
+            if (max != null) {
+                max.max_(avt);
+                avt = max.sqrt();
+            } else {
+                avt.sqrt_();
+            }
+            value.sub_(amt.mul_(lr.get()).div_(avt.add_(eps.get())));
         }
     }
 }
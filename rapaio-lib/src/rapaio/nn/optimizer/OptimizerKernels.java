@@ -0,0 +1,321 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn.optimizer;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import rapaio.darray.DArray;
+import rapaio.darray.Order;
+import rapaio.darray.Simd;
+import rapaio.darray.layout.StrideLayout;
+import rapaio.darray.storage.array.DoubleArrayStorage;
+import rapaio.darray.storage.array.FloatArrayStorage;
+import rapaio.nn.TensorManager;
+
+/**
+ * Fused in-place update kernels used by optimizers.
+ * <p>
+ * A kernel works directly over the heap arrays which back the parameter value, its gradient and the optimizer state,
+ * in a single pass and without temporary arrays. This is possible only when all those arrays are dense, have identical
+ * strides and are backed by array storages of the same type, which is the case for the usual parameters. Otherwise,
+ * optimizers fall back on array operations.
+ */
+final class OptimizerKernels {
+
+    private static final VectorSpecies<Double> vsd = Simd.vsd;
+    private static final VectorSpecies<Float> vsf = Simd.vsf;
+
+    private OptimizerKernels() {
+    }
+
+    /**
+     * Creates a zero filled array used as optimizer state, with the same shape and storage order as the given value.
+     */
+    static DArray<?> state(TensorManager tm, DArray<?> value) {
+        Order order = value.layout().isFOrdered() && !value.layout().isCOrdered() ? Order.F : Order.C;
+        return tm.zerosArray(value.dt(), value.shape(), order);
+    }
+
+    /**
+     * Tests if the fused kernels can be applied over the given arrays. Null arrays are ignored.
+     */
+    static boolean fusable(DArray<?> value, DArray<?>... others) {
+        if (!(value.layout() instanceof StrideLayout layout) || !isCompact(layout)) {
+            return false;
+        }
+        boolean doubles = value.storage() instanceof DoubleArrayStorage;
+        if (!doubles && !(value.storage() instanceof FloatArrayStorage)) {
+            return false;
+        }
+        for (DArray<?> other : others) {
+            if (other == null) {
+                continue;
+            }
+            if (!(other.layout() instanceof StrideLayout otherLayout)
+                    || !other.shape().equals(value.shape())
+                    || !Arrays.equals(effectiveStrides(layout), effectiveStrides(otherLayout))) {
+                return false;
+            }
+            if (doubles ? !(other.storage() instanceof DoubleArrayStorage) : !(other.storage() instanceof FloatArrayStorage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A layout is compact if its elements occupy a contiguous region of the storage, in any order of the axes.
+     */
+    private static boolean isCompact(StrideLayout layout) {
+        int[] strides = effectiveStrides(layout);
+        int[] dims = layout.shape().dims();
+        long[] pairs = new long[strides.length];
+        int len = 0;
+        for (int i = 0; i < strides.length; i++) {
+            if (dims[i] > 1) {
+                pairs[len++] = ((long) strides[i] << 32) | dims[i];
+            }
+        }
+        Arrays.sort(pairs, 0, len);
+        long expected = 1;
+        for (int i = 0; i < len; i++) {
+            if ((pairs[i] >> 32) != expected) {
+                return false;
+            }
+            expected *= (int) pairs[i];
+        }
+        return true;
+    }
+
+    /**
+     * Strides of the axes with more than one element, axes of size one do not contribute to the element positions.
+     */
+    private static int[] effectiveStrides(StrideLayout layout) {
+        int[] strides = layout.strides().clone();
+        int[] dims = layout.shape().dims();
+        for (int i = 0; i < strides.length; i++) {
+            if (dims[i] <= 1) {
+                strides[i] = 0;
+            }
+        }
+        return strides;
+    }
+
+    private static int offset(DArray<?> array) {
+        return ((StrideLayout) array.layout()).offset();
+    }
+
+    private static double[] doubles(DArray<?> array) {
+        return ((DoubleArrayStorage) array.storage()).array();
+    }
+
+    private static float[] floats(DArray<?> array) {
+        return ((FloatArrayStorage) array.storage()).array();
+    }
+
+    /**
+     * Fused Adam update. The gradient is optionally negated and decayed, the moments are updated in place,
+     * and the parameter value is updated with the bias corrected moments.
+     *
+     * @param vmax maximum of second moment estimates if AMSGrad is used, null otherwise
+     */
+    static void adam(DArray<?> value, DArray<?> grad, DArray<?> m, DArray<?> v, DArray<?> vmax,
+            double lr, double beta1, double beta2, double eps, double weightDecay, boolean maximize, double t) {
+        double sign = maximize ? -1 : 1;
+        double bc1 = 1 - Math.pow(beta1, t);
+        double bc2 = 1 - Math.pow(beta2, t);
+        int len = value.size();
+        if (value.storage() instanceof DoubleArrayStorage) {
+            adam(doubles(value), offset(value), doubles(grad), offset(grad), doubles(m), offset(m), doubles(v), offset(v),
+                    vmax == null ? null : doubles(vmax), vmax == null ? 0 : offset(vmax), len,
+                    lr, beta1, beta2, eps, weightDecay, sign, bc1, bc2);
+        } else {
+            adam(floats(value), offset(value), floats(grad), offset(grad), floats(m), offset(m), floats(v), offset(v),
+                    vmax == null ? null : floats(vmax), vmax == null ? 0 : offset(vmax), len,
+                    (float) lr, (float) beta1, (float) beta2, (float) eps, (float) weightDecay, (float) sign, (float) bc1, (float) bc2);
+        }
+    }
+
+    private static void adam(double[] w, int wo, double[] g, int go, double[] m, int mo, double[] v, int vo, double[] vmax, int xo,
+            int len, double lr, double beta1, double beta2, double eps, double wd, double sign, double bc1, double bc2) {
+        int i = 0;
+        int bound = vsd.loopBound(len);
+        for (; i < bound; i += vsd.length()) {
+            DoubleVector wv = DoubleVector.fromArray(vsd, w, wo + i);
+            DoubleVector gv = DoubleVector.fromArray(vsd, g, go + i).mul(sign);
+            if (wd > 0) {
+                gv = wv.mul(wd).add(gv);
+            }
+            DoubleVector mv = DoubleVector.fromArray(vsd, m, mo + i).mul(beta1).add(gv.mul(1 - beta1));
+            DoubleVector vv = DoubleVector.fromArray(vsd, v, vo + i).mul(beta2).add(gv.mul(gv).mul(1 - beta2));
+            mv.intoArray(m, mo + i);
+            vv.intoArray(v, vo + i);
+            DoubleVector den = vv.div(bc2);
+            if (vmax != null) {
+                den = DoubleVector.fromArray(vsd, vmax, xo + i).max(den);
+                den.intoArray(vmax, xo + i);
+            }
+            den = den.lanewise(VectorOperators.SQRT).add(eps);
+            wv.sub(mv.div(bc1).mul(lr).div(den)).intoArray(w, wo + i);
+        }
+        for (; i < len; i++) {
+            double gi = g[go + i] * sign;
+            if (wd > 0) {
+                gi += w[wo + i] * wd;
+            }
+            double mi = m[mo + i] * beta1 + gi * (1 - beta1);
+            double vi = v[vo + i] * beta2 + gi * gi * (1 - beta2);
+            m[mo + i] = mi;
+            v[vo + i] = vi;
+            double den = vi / bc2;
+            if (vmax != null) {
+                den = Math.max(vmax[xo + i], den);
+                vmax[xo + i] = den;
+            }
+            w[wo + i] -= mi / bc1 * lr / (Math.sqrt(den) + eps);
+        }
+    }
+
+    private static void adam(float[] w, int wo, float[] g, int go, float[] m, int mo, float[] v, int vo, float[] vmax, int xo,
+            int len, float lr, float beta1, float beta2, float eps, float wd, float sign, float bc1, float bc2) {
+        int i = 0;
+        int bound = vsf.loopBound(len);
+        for (; i < bound; i += vsf.length()) {
+            FloatVector wv = FloatVector.fromArray(vsf, w, wo + i);
+            FloatVector gv = FloatVector.fromArray(vsf, g, go + i).mul(sign);
+            if (wd > 0) {
+                gv = wv.mul(wd).add(gv);
+            }
+            FloatVector mv = FloatVector.fromArray(vsf, m, mo + i).mul(beta1).add(gv.mul(1 - beta1));
+            FloatVector vv = FloatVector.fromArray(vsf, v, vo + i).mul(beta2).add(gv.mul(gv).mul(1 - beta2));
+            mv.intoArray(m, mo + i);
+            vv.intoArray(v, vo + i);
+            FloatVector den = vv.div(bc2);
+            if (vmax != null) {
+                den = FloatVector.fromArray(vsf, vmax, xo + i).max(den);
+                den.intoArray(vmax, xo + i);
+            }
+            den = den.lanewise(VectorOperators.SQRT).add(eps);
+            wv.sub(mv.div(bc1).mul(lr).div(den)).intoArray(w, wo + i);
+        }
+        for (; i < len; i++) {
+            float gi = g[go + i] * sign;
+            if (wd > 0) {
+                gi += w[wo + i] * wd;
+            }
+            float mi = m[mo + i] * beta1 + gi * (1 - beta1);
+            float vi = v[vo + i] * beta2 + gi * gi * (1 - beta2);
+            m[mo + i] = mi;
+            v[vo + i] = vi;
+            float den = vi / bc2;
+            if (vmax != null) {
+                den = Math.max(vmax[xo + i], den);
+                vmax[xo + i] = den;
+            }
+            w[wo + i] -= mi / bc1 * lr / ((float) Math.sqrt(den) + eps);
+        }
+    }
+
+    /**
+     * Fused SGD update with optional weight decay, momentum and Nesterov momentum.
+     *
+     * @param mu    momentum buffer, null if no momentum is used
+     * @param first true if this is the first update, in which case the momentum buffer is initialized with the gradient
+     */
+    static void sgd(DArray<?> value, DArray<?> grad, DArray<?> mu, boolean first,
+            double lr, double weightDecay, double momentum, double dampening, boolean nesterov, boolean maximize) {
+        double sign = maximize ? 1 : -1;
+        int len = value.size();
+        if (value.storage() instanceof DoubleArrayStorage) {
+            sgd(doubles(value), offset(value), doubles(grad), offset(grad), mu == null ? null : doubles(mu), mu == null ? 0 : offset(mu),
+                    len, first, lr * sign, weightDecay, momentum, dampening, nesterov);
+        } else {
+            sgd(floats(value), offset(value), floats(grad), offset(grad), mu == null ? null : floats(mu), mu == null ? 0 : offset(mu),
+                    len, first, (float) (lr * sign), (float) weightDecay, (float) momentum, (float) dampening, nesterov);
+        }
+    }
+
+    private static void sgd(double[] w, int wo, double[] g, int go, double[] mu, int uo, int len, boolean first,
+            double step, double wd, double momentum, double dampening, boolean nesterov) {
+        int i = 0;
+        int bound = vsd.loopBound(len);
+        for (; i < bound; i += vsd.length()) {
+            DoubleVector wv = DoubleVector.fromArray(vsd, w, wo + i);
+            DoubleVector gv = DoubleVector.fromArray(vsd, g, go + i);
+            if (wd != 0) {
+                gv = wv.mul(wd).add(gv);
+            }
+            if (mu != null) {
+                DoubleVector uv = first ? gv : DoubleVector.fromArray(vsd, mu, uo + i).mul(momentum).add(gv.mul(1 - dampening));
+                uv.intoArray(mu, uo + i);
+                gv = nesterov ? uv.mul(momentum).add(gv) : uv;
+            }
+            gv.mul(step).add(wv).intoArray(w, wo + i);
+        }
+        for (; i < len; i++) {
+            double gi = g[go + i];
+            if (wd != 0) {
+                gi += w[wo + i] * wd;
+            }
+            if (mu != null) {
+                double ui = first ? gi : mu[uo + i] * momentum + gi * (1 - dampening);
+                mu[uo + i] = ui;
+                gi = nesterov ? gi + ui * momentum : ui;
+            }
+            w[wo + i] += gi * step;
+        }
+    }
+
+    private static void sgd(float[] w, int wo, float[] g, int go, float[] mu, int uo, int len, boolean first,
+            float step, float wd, float momentum, float dampening, boolean nesterov) {
+        int i = 0;
+        int bound = vsf.loopBound(len);
+        for (; i < bound; i += vsf.length()) {
+            FloatVector wv = FloatVector.fromArray(vsf, w, wo + i);
+            FloatVector gv = FloatVector.fromArray(vsf, g, go + i);
+            if (wd != 0) {
+                gv = wv.mul(wd).add(gv);
+            }
+            if (mu != null) {
+                FloatVector uv = first ? gv : FloatVector.fromArray(vsf, mu, uo + i).mul(momentum).add(gv.mul(1 - dampening));
+                uv.intoArray(mu, uo + i);
+                gv = nesterov ? uv.mul(momentum).add(gv) : uv;
+            }
+            gv.mul(step).add(wv).intoArray(w, wo + i);
+        }
+        for (; i < len; i++) {
+            float gi = g[go + i];
+            if (wd != 0) {
+                gi += w[wo + i] * wd;
+            }
+            if (mu != null) {
+                float ui = first ? gi : mu[uo + i] * momentum + gi * (1 - dampening);
+                mu[uo + i] = ui;
+                gi = nesterov ? gi + ui * momentum : ui;
+            }
+            w[wo + i] += gi * step;
+        }
+    }
+}
@@ -23,24 +23,29 @@ package rapaio.nn.optimizer;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import rapaio.core.param.Param;
 import rapaio.core.param.ParamSet;
 import rapaio.core.param.ValueParam;
 import rapaio.darray.DArray;
-import rapaio.darray.DArrayManager;
 import rapaio.nn.Optimizer;
 import rapaio.nn.Tensor;
 import rapaio.nn.TensorManager;
 
+/**
+ * Stochastic gradient descent optimizer, with optional weight decay, momentum and Nesterov momentum.
+ * <p>
+ * The momentum buffers are allocated once for each parameter. Each parameter is updated with a single fused pass
+ * over value, gradient and momentum buffer, and parameters are updated in parallel on the executor of the tensor manager.
+ */
 public class SGD extends ParamSet<SGD> implements Optimizer {
 
+    /**
+     * Minimum number of parameter values for which the parameters are updated in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
     public final Param<Double, SGD> lr = new ValueParam<>(this, 1e-4, "learning rate");
     public final Param<Double, SGD> weightDecay = new ValueParam<>(this, 0d, "weight decay");
     public final Param<Double, SGD> momentum = new ValueParam<>(this, 0d, "momentum");
@@ -51,55 +56,82 @@ public class SGD extends ParamSet<SGD> implements Optimizer {
 
     private final TensorManager tm;
     private final Collection<Tensor> params;
-
-    private final HashMap<Tensor, DArray<?>> mus = new HashMap<>();
+    private final List<Runnable> tasks;
+    private final boolean parallel;
 
     public SGD(TensorManager tm, Collection<Tensor> params) {
         this.tm = tm;
         this.params = params;
+        this.tasks = new ArrayList<>(params.size());
+        long total = 0;
+        for (Tensor param : params) {
+            tasks.add(new Update(param));
+            total += param.value().size();
+        }
+        this.parallel = total >= PARALLEL_THRESHOLD;
     }
 
     @Override
     public final void zeroGrad() {
         params.forEach(Tensor::zeroGrad);
+        tm.releaseBuffers();
     }
 
     @Override
     public void step() {
-        List<Future<?>> futures = new ArrayList<>();
-        try (ExecutorService executor = Executors.newFixedThreadPool(DArrayManager.base().cpuThreads())) {
-            for (var parameter : params) {
-                futures.add(executor.submit(() -> step(parameter)));
-            }
-            while (!futures.isEmpty()) {
-                Future<?> future = futures.removeFirst();
-                future.get();
-            }
-        } catch (ExecutionException | InterruptedException e) {
-            throw new RuntimeException(e);
+        if (parallel) {
+            tm.runAll(tasks);
+        } else {
+            tasks.forEach(Runnable::run);
         }
     }
 
-    private void step(Tensor tensor) {
-        DArray<?> gt = tensor.grad();
-        if (weightDecay.get() != 0) {
-            gt = gt.add(tensor.value().mul(weightDecay.get()));
+    /**
+     * Update of a single parameter, which owns the momentum buffer of that parameter.
+     */
+    private final class Update implements Runnable {
+
+        private final Tensor tensor;
+        private DArray<?> mu;
+        private boolean first = true;
+
+        private Update(Tensor tensor) {
+            this.tensor = tensor;
         }
-        if (momentum.get() != 0) {
-            var mu = mus.get(tensor);
-            mu = (mu == null) ? gt : mu.mul(momentum.get()).add(gt.mul(1 - dampening.get()));
-            mus.put(tensor, mu);
 
-            if (nesterov.get()) {
-                gt = gt.add(mu.mul(momentum.get()));
+        @Override
+        public void run() {
+            DArray<?> value = tensor.value();
+            DArray<?> gt = tensor.grad();
+            if (momentum.get() != 0 && mu == null) {
+                mu = OptimizerKernels.state(tm, value);
+            }
+            DArray<?> buffer = momentum.get() != 0 ? mu : null;
+
+            if (OptimizerKernels.fusable(value, gt, buffer)) {
+                OptimizerKernels.sgd(value, gt, buffer, first, lr.get(), weightDecay.get(), momentum.get(), dampening.get(),
+                        nesterov.get(), maximize.get());
             } else {
-                gt = mu;
+                if (weightDecay.get() != 0) {
+                    gt = gt.add(value.mul(weightDecay.get()));
+                }
+                if (buffer != null) {
+                    if (first) {
+                        buffer.add_(gt);
+                    } else {
+                        buffer.mul_(momentum.get()).fma_(1 - dampening.get(), gt);
+                    }
+                    if (nesterov.get()) {
+                        gt = gt.add(buffer.mul(momentum.get()));
+                    } else {
+                        gt = buffer;
+                    }
+                }
+                value.fma_(maximize.get() ? lr.get() : -lr.get(), gt);
+            }
+            if (buffer != null) {
+                first = false;
             }
-        }
-        if (maximize.get()) {
-            tensor.value().add_(gt.mul(lr.get()));
-        } else {
-            tensor.value().sub_(gt.mul(lr.get()));
         }
     }
 }
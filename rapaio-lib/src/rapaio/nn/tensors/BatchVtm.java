@@ -29,7 +29,7 @@ public final class BatchVtm extends Tensor {
     public BatchVtm(Tensor bv, Tensor bm) {
         super(bv.tm(), BatchVtm.class.getSimpleName());
 
-        this.setValue(bv.value().reorder(Order.C).bvtm(bm.value().reorder(Order.F)));
+        forwardFunction(() -> bv.value().reorder(Order.C).bvtm(bm.value().reorder(Order.F)));
         backEdge(bv, () -> {
             var g = this.grad().bvtm(bm.value().t());
             return (bv.rank() == 1) ? g.mean1d(0) : g;
@@ -27,13 +27,15 @@ import rapaio.nn.Tensor;
 
 public final class CompareFalse extends Tensor {
 
-    private final DArray<?> mask;
+    private DArray<?> mask;
 
     public CompareFalse(Tensor x, Compare cmp, double threshold) {
         super(x.tm(), CompareFalse.class.getSimpleName());
 
-        this.mask = x.value().copy().compareMask_(cmp, threshold).neg_().add_(1);
-        this.setValue(mask.mul(x.value()));
+        forwardFunction(() -> {
+            mask = x.value().copy().compareMask_(cmp, threshold).neg_().add_(1);
+            return mask.mul(x.value());
+        });
         backEdge(x, () -> this.grad().mul(mask));
     }
 
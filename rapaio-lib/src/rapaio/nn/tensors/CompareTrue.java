@@ -27,13 +27,15 @@ import rapaio.nn.Tensor;
 
 public final class CompareTrue extends Tensor {
 
-    private final DArray<?> mask;
+    private DArray<?> mask;
 
     public CompareTrue(Tensor x, Compare cmp, double threshold) {
         super(x.tm(), CompareTrue.class.getSimpleName());
 
-        this.mask = x.value().copy().compareMask_(cmp, threshold);
-        this.setValue(mask.mul(x.value()));
+        forwardFunction(() -> {
+            mask = x.value().copy().compareMask_(cmp, threshold);
+            return mask.mul(x.value());
+        });
         backEdge(x, () -> this.grad().mul(mask));
     }
 
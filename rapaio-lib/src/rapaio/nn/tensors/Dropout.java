@@ -31,23 +31,23 @@ import rapaio.nn.Tensor;
 
 public class Dropout extends Tensor {
 
+    private DArray<?> mask;
+
     public Dropout(Tensor child, double p, Random random, boolean inplace) {
         super(child.tm(), Dropout.class.getSimpleName());
 
-        DArray<?> mask = tm.zerosArray(DType.BYTE, child.value().shape());
         Bernoulli ber = Bernoulli.of(p);
-        PointerIterator ptrIt = mask.ptrIterator();
-        while (ptrIt.hasNext()) {
-            int next = ptrIt.nextInt();
-            if (!(ber.sampleNext(random) > 0.5)) {
-                mask.ptrSetByte(next, (byte) 1);
+        forwardFunction(() -> {
+            mask = tm.zerosArray(DType.BYTE, child.value().shape());
+            PointerIterator ptrIt = mask.ptrIterator();
+            while (ptrIt.hasNext()) {
+                int next = ptrIt.nextInt();
+                if (!(ber.sampleNext(random) > 0.5)) {
+                    mask.ptrSetByte(next, (byte) 1);
+                }
             }
-        }
-        if (inplace) {
-            this.setValue(child.value().mul_(mask).div_(1 - p));
-        } else {
-            this.setValue(child.value().mul(mask).div_(1 - p));
-        }
+            return inplace ? child.value().mul_(mask).div_(1 - p) : child.value().mul(mask).div_(1 - p);
+        });
         backEdge(child, () -> this.grad().mul(mask));
     }
 }
@@ -29,9 +29,9 @@ public class Gather extends Tensor{
     public Gather(Tensor x, int axis, Tensor index) {
         super(x.tm(), Gather.class.getSimpleName());
 
-        this.setValue(x.value().gather(axis, index.value()));
+        forwardFunction(() -> x.value().gather(axis, index.value()));
 
         DArray<?> zeros = tm.zerosArray(x.shape());
-        backEdge(x, () -> this.grad().scatter(axis, index.value(), zeros));
+        backEdge(x, () -> this.grad().scatter(axis, index.value(), zeros.fill_(0)));
     }
 }
@@ -28,7 +28,7 @@ public class Identity extends Tensor {
     public Identity(Tensor child) {
         super(child.tm(), Identity.class.getSimpleName());
 
-        this.setValue(child.value().copy());
+        forwardFunction(() -> tm.bufferCopy(child.value()));
         backEdge(child, this::grad);
     }
 }
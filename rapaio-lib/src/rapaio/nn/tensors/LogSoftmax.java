@@ -28,7 +28,7 @@ public class LogSoftmax extends Tensor {
     public LogSoftmax(Tensor x, int axis) {
         super(x.tm(), LogSoftmax.class.getSimpleName());
 
-        this.setValue(x.value().logsoftmax1d(axis));
+        forwardFunction(() -> x.value().logsoftmax1d(axis));
         backEdge(x, () -> {
             var sm = this.value().exp();
             var sum1d = this.grad().sum1d(axis).strexp(axis, x.dim(axis));
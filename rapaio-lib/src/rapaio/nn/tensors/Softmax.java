@@ -28,7 +28,7 @@ public class Softmax extends Tensor {
     public Softmax(Tensor x, int axis) {
         super(x.tm(), Softmax.class.getSimpleName());
 
-        this.setValue(x.value().softmax1d(axis));
+        forwardFunction(() -> x.value().softmax1d(axis));
         backEdge(x, () -> {
             var s = this.value();
             var p = s.mul(this.grad());
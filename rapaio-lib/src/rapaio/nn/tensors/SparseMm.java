@@ -0,0 +1,39 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.nn.tensors;
+
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.nn.Tensor;
+
+/**
+ * Product between a constant sparse matrix with a row for each instance and a matrix tensor.
+ * Forward and backward products are computed over the stored values only.
+ */
+public final class SparseMm extends Tensor {
+
+    public SparseMm(SparseMatrix x, Tensor m) {
+        super(m.tm(), SparseMm.class.getSimpleName());
+
+        forwardFunction(() -> x.mm(m.value()).cast(tm.dt()));
+        backEdge(m, () -> x.t().mm(this.grad()).cast(tm.dt()));
+    }
+}
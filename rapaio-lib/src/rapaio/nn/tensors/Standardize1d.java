@@ -26,19 +26,20 @@ import rapaio.nn.Tensor;
 
 public class Standardize1d extends Tensor {
 
-    private final DArray<?> mean;
-    private final DArray<?> std;
+    private DArray<?> mean;
+    private DArray<?> std;
+    private DArray<?> vs;
 
     public Standardize1d(Tensor x, int axis, int ddof, double epsilon) {
         super(x.tm(), Standardize1d.class.getSimpleName());
 
-        DArray<?> vx = x.value();
-        mean = vx.mean1d(axis);
-        std = x.value().var1d(axis, ddof, mean).add_(epsilon).sqrt_();
-
-        DArray<?> vs = vx.sub(mean.stretch(axis)).div_(std.stretch(axis));
-
-        this.setValue(vs);
+        forwardFunction(() -> {
+            DArray<?> vx = x.value();
+            mean = vx.mean1d(axis);
+            std = vx.var1d(axis, ddof, mean).add_(epsilon).sqrt_();
+            vs = vx.sub(mean.stretch(axis)).div_(std.stretch(axis));
+            return vs;
+        });
 
         backEdge(x, () -> {
             DArray<?> ds = this.grad;
@@ -27,19 +27,20 @@ import rapaio.nn.Tensor;
 
 public class StandardizeOn extends Tensor {
 
-    private final DArray<?> mean;
-    private final DArray<?> std;
+    private DArray<?> mean;
+    private DArray<?> std;
+    private DArray<?> vs;
 
     public StandardizeOn(Tensor x, Shape shape, int ddof, double epsilon) {
         super(x.tm(), Standardize1d.class.getSimpleName());
 
-        DArray<?> vx = x.value();
-        mean = vx.meanOn(shape, true);
-        std = x.value().varOn(shape, ddof, true, mean).add_(epsilon).sqrt_();
-
-        DArray<?> vs = vx.sub(mean).div_(std);
-
-        this.setValue(vs);
+        forwardFunction(() -> {
+            DArray<?> vx = x.value();
+            mean = vx.meanOn(shape, true);
+            std = vx.varOn(shape, ddof, true, mean).add_(epsilon).sqrt_();
+            vs = vx.sub(mean).div_(std);
+            return vs;
+        });
 
         backEdge(x, () -> {
             DArray<?> ds = this.grad;
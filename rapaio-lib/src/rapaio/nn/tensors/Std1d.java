@@ -21,19 +21,23 @@
 
 package rapaio.nn.tensors;
 
+import rapaio.darray.DArray;
 import rapaio.nn.Tensor;
 
 public final class Std1d extends Tensor {
 
+    private DArray<?> centered;
+
     public Std1d(Tensor x, int axis, int ddof, double epsilon, Tensor mean) {
         super(x.tm(), Std1d.class.getSimpleName());
 
         double dof = x.dim(axis) - ddof;
         var mu = mean != null ? mean : x.mean1d(axis);
-        var centered = x.value().sub(mu.value().stretch(axis));
-        var std = x.value().var1d(axis, ddof, mu.value()).add_(epsilon).sqrt_();
-        this.setValue(std);
-        backEdge(x, () -> this.grad().stretch(axis).mul(centered.div(std.stretch(axis)).div_(dof)));
+        forwardFunction(() -> {
+            centered = x.value().sub(mu.value().stretch(axis));
+            return x.value().var1d(axis, ddof, mu.value()).add_(epsilon).sqrt_();
+        });
+        backEdge(x, () -> this.grad().stretch(axis).mul(centered.div(this.value().stretch(axis)).div_(dof)));
         backEdge(mu, () -> tm.zerosArray(mu.shape()));
     }
 }
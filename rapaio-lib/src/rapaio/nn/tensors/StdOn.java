@@ -21,20 +21,24 @@
 
 package rapaio.nn.tensors;
 
+import rapaio.darray.DArray;
 import rapaio.darray.Shape;
 import rapaio.nn.Tensor;
 
 public class StdOn extends Tensor {
 
+    private DArray<?> centered;
+
     public StdOn(Tensor x, Shape shape, int ddof, double epsilon, Tensor mean) {
         super(x.tm(), StdOn.class.getSimpleName());
 
         double dof = x.size() - ddof;
         var mu = mean != null ? mean : x.meanOn(shape);
-        var centered = x.value().sub(mu.value());
-        var std = x.value().varOn(shape, ddof, true, mu.value()).add_(epsilon).sqrt_();
-        this.setValue(std);
-        backEdge(x, () -> this.grad().mul(centered.div(std).div_(shape.size())));
+        forwardFunction(() -> {
+            centered = x.value().sub(mu.value());
+            return x.value().varOn(shape, ddof, true, mu.value()).add_(epsilon).sqrt_();
+        });
+        backEdge(x, () -> this.grad().mul(centered.div(this.value()).div_(shape.size())));
         backEdge(mu, () -> tm.zerosTensor(mu.shape()).value());
     }
 }
@@ -28,7 +28,7 @@ public class Stretch extends Tensor {
     public Stretch(Tensor x, int axis) {
         super(x.tm(), Stretch.class.getSimpleName());
 
-        this.setValue(x.value().stretch(axis));
+        forwardFunction(() -> x.value().stretch(axis));
         backEdge(x, () -> this.grad.squeeze(axis));
     }
 }
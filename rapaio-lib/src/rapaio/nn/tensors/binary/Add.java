@@ -31,10 +31,11 @@ public final class Add extends Tensor {
     public Add(Tensor left, Tensor right) {
         super(left.tm(), Add.class.getSimpleName());
 
-        if (!Broadcast.elementWise(List.of(left.value().shape(), right.value().shape())).valid()) {
+        Broadcast.ElementWise broadcast = Broadcast.elementWise(List.of(left.value().shape(), right.value().shape()));
+        if (!broadcast.valid()) {
             throw new IllegalArgumentException("Nodes are not valid for elementwise broadcast.");
         }
-        this.setValue(left.value().add(right.value()));
+        forwardFunction(() -> tm.bufferCopy(left.value(), broadcast.shape()).add_(right.value()));
         backEdge(left, () -> this.grad().sumTo(left.value().shape(), false));
         backEdge(right, () -> this.grad().sumTo(right.value().shape(), false));
     }
@@ -31,11 +31,13 @@ public final class Div extends Tensor {
     public Div(Tensor left, Tensor right) {
         super(left.tm(), Div.class.getSimpleName());
 
-        if (!Broadcast.elementWise(List.of(left.value().shape(), right.value().shape())).valid()) {
+        Broadcast.ElementWise broadcast = Broadcast.elementWise(List.of(left.value().shape(), right.value().shape()));
+        if (!broadcast.valid()) {
             throw new IllegalArgumentException("Nodes are not valid for elementwise broadcast.");
         }
-        this.setValue(left.value().div(right.value()));
-        backEdge(left, () -> this.grad().div(right.value()).sumTo(left.value().shape(), false));
-        backEdge(right, () -> this.grad().mul(left.value().neg().div(right.value().sqr())).sumTo(right.value().shape(), false));
+        forwardFunction(() -> tm.bufferCopy(left.value(), broadcast.shape()).div_(right.value()));
+        backEdge(left, () -> tm.bufferCopy(this.grad()).div_(right.value()).sumTo(left.value().shape(), false));
+        backEdge(right, () -> tm.bufferCopy(this.grad()).mul_(
+                tm.bufferCopy(left.value(), broadcast.shape()).neg_().div_(tm.bufferCopy(right.value()).sqr_())).sumTo(right.value().shape(), false));
     }
 }
@@ -31,11 +31,12 @@ public final class Mul extends Tensor {
     public Mul(Tensor left, Tensor right) {
         super(left.tm(), Mul.class.getSimpleName());
 
-        if (!Broadcast.elementWise(List.of(left.value().shape(), right.value().shape())).valid()) {
+        Broadcast.ElementWise broadcast = Broadcast.elementWise(List.of(left.value().shape(), right.value().shape()));
+        if (!broadcast.valid()) {
             throw new IllegalArgumentException("Nodes are not valid for elementwise broadcast.");
         }
-        this.setValue(left.value().mul(right.value()));
-        backEdge(left, () -> this.grad().mul(right.value()).sumTo(left.value().shape(), false));
-        backEdge(right, () -> this.grad().mul(left.value()).sumTo(right.value().shape(), false));
+        forwardFunction(() -> tm.bufferCopy(left.value(), broadcast.shape()).mul_(right.value()));
+        backEdge(left, () -> tm.bufferCopy(this.grad()).mul_(right.value()).sumTo(left.value().shape(), false));
+        backEdge(right, () -> tm.bufferCopy(this.grad()).mul_(left.value()).sumTo(right.value().shape(), false));
     }
 }
@@ -31,13 +31,14 @@ public class Sub extends Tensor {
     public Sub(Tensor left, Tensor right) {
         super(left.tm(), Sub.class.getSimpleName());
 
-        if (!Broadcast.elementWise(List.of(left.value().shape(), right.value().shape())).valid()) {
+        Broadcast.ElementWise broadcast = Broadcast.elementWise(List.of(left.value().shape(), right.value().shape()));
+        if (!broadcast.valid()) {
             throw new IllegalArgumentException(
                     String.format("Nodes are not valid for elementwise broadcast. Left shape: %s, right shape: %s",
                             left.shape(), right.shape()));
         }
-        this.setValue(left.value().sub(right.value()));
+        forwardFunction(() -> tm.bufferCopy(left.value(), broadcast.shape()).sub_(right.value()));
         backEdge(left, () -> this.grad().sumTo(left.value().shape(), false));
-        backEdge(right, () -> this.grad().neg().sumTo(right.value().shape(), false));
+        backEdge(right, () -> tm.bufferCopy(this.grad()).neg_().sumTo(right.value().shape(), false));
     }
 }
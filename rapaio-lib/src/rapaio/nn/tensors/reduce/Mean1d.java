@@ -31,7 +31,7 @@ public final class Mean1d extends Tensor {
         if (x.rank() == 0) {
             throw new IllegalArgumentException("Input node must have at least one dimension.");
         }
-        this.setValue(x.value().mean1d(axis));
+        forwardFunction(() -> x.value().mean1d(axis));
         backEdge(x, () -> this.grad().div(x.dim(axis)).strexp(axis, x.dim(axis)));
     }
 }
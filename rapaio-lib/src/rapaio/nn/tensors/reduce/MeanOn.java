@@ -28,7 +28,7 @@ public class MeanOn extends Tensor {
 
     public MeanOn(Tensor x, Shape shape) {
         super(x.tm(), MeanOn.class.getSimpleName());
-        this.value = x.value().meanOn(shape, true);
+        forwardFunction(() -> x.value().meanOn(shape, true));
         backEdge(x, () -> this.grad().div(shape.size()));
     }
 }
@@ -30,7 +30,7 @@ public class Sum extends Tensor {
     public Sum(Tensor x) {
         super(x.tm(), Sum.class.getSimpleName());
 
-        this.setValue(tm.scalarArray(x.value().sum().doubleValue()));
+        forwardFunction(() -> tm.scalarArray(x.value().sum().doubleValue()));
         backEdge(x, () -> {
             DArray<?> grad = this.grad();
             // gradient is a scalar, we expand by child shape
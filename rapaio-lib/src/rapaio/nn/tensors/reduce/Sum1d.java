@@ -28,7 +28,7 @@ public final class Sum1d extends Tensor {
     public Sum1d(Tensor child, int axis) {
         super(child.tm(), Sum1d.class.getSimpleName());
 
-        this.setValue(child.value().sum1d(axis));
+        forwardFunction(() -> child.value().sum1d(axis));
         backEdge(child, () -> this.grad().strexp(axis, child.value().dim(axis)));
     }
 }
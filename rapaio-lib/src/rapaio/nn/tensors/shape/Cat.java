@@ -43,7 +43,7 @@ public class Cat extends Tensor {
             indices[i] += indices[i - 1];
         }
 
-        this.setValue(tm.arrayManager().cat(tm.dt(), axis, arrays));
+        forwardFunction(() -> tm.arrayManager().cat(tm.dt(), axis, Arrays.stream(tensors).map(Tensor::value).toList()));
         for (int i = 1; i < indices.length; i++) {
             int ii = i;
             backEdge(tensors[i - 1], () -> this.grad().narrow(axis, true, indices[ii - 1], indices[ii]));
@@ -28,7 +28,7 @@ public class Narrow extends Tensor {
     public Narrow(Tensor x, int axis, int start, int end) {
         super(x.tm(), Narrow.class.getSimpleName());
 
-        this.setValue(x.value().narrow(axis, true, start, end));
+        forwardFunction(() -> x.value().narrow(axis, true, start, end));
 
         backEdge(x, grad -> {
             var narrow = grad.narrow(axis, true, start, end);
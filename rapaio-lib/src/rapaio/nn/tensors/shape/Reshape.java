@@ -29,7 +29,7 @@ public class Reshape extends Tensor {
 
     public Reshape(Tensor x, Shape shape, Order askOrder) {
         super(x.tm(), Reshape.class.getSimpleName());
-        this.setValue(x.value().reshape(shape, askOrder));
+        forwardFunction(() -> x.value().reshape(shape, askOrder));
         backEdge(x, () -> this.grad.reshape(x.shape()));
     }
 }
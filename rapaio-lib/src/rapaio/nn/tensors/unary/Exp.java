@@ -28,7 +28,7 @@ public class Exp extends Tensor{
     public Exp(Tensor x) {
         super(x.tm(), Exp.class.getSimpleName());
 
-        this.setValue(x.value().exp());
-        backEdge(x, () -> this.grad().mul(this.value()));
+        forwardFunction(() -> tm.bufferCopy(x.value()).exp_());
+        backEdge(x, () -> tm.bufferCopy(this.grad()).mul_(this.value()));
     }
 }
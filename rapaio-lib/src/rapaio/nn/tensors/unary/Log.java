@@ -28,7 +28,7 @@ public class Log extends Tensor {
     public Log(Tensor child, double eps) {
         super(child.tm(), Log.class.getSimpleName());
 
-        this.setValue(child.value().log());
-        backEdge(child, () -> this.grad().mul(tm.fullTensor(this.shape(), 1).value().div_(child.value()).nanToNum_(eps)));
+        forwardFunction(() -> tm.bufferCopy(child.value()).log_());
+        backEdge(child, () -> tm.bufferCopy(this.grad()).mul_(tm.bufferZeros(tm.dt(), this.shape()).fill_(1).div_(child.value()).nanToNum_(eps)));
     }
 }
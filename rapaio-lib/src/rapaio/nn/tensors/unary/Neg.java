@@ -28,7 +28,7 @@ public class Neg extends Tensor {
     public Neg(Tensor child) {
         super(child.tm(), Neg.class.getSimpleName());
 
-        this.setValue(child.value().neg());
-        backEdge(child, () -> this.grad().neg());
+        forwardFunction(() -> tm.bufferCopy(child.value()).neg_());
+        backEdge(child, () -> tm.bufferCopy(this.grad()).neg_());
     }
 }
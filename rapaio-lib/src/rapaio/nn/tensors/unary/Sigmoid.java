@@ -28,7 +28,7 @@ public final class Sigmoid extends Tensor {
     public Sigmoid(Tensor x) {
         super(x.tm(), Sigmoid.class.getSimpleName());
 
-        this.setValue(x.value().sigmoid());
-        backEdge(x, () -> this.grad().mul(this.value().mul(this.value().neg().add_(1))));
+        forwardFunction(() -> tm.bufferCopy(x.value()).sigmoid_());
+        backEdge(x, () -> tm.bufferCopy(this.grad()).mul_(this.value()).mul_(tm.bufferCopy(this.value()).neg_().add_(1)));
     }
 }
@@ -28,7 +28,7 @@ public class Sqr extends Tensor {
     public Sqr(Tensor x) {
         super(x.tm(), Sqr.class.getSimpleName());
 
-        this.setValue(x.value().sqr());
-        backEdge(x, () -> this.grad().mul(x.value()).mul_(2.));
+        forwardFunction(() -> tm.bufferCopy(x.value()).sqr_());
+        backEdge(x, () -> tm.bufferCopy(this.grad()).mul_(x.value()).mul_(2.));
     }
 }
@@ -28,7 +28,7 @@ public class Sqrt extends Tensor {
     public Sqrt(Tensor x) {
         super(x.tm(), Sqrt.class.getSimpleName());
 
-        this.setValue(x.value().sqrt().nanToNum_(0));
-        backEdge(x, () -> this.grad().div(this.value()).div_(2));
+        forwardFunction(() -> tm.bufferCopy(x.value()).sqrt_().nanToNum_(0));
+        backEdge(x, () -> tm.bufferCopy(this.grad()).div_(this.value()).div_(2));
     }
 }
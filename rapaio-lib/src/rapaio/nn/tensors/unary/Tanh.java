@@ -29,10 +29,10 @@ public final class Tanh extends Tensor {
     public Tanh(Tensor x) {
         super(x.tm(), Tanh.class.getSimpleName());
 
-        this.setValue(x.value().tanh());
+        forwardFunction(() -> tm.bufferCopy(x.value()).tanh_());
         backEdge(x, () -> {
-            DArray<?> sg = this.value().sqr().neg_().add_(1);
-            return this.grad().mul(sg);
+            DArray<?> sg = tm.bufferCopy(this.value()).sqr_().neg_().add_(1);
+            return tm.bufferCopy(this.grad()).mul_(sg);
         });
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to primitive int values, with linear probing
+ * over a power of two table. Keys and values are stored in parallel arrays, thus no boxing is involved.
+ * <p>
+ * The key {@link #MISSING_KEY} is reserved to mark empty slots and can't be used as a key.
+ * A lookup for a key which is not present in the map returns {@link #MISSING}.
+ */
+public class Long2IntOpenHashMap {
+
+    public static final long MISSING_KEY = Long.MIN_VALUE;
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final int DEFAULT_ALLOCATION = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private final double loadFactor;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public Long2IntOpenHashMap() {
+        this(DEFAULT_ALLOCATION);
+    }
+
+    public Long2IntOpenHashMap(int expected) {
+        this(expected, DEFAULT_LOAD_FACTOR);
+    }
+
+    public Long2IntOpenHashMap(int expected, double loadFactor) {
+        this.loadFactor = loadFactor;
+        allocate(tableSize(Math.max(expected, DEFAULT_ALLOCATION), loadFactor));
+    }
+
+    private static int tableSize(int expected, double loadFactor) {
+        long len = Long.highestOneBit((long) Math.ceil(expected / loadFactor) - 1) << 1;
+        if (len > (1 << 30)) {
+            throw new IllegalArgumentException("Too many elements for an open addressing hash map: " + expected);
+        }
+        return (int) Math.max(2, len);
+    }
+
+    private void allocate(int len) {
+        keys = new long[len];
+        Arrays.fill(keys, MISSING_KEY);
+        values = new int[len];
+        mask = len - 1;
+        threshold = (int) Math.min(len - 1, Math.ceil(len * loadFactor));
+    }
+
+    private static int hash(long key) {
+        // finalization mix of murmur3 for 64 bits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * @param key key value
+     * @return the value associated with the key or {@link #MISSING} if the key is not in the map
+     */
+    public int get(long key) {
+        int pos = hash(key) & mask;
+        while (true) {
+            long k = keys[pos];
+            if (k == key) {
+                return values[pos];
+            }
+            if (k == MISSING_KEY) {
+                return MISSING;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing the previous value if the key is already in the map.
+     *
+     * @param key   key value
+     * @param value new value
+     */
+    public void put(long key, int value) {
+        int pos = slot(key);
+        if (keys[pos] == MISSING_KEY) {
+            insert(pos, key, value);
+        } else {
+            values[pos] = value;
+        }
+    }
+
+    /**
+     * Associates a value with a key only if the key is not already in the map.
+     *
+     * @param key   key value
+     * @param value value to associate
+     * @return the previous value associated with the key, or {@link #MISSING} if the key was inserted
+     */
+    public int putIfAbsent(long key, int value) {
+        int pos = slot(key);
+        if (keys[pos] == MISSING_KEY) {
+            insert(pos, key, value);
+            return MISSING;
+        }
+        return values[pos];
+    }
+
+    private int slot(long key) {
+        if (key == MISSING_KEY) {
+            throw new IllegalArgumentException("Key value is reserved for empty slots.");
+        }
+        int pos = hash(key) & mask;
+        while (keys[pos] != MISSING_KEY && keys[pos] != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void insert(int pos, long key, int value) {
+        keys[pos] = key;
+        values[pos] = value;
+        size++;
+        if (size >= threshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != MISSING_KEY) {
+                int pos = hash(oldKeys[i]) & mask;
+                while (keys[pos] != MISSING_KEY) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @return array with all the keys from the map, in no particular order
+     */
+    public long[] keys() {
+        long[] out = new long[size];
+        int pos = 0;
+        for (long key : keys) {
+            if (key != MISSING_KEY) {
+                out[pos++] = key;
+            }
+        }
+        return out;
+    }
+}
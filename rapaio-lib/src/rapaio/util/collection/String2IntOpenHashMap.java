@@ -0,0 +1,189 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.util.collection;
+
+import rapaio.util.hash.Murmur3;
+
+/**
+ * Open addressing hash map from string keys to primitive int values, with linear probing over a power of two table.
+ * Keys, their hash codes and values are stored in parallel arrays, thus values are not boxed. Hash codes are
+ * computed with Murmur3 and are kept in the table, which avoids most of the string comparisons on probing
+ * and does not require hashing again on rehash.
+ * <p>
+ * Null keys are not allowed. A lookup for a key which is not present in the map returns {@link #MISSING}.
+ */
+public class String2IntOpenHashMap {
+
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final int DEFAULT_ALLOCATION = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private final double loadFactor;
+    private String[] keys;
+    private int[] hashes;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public String2IntOpenHashMap() {
+        this(DEFAULT_ALLOCATION);
+    }
+
+    public String2IntOpenHashMap(int expected) {
+        this(expected, DEFAULT_LOAD_FACTOR);
+    }
+
+    public String2IntOpenHashMap(int expected, double loadFactor) {
+        this.loadFactor = loadFactor;
+        allocate(tableSize(Math.max(expected, DEFAULT_ALLOCATION), loadFactor));
+    }
+
+    private static int tableSize(int expected, double loadFactor) {
+        long len = Long.highestOneBit((long) Math.ceil(expected / loadFactor) - 1) << 1;
+        if (len > (1 << 30)) {
+            throw new IllegalArgumentException("Too many elements for an open addressing hash map: " + expected);
+        }
+        return (int) Math.max(2, len);
+    }
+
+    private void allocate(int len) {
+        keys = new String[len];
+        hashes = new int[len];
+        values = new int[len];
+        mask = len - 1;
+        threshold = (int) Math.min(len - 1, Math.ceil(len * loadFactor));
+    }
+
+    /**
+     * Hash function used by the map, Murmur3 on the characters of the string.
+     *
+     * @param key string key
+     * @return hash code
+     */
+    public static int hash(String key) {
+        return Murmur3.murmur3A(key, 0, key.length(), 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(String key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * @param key key value
+     * @return the value associated with the key or {@link #MISSING} if the key is not in the map
+     */
+    public int get(String key) {
+        int h = hash(key);
+        int pos = h & mask;
+        while (true) {
+            String k = keys[pos];
+            if (k == null) {
+                return MISSING;
+            }
+            if (hashes[pos] == h && k.equals(key)) {
+                return values[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing the previous value if the key is already in the map.
+     *
+     * @param key   key value
+     * @param value new value
+     */
+    public void put(String key, int value) {
+        int h = hash(key);
+        int pos = slot(key, h);
+        if (keys[pos] == null) {
+            insert(pos, key, h, value);
+        } else {
+            values[pos] = value;
+        }
+    }
+
+    /**
+     * Associates a value with a key only if the key is not already in the map.
+     *
+     * @param key   key value
+     * @param value value to associate
+     * @return the previous value associated with the key, or {@link #MISSING} if the key was inserted
+     */
+    public int putIfAbsent(String key, int value) {
+        int h = hash(key);
+        int pos = slot(key, h);
+        if (keys[pos] == null) {
+            insert(pos, key, h, value);
+            return MISSING;
+        }
+        return values[pos];
+    }
+
+    private int slot(String key, int h) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed.");
+        }
+        int pos = h & mask;
+        while (keys[pos] != null && (hashes[pos] != h || !keys[pos].equals(key))) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void insert(int pos, String key, int h, int value) {
+        keys[pos] = key;
+        hashes[pos] = h;
+        values[pos] = value;
+        size++;
+        if (size >= threshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int pos = oldHashes[i] & mask;
+                while (keys[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                hashes[pos] = oldHashes[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@
 package rapaio.core.distributions.empirical;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
@@ -102,4 +103,38 @@ public class KDETest {
         assertEquals("KFuncGaussian", KDE.of(sample, new KFuncGaussian()).kernel().toSummary());
         assertEquals("KFuncGaussian", KDE.of(sample, new KFuncGaussian(), 10).kernel().toSummary());
     }
+
+    @Test
+    void testBatchPdf() {
+        KDE kde = KDE.of(sample, new KFuncEpanechnikov());
+        double[] xs = new double[5_000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = -5 + 10.0 * random.nextDouble();
+        }
+        double[] pdf = kde.pdf(xs);
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(kde.pdf(xs[i]), pdf[i]);
+        }
+    }
+
+    @Test
+    void testGridPdf() {
+        for (KFunc fun : new KFunc[] {new KFuncGaussian(), new KFuncEpanechnikov(), new KFuncTriweight()}) {
+            KDE kde = KDE.of(sample, fun);
+            double[] grid = kde.gridPdf(-4, 4, 801);
+            for (int i = 0; i < grid.length; i++) {
+                assertEquals(kde.pdf(-4 + i * 0.01), grid[i], 1e-3);
+            }
+        }
+
+        // coarse grids are evaluated directly
+        KDE kde = KDE.of(sample, 0.01);
+        double[] grid = kde.gridPdf(-1, 1, 11);
+        for (int i = 0; i < grid.length; i++) {
+            assertEquals(kde.pdf(-1 + i * 0.2), grid[i], TOL);
+        }
+
+        assertEquals(kde.pdf(0.5), kde.gridPdf(0.5, 0.5, 3)[2]);
+        assertThrows(IllegalArgumentException.class, () -> kde.gridPdf(1, 0, 10));
+    }
 }
@@ -1203,6 +1203,9 @@ public class DArrayTest {
         var t3 = g.random(Shape.of(31, 42));
         var t4 = g.random(Shape.of(42, 100));
 
+        // blocked matrix multiplication accumulates in a different order than inner products
+        double tol = g.dt().floatingPoint() ? 1e-4 : 0;
+
         var r3 = t3.mm(t4, Order.C);
         var rows = t3.chunk(0, false, 1);
         var cols = t4.chunk(1, false, 1);
@@ -1210,7 +1213,8 @@ public class DArrayTest {
             for (int j = 0; j < t4.shape().dim(1); j++) {
                 N expected = rows.get(i).inner(cols.get(j));
                 N realized = r3.get(i, j);
-                assertEquals(expected, realized, "i: %d, j: %d".formatted(i, j));
+                assertEquals(expected.doubleValue(), realized.doubleValue(), tol * Math.max(1, Math.abs(expected.doubleValue())),
+                        "i: %d, j: %d".formatted(i, j));
             }
         }
 
@@ -1219,7 +1223,8 @@ public class DArrayTest {
         cols = t4.chunk(1, false, 1);
         for (int i = 0; i < t3.shape().dim(0); i++) {
             for (int j = 0; j < t4.shape().dim(1); j++) {
-                assertEquals(r3.get(i, j), rows.get(i).inner(cols.get(j)));
+                N expected = rows.get(i).inner(cols.get(j));
+                assertEquals(expected.doubleValue(), r3.get(i, j).doubleValue(), tol * Math.max(1, Math.abs(expected.doubleValue())));
             }
         }
 
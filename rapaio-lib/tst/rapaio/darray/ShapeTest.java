@@ -74,6 +74,15 @@ public class ShapeTest {
         assertEquals("Invalid shape dimensions: [0,0].", e.getMessage());
     }
 
+    @Test
+    void testLongSize() {
+        Shape shape = Shape.of(1 << 16, 1 << 16, 3);
+        assertEquals(3L << 32, shape.longSize());
+        assertThrows(IllegalStateException.class, shape::size);
+        assertEquals(12L, Shape.of(3, 4).longSize());
+        assertThrows(IllegalArgumentException.class, () -> Shape.of(1 << 30, 1 << 30, 1 << 30));
+    }
+
     @Test
     void testPositionAndIndex() {
         for (int i = 0; i < 100; i++) {
@@ -37,8 +37,10 @@ import rapaio.darray.DArrayManager;
 import rapaio.darray.DType;
 import rapaio.darray.Order;
 import rapaio.darray.Shape;
+import rapaio.darray.StorageManager;
 import rapaio.darray.layout.StrideLayout;
 import rapaio.darray.manager.base.BaseDArrayManager;
+import rapaio.util.Hardware;
 
 public class DArrayManagerTest {
 
@@ -52,6 +54,7 @@ public class DArrayManagerTest {
     @Test
     void mainTestLoop() {
         testManagerSuite(BaseDArrayManager.base());
+        testManagerSuite(DArrayManager.base(Hardware.CORES, StorageManager.segment()));
     }
 
     void testManagerSuite(DArrayManager manager) {
@@ -0,0 +1,139 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.gemm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+
+public class GemmTest {
+
+    private static final DArrayManager dm = DArrayManager.base();
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testMatrixMatrix() {
+        int[][] sizes = {{1, 1, 1}, {3, 5, 7}, {17, 1, 33}, {4, 16, 8}, {129, 257, 65}, {300, 200, 513}, {2, 600, 3}, {8, 300, 700}};
+        for (int[] size : sizes) {
+            for (Order oa : new Order[] {Order.C, Order.F}) {
+                for (Order ob : new Order[] {Order.C, Order.F}) {
+                    for (Order oc : new Order[] {Order.C, Order.F}) {
+                        testMM(DType.DOUBLE, size[0], size[1], size[2], oa, ob, oc, 1e-9);
+                        testMM(DType.FLOAT, size[0], size[1], size[2], oa, ob, oc, 1e-2);
+                    }
+                }
+            }
+        }
+    }
+
+    private <N extends Number> void testMM(DType<N> dt, int m, int k, int n, Order oa, Order ob, Order oc, double tol) {
+        DArray<N> a = dm.random(dt, Shape.of(m, k), random, oa);
+        DArray<N> b = dm.random(dt, Shape.of(k, n), random, ob);
+        DArray<N> c = a.mm(b, oc);
+        DArray<N> expected = naiveMM(a, b);
+        assertTrue(expected.deepEquals(c, tol), "m=%d, k=%d, n=%d".formatted(m, k, n));
+    }
+
+    @Test
+    void testStridedViews() {
+        DArray<Double> big = dm.random(DType.DOUBLE, Shape.of(80, 90), random);
+        DArray<Double> a = big.narrow(0, true, 3, 70).narrow(1, true, 5, 50);
+        DArray<Double> b = big.t().narrow(0, true, 10, 55).narrow(1, true, 1, 40);
+        assertTrue(naiveMM(a, b).deepEquals(a.mm(b), 1e-9));
+
+        // accumulate into a strided view of a bigger array
+        DArray<Double> dst = dm.zeros(DType.DOUBLE, Shape.of(100, 100));
+        DArray<Double> view = dst.narrow(0, true, 10, 77).narrow(1, true, 20, 59);
+        Gemm.mm(a, b, view, 4);
+        assertTrue(naiveMM(a, b).deepEquals(view, 1e-9));
+        assertEquals(naiveMM(a, b).sum(), dst.sum(), 1e-9);
+    }
+
+    @Test
+    void testIntegerTypes() {
+        DArray<Integer> a = dm.seq(DType.INTEGER, Shape.of(70, 130));
+        DArray<Integer> b = dm.zeros(DType.INTEGER, Shape.of(130, 30)).apply_(Order.C, (i, _) -> i % 7);
+        assertTrue(naiveMM(a, b).deepEquals(a.mm(b)));
+        DArray<Integer> v = dm.seq(DType.INTEGER, Shape.of(130));
+        assertTrue(naiveMM(a, v.stretch(1)).squeeze(1).deepEquals(a.mv(v)));
+    }
+
+    @Test
+    void testMatrixVector() {
+        for (Order order : new Order[] {Order.C, Order.F}) {
+            for (int[] size : new int[][] {{1, 1}, {7, 3}, {1000, 300}, {33, 2000}}) {
+                DArray<Double> a = dm.random(DType.DOUBLE, Shape.of(size[0], size[1]), random, order);
+                DArray<Double> x = dm.random(DType.DOUBLE, Shape.of(size[1]), random);
+                DArray<Double> expected = naiveMM(a, x.stretch(1)).squeeze(1);
+                assertTrue(expected.deepEquals(a.mv(x), 1e-9));
+
+                DArray<Double> z = dm.random(DType.DOUBLE, Shape.of(size[0]), random);
+                DArray<Double> expectedT = naiveMM(z.stretch(0), a).squeeze(0);
+                assertTrue(expectedT.deepEquals(z.vtm(a), 1e-9));
+
+                DArray<Float> af = a.cast(DType.FLOAT);
+                DArray<Float> xf = x.cast(DType.FLOAT);
+                assertTrue(expected.cast(DType.FLOAT).deepEquals(af.mv(xf), 1e-2));
+            }
+        }
+    }
+
+    @Test
+    void testBatch() {
+        DArray<Double> a = dm.random(DType.DOUBLE, Shape.of(3, 20, 30), random);
+        DArray<Double> b = dm.random(DType.DOUBLE, Shape.of(3, 30, 10), random);
+        DArray<Double> c = a.bmm(b);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(naiveMM(a.selsq(0, i), b.selsq(0, i)).deepEquals(c.selsq(0, i), 1e-9));
+        }
+    }
+
+    private static <N extends Number> DArray<N> naiveMM(DArray<N> a, DArray<N> b) {
+        DArray<N> c = dm.zeros(a.dt(), Shape.of(a.dim(0), b.dim(1)));
+        for (int i = 0; i < a.dim(0); i++) {
+            for (int j = 0; j < b.dim(1); j++) {
+                double sum = 0;
+                for (int p = 0; p < a.dim(1); p++) {
+                    sum += a.getDouble(i, p) * b.getDouble(p, j);
+                }
+                c.setDouble(sum, i, j);
+            }
+        }
+        return c;
+    }
+}
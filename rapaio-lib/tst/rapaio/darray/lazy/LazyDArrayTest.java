@@ -0,0 +1,136 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.lazy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.operator.DArrayOp;
+import rapaio.data.OperationNotAvailableException;
+
+public class LazyDArrayTest {
+
+    private static final DArrayManager dm = DArrayManager.base();
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testChainWithBroadcast() {
+        DArray<Double> x = dm.random(DType.DOUBLE, Shape.of(300, 17), random);
+        DArray<Double> mean = x.mean1d(0);
+        DArray<Double> std = x.std1d(0, 1);
+        DArray<Double> w = dm.random(DType.DOUBLE, Shape.of(17), random);
+
+        DArray<Double> expected = x.sub(mean).div(std).exp_().mul(w);
+        DArray<Double> lazy = x.lazy().sub(mean).div(std).exp().mul(w).materialize();
+        assertEquals(expected.shape(), lazy.shape());
+        assertTrue(expected.deepEquals(lazy, 1e-12));
+
+        DArray<Double> lazyF = x.lazy().sub(mean).div(std).exp().mul(w).materialize(Order.F);
+        assertTrue(expected.deepEquals(lazyF, 1e-12));
+    }
+
+    @Test
+    void testEmptyOuterDimension() {
+        // arrays with an empty dimension can't be built, so they never reach the fused loop
+        assertThrows(IllegalArgumentException.class, () -> Shape.of(0, 5));
+        DArray<Double> big = dm.random(DType.DOUBLE, Shape.of(6, 5), random);
+        assertThrows(IllegalArgumentException.class, () -> big.narrow(0, true, 3, 3));
+
+        // outer dimensions of length one are dropped from the loop
+        for (Shape shape : new Shape[] {Shape.of(1, 5), Shape.of(5, 1), Shape.of(1, 1, 4), Shape.of(1, 1)}) {
+            DArray<Double> x = dm.random(DType.DOUBLE, shape, random);
+            DArray<Double> y = dm.random(DType.DOUBLE, shape, random, Order.F);
+            DArray<Double> expected = x.add(y).mul(2.).exp();
+            assertTrue(expected.deepEquals(x.lazy().add(y).mul(2.).exp().materialize(), 1e-12));
+            assertTrue(expected.deepEquals(x.lazy().add(y).mul(2.).exp().materialize(Order.F), 1e-12));
+            assertEquals(x.add(y).sum(), x.lazy().add(y).sum(), 1e-12);
+        }
+        DArray<Double> row = big.narrow(0, true, 2, 3);
+        assertTrue(row.mul(row).deepEquals(row.lazy().mul(row).materialize(), 1e-12));
+    }
+
+    @Test
+    void testStridedOperands() {
+        DArray<Double> big = dm.random(DType.DOUBLE, Shape.of(40, 50, 3), random);
+        DArray<Double> x = big.narrow(0, true, 5, 30).t();
+        DArray<Double> y = dm.random(DType.DOUBLE, x.shape(), random, Order.F);
+
+        DArray<Double> expected = x.mul(y).add(1.).sqr().log();
+        DArray<Double> lazy = x.lazy().mul(y).add(1.).sqr().log().materialize();
+        assertTrue(expected.deepEquals(lazy, 1e-12));
+
+        assertEquals(x.mul(y).sum(), x.lazy().mul(y).sum(), 1e-9);
+        assertEquals(x.mul(y).amax(), x.lazy().mul(y).amax(), 1e-12);
+        assertEquals(x.mul(y).amin(), x.lazy().mul(y).amin(), 1e-12);
+        assertEquals(x.mul(y).mean(), x.lazy().mul(y).mean(), 1e-12);
+    }
+
+    @Test
+    void testBinaryExpressions() {
+        DArray<Float> x = dm.random(DType.FLOAT, Shape.of(1000), random);
+        DArray<Float> y = dm.random(DType.FLOAT, Shape.of(1000), random);
+
+        DArray<Float> expected = x.sqr().add(y.sqr()).sqrt();
+        DArray<Float> lazy = x.lazy().sqr().add(y.lazy().sqr()).sqrt().materialize();
+        assertTrue(expected.deepEquals(lazy, 1e-5));
+        assertEquals(DType.FLOAT, lazy.dt());
+
+        DArray<Float> clamped = x.lazy().binary(DArrayOp.binaryMax(), -0.5).min(0.5).materialize();
+        assertTrue(x.clamp(-0.5f, 0.5f).deepEquals(clamped, 1e-6));
+    }
+
+    @Test
+    void testInPlace() {
+        DArray<Double> x = dm.seq(DType.DOUBLE, Shape.of(10, 10));
+        DArray<Double> expected = x.mul(2.).add(x);
+        DArray<Double> result = x.lazy().mul(2.).add(x).into(x);
+        assertSame(x, result);
+        assertTrue(expected.deepEquals(x));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(OperationNotAvailableException.class, () -> dm.seq(DType.INTEGER, Shape.of(3)).lazy());
+        DArray<Double> x = dm.seq(DType.DOUBLE, Shape.of(3, 4));
+        assertThrows(IllegalArgumentException.class, () -> x.lazy().add(dm.seq(DType.DOUBLE, Shape.of(3))));
+        assertThrows(IllegalArgumentException.class, () -> x.lazy().unary(DArrayOp.unarySoftmax()));
+        assertThrows(IllegalArgumentException.class, () -> x.lazy().exp().into(dm.zeros(DType.DOUBLE, Shape.of(4, 3))));
+    }
+}
@@ -85,6 +85,19 @@ public class CholeskyDecompositionTest {
         assertTrue(A.deepEquals(A.cholesky(false).l().mm(A.cholesky(true).r()), TOL));
     }
 
+    @Test
+    void testBlocked() {
+        DArrayManager dm = DArrayManager.base(4);
+        var m = dm.random(DType.DOUBLE, Shape.of(200, 170), random);
+        var a = m.t().mm(m);
+        testSolve(a, dm.random(DType.DOUBLE, Shape.of(170, 1), random), false, 1e-8);
+        testSolve(a, dm.random(DType.DOUBLE, Shape.of(170), random), true, 1e-8);
+
+        var l = a.cholesky().l();
+        assertTrue(a.deepEquals(l.mm(l.t()), 1e-10));
+        assertTrue(a.cholesky().inv().mm(a).deepEquals(dm.eye(DType.DOUBLE, 170), 1e-8));
+    }
+
     @Test
     void testIntegerTypes() {
         var ti = DArrayManager.base().eye(DType.INTEGER, 10);
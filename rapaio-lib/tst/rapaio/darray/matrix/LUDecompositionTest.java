@@ -82,6 +82,20 @@ public class LUDecompositionTest {
         assertTrue(a1.deepEquals(a2, TOL));
     }
 
+    @Test
+    void testBlocked() {
+        DArrayManager tm = DArrayManager.base(4);
+        DArray<Double> a = tm.random(DType.DOUBLE, Shape.of(230, 170), random);
+        for (LUDecomposition.Method method : LUDecomposition.Method.values()) {
+            LUDecomposition<Double> lu = a.lu(method);
+            assertTrue(a.sel(0, lu.pivots()).deepEquals(lu.l().mm(lu.u()), 1e-11));
+        }
+
+        DArray<Double> sq = tm.random(DType.DOUBLE, Shape.of(150, 150), random);
+        DArray<Double> b = tm.random(DType.DOUBLE, Shape.of(150, 3), random);
+        assertTrue(sq.mm(sq.lu().solve(b)).deepEquals(b, 1e-9));
+    }
+
     <N extends Number> void testIsSingular(DArrayManager tm, DType<N> dt) {
         assertFalse(tm.zeros(dt, Shape.of(10, 10)).lu().isNonSingular());
         assertTrue(tm.random(dt, Shape.of(10, 10), random).lu().isNonSingular());
@@ -0,0 +1,90 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+
+public class LanczosEigenDecompositionTest {
+
+    private static final double TOL = 1e-8;
+
+    private Random random;
+    private final DArrayManager tm = DArrayManager.base();
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testTopEigenValues() {
+        DArray<Double> x = tm.random(DType.DOUBLE, Shape.of(300, 150), random);
+        DArray<Double> a = x.t().mm(x);
+
+        DArray<Double> expected = a.eig().real();
+        LanczosEigenDecomposition<Double> evd = a.eig(6, random);
+        DArray<Double> values = evd.real();
+        DArray<Double> vectors = evd.v();
+
+        assertEquals(6, values.size());
+        assertTrue(expected.narrow(0, true, 0, 6).deepEquals(values, TOL * expected.getDouble(0)));
+        assertTrue(tm.eye(DType.DOUBLE, 6).deepEquals(vectors.t().mm(vectors), TOL));
+        for (int i = 0; i < 6; i++) {
+            DArray<Double> v = vectors.narrow(1, true, i, i + 1).squeeze(1);
+            assertTrue(a.mv(v).deepEquals(v.mul(values.getDouble(i)), 1e-6));
+        }
+        assertTrue(evd.iterations() < 150);
+    }
+
+    @Test
+    void testDegenerate() {
+        // identity has a single eigen value with full multiplicity, basis is rebuilt with new random directions
+        DArray<Double> a = tm.eye(DType.DOUBLE, 30).mul_(2.);
+        LanczosEigenDecomposition<Double> evd = a.eig(3, random);
+        assertTrue(tm.full(DType.DOUBLE, Shape.of(3), 2.).deepEquals(evd.real(), TOL));
+        assertTrue(tm.eye(DType.DOUBLE, 3).deepEquals(evd.v().t().mm(evd.v()), TOL));
+
+        // small diagonal matrix, the whole space is spanned
+        DArray<Double> d = tm.zeros(DType.DOUBLE, Shape.of(5, 5));
+        for (int i = 0; i < 5; i++) {
+            d.setDouble(i + 1, i, i);
+        }
+        assertTrue(tm.stride(DType.DOUBLE, 5., 4, 3).deepEquals(d.eig(3, random).real(), TOL));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> tm.random(DType.DOUBLE, Shape.of(4, 3), random).eig(1));
+        assertThrows(IllegalArgumentException.class, () -> tm.eye(DType.DOUBLE, 4).eig(5));
+    }
+}
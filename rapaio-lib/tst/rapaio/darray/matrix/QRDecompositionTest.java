@@ -92,6 +92,23 @@ public class QRDecompositionTest {
         }
     }
 
+    @Test
+    void testBlocked() {
+        DArrayManager tm = DArrayManager.base(4);
+        DArray<Double> a = tm.random(DType.DOUBLE, Shape.of(300, 130), random);
+        QRDecomposition<Double> qr = a.qr();
+        DArray<Double> q = qr.q();
+        DArray<Double> r = qr.r();
+
+        assertTrue(tm.eye(DType.DOUBLE, 130).deepEquals(q.t().mm(q), 1e-12));
+        assertTrue(a.deepEquals(q.mm(r), 1e-12));
+
+        // least squares solution satisfies normal equations
+        DArray<Double> b = tm.random(DType.DOUBLE, Shape.of(300, 2), random);
+        DArray<Double> x = qr.solve(b);
+        assertTrue(a.t().mm(a).mm(x).deepEquals(a.t().mm(b), 1e-9));
+    }
+
     /**
      * Test is done using householder reflections described <a href="https://en.wikipedia.org/wiki/Householder_transformation">here</a>.
      */
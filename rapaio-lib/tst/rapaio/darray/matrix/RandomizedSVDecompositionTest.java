@@ -0,0 +1,97 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+
+public class RandomizedSVDecompositionTest {
+
+    private static final double TOL = 1e-8;
+
+    private Random random;
+    private final DArrayManager tm = DArrayManager.base();
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(1234);
+    }
+
+    /**
+     * Builds a matrix with given singular values and random singular vectors.
+     */
+    static DArray<Double> lowRank(DArrayManager tm, Random random, int m, int n, double... values) {
+        DArray<Double> u = tm.random(DType.DOUBLE, Shape.of(m, values.length), random).qr().q();
+        DArray<Double> v = tm.random(DType.DOUBLE, Shape.of(n, values.length), random).qr().q();
+        DArray<Double> s = tm.zeros(DType.DOUBLE, Shape.of(values.length, values.length));
+        for (int i = 0; i < values.length; i++) {
+            s.setDouble(values[i], i, i);
+        }
+        return u.mm(s).mm(v.t());
+    }
+
+    @Test
+    void testLowRank() {
+        DArray<Double> a = lowRank(tm, random, 300, 120, 50, 20, 10, 5, 2, 1);
+
+        RandomizedSVDecomposition<Double> svd = a.svd(4, random);
+        assertTrue(tm.stride(DType.DOUBLE, 50., 20, 10, 5).deepEquals(svd.singularValues(), TOL));
+        assertEquals(300, svd.u().dim(0));
+        assertEquals(120, svd.v().dim(0));
+
+        assertTrue(tm.eye(DType.DOUBLE, 4).deepEquals(svd.u().t().mm(svd.u()), TOL));
+        assertTrue(tm.eye(DType.DOUBLE, 4).deepEquals(svd.v().t().mm(svd.v()), TOL));
+        assertTrue(a.mm(svd.v()).deepEquals(svd.u().mm(svd.s()), TOL));
+    }
+
+    @Test
+    void testFullMatrix() {
+        DArray<Double> a = tm.random(DType.DOUBLE, Shape.of(80, 60), random);
+        DArray<Double> expected = a.svd().singularValues().narrow(0, true, 0, 5);
+
+        // without oversampling the estimates are rough, with power iterations they become accurate
+        var svd = new RandomizedSVDecomposition<>(a, 5, 20, 6, random);
+        assertTrue(expected.deepEquals(svd.singularValues(), 1e-2));
+
+        // when range covers the whole space the result is exact
+        svd = new RandomizedSVDecomposition<>(a, 5, 60, 0, random);
+        assertTrue(expected.deepEquals(svd.singularValues(), TOL));
+    }
+
+    @Test
+    void testInvalid() {
+        DArray<Double> a = tm.random(DType.DOUBLE, Shape.of(10, 5), random);
+        assertThrows(IllegalArgumentException.class, () -> a.svd(0));
+        assertThrows(IllegalArgumentException.class, () -> a.svd(6));
+        assertThrows(IllegalArgumentException.class, () -> tm.eye(DType.INTEGER, 4).svd(2));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.darray.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+
+public class StreamingSVDecompositionTest {
+
+    private final DArrayManager tm = DArrayManager.base();
+
+    @Test
+    void testChunks() {
+        Random random = new Random(7);
+        DArray<Double> a = RandomizedSVDecompositionTest.lowRank(tm, random, 1000, 40, 30, 12, 6, 3, 1)
+                .add_(tm.random(DType.DOUBLE, Shape.of(1000, 40), random).mul_(1e-3));
+        List<DArray<Double>> chunks = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 128) {
+            chunks.add(a.narrow(0, true, i, Math.min(1000, i + 128)));
+        }
+
+        StreamingSVDecomposition svd = new StreamingSVDecomposition(chunks, 40, 3, random);
+        assertEquals(1000, svd.rows());
+
+        SVDecomposition<Double> full = a.svd();
+        assertTrue(full.singularValues().narrow(0, true, 0, 3).deepEquals(svd.singularValues(), 1e-8));
+        for (int i = 0; i < 3; i++) {
+            // singular vectors are determined up to sign
+            double dot = full.v().narrow(1, true, i, i + 1).squeeze(1).inner(svd.v().narrow(1, true, i, i + 1).squeeze(1));
+            assertEquals(1, Math.abs(dot), 1e-8);
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        Random random = new Random(7);
+        List<DArray<Double>> chunks = List.of(tm.random(DType.DOUBLE, Shape.of(10, 4), random));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingSVDecomposition(chunks, 5, 2, random));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingSVDecomposition(chunks, 4, 5, random));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingSVDecomposition(List.of(), 4, 2, random));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.sparse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+
+public class SparseMatrixTest {
+
+    private static final double TOL = 1e-12;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    private DArray<Double> randomSparseDense(int rows, int cols, double density) {
+        DArray<Double> m = DArrays.zeros(Shape.of(rows, cols));
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (random.nextDouble() < density) {
+                    m.setDouble(random.nextGaussian(), i, j);
+                }
+            }
+        }
+        return m;
+    }
+
+    private static void assertClose(DArray<Double> expected, DArray<Double> actual) {
+        assertEquals(expected.shape(), actual.shape());
+        assertArrayEquals(expected.toDoubleArray(), actual.toDoubleArray(), TOL);
+    }
+
+    @Test
+    void testCooBuild() {
+        SparseMatrix csr = CooMatrix.empty(3, 4)
+                .add(2, 3, 1)
+                .add(0, 1, 2)
+                .add(2, 0, 3)
+                .add(0, 1, 4)
+                .add(1, 2, 5)
+                .toCsr();
+        assertEquals(SparseMatrix.Format.CSR, csr.format());
+        assertEquals(4, csr.nnz());
+        assertArrayEquals(new int[] {0, 1, 2, 4}, csr.ptr());
+        assertArrayEquals(new int[] {1, 2, 0, 3}, csr.idx());
+        assertArrayEquals(new double[] {6, 5, 3, 1}, csr.values());
+        assertEquals(6, csr.get(0, 1));
+        assertEquals(0, csr.get(0, 0));
+
+        SparseMatrix csc = CooMatrix.empty(3, 4).add(2, 3, 1).add(0, 1, 2).add(2, 0, 3).add(0, 1, 4).add(1, 2, 5).toCsc();
+        assertEquals(SparseMatrix.Format.CSC, csc.format());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, csc.ptr());
+        assertArrayEquals(new int[] {2, 0, 1, 2}, csc.idx());
+        assertClose(csr.toDense(), csc.toDense());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> CooMatrix.empty(2, 2).add(2, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> SparseMatrix.csr(2, 2, new int[] {0, 1}, new int[] {0}, new double[] {1}));
+    }
+
+    @Test
+    void testConversions() {
+        DArray<Double> dense = randomSparseDense(30, 20, 0.1);
+        SparseMatrix csr = SparseMatrix.from(dense, SparseMatrix.Format.CSR);
+        SparseMatrix csc = SparseMatrix.from(dense, SparseMatrix.Format.CSC);
+        assertEquals(csr.nnz(), csc.nnz());
+        assertClose(dense, csr.toDense());
+        assertClose(dense, csc.toDense());
+        assertClose(dense, csr.toCsc().toDense());
+        assertClose(dense, csc.toCsr().toDense());
+        assertSame(csr, csr.toCsr());
+        assertSame(csc, csc.toCsc());
+
+        SparseMatrix t = csr.t();
+        assertEquals(SparseMatrix.Format.CSC, t.format());
+        assertEquals(Shape.of(20, 30), t.shape());
+        assertSame(csr.values(), t.values());
+        assertClose(dense.t().copy(), t.toDense());
+        assertClose(dense.t().copy(), t.toCsr().toDense());
+    }
+
+    @Test
+    void testProducts() {
+        DArray<Double> dense = randomSparseDense(50, 40, 0.05);
+        DArray<Double> x = DArrays.random(Shape.of(40), random);
+        DArray<Double> y = DArrays.random(Shape.of(50), random);
+        DArray<Double> b = DArrays.random(Shape.of(40, 7), random);
+        DArray<Double> w = DArrays.random(Shape.of(50), random);
+
+        for (var format : SparseMatrix.Format.values()) {
+            SparseMatrix m = SparseMatrix.from(dense, format);
+            assertClose(dense.mv(x), m.mv(x));
+            assertClose(dense.t().mv(y), m.tmv(y));
+            assertClose(dense.mm(b), m.mm(b));
+            DArray<Double> c = DArrays.random(Shape.of(50, 3), random);
+            assertClose(dense.t().mm(c), m.t().mm(c));
+            DArray<Double> gram = dense.t().mul(w.stretch(0).expand(0, 40)).mm(dense);
+            assertClose(gram, m.gram(w));
+        }
+
+        SparseMatrix m = SparseMatrix.from(dense, SparseMatrix.Format.CSR);
+        assertThrows(IllegalArgumentException.class, () -> m.mv(y));
+        assertThrows(IllegalArgumentException.class, () -> m.mm(DArrays.zeros(Shape.of(50, 2))));
+    }
+
+    @Test
+    void testRows() {
+        DArray<Double> dense = randomSparseDense(20, 10, 0.2);
+        for (var format : SparseMatrix.Format.values()) {
+            SparseMatrix m = SparseMatrix.from(dense, format);
+
+            SparseMatrix range = m.rowRange(5, 12);
+            assertEquals(SparseMatrix.Format.CSR, range.format());
+            assertClose(dense.narrow(0, 5, 12).copy(), range.toDense());
+
+            SparseMatrix selected = m.rows(3, 3, 19, 0);
+            assertEquals(Shape.of(4, 10), selected.shape());
+            for (int j = 0; j < 10; j++) {
+                assertEquals(dense.getDouble(3, j), selected.get(0, j));
+                assertEquals(dense.getDouble(3, j), selected.get(1, j));
+                assertEquals(dense.getDouble(19, j), selected.get(2, j));
+                assertEquals(dense.getDouble(0, j), selected.get(3, j));
+            }
+        }
+    }
+
+    @Test
+    void testFromFrameAndPrependColumn() {
+        DArray<Double> dense = randomSparseDense(30, 6, 0.3);
+        Frame df = SolidFrame.matrix(dense, "a", "b", "c", "d", "e", "f");
+
+        SparseMatrix m = SparseMatrix.from(df);
+        assertEquals(SparseMatrix.Format.CSR, m.format());
+        assertClose(dense, m.toDense());
+        assertClose(SparseMatrix.from(dense, SparseMatrix.Format.CSR).toDense(), m.toDense());
+
+        SparseMatrix p = m.prependColumn(2.0);
+        assertEquals(Shape.of(30, 7), p.shape());
+        assertEquals(m.nnz() + 30, p.nnz());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(2.0, p.get(i, 0));
+            for (int j = 0; j < 6; j++) {
+                assertEquals(dense.getDouble(i, j), p.get(i, j + 1));
+            }
+        }
+        assertClose(p.toDense(), m.toCsc().prependColumn(2.0).toDense());
+    }
+
+    @Test
+    void testLargeParallel() {
+        int rows = 20_000;
+        int cols = 500;
+        CooMatrix coo = CooMatrix.empty(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < 5; k++) {
+                coo.add(i, random.nextInt(cols), 1);
+            }
+        }
+        SparseMatrix csr = coo.toCsr();
+        SparseMatrix csc = coo.toCsc();
+        assertTrue(csr.nnz() <= rows * 5);
+        DArray<Double> x = DArrays.random(Shape.of(cols), random);
+        assertClose(csc.mv(x), csr.mv(x));
+        DArray<Double> b = DArrays.random(Shape.of(cols, 3), random);
+        assertClose(csc.mm(b), csr.mm(b));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.darray.storage.segment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.Storage;
+import rapaio.darray.StorageManager;
+
+public class SegmentStorageManagerTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void testOperations() {
+        DArrayManager dm = DArrayManager.base(4, StorageManager.segment());
+        DArray<Double> x = dm.seq(DType.DOUBLE, Shape.of(100, 7));
+        assertInstanceOf(DoubleSegmentStorage.class, x.storage());
+
+        DArray<Double> ref = DArrayManager.base().seq(DType.DOUBLE, Shape.of(100, 7));
+        assertEquals(ref.sum(), x.sum());
+        assertEquals(ref.exp().sum(), x.exp().sum(), 1e-9);
+        assertEquals(ref.t().add(1.).sum(), x.t().add(1.).sum(), 1e-9);
+        assertEquals(ref.mm(ref.t()).sum(), x.mm(x.t()).sum(), 1e-6);
+
+        DArray<Float> f = dm.seq(DType.FLOAT, Shape.of(33));
+        assertInstanceOf(FloatSegmentStorage.class, f.storage());
+        assertEquals(33 * 32 / 2, f.sum());
+        DArray<Integer> i = dm.seq(DType.INTEGER, Shape.of(3, 11)).mul_(2);
+        assertInstanceOf(IntSegmentStorage.class, i.storage());
+        assertEquals(33 * 32, i.sum());
+        DArray<Byte> b = dm.full(DType.BYTE, Shape.of(50), (byte) 2);
+        assertInstanceOf(ByteSegmentStorage.class, b.storage());
+        assertEquals((byte) 100, b.sum());
+    }
+
+    @Test
+    void testMappedFile() throws IOException {
+        Path file = tmp.resolve("data.bin");
+        try (Arena arena = Arena.ofShared()) {
+            SegmentStorageManager sm = StorageManager.segment(arena);
+            Storage storage = sm.map(DType.DOUBLE, file, FileChannel.MapMode.READ_WRITE, 0, 12);
+            DArray<Double> x = DArrayManager.base().stride(DType.DOUBLE, Shape.of(3, 4), Order.C, storage);
+            x.apply_(Order.C, (i, _) -> (double) i);
+        }
+        assertEquals(12L * Double.BYTES, Files.size(file));
+
+        try (Arena arena = Arena.ofShared()) {
+            SegmentStorageManager sm = StorageManager.segment(arena);
+            Storage storage = sm.map(DType.DOUBLE, file, FileChannel.MapMode.READ_ONLY, 4L * Double.BYTES, 8);
+            DArray<Double> x = DArrayManager.base().stride(DType.DOUBLE, Shape.of(2, 4), Order.C, storage);
+            assertEquals(4., x.get(0, 0));
+            assertEquals(11., x.get(1, 3));
+            assertEquals(4 + 5 + 6 + 7 + 8 + 9 + 10 + 11, x.sum());
+        }
+    }
+
+    @Test
+    void testFromStorage() {
+        SegmentStorageManager sm = StorageManager.segment();
+        Storage source = sm.from(DType.DOUBLE, 1, 2, 3, 4, 5);
+        for (DType<?> dt : new DType<?>[] {DType.BYTE, DType.INTEGER, DType.FLOAT, DType.DOUBLE}) {
+            Storage copy = sm.from(dt, source.slice(1L, 3));
+            assertEquals(3L, copy.longSize());
+            assertEquals(2., copy.getDouble(0L));
+            assertEquals(4., copy.getDouble(2L));
+        }
+    }
+
+    @Test
+    void testLargeMappedFile() {
+        Path file = tmp.resolve("large.bin");
+        int cols = (1 << 30) + 5;
+        try (Arena arena = Arena.ofShared()) {
+            SegmentStorageManager sm = StorageManager.segment(arena);
+            Storage storage = sm.map(DType.BYTE, file, FileChannel.MapMode.READ_WRITE, 0, 2L * cols);
+            assertEquals(2L * cols, storage.longSize());
+            assertThrows(IllegalStateException.class, storage::size);
+
+            DArray<Byte> x = DArrayManager.base().stride(DType.BYTE, Shape.of(2, cols), Order.C, storage);
+            assertEquals(2L * cols, x.layout().longSize());
+            x.set((byte) 7, 1, cols - 1);
+            x.set((byte) 3, 1, 2);
+            assertEquals((byte) 7, x.get(1, cols - 1));
+            assertEquals((byte) 7, storage.getByte(2L * cols - 1));
+            assertEquals((byte) 3, storage.getInt(cols + 2L));
+
+            // views of large arrays are rebased on storage slices
+            DArray<Byte> row = x.narrow(0, false, 1, 2);
+            assertEquals(cols, row.size());
+            assertEquals(cols, row.storage().longSize());
+            assertEquals((byte) 7, row.get(cols - 1));
+            assertEquals((byte) 3, row.get(2));
+
+            DArray<Byte> block = x.narrowAll(true, new int[] {1, 1}, new int[] {2, 4});
+            assertEquals(3, block.size());
+            assertEquals((byte) 3, block.sum());
+            block.fill_((byte) 1);
+            assertEquals((byte) 1, x.get(1, 3));
+
+            assertThrows(IllegalArgumentException.class, () -> x.narrow(1, true, 0, cols));
+        }
+    }
+}
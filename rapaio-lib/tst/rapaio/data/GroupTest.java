@@ -293,4 +293,92 @@ public class GroupTest {
             assertEquals((int) counts.get(sb), count);
         }
     }
+
+    @Test
+    void testLargeMultiKeyGroup() {
+        final int N = 200_000;
+        String[] levels = new String[] {"x", "y", "z", "t"};
+        VarNominal k1 = VarNominal.from(N, row -> random.nextInt(20) == 0 ? "?" : levels[random.nextInt(levels.length)], levels).name("k1");
+        VarInt k2 = VarInt.from(N, row -> random.nextInt(50) - 25).name("k2");
+        VarDouble k3 = VarDouble.from(N, row -> (double) random.nextInt(3) / 2).name("k3");
+        VarDouble value = VarDouble.from(N, row -> random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian()).name("value");
+        Frame df = SolidFrame.byVars(k1, k2, k3, value);
+
+        Group group = Group.from(df, "k1", "k2", "k3");
+
+        // naive aggregation over composite keys
+        Map<String, double[]> naive = new HashMap<>();
+        for (int i = 0; i < N; i++) {
+            String key = k1.getLabel(i) + "|" + k2.getInt(i) + "|" + k3.getDouble(i);
+            double[] acc = naive.computeIfAbsent(key, k -> new double[] {0, 0, 0, Double.NaN});
+            acc[0]++;
+            if (!value.isMissing(i)) {
+                acc[1] += value.getDouble(i);
+                acc[2]++;
+                acc[3] = Double.isNaN(acc[3]) ? value.getDouble(i) : Math.max(acc[3], value.getDouble(i));
+            }
+        }
+        assertEquals(naive.size(), group.getNumberOfGroups());
+
+        Frame agg = group.aggregate(count("value"), sum("value"), mean("value"), max("value")).toFrame();
+        assertEquals(naive.size(), agg.rowCount());
+        for (int i = 0; i < agg.rowCount(); i++) {
+            String key = agg.getLabel(i, "k1") + "|" + agg.getInt(i, "k2") + "|" + agg.getDouble(i, "k3");
+            double[] acc = naive.get(key);
+            assertEquals(acc[0], agg.getInt(i, "value_count"));
+            assertEquals(acc[1], agg.getDouble(i, "value_sum"), 1e-9);
+            assertEquals(acc[1] / acc[2], agg.getDouble(i, "value_mean"), 1e-9);
+            assertEquals(acc[3], agg.getDouble(i, "value_max"));
+            if (i > 0) {
+                // groups are sorted by keys, missing labels first
+                int cmp = compareLabels(agg.getLabel(i - 1, "k1"), agg.getLabel(i, "k1"));
+                if (cmp == 0) {
+                    cmp = Integer.compare(agg.getInt(i - 1, "k2"), agg.getInt(i, "k2"));
+                }
+                if (cmp == 0) {
+                    cmp = Double.compare(agg.getDouble(i - 1, "k3"), agg.getDouble(i, "k3"));
+                }
+                assertTrue(cmp < 0);
+            }
+        }
+        for (int i = 0; i < N; i += 997) {
+            int row = i;
+            assertTrue(group.getRowsForGroupId(group.getGroupId(row)).stream().anyMatch(r -> r == row));
+        }
+    }
+
+    private static int compareLabels(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        if (a.equals("?")) {
+            return -1;
+        }
+        if (b.equals("?")) {
+            return 1;
+        }
+        return a.compareTo(b);
+    }
+
+    @Test
+    void testUnstack() {
+        Frame unstacked = Group.from(play, "class", "outlook").aggregate(count("temp")).toFrame(1);
+
+        assertEquals(2, unstacked.rowCount());
+        assertEquals("class,outlook_overcast_temp_count,outlook_rain_temp_count,outlook_sunny_temp_count",
+                String.join(",", unstacked.varNames()));
+        assertEquals("noplay", unstacked.getLabel(0, "class"));
+        assertTrue(unstacked.isMissing(0, "outlook_overcast_temp_count"));
+        assertEquals(2, unstacked.getInt(0, "outlook_rain_temp_count"));
+        assertEquals(3, unstacked.getInt(0, "outlook_sunny_temp_count"));
+        assertEquals("play", unstacked.getLabel(1, "class"));
+        assertEquals(4, unstacked.getInt(1, "outlook_overcast_temp_count"));
+        assertEquals(3, unstacked.getInt(1, "outlook_rain_temp_count"));
+        assertEquals(2, unstacked.getInt(1, "outlook_sunny_temp_count"));
+
+        Frame full = Group.from(play, "class", "outlook").aggregate(count("temp")).toFrame(2);
+        assertEquals(1, full.rowCount());
+        assertEquals(5, full.varCount());
+        assertEquals(4, full.getInt(0, "class_play_outlook_overcast_temp_count"));
+    }
 }
@@ -28,6 +28,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -223,6 +224,29 @@ public class SolidFrameTest {
         }
     }
 
+    @Test
+    void testDArray() {
+        Random random = new Random(42);
+        int rows = 50_000;
+        VarDouble a = VarDouble.from(rows, row -> random.nextDouble()).name("a");
+        VarFloat b = VarFloat.from(rows, row -> random.nextFloat()).name("b");
+        VarInt c = VarInt.from(rows, row -> random.nextInt(100)).name("c");
+        VarNominal d = VarNominal.from(rows, row -> String.valueOf(random.nextInt(3)), "0", "1", "2").name("d");
+        a.setMissing(3);
+        c.setMissing(7);
+
+        Frame df = SolidFrame.byVars(a, b, c, d);
+        for (Frame frame : new Frame[] {df, df.mapRows(Mapping.range(100, 200)), df.mapVars("c,a")}) {
+            DArray<Double> m = frame.darray();
+            assertEquals(Shape.of(frame.rowCount(), frame.varCount()), m.shape());
+            for (int i = 0; i < frame.rowCount(); i++) {
+                for (int j = 0; j < frame.varCount(); j++) {
+                    assertEquals(frame.getDouble(i, j), m.getDouble(i, j));
+                }
+            }
+        }
+    }
+
     @Test
     void testType() {
         assertEquals(VarType.DOUBLE, SolidFrame.byVars(x, y).type("x"));
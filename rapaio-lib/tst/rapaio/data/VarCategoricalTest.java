@@ -0,0 +1,158 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class VarCategoricalTest {
+
+    @Test
+    void testSmoke() {
+        Var v = VarCategorical.empty();
+        assertEquals(0, v.size());
+        assertEquals(0, v.levels().size());
+        assertTrue(v.type().isNominal());
+        assertFalse(v.type().isNumeric());
+
+        v = VarCategorical.empty(1, "a", "?", "b", "a");
+        assertEquals(1, v.size());
+        assertEquals(List.of("a", "b"), v.levels());
+        assertEquals("?", v.getLabel(0));
+        assertTrue(v.isMissing(0));
+        assertEquals(-1, v.getInt(0));
+    }
+
+    @Test
+    void testLabelsAndIndexes() {
+        VarCategorical v = VarCategorical.copy("x", "y", "?", "x", "z");
+        assertEquals(List.of("x", "y", "z"), v.levels());
+        assertEquals(5, v.size());
+        assertEquals(0, v.getInt(0));
+        assertEquals(1, v.getInt(1));
+        assertTrue(v.isMissing(2));
+        assertEquals(0, v.getInt(3));
+        assertEquals(2.0, v.getDouble(4));
+
+        v.setLabel(2, "w");
+        assertEquals(3, v.getInt(2));
+        v.setInt(0, 2);
+        assertEquals("z", v.getLabel(0));
+        v.addInt(1);
+        assertEquals("y", v.getLabel(5));
+        v.addMissing();
+        assertTrue(v.isMissing(6));
+        assertThrows(IllegalArgumentException.class, () -> v.setInt(0, 4));
+        assertThrows(OperationNotAvailableException.class, () -> v.getLong(0));
+
+        v.removeRow(0);
+        assertEquals(6, v.size());
+        assertEquals("y", v.getLabel(0));
+
+        v.setLevels("a", "b", "c", "d", "e");
+        assertEquals(List.of("a", "b", "c", "d", "e"), v.levels());
+        assertEquals("b", v.getLabel(0));
+        assertEquals("d", v.getLabel(1));
+    }
+
+    @Test
+    void testHighCardinality() {
+        int rows = 100_000;
+        VarCategorical v = VarCategorical.from(rows, row -> "id" + (row % 50_000));
+        assertEquals(50_000, v.levels().size());
+        assertEquals(rows, v.size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i % 50_000, v.getInt(i));
+            assertEquals("id" + (i % 50_000), v.getLabel(i));
+        }
+
+        // nominal variable can't hold so many levels, copies of views are categorical
+        Var mapped = v.mapRows(1, 50_001, 2).copy();
+        assertEquals(3, mapped.size());
+        assertEquals("id1", mapped.getLabel(0));
+        assertEquals("id1", mapped.getLabel(1));
+        assertEquals("id2", mapped.getLabel(2));
+        assertTrue(mapped.deepEquals(v.mapRows(1, 50_001, 2)));
+    }
+
+    @Test
+    void testNewInstanceFromVariables() {
+        VarCategorical cat = VarCategorical.from(50_000, row -> "id%05d".formatted(row)).name("cat");
+        VarInt key = VarInt.from(50_000, row -> row % 2).name("key");
+        Frame df = SolidFrame.byVars(key, cat);
+
+        Frame empty = SolidFrame.emptyFrom(df, 3);
+        assertTrue(empty.rvar("cat") instanceof VarCategorical);
+        assertEquals(cat.levels(), empty.rvar("cat").levels());
+
+        Frame max = Group.from(df, "key").aggregate(Group.max("cat")).toFrame();
+        assertTrue(max.rvar("cat_max") instanceof VarCategorical);
+        assertEquals("id49998", max.getLabel(0, "cat_max"));
+        assertEquals("id49999", max.getLabel(1, "cat_max"));
+    }
+
+    @Test
+    void testCopyAndConversion() {
+        VarNominal nominal = VarNominal.copy("a", "b", "?", "a").name("x");
+        VarCategorical v = VarCategorical.from(nominal);
+        assertEquals("x", v.name());
+        assertEquals(nominal.levels(), v.levels());
+        assertTrue(nominal.deepEquals(v));
+
+        VarCategorical copy = v.copy();
+        assertTrue(v.deepEquals(copy));
+        copy.setLabel(0, "c");
+        assertEquals("a", v.getLabel(0));
+        assertEquals(List.of("a", "b"), v.levels());
+
+        Var instance = v.newInstance(2);
+        assertTrue(instance instanceof VarCategorical);
+        assertEquals(v.levels(), instance.levels());
+        assertTrue(instance.isMissing(1));
+    }
+
+    @Test
+    void testSerialization() throws IOException, ClassNotFoundException {
+        VarCategorical v = VarCategorical.copy("a", "b", "?", "c", "a").name("cat");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(v);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            VarCategorical read = (VarCategorical) in.readObject();
+            assertTrue(v.deepEquals(read));
+            read.addLabel("b");
+            assertEquals(1, read.getInt(5));
+        }
+    }
+}
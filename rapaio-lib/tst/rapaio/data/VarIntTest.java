@@ -34,6 +34,8 @@ import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 import rapaio.core.stat.Sum;
+import rapaio.darray.DArray;
+import rapaio.darray.DType;
 
 /**
  * User: <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
@@ -50,6 +52,21 @@ public class VarIntTest {
         assertEquals(1, index.size());
     }
 
+    @Test
+    void darrayViewTest() {
+        VarInt x = VarInt.seq(10);
+        DArray<Integer> view = x.darray_(DType.INTEGER);
+        view.setInt(100, 3);
+        assertEquals(100, x.getInt(3));
+        x.setInt(4, 200);
+        assertEquals(200, view.getInt(4));
+
+        DArray<Integer> copy = x.darray(DType.INTEGER);
+        copy.setInt(-1, 0);
+        assertEquals(0, x.getInt(0));
+        assertEquals(10, copy.size());
+    }
+
     @Test
     void invalidRowNumber() {
         var ex = assertThrows(IllegalArgumentException.class, () -> VarInt.empty(-1));
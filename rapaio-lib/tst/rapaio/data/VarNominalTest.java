@@ -208,6 +208,7 @@ public class VarNominalTest {
         assertTrue(copy1.deepEquals(copy2));
         assertTrue(copy1.deepEquals(copy3));
         assertTrue(copy1.deepEquals(copy4));
+        assertTrue(copy1.deepEquals(copy5));
 
         VarNominal copy6 = VarNominal.copy("a", "b");
         copy6.addRows(2);
@@ -0,0 +1,156 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.data.transform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarCategorical;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+import rapaio.data.VarRange;
+import rapaio.data.VarString;
+
+public class FeatureHashingTest {
+
+    private static final double TOL = 1e-20;
+
+    private Frame frame(Random random, int rows) {
+        String[] ids = new String[rows];
+        String[] colors = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = random.nextInt(10) == 0 ? "?" : "id" + random.nextInt(1000);
+            colors[i] = "c" + random.nextInt(5);
+        }
+        return SolidFrame.byVars(
+                VarDouble.from(rows, row -> (double) row).name("x"),
+                VarNominal.copy(ids).name("id"),
+                VarString.copy(colors).name("color"));
+    }
+
+    @Test
+    void testUnsigned() {
+        Frame df = frame(new Random(42), 500);
+        Frame hashed = df.fapply(FeatureHashing.on(16, false, VarRange.all()));
+
+        assertEquals(17, hashed.varCount());
+        assertEquals("x", hashed.varName(0));
+        assertEquals("hash_0", hashed.varName(1));
+        assertEquals("hash_15", hashed.varName(16));
+        assertTrue(hashed.rvar("x").deepEquals(df.rvar("x")));
+
+        for (int i = 0; i < df.rowCount(); i++) {
+            double sum = 0;
+            for (int j = 1; j < hashed.varCount(); j++) {
+                sum += hashed.getDouble(i, j);
+            }
+            assertEquals(df.isMissing(i, "id") ? 1 : 2, sum, TOL);
+        }
+    }
+
+    @Test
+    void testAllVarsHashed() {
+        Frame df = frame(new Random(42), 100).mapVars("id,color");
+        Frame hashed = df.fapply(FeatureHashing.on(8, VarRange.all()));
+
+        assertEquals(8, hashed.varCount());
+        assertEquals(100, hashed.rowCount());
+    }
+
+    @Test
+    void testSigned() {
+        Frame df = frame(new Random(42), 500);
+        Frame hashed = df.fapply(FeatureHashing.on(8, "id", "color"));
+        assertEquals(9, hashed.varCount());
+
+        int negative = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            double sum = 0;
+            for (int j = 1; j < hashed.varCount(); j++) {
+                sum += Math.abs(hashed.getDouble(i, j));
+                negative += hashed.getDouble(i, j) < 0 ? 1 : 0;
+            }
+            assertTrue(sum <= 2);
+        }
+        assertTrue(negative > 0);
+    }
+
+    @Test
+    void testRepresentationIndependence() {
+        Frame df = frame(new Random(42), 300);
+        Frame hashed = df.fapply(FeatureHashing.on(32, "id,color"));
+
+        // labels are hashed the same way, no matter how the variable stores them
+        Frame other = SolidFrame.byVars(
+                df.rvar("x"),
+                VarCategorical.from(df.rvar("id")),
+                VarCategorical.from(df.rvar("color")));
+        assertTrue(hashed.deepEquals(other.fapply(FeatureHashing.on(32, "id,color"))));
+
+        // mapped rows are encoded like the original rows
+        assertTrue(hashed.mapRows(3, 7, 11).deepEquals(df.mapRows(3, 7, 11).fapply(FeatureHashing.on(32, "id,color"))));
+    }
+
+    @Test
+    void testUnseenLabels() {
+        Frame train = frame(new Random(1), 100);
+        Frame test = frame(new Random(2), 100);
+        test.setLabel(0, "id", "never seen before");
+
+        var fh = FeatureHashing.on(16, "id,color");
+        fh.fit(train);
+        Frame hashed = fh.apply(test);
+        assertEquals(17, hashed.varCount());
+        assertTrue(hashed.deepEquals(test.fapply(FeatureHashing.on(16, "id,color"))));
+    }
+
+    @Test
+    void testSparse() {
+        Frame df = frame(new Random(42), 200);
+        var fh = FeatureHashing.on(16, "id,color");
+        fh.fit(df);
+        Frame dense = fh.apply(df);
+        SparseMatrix sparse = fh.applySparse(df);
+
+        assertEquals(200, sparse.rows());
+        assertEquals(16, sparse.cols());
+        assertTrue(sparse.nnz() <= 400);
+        for (int i = 0; i < df.rowCount(); i++) {
+            for (int j = 0; j < 16; j++) {
+                assertEquals(dense.getDouble(i, "hash_" + j), sparse.get(i, j), TOL);
+            }
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> FeatureHashing.on(0, "id"));
+    }
+}
@@ -32,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import rapaio.darray.DArrays;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
+import rapaio.ml.analysis.PCA;
 
 public class PCATransformTest {
 
@@ -62,6 +63,17 @@ public class PCATransformTest {
         assertTrue(pca.fitApply(df).deepEquals(pca.newInstance().fitApply(df)));
     }
 
+    @Test
+    void truncatedModelTest() {
+        PCA model = PCA.newModel().method.set(PCA.Method.LANCZOS).seed.set(42L);
+
+        // starts with a few components and grows them until the variance is covered
+        Frame wide = SolidFrame.matrix(DArrays.eye(30), IntStream.range(1, 31).boxed().map(i -> "v" + i).collect(Collectors.toList()));
+        assertEquals(27, wide.fapply(PCATransform.coverVariance(0.9).withModel(model)).varCount());
+        assertEquals(27, wide.fapply(PCATransform.coverVariance(0.9)).varCount());
+        assertEquals(3, df.fapply(PCATransform.featureCount(3).withModel(model)).varCount());
+    }
+
     @Test
     void testPrefix() {
         var tdf1 = PCATransform.featureCount(3).fitApply(df);
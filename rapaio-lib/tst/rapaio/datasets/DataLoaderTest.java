@@ -0,0 +1,231 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.datasets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrayManager;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.darray.Storage;
+import rapaio.darray.StorageManager;
+import rapaio.darray.storage.segment.DoubleSegmentStorage;
+import rapaio.darray.storage.segment.SegmentStorageManager;
+import rapaio.nn.TensorManager;
+
+public class DataLoaderTest {
+
+    private void checkEpoch(DataLoader loader, DArray<?> x, DArray<?> y, int batchSize, int expectedBatches, int expectedRows) {
+        Set<Integer> seen = new HashSet<>();
+        int batches = 0;
+        for (Batch batch : loader) {
+            DArray<?>[] arrays = batch.arrays();
+            int[] indices = batch.indices();
+            assertTrue(indices.length <= batchSize);
+            assertEquals(indices.length, arrays[0].dim(0));
+            assertTrue(x.sel(0, indices).deepEquals(arrays[0]));
+            assertTrue(y.sel(0, indices).deepEquals(arrays[1]));
+            assertTrue(x.sel(0, indices).deepEquals(batch.tensor(0).value()));
+            for (int index : indices) {
+                assertTrue(seen.add(index));
+            }
+            batches++;
+        }
+        assertEquals(expectedBatches, batches);
+        assertEquals(expectedRows, seen.size());
+    }
+
+    @Test
+    void testBatches() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        DArray<?> x = tm.randomArray(Shape.of(103, 4));
+        DArray<?> y = tm.seqArray(Shape.of(103));
+        TabularDataset dataset = new TabularDataset(tm, x, y);
+
+        for (int workers : new int[] {0, 1, 3}) {
+            try (DataLoader loader = new DataLoader(dataset, 10, true, false, workers, 3)) {
+                assertEquals(11, loader.len());
+                checkEpoch(loader, x, y, 10, 11, 103);
+                checkEpoch(loader, x, y, 10, 11, 103);
+            }
+            try (DataLoader loader = new DataLoader(dataset, 10, false, true, workers, 2)) {
+                assertEquals(10, loader.len());
+                checkEpoch(loader, x, y, 10, 10, 100);
+                Iterator<Batch> it = loader.iterator();
+                assertEquals(0, it.next().indices()[0]);
+                assertEquals(10, it.next().indices()[0]);
+            }
+        }
+    }
+
+    @Test
+    void testBufferReuse() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        TabularDataset dataset = new TabularDataset(tm, tm.randomArray(Shape.of(40, 3)));
+        try (DataLoader loader = new DataLoader(dataset, 10, false, false, 1, 1)) {
+            Set<DArray<?>> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int epoch = 0; epoch < 3; epoch++) {
+                for (Batch batch : loader) {
+                    arrays.add(batch.arrays()[0]);
+                }
+            }
+            // one batch in flight and one batch held by the consumer
+            assertEquals(2, arrays.size());
+
+            Iterator<Batch> it = loader.iterator();
+            while (it.hasNext()) {
+                it.next();
+            }
+            assertFalse(it.hasNext());
+            assertThrows(NoSuchElementException.class, it::next);
+        }
+    }
+
+    @Test
+    void testNoAllocationsFromDataset() {
+        // counts storages allocated by the manager of the dataset arrays
+        int[] allocations = new int[1];
+        StorageManager array = StorageManager.array();
+        StorageManager counting = new StorageManager() {
+            @Override
+            public Storage scalar(DType<?> dt, byte value) {
+                allocations[0]++;
+                return array.scalar(dt, value);
+            }
+
+            @Override
+            public Storage scalar(DType<?> dt, int value) {
+                allocations[0]++;
+                return array.scalar(dt, value);
+            }
+
+            @Override
+            public Storage scalar(DType<?> dt, float value) {
+                allocations[0]++;
+                return array.scalar(dt, value);
+            }
+
+            @Override
+            public Storage scalar(DType<?> dt, double value) {
+                allocations[0]++;
+                return array.scalar(dt, value);
+            }
+
+            @Override
+            public Storage zeros(DType<?> dt, int len) {
+                allocations[0]++;
+                return array.zeros(dt, len);
+            }
+
+            @Override
+            public Storage from(DType<?> dt, byte... values) {
+                allocations[0]++;
+                return array.from(dt, values);
+            }
+
+            @Override
+            public Storage from(DType<?> dt, int... values) {
+                allocations[0]++;
+                return array.from(dt, values);
+            }
+
+            @Override
+            public Storage from(DType<?> dt, float... values) {
+                allocations[0]++;
+                return array.from(dt, values);
+            }
+
+            @Override
+            public Storage from(DType<?> dt, double... values) {
+                allocations[0]++;
+                return array.from(dt, values);
+            }
+
+            @Override
+            public Storage from(DType<?> dt, Storage source) {
+                allocations[0]++;
+                return array.from(dt, source);
+            }
+        };
+        DArrayManager dm = DArrayManager.base(1, counting);
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        DArray<Double> x = dm.seq(DType.DOUBLE, Shape.of(64, 3));
+        DArray<Double> y = dm.seq(DType.DOUBLE, Shape.of(64));
+        allocations[0] = 0;
+
+        try (DataLoader loader = new DataLoader(new TabularDataset(tm, x, y), 8, true, false, 1, 2)) {
+            for (int epoch = 0; epoch < 3; epoch++) {
+                checkEpoch(loader, x, y, 8, 8, 64);
+                allocations[0] = 0;
+                for (Batch batch : loader) {
+                    assertEquals(8, batch.indices().length);
+                }
+                // shuffled rows are written into the batch buffers without intermediate arrays
+                assertEquals(0, allocations[0]);
+            }
+        }
+    }
+
+    @Test
+    void testMemoryMappedDataset() throws IOException {
+        Path file = Files.createTempFile("rapaio-data-loader", ".bin");
+        try (Arena arena = Arena.ofShared()) {
+            SegmentStorageManager storageManager = StorageManager.segment(arena);
+            DArrayManager dm = DArrayManager.base(1, storageManager);
+            TensorManager tm = TensorManager.ofDouble().seed(42);
+
+            Storage storage = storageManager.map(DType.DOUBLE, file, FileChannel.MapMode.READ_WRITE, 0, 50 * 3);
+            DArray<Double> x = dm.stride(DType.DOUBLE, Shape.of(50, 3), Order.C, storage);
+            tm.arrayManager().seq(DType.DOUBLE, Shape.of(50, 3)).copyTo(x);
+            DArray<?> y = tm.seqArray(Shape.of(50));
+
+            try (DataLoader loader = new DataLoader(new TabularDataset(tm, x, y), 8, true, false, 2, 2)) {
+                checkEpoch(loader, x, y, 8, 7, 50);
+                // rows are copied from the mapped file into heap arrays
+                for (Batch batch : loader) {
+                    assertFalse(batch.arrays()[0].storage() instanceof DoubleSegmentStorage);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
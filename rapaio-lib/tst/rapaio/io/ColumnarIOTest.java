@@ -0,0 +1,190 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rapaio.darray.DArray;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarFloat;
+import rapaio.data.VarInstant;
+import rapaio.data.VarInt;
+import rapaio.data.VarLong;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
+
+public class ColumnarIOTest {
+
+    private static final int N = 1_000;
+
+    @TempDir
+    Path tmp;
+
+    private Frame df;
+
+    @BeforeEach
+    void beforeEach() {
+        Random random = new Random(42);
+        VarDouble d = VarDouble.empty(N).name("d");
+        VarFloat f = VarFloat.empty(N).name("f");
+        VarInt i = VarInt.empty(N).name("i");
+        VarLong l = VarLong.empty(N).name("l");
+        VarBinary b = VarBinary.empty(N).name("b");
+        VarNominal n = VarNominal.empty(N, "a", "b", "c").name("n");
+        VarInstant t = VarInstant.empty(N);
+        t.name("t");
+        VarString s = VarString.empty(N).name("s");
+        for (int r = 0; r < N; r++) {
+            d.setDouble(r, random.nextGaussian());
+            f.setFloat(r, random.nextFloat());
+            i.setInt(r, random.nextInt(100) - 50);
+            l.setLong(r, random.nextLong());
+            b.setInt(r, random.nextInt(2));
+            n.setLabel(r, List.of("a", "b", "c").get(random.nextInt(3)));
+            t.setInstant(r, Instant.ofEpochSecond(random.nextInt(), random.nextInt(1_000_000_000)));
+            s.setLabel(r, "șir " + random.nextInt(1000));
+            if (r % 7 == 3) {
+                d.setMissing(r);
+                f.setMissing(r);
+                i.setMissing(r);
+                l.setMissing(r);
+                b.setMissing(r);
+                n.setMissing(r);
+                t.setMissing(r);
+                s.setMissing(r);
+            }
+        }
+        df = SolidFrame.byVars(d, f, i, l, b, n, t, s);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path path = tmp.resolve("df.rcol");
+        ColumnarIO.write(df, path, 128);
+
+        Frame copy = ColumnarIO.read(path);
+        assertTrue(df.deepEquals(copy));
+
+        try (ColumnarFile file = ColumnarIO.open(path)) {
+            assertEquals(N, file.rowCount());
+            assertEquals(List.of(df.varNames()), file.varNames());
+            assertEquals(VarType.NOMINAL, file.type("n"));
+            assertEquals(df.rvar("n").levels(), file.var("n").levels());
+            for (int r = 0; r < N; r++) {
+                assertEquals(df.isMissing(r, "s"), file.isMissing("s", r));
+            }
+        }
+    }
+
+    @Test
+    void testSelection() throws IOException {
+        Path path = tmp.resolve("df.rcol");
+        ColumnarIO.write(df, path, 100);
+
+        Frame selected = ColumnarIO.read(path, "s", "d");
+        assertArrayEquals(new String[] {"s", "d"}, selected.varNames());
+        assertTrue(df.mapVars("s", "d").deepEquals(selected));
+
+        try (ColumnarFile file = ColumnarIO.open(path)) {
+            Frame range = file.frame(123, 457, "t", "n", "b");
+            assertTrue(df.mapVars("t", "n", "b").mapRows(Mapping.range(123, 457)).deepEquals(range));
+            assertEquals(0, file.var("l", 10, 10).size());
+            assertThrows(IllegalArgumentException.class, () -> file.var("l", 10, N + 1));
+            assertThrows(IllegalArgumentException.class, () -> file.var("x"));
+        }
+    }
+
+    @Test
+    void testStats() throws IOException {
+        Path path = tmp.resolve("df.rcol");
+        ColumnarIO.write(df, path, 300);
+
+        try (ColumnarFile file = ColumnarIO.open(path)) {
+            List<ColumnarFile.ChunkStats> stats = file.stats("d");
+            assertEquals(4, stats.size());
+            for (ColumnarFile.ChunkStats s : stats) {
+                int missing = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int r = s.start(); r < s.start() + s.rows(); r++) {
+                    if (df.isMissing(r, "d")) {
+                        missing++;
+                    } else {
+                        min = Math.min(min, df.getDouble(r, "d"));
+                        max = Math.max(max, df.getDouble(r, "d"));
+                    }
+                }
+                assertEquals(missing, s.missing());
+                assertEquals(min, s.min());
+                assertEquals(max, s.max());
+            }
+            assertEquals(100, stats.getLast().rows());
+            assertTrue(Double.isNaN(file.stats("s").getFirst().min()));
+            assertEquals(0, file.stats("n").getFirst().min());
+            assertEquals(2, file.stats("n").getFirst().max());
+        }
+    }
+
+    @Test
+    void testDArrayView() throws IOException {
+        Path path = tmp.resolve("df.rcol");
+        ColumnarIO.write(df, path);
+
+        try (ColumnarFile file = ColumnarIO.open(path)) {
+            DArray<Double> d = file.darray("d");
+            DArray<Float> f = file.darray("f");
+            DArray<Integer> i = file.darray("i");
+            assertEquals(N, d.size());
+            for (int r = 0; r < N; r++) {
+                assertEquals(df.getDouble(r, "d"), d.getDouble(r));
+                assertEquals(df.rvar("f").getFloat(r), f.getFloat(r));
+                assertEquals(df.getInt(r, "i"), i.getInt(r));
+            }
+            assertThrows(IllegalArgumentException.class, () -> file.darray("s"));
+        }
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Path path = tmp.resolve("invalid.rcol");
+        Files.write(path, new byte[64]);
+        assertThrows(IOException.class, () -> ColumnarIO.open(path));
+    }
+}
@@ -27,13 +27,20 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import rapaio.data.Frame;
 import rapaio.data.Var;
@@ -307,4 +314,95 @@ public class CsvTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    void testChunkedReadSmallFile(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("iris.csv").toFile();
+        try (InputStream is = Datasets.resourceAsStream("iris-r.csv")) {
+            Files.copy(is, file.toPath());
+        }
+        assertChunkedRead(Csv.instance(), file);
+        assertChunkedRead(Csv.instance().keepCols.set(IntRule.from(1, 3, 4)), file);
+        assertChunkedRead(Csv.instance().naValues.set("virginica", "5").varTypes.add(VarType.NOMINAL, "sepal-length"), file);
+        assertChunkedRead(Csv.instance().header.set(false), file);
+
+        File defaults = dir.resolve("defaults.csv").toFile();
+        try (InputStream is = getClass().getResourceAsStream("defaults-test.csv")) {
+            Files.copy(is, defaults.toPath());
+        }
+        assertChunkedRead(Csv.instance().quotes.set(true).defaultTypes.set(VarType.BINARY, VarType.INT, VarType.DOUBLE, VarType.NOMINAL),
+                defaults);
+        File quoted = dir.resolve("quoted.csv").toFile();
+        try (InputStream is = getClass().getResourceAsStream("csv-test.csv")) {
+            Files.copy(is, quoted.toPath());
+        }
+        assertChunkedRead(Csv.instance().quotes.set(true), quoted);
+    }
+
+    @Test
+    void testChunkedReadLargeFile(@TempDir Path dir) throws IOException {
+        Random random = new Random(42);
+        String[] levels = new String[50];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = "level" + i;
+        }
+        for (String eol : new String[] {"\n", "\r\n"}) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("id,x,flag,cat,text,late_double,late_nominal,big").append(eol);
+            int rows = 50_000;
+            for (int i = 0; i < rows; i++) {
+                sb.append(i).append(',');
+                switch (i % 4) {
+                    case 0 -> sb.append(random.nextGaussian());
+                    case 1 -> sb.append(String.format("%.3f", random.nextGaussian() * 100));
+                    case 2 -> sb.append(String.format("%.2e", random.nextGaussian()));
+                    default -> sb.append(random.nextInt(10) == 0 ? "?" : String.valueOf(random.nextInt(1000) - 500));
+                }
+                sb.append(',');
+                sb.append(random.nextInt(20) == 0 ? "?" : random.nextBoolean() ? "1" : "0").append(',');
+                String level = levels[random.nextInt(levels.length)];
+                sb.append(random.nextBoolean() ? level : "\"" + level + "\"").append(',');
+                sb.append("\" text, with \"\"quotes\"\" ").append(random.nextInt(100)).append("\"").append(',');
+                sb.append(i == rows - 10 ? "0.5" : String.valueOf(random.nextInt(100))).append(',');
+                sb.append(i == rows / 2 ? "label" : String.valueOf(random.nextInt(100))).append(',');
+                sb.append(random.nextLong()).append(eol);
+            }
+            File file = dir.resolve("large.csv").toFile();
+            Files.writeString(file.toPath(), sb.toString());
+
+            Frame df = assertChunkedRead(Csv.instance().quotes.set(true).poolSize.set(4).sampleRows.set(100), file);
+            assertEquals(rows, df.rowCount());
+            VarType[] types = new VarType[] {VarType.INT, VarType.DOUBLE, VarType.BINARY, VarType.NOMINAL,
+                    VarType.NOMINAL, VarType.DOUBLE, VarType.NOMINAL, VarType.LONG};
+            assertArrayEquals(types, df.varStream().map(Var::type).toArray());
+            assertEquals(0.5, df.getDouble(rows - 10, "late_double"));
+            assertEquals("label", df.getLabel(rows / 2, "late_nominal"));
+        }
+    }
+
+    @Test
+    void testChunkedReadRaggedRows(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("ragged.csv").toFile();
+        Files.writeString(file.toPath(), """
+                a,b
+                1,2
+
+                3
+                4,5,6
+                """);
+        Frame df = assertChunkedRead(Csv.instance(), file);
+        assertEquals(3, df.varCount());
+        assertEquals(4, df.rowCount());
+    }
+
+    private Frame assertChunkedRead(Csv csv, File file) throws IOException {
+        Frame expected;
+        try (InputStream is = new FileInputStream(file)) {
+            expected = csv.read(is);
+        }
+        Frame actual = csv.read(file);
+        assertArrayEquals(expected.varStream().map(Var::type).toArray(), actual.varStream().map(Var::type).toArray());
+        assertTrue(expected.deepEquals(actual));
+        return actual;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FFTTest {
+
+    private static final double TOL = 1e-9;
+
+    @Test
+    void testAgainstDft() {
+        Random random = new Random(42);
+        int n = 64;
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        double[] fr = re.clone();
+        double[] fi = im.clone();
+        FFT.fft(fr, fi);
+        for (int k = 0; k < n; k++) {
+            double sr = 0;
+            double si = 0;
+            for (int j = 0; j < n; j++) {
+                double angle = -2 * Math.PI * j * k / n;
+                sr += re[j] * Math.cos(angle) - im[j] * Math.sin(angle);
+                si += re[j] * Math.sin(angle) + im[j] * Math.cos(angle);
+            }
+            assertEquals(sr, fr[k], TOL);
+            assertEquals(si, fi[k], TOL);
+        }
+
+        FFT.ifft(fr, fi);
+        assertArrayEquals(re, fr, TOL);
+        assertArrayEquals(im, fi, TOL);
+    }
+
+    @Test
+    void testConvolve() {
+        double[] x = new double[] {1, 2, 3};
+        double[] y = new double[] {0, 1, 0.5, 2};
+        assertArrayEquals(new double[] {0, 1, 2.5, 6, 5.5, 6}, FFT.convolve(x, y), TOL);
+        assertEquals(0, FFT.convolve(new double[0], y).length);
+    }
+
+    @Test
+    void testPowerOf2() {
+        assertEquals(1, FFT.nextPowerOf2(0));
+        assertEquals(1, FFT.nextPowerOf2(1));
+        assertEquals(8, FFT.nextPowerOf2(5));
+        assertEquals(8, FFT.nextPowerOf2(8));
+        assertThrows(IllegalArgumentException.class, () -> FFT.fft(new double[3], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> FFT.fft(new double[4], new double[2]));
+    }
+}
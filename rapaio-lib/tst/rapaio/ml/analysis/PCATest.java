@@ -26,6 +26,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -35,6 +37,7 @@ import org.junit.jupiter.api.Test;
 import rapaio.darray.DArray;
 import rapaio.darray.DArrays;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.VarRange;
 import rapaio.datasets.Datasets;
 import rapaio.io.Csv;
@@ -109,6 +112,49 @@ public class PCATest {
         assertTrue(xx.std1d(0, 0).deepEquals(pca1.getStd()));
     }
 
+    @Test
+    void truncatedMethodsTest() {
+        Frame x = Datasets.loadIrisDataset().removeVars(VarRange.of("class"));
+        PCA full = PCA.newModel().standardize.set(true).fit(x);
+
+        for (PCA.Method method : new PCA.Method[] {PCA.Method.RANDOMIZED_SVD, PCA.Method.LANCZOS}) {
+            PCA pca = PCA.newModel().standardize.set(true).method.set(method).components.set(2).seed.set(42L).fit(x);
+            assertTrue(full.getValues().narrow(0, true, 0, 2).deepEquals(pca.getValues(), TOL));
+            assertEquals(full.getTotalVariance(), pca.getTotalVariance(), TOL);
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 2; j++) {
+                    assertEquals(Math.abs(full.getVectors().getDouble(i, j)), Math.abs(pca.getVectors().getDouble(i, j)), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamingTest() {
+        Frame x = Datasets.loadIrisDataset().removeVars(VarRange.of("class"));
+        List<Frame> chunks = new ArrayList<>();
+        for (int i = 0; i < x.rowCount(); i += 40) {
+            chunks.add(x.mapRows(Mapping.range(i, Math.min(x.rowCount(), i + 40))));
+        }
+
+        for (boolean standardize : new boolean[] {false, true}) {
+            PCA full = PCA.newModel().standardize.set(standardize).fit(x);
+            PCA pca = PCA.newModel().standardize.set(standardize).components.set(2).seed.set(42L).fit(chunks);
+
+            assertTrue(full.getMean().deepEquals(pca.getMean(), TOL));
+            assertTrue(full.getValues().narrow(0, true, 0, 2).deepEquals(pca.getValues(), TOL));
+            assertEquals(full.getTotalVariance(), pca.getTotalVariance(), TOL);
+
+            Frame t1 = full.transform(x, 2);
+            Frame t2 = pca.transform(x, 2);
+            for (int i = 0; i < x.rowCount(); i++) {
+                for (int j = 0; j < 2; j++) {
+                    assertEquals(Math.abs(t1.getDouble(i, j)), Math.abs(t2.getDouble(i, j)), 1e-6);
+                }
+            }
+        }
+    }
+
     @Test
     void irisPca() {
 
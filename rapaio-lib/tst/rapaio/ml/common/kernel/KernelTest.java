@@ -0,0 +1,68 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+
+public class KernelTest {
+
+    private static final double TOL = 1e-10;
+
+    @Test
+    void testBatchedCompute() {
+        Random random = new Random(42);
+        DArray<Double> x = DArrays.random(Shape.of(40, 13), random);
+        Kernel[] kernels = {new RBFKernel(0.1), new LinearKernel(0.5), new PolyKernel(2, 1, 0.5), new PolyKernel(1, 2)};
+        for (Kernel kernel : kernels) {
+            // rows are contiguous, columns of the transpose are strided
+            checkBatched(kernel, rows(x));
+            checkBatched(kernel, rows(x.t().copy().t()));
+        }
+    }
+
+    private void checkBatched(Kernel kernel, DArray<Double>[] us) {
+        double[] out = new double[us.length];
+        for (int i = 0; i < us.length; i++) {
+            kernel.compute(us[i], us, 5, us.length, out);
+            for (int j = 5; j < us.length; j++) {
+                assertEquals(kernel.compute(us[i], us[j]), out[j], TOL, kernel.name());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DArray<Double>[] rows(DArray<Double> x) {
+        DArray<Double>[] rows = new DArray[x.dim(0)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = x.selsq(0, i);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.kernel.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.ml.common.kernel.Kernel;
+import rapaio.ml.common.kernel.RBFKernel;
+
+public class KernelCacheTest {
+
+    private static final double TOL = 1e-12;
+
+    private Random random;
+    private DArray<Double> x;
+    private final Kernel kernel = new RBFKernel(0.5);
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+        x = DArrays.random(Shape.of(300, 4), random);
+    }
+
+    private double expected(int i, int j) {
+        return kernel.compute(x.selsq(0, i), x.selsq(0, j));
+    }
+
+    @Test
+    void testValues() {
+        KernelCache cache = new KernelCache(x, kernel);
+        assertEquals(300, cache.len());
+        for (int t = 0; t < 2_000; t++) {
+            int i = random.nextInt(300);
+            int j = random.nextInt(300);
+            assertEquals(expected(i, j), cache.get(i, j), TOL);
+            assertEquals(expected(i, j), cache.cachedCompute(i, j, x.selsq(0, i), x.selsq(0, j)), TOL);
+        }
+    }
+
+    @Test
+    void testPartialRowsAndEviction() {
+        AtomicLong computed = new AtomicLong();
+        KernelCache.RowFunction fun = (row, start, end, out) -> {
+            computed.addAndGet(end - start);
+            for (int j = start; j < end; j++) {
+                out[j] = row * 1000 + j;
+            }
+        };
+
+        // budget for about 5 full rows
+        KernelCache cache = new KernelCache(300, 5L * 300 * Double.BYTES, fun);
+
+        double[] row = cache.row(7, 10);
+        assertTrue(row.length >= 10);
+        assertEquals(10, computed.get());
+
+        // extending a row computes only the missing values
+        row = cache.row(7, 300);
+        assertEquals(300, computed.get());
+        for (int j = 0; j < 300; j++) {
+            assertEquals(7000 + j, row[j]);
+        }
+
+        // cached row is not computed again
+        cache.row(7, 200);
+        assertEquals(300, computed.get());
+
+        // fill more rows than the budget allows, least recently used rows are evicted
+        for (int i = 0; i < 10; i++) {
+            cache.row(i, 300);
+        }
+        long before = computed.get();
+        cache.row(9, 300);
+        assertEquals(before, computed.get());
+        cache.row(0, 300);
+        assertEquals(before + 300, computed.get());
+
+        cache.clean();
+        cache.row(9, 300);
+        assertEquals(before + 600, computed.get());
+    }
+
+    @Test
+    void testSwapIndex() {
+        int n = 50;
+        int[] perm = IntStream.range(0, n).toArray();
+        KernelCache cache = new KernelCache(n, 1L << 20, (row, start, end, out) -> {
+            for (int j = start; j < end; j++) {
+                out[j] = perm[row] * 1000 + perm[j];
+            }
+        });
+        for (int i = 0; i < n; i += 3) {
+            cache.row(i, random.nextInt(n) + 1);
+        }
+        for (int t = 0; t < 100; t++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            cache.swapIndex(i, j);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+
+            int r = random.nextInt(n);
+            int len = random.nextInt(n) + 1;
+            double[] row = cache.row(r, len);
+            for (int k = 0; k < len; k++) {
+                assertEquals(perm[r] * 1000 + perm[k], row[k]);
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentAccess() {
+        DArray<Double> large = DArrays.random(Shape.of(3_000, 3), random);
+        KernelCache cache = new KernelCache(large, kernel);
+        IntStream.range(0, 4_000).parallel().forEach(t -> {
+            int i = (t * 7919) % 3_000;
+            int j = (t * 104_729) % 3_000;
+            assertEquals(kernel.compute(large.selsq(0, i), large.selsq(0, j)), cache.get(i, j), TOL);
+        });
+    }
+}
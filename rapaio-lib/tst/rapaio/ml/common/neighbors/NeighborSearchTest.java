@@ -0,0 +1,147 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.common.neighbors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.ml.common.distance.Constant;
+import rapaio.ml.common.distance.Distance;
+import rapaio.ml.common.distance.EuclideanDistance;
+import rapaio.ml.common.distance.Manhattan;
+import rapaio.ml.common.distance.MinkowskiDistance;
+
+public class NeighborSearchTest {
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    private double[][] randomPoints(int n, int dims) {
+        double[][] points = new double[n][dims];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < dims; j++) {
+                points[i][j] = random.nextGaussian();
+            }
+        }
+        return points;
+    }
+
+    private Neighbors sortedNeighbors(double[][] points, Distance distance, double[] x, int k) {
+        double[] d = Arrays.stream(points).mapToDouble(p -> distance.compute(p, x)).toArray();
+        int[] indexes = IntStream.range(0, points.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> d[i]).thenComparingInt(i -> i))
+                .limit(k)
+                .mapToInt(i -> i)
+                .toArray();
+        double[] distances = Arrays.stream(indexes).mapToDouble(i -> d[i]).toArray();
+        return new Neighbors(indexes, distances);
+    }
+
+    private void assertSameNeighbors(Neighbors expected, Neighbors actual) {
+        assertArrayEquals(expected.indexes(), actual.indexes());
+        assertArrayEquals(expected.distances(), actual.distances(), 1e-12);
+    }
+
+    @Test
+    void testAgainstSortedDistances() {
+        Distance[] distances = new Distance[] {new EuclideanDistance(), new Manhattan(), new MinkowskiDistance(3)};
+        for (int dims : new int[] {1, 2, 5, 20}) {
+            double[][] points = randomPoints(1_000, dims);
+            double[][] queries = randomPoints(20, dims);
+            for (Distance distance : distances) {
+                for (NeighborSearch search : NeighborSearch.values()) {
+                    NeighborIndex index = search.build(points, distance);
+                    assertEquals(points.length, index.size());
+                    for (int k : new int[] {1, 5, 17}) {
+                        for (double[] query : queries) {
+                            assertSameNeighbors(sortedNeighbors(points, distance, query, k), index.query(query, k));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTiesAndDuplicates() {
+        // points on a small grid with many duplicates and equal distances
+        double[][] points = new double[500][2];
+        for (int i = 0; i < points.length; i++) {
+            points[i][0] = random.nextInt(5);
+            points[i][1] = random.nextInt(5);
+        }
+        Distance distance = new EuclideanDistance();
+        for (NeighborSearch search : NeighborSearch.values()) {
+            NeighborIndex index = search.build(points, distance);
+            for (int k : new int[] {1, 10, 100}) {
+                double[] query = new double[] {random.nextInt(5), random.nextInt(5)};
+                assertSameNeighbors(sortedNeighbors(points, distance, query, k), index.query(query, k));
+            }
+        }
+    }
+
+    @Test
+    void testBatchQuery() {
+        double[][] points = randomPoints(2_000, 3);
+        double[][] queries = randomPoints(200, 3);
+        NeighborIndex index = NeighborSearch.Auto.build(points, new EuclideanDistance());
+        Neighbors[] neighbors = index.query(queries, 7);
+        for (int i = 0; i < queries.length; i++) {
+            assertSameNeighbors(index.query(queries[i], 7), neighbors[i]);
+        }
+    }
+
+    @Test
+    void testEdgeCases() {
+        double[][] points = randomPoints(10, 2);
+        for (NeighborSearch search : NeighborSearch.values()) {
+            // more neighbours than points
+            Neighbors neighbors = search.build(points, new EuclideanDistance()).query(points[0], 20);
+            assertEquals(10, neighbors.size());
+            assertEquals(0, neighbors.index(0));
+            assertEquals(0, neighbors.distance(0));
+
+            // empty index
+            assertEquals(0, search.build(new double[0][], new EuclideanDistance()).query(points[0], 3).size());
+        }
+
+        // ball tree works with any distance, the kd tree does not
+        Neighbors neighbors = NeighborSearch.BallTree.build(points, Constant.one()).query(points[0], 3);
+        assertArrayEquals(new int[] {0, 1, 2}, neighbors.indexes());
+        assertThrows(IllegalArgumentException.class, () -> NeighborSearch.KDTree.build(points, Constant.one()));
+        assertTrue(NeighborSearch.Auto.build(randomPoints(1000, 2), Constant.one()) instanceof BallTreeIndex);
+        assertTrue(NeighborSearch.Auto.build(randomPoints(1000, 2), new EuclideanDistance()) instanceof KDTreeIndex);
+    }
+}
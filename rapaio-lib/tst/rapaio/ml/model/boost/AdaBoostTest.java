@@ -74,6 +74,21 @@ public class AdaBoostTest {
         }
     }
 
+    @Test
+    void parallelPredictTest() throws IOException {
+        var spam = Datasets.loadSpamBase();
+        var model = AdaBoost.newModel()
+                .model.set(CTree.newC45().minCount.set(4).maxDepth.set(5).varSelector.set(VarSelector.fixed(10)))
+                .seed.set(42L)
+                .runs.set(10)
+                .fit(spam, "spam");
+
+        var sequential = model.predict(spam, true, true);
+        var parallel = model.poolSize.set(4).predict(spam, true, true);
+        assertTrue(sequential.firstClasses().deepEquals(parallel.firstClasses()));
+        assertTrue(sequential.firstDensity().deepEquals(parallel.firstDensity()));
+    }
+
     @Test
     void newInstanceTest() {
         var model = AdaBoost.newModel()
@@ -21,17 +21,26 @@
 
 package rapaio.ml.model.boost;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
+import rapaio.data.sample.RowSampler;
 import rapaio.datasets.Datasets;
+import rapaio.io.ColumnarFile;
+import rapaio.io.ColumnarIO;
 import rapaio.ml.loss.L2LossFunction;
 import rapaio.ml.model.tree.RTree;
 import rapaio.ml.model.tree.rtree.Splitter;
@@ -79,6 +88,27 @@ public class GBTRegressionResultTest {
         assertTrue(err2.getDouble(err2.size() - 1) < 1e-1);
     }
 
+    @Test
+    void histogramTreesTest() {
+        var loss = new L2LossFunction();
+        var advertise = Datasets.loadISLAdvertising().removeVars("ID");
+
+        var exact = GBTRegressionModel.newModel()
+                .runs.set(100)
+                .shrinkage.set(0.3)
+                .model.set(RTree.newCART().maxDepth.set(3))
+                .seed.set(1234L);
+        var binned = exact.newInstance()
+                .model.set(RTree.newCART().maxDepth.set(3).bins.set(32));
+
+        exact.fit(advertise, "Sales");
+        binned.fit(advertise, "Sales");
+
+        double exactError = loss.errorScore(advertise.rvar("Sales"), exact.predict(advertise).firstPrediction());
+        double binnedError = loss.errorScore(advertise.rvar("Sales"), binned.predict(advertise).firstPrediction());
+        assertTrue(binnedError < 2 * exactError + 1e-1);
+    }
+
     @Test
     void printingTest() {
         var advertise = Datasets.loadISLAdvertising().removeVars("ID");
@@ -157,4 +187,46 @@ public class GBTRegressionResultTest {
 
         assertEquals(model.toString(), copy.toString());
     }
+
+    @Test
+    void testColumnarFit(@TempDir Path dir) throws IOException {
+        Frame df = Datasets.loadISLAdvertising().removeVars("ID");
+        // a few missing values are routed like at prediction time
+        df.setMissing(3, "TV");
+        df.setMissing(7, "Radio");
+        Path path = dir.resolve("advertising.rcf");
+        ColumnarIO.write(df, path, 32);
+
+        // trees have a fixed seed since missing values are routed by a random splitter
+        RTree tree = RTree.newCART().maxDepth.set(3).seed.set(42L).bins.set(16);
+        Var unit = VarDouble.fill(df.rowCount(), 1).name("weights");
+        Var weights = VarDouble.from(df.rowCount(), row -> 1.0 + row % 3).name("weights");
+        for (Var w : new Var[] {unit, weights}) {
+            var model = GBTRegressionModel.newModel()
+                    .runs.set(40)
+                    .shrinkage.set(0.3)
+                    .rowSampler.set(RowSampler.subsampler(0.7))
+                    .model.set(tree)
+                    .seed.set(1234L);
+
+            var memory = model.newInstance().fit(df, w, "Sales");
+            GBTRegressionModel stream;
+            try (ColumnarFile file = ColumnarIO.open(path)) {
+                stream = model.newInstance().fit(file, 50, w, "Sales");
+            }
+
+            assertTrue(stream.isFitted());
+            assertArrayEquals(memory.inputNames(), stream.inputNames());
+            assertEquals(memory.getTrees().size(), stream.getTrees().size());
+            assertArrayEquals(memory.getFitValues().darray_().toDoubleArray(), stream.getFitValues().darray_().toDoubleArray());
+            assertArrayEquals(memory.predict(df).firstPrediction().darray_().toDoubleArray(),
+                    stream.predict(df).firstPrediction().darray_().toDoubleArray());
+        }
+
+        // out-of-core fit uses only binned trees
+        try (ColumnarFile file = ColumnarIO.open(path)) {
+            var exact = GBTRegressionModel.newModel().model.set(RTree.newCART().maxDepth.set(3));
+            assertThrows(IllegalStateException.class, () -> exact.fit(file, 50, "Sales"));
+        }
+    }
 }
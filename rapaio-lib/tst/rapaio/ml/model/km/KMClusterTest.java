@@ -132,21 +132,21 @@ public class KMClusterTest {
         assertEquals("""
                 KMCluster{init=PlusPlus,k=2,method=KMeans,nstart=100,runs=100,seed=42}
                 Model fitted=true
-                Inertia:8901.290870880382
-                Iterations:9
+                Inertia:8901.768720947213
+                Iterations:3
                 Learned clusters:2
                 """, model.toSummary());
         assertEquals(model.toContent(), model.toSummary());
         assertEquals("""
                 KMCluster{init=PlusPlus,k=2,method=KMeans,nstart=100,runs=100,seed=42}
                 Model fitted=true
-                Inertia:8901.290870880382
-                Iterations:9
+                Inertia:8901.768720947213
+                Iterations:3
                 Learned clusters:2
                 Centroids:
                     eruptions  waiting  \s
-                [0] 4.2948012 80.2865497\s
-                [1] 2.0964646 54.7474747\s
+                [0] 4.2979302 80.2848837\s
+                [1] 2.09433   54.75     \s
                 """, model.toFullContent());
 
     }
@@ -220,16 +220,16 @@ public class KMClusterTest {
         assertEquals("""
                 Overall errors:\s
                 > count: 272
-                > mean: 32.7273288
-                > var: 1,621.0637918
-                > sd: 40.2624365
-                > inertia/error:8,890.7628278
-                > iterations:10
+                > mean: 32.7270909
+                > var: 1,622.7494621
+                > sd: 40.2833646
+                > inertia/error:8,901.7687209
+                > iterations:4
                                 
                 Per cluster:\s
                     ID count    mean         var      var/total     sd    \s
-                [0]  2   172 31.6607834 1,760.3732065 1.085937  41.9568017\s
-                [1]  1   100 34.5617867 1,391.437297  0.8583483 37.3019744\s
+                [0]  2   172 31.6604119 1,763.2348144 1.0865724 41.9908897\s
+                [1]  1   100 34.5617787 1,391.1074822 0.8572534 37.2975533\s
                 """, result.toSummary());
 
         assertEquals(result.toSummary(), result.toContent());
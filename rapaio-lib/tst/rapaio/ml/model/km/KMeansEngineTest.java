@@ -0,0 +1,248 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.km;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+
+public class KMeansEngineTest {
+
+    private static final double TOL = 1e-9;
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    private DArray<Double> blobs(int n, int dims, int centers) {
+        double[][] means = new double[centers][dims];
+        for (int j = 0; j < centers; j++) {
+            for (int l = 0; l < dims; l++) {
+                means[j][l] = random.nextGaussian() * 10;
+            }
+        }
+        DArray<Double> m = DArrays.zeros(Shape.of(n, dims));
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(centers);
+            for (int l = 0; l < dims; l++) {
+                m.setDouble(means[j][l] + random.nextGaussian(), i, l);
+            }
+        }
+        return m;
+    }
+
+    private double bruteAssign(DArray<Double> m, DArray<Double> c, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < m.dim(0); i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < c.dim(0); j++) {
+                double dist = 0;
+                for (int l = 0; l < m.dim(1); l++) {
+                    double delta = m.getDouble(i, l) - c.getDouble(j, l);
+                    dist += delta * delta;
+                }
+                if (dist < best) {
+                    best = dist;
+                    assignment[i] = j;
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    @Test
+    void testBoundedAssignment() {
+        DArray<Double> m = blobs(3_000, 5, 12);
+        int k = 10;
+        DArray<Double> c = m.sel(0, 0, 100, 200, 300, 400, 500, 600, 700, 800, 900).copy();
+
+        KMeansEngine engine = new KMeansEngine(m, k);
+        int[] assignment = new int[m.dim(0)];
+        int[] expected = new int[m.dim(0)];
+        for (int run = 0; run < 15; run++) {
+            double error = engine.assign(c, assignment);
+            double expectedError = bruteAssign(m, c, expected);
+            assertArrayEquals(expected, assignment);
+            assertEquals(expectedError, error, TOL * expectedError);
+            engine.recomputeCentroids(c, assignment);
+        }
+    }
+
+    @Test
+    void testRecomputeCentroids() {
+        DArray<Double> m = blobs(2_000, 3, 4);
+        int k = 5;
+        int[] assignment = new int[m.dim(0)];
+        for (int i = 0; i < assignment.length; i++) {
+            // last centroid is left without rows
+            assignment[i] = random.nextInt(k - 1);
+        }
+        DArray<Double> c = DArrays.full(Shape.of(k, 3), -1.0);
+        new KMeansEngine(m, k).recomputeCentroids(c, assignment);
+
+        for (int j = 0; j < k - 1; j++) {
+            for (int l = 0; l < 3; l++) {
+                double sum = 0;
+                int count = 0;
+                for (int i = 0; i < assignment.length; i++) {
+                    if (assignment[i] == j) {
+                        sum += m.getDouble(i, l);
+                        count++;
+                    }
+                }
+                assertEquals(sum / count, c.getDouble(j, l), TOL);
+            }
+        }
+        for (int l = 0; l < 3; l++) {
+            assertEquals(-1.0, c.getDouble(k - 1, l));
+        }
+    }
+
+    @Test
+    void testMiniBatch() {
+        Frame df = SolidFrame.matrix(blobs(5_000, 4, 5), "a", "b", "c", "d");
+
+        KMCluster full = KMCluster.newKMeans().k.set(5).init.set(KMClusterInit.PlusPlus).nstart.set(5).seed.set(42L);
+        KMCluster mini = full.newInstance().batchSize.set(256).runs.set(50);
+        assertEquals("KMCluster{batchSize=256,init=PlusPlus,k=5,method=KMeans,nstart=5,runs=50,seed=42}", mini.fullName());
+
+        full.fit(df);
+        mini.fit(df);
+
+        // one error for each mini batch and the final inertia on all rows
+        assertEquals(51, mini.getErrors().size());
+        assertTrue(mini.getError() < full.getError() * 1.05);
+
+        int[] assignment = new int[df.rowCount()];
+        double inertia = bruteAssign(df.darray(), mini.getCentroidsMatrix(), assignment);
+        assertEquals(inertia, mini.getError(), TOL * inertia);
+        assertArrayEquals(assignment, mini.predict(df).assignment().elements());
+    }
+
+    @Test
+    void testSparseRows() {
+        DArray<Double> m = blobs(3_000, 20, 8);
+        for (int i = 0; i < m.dim(0); i++) {
+            for (int l = 0; l < m.dim(1); l++) {
+                if (random.nextDouble() < 0.7) {
+                    m.setDouble(0.0, i, l);
+                }
+            }
+        }
+        int k = 8;
+        DArray<Double> c = m.sel(0, 0, 300, 600, 900, 1200, 1500, 1800, 2100).copy();
+        DArray<Double> sc = c.copy();
+
+        KMeansEngine dense = new KMeansEngine(m, k);
+        KMeansEngine sparse = new KMeansEngine(SparseMatrix.from(m, SparseMatrix.Format.CSR), k);
+        int[] assignment = new int[m.dim(0)];
+        int[] sparseAssignment = new int[m.dim(0)];
+        for (int run = 0; run < 10; run++) {
+            double error = dense.assign(c, assignment);
+            double sparseError = sparse.assign(sc, sparseAssignment);
+            assertArrayEquals(assignment, sparseAssignment);
+            assertEquals(error, sparseError, TOL * error);
+            dense.recomputeCentroids(c, assignment);
+            sparse.recomputeCentroids(sc, sparseAssignment);
+            assertTrue(c.deepEquals(sc, TOL));
+        }
+
+        long[] counts = new long[k];
+        long[] sparseCounts = new long[k];
+        double error = dense.miniBatch(new Random(7), c, 200, counts);
+        double sparseError = sparse.miniBatch(new Random(7), sc, 200, sparseCounts);
+        assertEquals(error, sparseError, TOL * error);
+        assertArrayEquals(counts, sparseCounts);
+        assertTrue(c.deepEquals(sc, TOL));
+
+        Frame df = SolidFrame.matrix(m, IntStream.range(0, m.dim(1)).mapToObj(l -> "x" + l).toArray(String[]::new));
+        KMCluster model = KMCluster.newKMeans().k.set(k).init.set(KMClusterInit.PlusPlus).seed.set(42L);
+        model.fit(df);
+        KMCluster sparseModel = model.newInstance().sparse.set(true);
+        sparseModel.fit(df);
+        assertEquals(model.getError(), sparseModel.getError(), TOL * model.getError());
+        assertArrayEquals(model.predict(df).assignment().elements(), sparseModel.predict(df).assignment().elements());
+    }
+
+    @Test
+    void testSparseMatrixFit() {
+        DArray<Double> m = blobs(1_000, 10, 4);
+        for (int i = 0; i < m.dim(0); i++) {
+            for (int l = 0; l < m.dim(1); l++) {
+                if (random.nextDouble() < 0.6) {
+                    m.setDouble(0.0, i, l);
+                }
+            }
+        }
+        SparseMatrix sx = SparseMatrix.from(m, SparseMatrix.Format.CSR);
+        Frame df = SolidFrame.matrix(m, IntStream.range(0, m.dim(1)).mapToObj(l -> "x" + l).toArray(String[]::new));
+
+        for (KMClusterInit init : KMClusterInit.values()) {
+            KMCluster dense = KMCluster.newKMeans().k.set(4).init.set(init).nstart.set(3).seed.set(42L).fit(df);
+            KMCluster sparse = dense.newInstance().fit(sx);
+
+            assertEquals(dense.getError(), sparse.getError(), TOL * dense.getError());
+            assertTrue(dense.getCentroidsMatrix().deepEquals(sparse.getCentroidsMatrix(), TOL));
+            assertArrayEquals(dense.inputNames(), sparse.inputNames());
+
+            KMClusterResult denseResult = dense.predict(df);
+            KMClusterResult sparseResult = sparse.predict(sx);
+            assertArrayEquals(denseResult.assignment().elements(), sparseResult.assignment().elements());
+            assertArrayEquals(denseResult.getDistances().darray_().toDoubleArray(),
+                    sparseResult.getDistances().darray_().toDoubleArray(), 1e-6);
+        }
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> KMCluster.newKMedians().k.set(4).fit(sx));
+        assertEquals("Sparse matrix is supported only by KMeans method.", ex.getMessage());
+    }
+
+    @Test
+    void testInitDoesNotShareInstances() {
+        DArray<Double> m = SolidFrame.matrix(blobs(500, 2, 3), "x", "y").darray();
+        DArray<Double> copy = m.copy();
+        for (KMClusterInit init : KMClusterInit.values()) {
+            for (int i = 0; i < 10; i++) {
+                // two selected rows are an equally spaced selection, which could be a view over instances
+                DArray<Double> c = init.init(random, KMCluster.KMeans.distance(), m, 2);
+                c.fill_(-1000.0);
+                assertTrue(copy.deepEquals(m));
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
@@ -33,16 +34,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rapaio.core.distributions.Normal;
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.darray.sparse.CooMatrix;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
 import rapaio.data.VarNominal;
 import rapaio.data.VarType;
+import rapaio.data.transform.FeatureHashing;
 import rapaio.datasets.Datasets;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.eval.metric.Confusion;
+import rapaio.math.MathTools;
 import rapaio.ml.model.ClassifierResult;
+import rapaio.ml.model.linear.binarylogistic.BinaryLogisticIRLS;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 3/22/20.
@@ -321,4 +330,94 @@ public class BinaryLogisticTest {
             assertNotNull(w);
         }
     }
+
+    @Test
+    void testSparseIRLS() {
+        int rows = 400;
+        int cols = 12;
+        CooMatrix coo = CooMatrix.empty(rows, cols);
+        DArray<Double> y = DArrays.zeros(Shape.of(rows));
+        for (int i = 0; i < rows; i++) {
+            // intercept and two active one hot like features for each row
+            coo.add(i, 0, 1);
+            int a = 1 + random.nextInt(cols - 1);
+            int b = 1 + random.nextInt(cols - 1);
+            coo.add(i, a, 1);
+            coo.add(i, b, 0.5);
+            double logit = (a % 2 == 0 ? 1.5 : -1.0) + (b < 6 ? 0.5 : -0.5);
+            y.setDouble(random.nextDouble() < MathTools.logistic(logit) ? 1 : 0, i);
+        }
+        SparseMatrix sx = coo.toCsr();
+
+        var dense = new BinaryLogisticIRLS()
+                .maxIter.set(20).lambdap.set(0.1).xp.set(sx.toDense()).yp.set(y).w0.set(DArrays.zeros(Shape.of(cols)))
+                .fit();
+        var sparse = new BinaryLogisticIRLS()
+                .maxIter.set(20).lambdap.set(0.1).sxp.set(sx).yp.set(y).w0.set(DArrays.zeros(Shape.of(cols)))
+                .fit();
+
+        assertEquals(dense.converged(), sparse.converged());
+        assertEquals(dense.ws().size(), sparse.ws().size());
+        assertArrayEquals(dense.w().toDoubleArray(), sparse.w().toDoubleArray(), 1e-8);
+        assertEquals(dense.nll(), sparse.nll(), 1e-8);
+    }
+
+    @Test
+    void testSparseModel() {
+        int rows = 300;
+        VarDouble x1 = VarDouble.from(rows, i -> random.nextDouble() < 0.7 ? 0.0 : random.nextGaussian()).name("x1");
+        VarDouble x2 = VarDouble.from(rows, i -> random.nextDouble() < 0.8 ? 0.0 : 1.0).name("x2");
+        VarNominal y = VarNominal.from(rows,
+                i -> random.nextDouble() < MathTools.logistic(0.3 + 1.2 * x1.getDouble(i) - x2.getDouble(i)) ? "a" : "b").name("y");
+        Frame df = SolidFrame.byVars(x1, x2, y);
+
+        BinaryLogistic dense = BinaryLogistic.newModel().l2penalty.set(0.1).runs.set(50);
+        BinaryLogistic sparse = dense.newInstance().sparse.set(true);
+        dense.fit(df, "y");
+        sparse.fit(df, "y");
+
+        assertEquals(dense.isConverged(), sparse.isConverged());
+        assertArrayEquals(dense.iterationWeights().getLast().toDoubleArray(),
+                sparse.iterationWeights().getLast().toDoubleArray(), 1e-8);
+        assertArrayEquals(dense.predict(df, false, true).firstDensity().rvar("a").darray_().toDoubleArray(),
+                sparse.predict(df, false, true).firstDensity().rvar("a").darray_().toDoubleArray(), 1e-8);
+
+        var newton = dense.newInstance().solver.set(BinaryLogistic.Method.NEWTON).sparse.set(true);
+        var ex = assertThrows(IllegalArgumentException.class, () -> newton.fit(df, "y"));
+        assertEquals("Sparse design matrix is supported only by IRLS solver.", ex.getMessage());
+    }
+
+    @Test
+    void testSparseMatrixFit() {
+        int rows = 400;
+        VarNominal cat = VarNominal.from(rows, i -> "c" + random.nextInt(12)).name("cat");
+        VarNominal y = VarNominal.from(rows,
+                i -> random.nextDouble() < MathTools.logistic(cat.getLabel(i).length() == 2 ? 1.0 : -0.5) ? "a" : "b").name("y");
+        Frame df = SolidFrame.byVars(cat);
+
+        // hashed features are consumed directly as a sparse matrix
+        FeatureHashing fh = FeatureHashing.on(16, "cat");
+        fh.fit(df);
+        Frame hashed = fh.apply(df).bindVars(y);
+        SparseMatrix sx = fh.applySparse(df);
+
+        BinaryLogistic dense = BinaryLogistic.newModel().l2penalty.set(0.1).runs.set(50).fit(hashed, "y");
+        BinaryLogistic sparse = dense.newInstance().fit(sx, y);
+
+        assertEquals(dense.isConverged(), sparse.isConverged());
+        assertArrayEquals(dense.iterationWeights().getLast().toDoubleArray(),
+                sparse.iterationWeights().getLast().toDoubleArray(), 1e-8);
+
+        ClassifierResult denseResult = dense.predict(hashed, true, true);
+        ClassifierResult sparseResult = sparse.predict(sx, true, true);
+        assertTrue(denseResult.firstClasses().deepEquals(sparseResult.firstClasses()));
+        assertArrayEquals(denseResult.firstDensity().rvar("a").darray_().toDoubleArray(),
+                sparseResult.firstDensity().rvar("a").darray_().toDoubleArray(), 1e-8);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> sparse.predict(sx.t(), true, false));
+        assertEquals("Sparse matrix must have 16 columns.", ex.getMessage());
+        var newton = dense.newInstance().solver.set(BinaryLogistic.Method.NEWTON);
+        ex = assertThrows(IllegalArgumentException.class, () -> newton.fit(sx, y));
+        assertEquals("Sparse design matrix is supported only by IRLS solver.", ex.getMessage());
+    }
 }
@@ -41,4 +41,12 @@ public class CenteringTest {
         assertEquals(Centering.MEAN.compute(VarDouble.seq(10)), Mean.of(VarDouble.seq(10)).value());
         assertEquals(Centering.MEAN.compute(VarDouble.seq(100)), Mean.of(VarDouble.seq(100)).value());
     }
+
+    @Test
+    void centeringFromSumTest() {
+        VarDouble x = VarDouble.seq(10);
+        double sum = x.darray_().sum();
+        assertEquals(0.0, Centering.NONE.compute(x.size(), sum));
+        assertEquals(Centering.MEAN.compute(x), Centering.MEAN.compute(x.size(), sum), 1e-12);
+    }
 }
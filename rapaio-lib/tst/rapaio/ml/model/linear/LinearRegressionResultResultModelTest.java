@@ -29,6 +29,7 @@ import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import rapaio.core.distributions.Normal;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.BoundFrame;
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
@@ -273,4 +274,26 @@ public class LinearRegressionResultResultModelTest {
             assertEquals(betas.get(i, 1), secondBetas.get(i), TOL);
         }
     }
+
+    @Test
+    void testSparseFit() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        SparseMatrix x = SparseMatrix.from(df.mapVars("TV,Radio"));
+        Frame targets = df.mapVars("Sales,Newspaper");
+
+        for (boolean intercept : new boolean[] {true, false}) {
+            LinearRegressionModel dense = LinearRegressionModel.newModel().intercept.set(intercept).fit(df, "Sales,Newspaper");
+            LinearRegressionModel sparse = dense.newInstance().fit(x, targets);
+
+            assertEquals(dense.inputNames().length, sparse.inputNames().length);
+            assertTrue(dense.getAllCoefficients().deepEquals(sparse.getAllCoefficients(), 1e-8));
+
+            var result = dense.predict(df);
+            var prediction = sparse.predict(x);
+            for (int i = 0; i < df.rowCount(); i++) {
+                assertEquals(result.prediction("Sales").getDouble(i), prediction.getDouble(i, 0), 1e-8);
+                assertEquals(result.prediction("Newspaper").getDouble(i), prediction.getDouble(i, 1), 1e-8);
+            }
+        }
+    }
 }
@@ -25,10 +25,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rapaio.darray.DArrays;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.Frame;
 import rapaio.datasets.Datasets;
 
@@ -111,6 +114,42 @@ public class RidgeRegressionResultTest {
         assertEquals(1, rlm.lambda.get(), TOL);
     }
 
+    @Test
+    void testSparseFit() {
+        // zero half of the input values to have a sparse design matrix
+        Random random = new Random(42);
+        Frame sdf = df.copy();
+        for (String name : new String[] {"TV", "Radio"}) {
+            for (int i = 0; i < sdf.rowCount(); i++) {
+                if (random.nextDouble() < 0.5) {
+                    sdf.setDouble(i, name, 0);
+                }
+            }
+        }
+        SparseMatrix x = SparseMatrix.from(sdf.mapVars("TV,Radio"));
+        Frame targets = sdf.mapVars("Sales,Newspaper");
+
+        for (boolean intercept : new boolean[] {true, false}) {
+            for (Centering centering : Centering.values()) {
+                for (Scaling scaling : Scaling.values()) {
+                    RidgeRegressionModel dense = RidgeRegressionModel.newModel(10, centering, scaling)
+                            .intercept.set(intercept).fit(sdf, "Sales,Newspaper");
+                    RidgeRegressionModel sparse = dense.newInstance().fit(x, targets);
+
+                    assertEquals(dense.inputNames().length, sparse.inputNames().length);
+                    assertTrue(dense.getAllCoefficients().deepEquals(sparse.getAllCoefficients(), 1e-8));
+
+                    var result = dense.predict(sdf);
+                    var prediction = sparse.predict(x);
+                    for (int i = 0; i < sdf.rowCount(); i++) {
+                        assertEquals(result.prediction("Sales").getDouble(i), prediction.getDouble(i, 0), 1e-8);
+                        assertEquals(result.prediction("Newspaper").getDouble(i), prediction.getDouble(i, 1), 1e-8);
+                    }
+                }
+            }
+        }
+    }
+
     /*
     @Test
     void testCoefficients() {
@@ -44,4 +44,14 @@ public class ScalingTest {
         assertEquals(Scaling.NORM.compute(VarDouble.seq(10)), Math.sqrt(VarDouble.seq(10).darray_().apply_(x -> x * x).nanSum()));
         assertEquals(Scaling.NORM.compute(VarDouble.seq(100)), Math.sqrt(VarDouble.seq(100).darray_().apply_(x -> x * x).nanSum()));
     }
+
+    @Test
+    void scaleFromMomentsTest() {
+        VarDouble x = VarDouble.seq(100);
+        double sum = x.darray_().sum();
+        double sumSquares = x.darray().sqr_().sum();
+        for (Scaling scaling : Scaling.values()) {
+            assertEquals(scaling.compute(x), scaling.compute(x.size(), sum, sumSquares), 1e-10);
+        }
+    }
 }
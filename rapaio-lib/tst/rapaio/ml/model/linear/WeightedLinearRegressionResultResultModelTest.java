@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 
 import rapaio.core.distributions.Normal;
 import rapaio.core.distributions.Uniform;
+import rapaio.darray.sparse.SparseMatrix;
 import rapaio.data.BoundFrame;
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
@@ -74,4 +75,28 @@ public class WeightedLinearRegressionResultResultModelTest {
 
         assertEquals("WeightedLinearRegression", WeightedLinearRegression.newModel().name());
     }
+
+    @Test
+    void testSparseFit() {
+        Random random = new Random(123);
+        Normal normal = Normal.of(0, 1);
+        VarDouble x1 = VarDouble.from(200, row -> random.nextDouble() < 0.6 ? 0.0 : normal.sampleNext(random)).name("x1");
+        VarDouble x2 = VarDouble.from(200, row -> random.nextDouble() < 0.6 ? 0.0 : normal.sampleNext(random)).name("x2");
+        VarDouble y = VarDouble.from(200, row -> 1 + 2 * x1.getDouble(row) - x2.getDouble(row) + normal.sampleNext(random)).name("y");
+        VarDouble w = VarDouble.from(200, row -> random.nextDouble()).name("w");
+        Frame df = BoundFrame.byVars(x1, x2, y);
+        SparseMatrix x = SparseMatrix.from(df.mapVars("x1,x2"));
+
+        for (boolean intercept : new boolean[] {true, false}) {
+            var dense = WeightedLinearRegression.newModel().intercept.set(intercept).fit(df, w, "y");
+            var sparse = dense.newInstance().fit(x, w, df.mapVars("y"));
+
+            assertTrue(dense.getAllCoefficients().deepEquals(sparse.getAllCoefficients(), 1e-10));
+            var result = dense.predict(df);
+            var prediction = sparse.predict(x);
+            for (int i = 0; i < df.rowCount(); i++) {
+                assertEquals(result.firstPrediction().getDouble(i), prediction.getDouble(i, 0), 1e-10);
+            }
+        }
+    }
 }
@@ -21,6 +21,7 @@
 
 package rapaio.ml.model.meta;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -65,4 +66,41 @@ public class CStackingTest {
         double accuracy = Accuracy.newMetric(true).compute(tts.testDf().rvar(target), pred).getScore().value();
         assertTrue(accuracy>0.9);
     }
+
+    @Test
+    void parallelTest() {
+        var tts = SamplingTools.trainTestSplit(new Random(324), iris, 0.8);
+        CStacking sequential = CStacking.newModel()
+                .seed.set(1L)
+                .learners.add(CTree.newCART().maxDepth.set(3))
+                .learners.add(CTree.newC45())
+                .learners.add(new SvmClassifier())
+                .stackModel.set(new SvmClassifier());
+        CStacking parallel = sequential.newInstance().poolSize.set(4);
+
+        var sequentialPred = sequential.fit(tts.trainDf(), target).predict(tts.testDf(), true, true);
+        var parallelPred = parallel.fit(tts.trainDf(), target).predict(tts.testDf(), true, true);
+        assertArrayEquals(sequentialPred.firstClasses().darray().toDoubleArray(), parallelPred.firstClasses().darray().toDoubleArray());
+        assertTrue(sequentialPred.firstDensity().deepEquals(parallelPred.firstDensity()));
+    }
+
+    @Test
+    void outOfFoldTest() {
+        var tts = SamplingTools.trainTestSplit(new Random(324), iris, 0.8);
+        CStacking s = CStacking.newModel()
+                .seed.set(1L)
+                .folds.set(5)
+                .poolSize.set(4)
+                .learners.add(CTree.newCART().maxDepth.set(3))
+                .learners.add(CTree.newC45())
+                .learners.add(new SvmClassifier())
+                .stackModel.set(new SvmClassifier());
+        var pred = s.fit(tts.trainDf(), target).predict(tts.testDf());
+        double accuracy = Accuracy.newMetric(true).compute(tts.testDf().rvar(target), pred).getScore().value();
+        assertTrue(accuracy > 0.9);
+
+        // out of fold features are deterministic for a given seed
+        var copy = s.newInstance().fit(tts.trainDf(), target).predict(tts.testDf());
+        assertTrue(pred.firstClasses().deepEquals(copy.firstClasses()));
+    }
 }
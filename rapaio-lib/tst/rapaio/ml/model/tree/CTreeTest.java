@@ -23,11 +23,17 @@ package rapaio.ml.model.tree;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
+import rapaio.core.SamplingTools;
+
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarDouble;
 import rapaio.datasets.Datasets;
@@ -82,6 +88,51 @@ public class CTreeTest {
         }
     }
 
+    @Test
+    void testHistogramSearch() {
+        Frame df = Datasets.loadIrisDataset();
+
+        // all iris variables have fewer distinct values than bins, thus the splits are the same
+        CTree exact = CTree.newCART().maxDepth.set(10000).minCount.set(1).seed.set(123L);
+        CTree binned = exact.newInstance().bins.set(255);
+        exact.fit(df, "class");
+        binned.fit(df, "class");
+
+        assertEquals(255, binned.newInstance().bins.get());
+        assertEquals(exact.predict(df, true, true).firstClasses().toString(),
+                binned.predict(df, true, true).firstClasses().toString());
+
+        // with few bins the training error is larger, but the tree still learns
+        CTree coarse = CTree.newC45().bins.set(4).seed.set(123L);
+        coarse.fit(df, "class");
+        var pred = coarse.predict(df, true, false).firstClasses();
+        int match = 0;
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (pred.getInt(i) == df.getInt(i, "class")) {
+                match++;
+            }
+        }
+        assertTrue(match > 130);
+
+        assertThrows(IllegalArgumentException.class, () -> CTree.newCART().bins.set(1));
+        assertThrows(IllegalArgumentException.class, () -> CTree.newCART().bins.set(FeatureBins.MAX_BINS + 1));
+    }
+
+    @Test
+    void testPresetSortedIndex() {
+        Frame df = Datasets.loadIrisDataset();
+        Mapping sample = Mapping.wrap(SamplingTools.sampleWR(new Random(42), df.rowCount(), df.rowCount()));
+        Frame sampleDf = df.mapRows(sample);
+
+        CTree exact = CTree.newCART().maxDepth.set(10000).minCount.set(1).seed.set(123L);
+        CTree presorted = exact.newInstance();
+        exact.fit(sampleDf, "class");
+        presorted.fit(sampleDf, VarDouble.fill(sampleDf.rowCount(), 1), null,
+                SortedIndex.from(df.removeVars("class")).mapRows(sample), "class");
+
+        assertEquals(exact.toContent(), presorted.toContent());
+    }
+
     @Test
     void testPredictorStandard() {
         Frame df = Datasets.loadIrisDataset();
@@ -0,0 +1,123 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+
+public class FeatureBinsTest {
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testFewDistinctValues() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.copy(3, 1, 2, Double.NaN, 1, 3).name("x"),
+                VarInt.copy(7, 7, 7, 7, 7, 7).name("c"),
+                VarNominal.copy("a", "b", "a", "b", "a", "b").name("n")
+        );
+        FeatureBins bins = FeatureBins.from(df, 10);
+
+        assertEquals(6, bins.rows());
+        assertEquals(List.of("x", "c"), bins.varNames());
+        assertTrue(bins.contains("x"));
+        assertFalse(bins.contains("n"));
+
+        assertEquals(3, bins.bins("x"));
+        assertEquals(1.5, bins.split("x", 0));
+        assertEquals(2.5, bins.split("x", 1));
+        assertArrayEquals(new byte[] {2, 0, 1, (byte) FeatureBins.MISSING, 0, 2}, bins.codes("x"));
+
+        // a constant variable has a single bin
+        assertEquals(1, bins.bins("c"));
+        assertArrayEquals(new byte[6], bins.codes("c"));
+    }
+
+    @Test
+    void testQuantileBins() {
+        VarDouble x = VarDouble.from(10_000, _ -> random.nextGaussian()).name("x");
+        Frame df = SolidFrame.byVars(x);
+
+        for (int maxBins : new int[] {2, 16, 255}) {
+            FeatureBins bins = FeatureBins.from(df, maxBins);
+            assertTrue(bins.bins("x") <= maxBins);
+            assertTrue(bins.bins("x") >= maxBins / 2);
+
+            int[] counts = new int[bins.bins("x")];
+            byte[] codes = bins.codes("x");
+            for (int i = 0; i < x.size(); i++) {
+                int bin = codes[i] & 0xFF;
+                counts[bin]++;
+                // values in a bin are bounded by the neighbouring split points
+                if (bin > 0) {
+                    assertTrue(x.getDouble(i) > bins.split("x", bin - 1));
+                }
+                if (bin < bins.bins("x") - 1) {
+                    assertTrue(x.getDouble(i) <= bins.split("x", bin));
+                }
+            }
+            // bins are roughly balanced
+            for (int count : counts) {
+                assertTrue(count < 3 * x.size() / bins.bins("x"));
+            }
+        }
+    }
+
+    @Test
+    void testMapRows() {
+        Frame df = SolidFrame.byVars(VarDouble.copy(1, 2, 3, 4, 5).name("x"));
+        FeatureBins bins = FeatureBins.from(df, 255);
+        FeatureBins mapped = bins.mapRows(Mapping.wrap(4, 0, 0, 2));
+
+        assertEquals(4, mapped.rows());
+        assertEquals(bins.bins("x"), mapped.bins("x"));
+        assertArrayEquals(new byte[] {4, 0, 0, 2}, mapped.codes("x"));
+        assertEquals(bins.split("x", 1), mapped.split("x", 1));
+    }
+
+    @Test
+    void testInvalidBins() {
+        Frame df = SolidFrame.byVars(VarDouble.copy(1, 2, 3).name("x"));
+        assertThrows(IllegalArgumentException.class, () -> FeatureBins.from(df, 1));
+        assertThrows(IllegalArgumentException.class, () -> FeatureBins.from(df, FeatureBins.MAX_BINS + 1));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.stat.Mean;
+import rapaio.core.stat.WeightedMean;
+import rapaio.core.tools.DensityVector;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+import rapaio.ml.model.ClassifierResult;
+import rapaio.util.Pair;
+
+public class FlatForestTest {
+
+    private static final String[] LABELS = new String[] {"a", "b", "c", "d", "e"};
+
+    private Random random;
+    private Frame train;
+    private Frame test;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+        train = frame(3_000, false);
+        test = frame(2_500, true);
+    }
+
+    private Frame frame(int rows, boolean withMissing) {
+        VarDouble x1 = VarDouble.from(rows, () -> random.nextGaussian());
+        VarInt x2 = VarInt.from(rows, row -> random.nextInt(20));
+        VarNominal x3 = VarNominal.from(rows, row -> LABELS[random.nextInt(LABELS.length)], LABELS).name("x3");
+        VarBinary x4 = VarBinary.from(rows, row -> random.nextBoolean());
+        VarDouble y = VarDouble.from(rows, row -> x1.getDouble(row) + 0.1 * x2.getInt(row)
+                + (x3.getLabel(row).equals("a") ? 1 : 0) + x4.getInt(row) + 0.1 * random.nextGaussian());
+        VarNominal cls = VarNominal.from(rows, row -> y.getDouble(row) > 1.5 ? "high" : (y.getDouble(row) > 0.5 ? "mid" : "low"),
+                "low", "mid", "high");
+        Frame df = SolidFrame.byVars(x1.name("x1"), x2.name("x2"), x3, x4.name("x4"), y.name("y"), cls.name("cls"));
+        if (withMissing) {
+            for (int i = 0; i < rows; i++) {
+                if (random.nextDouble() < 0.1) {
+                    df.setMissing(i, random.nextInt(4));
+                }
+            }
+        }
+        return df;
+    }
+
+    @Test
+    void testRegression() {
+        RTree tree = RTree.newCART().maxDepth.set(8).seed.set(42L).fit(train.removeVars("cls"), "y");
+        FlatForest flat = tree.compile();
+        assertEquals(1, flat.size());
+        assertEquals(countNodes(tree.root()), flat.nodeCount());
+
+        double[] values = flat.predict(test, 1, null);
+        VarDouble pred = tree.predict(test, false).firstPrediction();
+        for (int i = 0; i < test.rowCount(); i++) {
+            double expected = reference(tree.root(), i, test)[0];
+            assertEquals(expected, values[i]);
+            assertEquals(expected, pred.getDouble(i));
+        }
+
+        double[] init = new double[test.rowCount()];
+        init[0] = 10;
+        double[] shrunk = flat.predict(test, 0.5, init);
+        assertEquals(Math.fma(values[0], 0.5, 10), shrunk[0]);
+        assertEquals(0, init[1]);
+
+        assertThrows(IllegalStateException.class, () -> flat.densities(test, false, null));
+    }
+
+    @Test
+    void testClassification() {
+        for (CTree model : new CTree[] {CTree.newCART(), CTree.newC45()}) {
+            CTree tree = model.maxDepth.set(6).seed.set(42L).fit(train.removeVars("y"), "cls");
+            List<String> levels = tree.firstTargetLevels();
+            int[] classes = new int[test.rowCount()];
+            double[] densities = tree.compile().densities(test, false, classes);
+            ClassifierResult result = tree.predict(test, true, true);
+
+            for (int i = 0; i < test.rowCount(); i++) {
+                var expected = reference(tree, tree.getRoot(), i, test);
+                assertEquals(expected.v1, levels.get(classes[i]));
+                assertEquals(expected.v1, result.firstClasses().getLabel(i));
+                for (int j = 0; j < levels.size(); j++) {
+                    assertEquals(expected.v2.get(levels.get(j)), densities[i * levels.size() + j]);
+                    assertEquals(expected.v2.get(levels.get(j)), result.firstDensity().getDouble(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSoftVote() {
+        CTree first = CTree.newCART().maxDepth.set(3).seed.set(1L).fit(train.removeVars("y"), "cls");
+        CTree second = CTree.newC45().maxDepth.set(4).seed.set(2L).fit(train.removeVars("y"), "cls");
+        FlatForest flat = FlatForest.ofCTrees(List.of(first, second));
+        assertEquals(List.of("low", "mid", "high"), flat.levels());
+
+        int[] classes = new int[test.rowCount()];
+        double[] votes = flat.densities(test, true, classes);
+        double[] d1 = first.compile().densities(test, true, null);
+        double[] d2 = second.compile().densities(test, true, null);
+        int len = flat.levels().size();
+        for (int i = 0; i < test.rowCount(); i++) {
+            int best = 0;
+            for (int j = 0; j < len; j++) {
+                assertEquals(d1[i * len + j] + d2[i * len + j], votes[i * len + j]);
+                if (votes[i * len + j] > votes[i * len + best]) {
+                    best = j;
+                }
+            }
+            assertEquals(best, classes[i]);
+        }
+        assertThrows(IllegalStateException.class, () -> flat.predict(test, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> FlatForest.ofCTrees(List.of()));
+    }
+
+    @Test
+    void testOtherPredicates() {
+        RTree tree = RTree.newCART().maxDepth.set(2).seed.set(42L).fit(train.removeVars("cls"), "y");
+        // a custom predicate is evaluated directly on the frame
+        var root = tree.root();
+        var left = new rapaio.ml.model.tree.rtree.Node(root, 100, "custom", (row, df) -> df.getDouble(row, "x1") < 0, 2);
+        left.value = -1;
+        var right = new rapaio.ml.model.tree.rtree.Node(root, 101, "custom", (row, df) -> df.getDouble(row, "x1") >= 0, 2);
+        right.value = 1;
+        root.children.clear();
+        root.children.add(left);
+        root.children.add(right);
+
+        double[] values = tree.compile().predict(test, 1, null);
+        for (int i = 0; i < test.rowCount(); i++) {
+            assertEquals(reference(root, i, test)[0], values[i]);
+        }
+        assertArrayEquals(values, tree.predict(test, false).firstPrediction().darray_().toDoubleArray());
+    }
+
+    private int countNodes(rapaio.ml.model.tree.rtree.Node node) {
+        int count = 1;
+        if (!node.leaf) {
+            for (var child : node.children) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Recursive prediction which follows tree nodes and row predicates.
+     */
+    private double[] reference(rapaio.ml.model.tree.rtree.Node node, int row, Frame df) {
+        if (node.leaf) {
+            return new double[] {node.value, node.weight};
+        }
+        for (var child : node.children) {
+            if (child.predicate.test(row, df)) {
+                return reference(child, row, df);
+            }
+        }
+        VarDouble values = VarDouble.empty();
+        VarDouble weights = VarDouble.empty();
+        for (var child : node.children) {
+            double[] prediction = reference(child, row, df);
+            values.addDouble(prediction[0]);
+            weights.addDouble(prediction[1]);
+        }
+        return new double[] {WeightedMean.of(values, weights).value(), Mean.of(weights).value()};
+    }
+
+    private Pair<String, DensityVector<String>> reference(CTree tree, rapaio.ml.model.tree.ctree.Node node, int row, Frame df) {
+        if (node.leaf) {
+            return Pair.from(node.bestLabel, node.density.copy().normalize());
+        }
+        for (var child : node.children) {
+            if (child.predicate.test(row, df)) {
+                return reference(tree, child, row, df);
+            }
+        }
+        List<String> dict = tree.firstTargetLevels();
+        var dv = DensityVector.emptyByLabels(false, dict);
+        double w = 0.0;
+        for (var child : node.children) {
+            var d = reference(tree, child, row, df).v2;
+            double wc = child.density.sum();
+            dv.plus(d, wc);
+            w += wc;
+        }
+        for (int i = 1; i < dict.size(); i++) {
+            dv.set(tree.firstTargetLevel(i), dv.get(tree.firstTargetLevel(i)) / w);
+        }
+        return Pair.from(dv.findBestLabel(), dv);
+    }
+}
@@ -36,6 +36,7 @@ import org.junit.jupiter.api.Test;
 
 import rapaio.core.SamplingTools;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
@@ -210,6 +211,109 @@ public class RTreeTest {
                 """, tree.toSummary());
     }
 
+    @Test
+    void testHistogramSearch() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+
+        // all variables have fewer distinct values than bins and the nodes of the tree contain
+        // contiguous ranges of values, thus the binned tree has the same splits as the exact tree
+        RTree exact = RTree.newCART().maxDepth.set(3).minCount.set(4).seed.set(12434L);
+        RTree binned = exact.newInstance().bins.set(255);
+        exact.fit(df, "Sales");
+        binned.fit(df, "Sales");
+
+        assertEquals(255, binned.newInstance().bins.get());
+        var exactPred = exact.predict(df, false).firstPrediction();
+        var binnedPred = binned.predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(exactPred.getDouble(i), binnedPred.getDouble(i), 1e-10);
+        }
+
+        // few bins give coarser splits, but the fit is still reasonable
+        RTree coarse = RTree.newCART().maxDepth.set(4).bins.set(8).seed.set(12434L);
+        coarse.fit(df, "Sales");
+        double rmse = RMSE.newMetric().compute(df.rvar("Sales"), coarse.predict(df)).value();
+        double exactRmse = RMSE.newMetric().compute(df.rvar("Sales"), exact.predict(df)).value();
+        assertTrue(rmse < 2 * exactRmse);
+
+        // bins computed in advance are used only if they match the training rows
+        RTree preset = exact.newInstance().bins.set(255);
+        preset.fit(df, VarDouble.fill(df.rowCount(), 1), FeatureBins.from(df, 255), null, "Sales");
+        var presetPred = preset.predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(exactPred.getDouble(i), presetPred.getDouble(i), 1e-10);
+        }
+    }
+
+    @Test
+    void testBinnedFit() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        df.setMissing(3, "TV");
+        Frame x = df.removeVars(VarRange.of("Sales"));
+        Var weights = VarDouble.from(df.rowCount(), row -> 1.0 + row % 2);
+        FeatureBins featureBins = FeatureBins.from(x, 32);
+
+        // a tree fitted only from bin codes has the same splits as a histogram tree fitted on values
+        RTree tree = RTree.newCART().maxDepth.set(4).bins.set(32).seed.set(12434L);
+        RTree values = tree.newInstance().fit(df, weights, featureBins, null, "Sales");
+        RTree binned = tree.newInstance().fit(featureBins, df.rvar("Sales"), weights);
+
+        assertEquals(values.toSummary(), binned.toSummary());
+        var valuesPred = values.predict(df, false).firstPrediction();
+        var binnedPred = binned.predict(df, false).firstPrediction();
+        // rows routed with their bin codes, including the row with missing value, have the same predictions
+        double[] codesPred = binned.predict(featureBins);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(valuesPred.getDouble(i), binnedPred.getDouble(i), 1e-10);
+            assertEquals(valuesPred.getDouble(i), codesPred[i], 1e-10);
+        }
+    }
+
+    @Test
+    void testCompiledCache() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        RTree tree = RTree.newCART().maxDepth.set(4).seed.set(12434L);
+        tree.fit(df, "Sales");
+        var before = tree.predict(df, false).firstPrediction();
+
+        // boosting updates change leaf values, thus predictions must not use the previously compiled tree
+        tree.boostUpdate(df, df.rvar("Sales"), VarDouble.fill(df.rowCount(), 1), new L2LossFunction());
+        var after = tree.predict(df, false).firstPrediction();
+        double[] compiled = tree.compile().predict(df, 1, null);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(compiled[i], after.getDouble(i), 1e-10);
+            assertEquals(before.getDouble(i) - 1, after.getDouble(i), 1e-10);
+        }
+
+        // a new fit discards the compiled tree
+        Frame half = df.mapRows(Mapping.range(df.rowCount() / 2));
+        tree.fit(half, "Sales");
+        var refit = tree.predict(df, false).firstPrediction();
+        var fresh = tree.newInstance().fit(half, "Sales").predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(fresh.getDouble(i), refit.getDouble(i), 1e-10);
+        }
+    }
+
+    @Test
+    void testPresetSortedIndex() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+        Mapping sample = Mapping.wrap(SamplingTools.sampleWR(random, df.rowCount(), df.rowCount()));
+        Frame sampleDf = df.mapRows(sample);
+
+        RTree exact = RTree.newCART().maxDepth.set(6).minCount.set(2).seed.set(12434L);
+        RTree presorted = exact.newInstance();
+        exact.fit(sampleDf, "Sales");
+        presorted.fit(sampleDf, VarDouble.fill(sampleDf.rowCount(), 1), null,
+                SortedIndex.from(df.removeVars("Sales")).mapRows(sample), "Sales");
+
+        var exactPred = exact.predict(df, false).firstPrediction();
+        var presortedPred = presorted.predict(df, false).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(exactPred.getDouble(i), presortedPred.getDouble(i), 1e-10);
+        }
+    }
+
     @Test
     void testLinearSeparableTest() {
         Var[] vars = new Var[] {
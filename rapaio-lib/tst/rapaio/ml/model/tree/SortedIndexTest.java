@@ -0,0 +1,86 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.ml.model.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rapaio.core.SamplingTools;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarNominal;
+
+public class SortedIndexTest {
+
+    private Random random;
+
+    @BeforeEach
+    void beforeEach() {
+        random = new Random(42);
+    }
+
+    @Test
+    void testBuild() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.copy(3, 1, Double.NaN, 2, 1).name("x"),
+                VarInt.copy(5, 4, 3, 2, 1).name("y"),
+                VarNominal.copy("a", "b", "a", "b", "a").name("n")
+        );
+        SortedIndex index = SortedIndex.from(df);
+
+        assertEquals(5, index.rows());
+        assertEquals(List.of("x", "y"), index.varNames());
+        assertTrue(index.contains("x"));
+        assertFalse(index.contains("n"));
+
+        // missing values are skipped, ties are ordered by row
+        assertArrayEquals(new int[] {1, 4, 3, 0}, index.order("x"));
+        assertArrayEquals(new int[] {4, 3, 2, 1, 0}, index.order("y"));
+    }
+
+    @Test
+    void testMapRows() {
+        Frame df = SolidFrame.byVars(VarDouble.from(1_000, _ -> random.nextDouble()).name("x"));
+        df.setMissing(10, 0);
+        SortedIndex index = SortedIndex.from(df);
+
+        Mapping sample = Mapping.wrap(SamplingTools.sampleWR(random, df.rowCount(), df.rowCount()));
+        Frame mapped = df.mapRows(sample);
+        int[] order = index.mapRows(sample).order("x");
+
+        assertEquals(SortedIndex.from(mapped).order("x").length, order.length);
+        for (int i = 1; i < order.length; i++) {
+            assertTrue(mapped.getDouble(order[i - 1], "x") <= mapped.getDouble(order[i], "x"));
+        }
+        assertArrayEquals(SortedIndex.from(mapped).order("x"), order);
+    }
+}
@@ -25,18 +25,23 @@ package rapaio.ml.model.tree.ctree;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
 import rapaio.data.VarNominal;
 import rapaio.datasets.Datasets;
 import rapaio.ml.model.tree.CTree;
+import rapaio.ml.model.tree.FeatureBins;
+import rapaio.ml.model.tree.NodeHistograms;
 
 /**
  * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
@@ -206,4 +211,27 @@ public class SearchTest {
                 SolidFrame.byVars(test, target), VarDouble.fill(10, 1), "test", "target", Purity.GiniGain, random);
         assertNull(candidate);
     }
+
+    @Test
+    void histogramMissingTargetTest() {
+        Frame df = play.copy();
+        df.setMissing(0, "class");
+        df.setMissing(7, "class");
+        Mapping complete = Mapping.wrap(IntStream.range(0, df.rowCount()).filter(row -> !df.isMissing(row, "class")).toArray());
+
+        FeatureBins bins = FeatureBins.from(df, List.of("temp"), 8);
+        CTree c = CTree.newCART().minCount.set(1);
+
+        HistogramSearch withMissing = new HistogramSearch(bins, df.rvar("class"));
+        Candidate candidate = withMissing.computeCandidate(c,
+                NodeHistograms.root(VarDouble.fill(df.rowCount(), 1)), "temp", Purity.GiniGain);
+
+        // rows with missing target do not contribute, thus the candidate is the one found on complete rows
+        HistogramSearch completeOnly = new HistogramSearch(bins.mapRows(complete), df.rvar("class").mapRows(complete));
+        Candidate expected = completeOnly.computeCandidate(c,
+                NodeHistograms.root(VarDouble.fill(complete.size(), 1)), "temp", Purity.GiniGain);
+
+        assertEquals(expected.score(), candidate.score(), 1e-12);
+        assertEquals(expected.groupPredicates().toString(), candidate.groupPredicates().toString());
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+import rapaio.nn.layer.ELU;
+import rapaio.nn.layer.Linear;
+import rapaio.nn.layer.LogSoftmax;
+import rapaio.nn.layer.Sequential;
+import rapaio.nn.loss.NegativeLikelihoodLoss;
+
+public class BufferPoolTest {
+
+    private static final double TOL = 1e-12;
+
+    @Test
+    void testAcquireRelease() {
+        TensorManager tm = TensorManager.ofDouble();
+        BufferPool pool = new BufferPool(tm.arrayManager());
+
+        DArray<?> a = pool.acquire(DType.DOUBLE, Shape.of(3, 4));
+        DArray<?> b = pool.acquire(DType.DOUBLE, Shape.of(3, 4));
+        assertEquals(2, pool.allocations());
+        assertEquals(2, pool.arenaSize());
+
+        pool.release();
+        assertEquals(0, pool.arenaSize());
+
+        DArray<?> c = pool.acquire(DType.DOUBLE, Shape.of(3, 4));
+        assertTrue(c == a || c == b);
+        pool.acquire(DType.DOUBLE, Shape.of(3, 4));
+        pool.acquire(DType.FLOAT, Shape.of(3, 4));
+        assertEquals(3, pool.allocations());
+
+        pool.clear();
+        assertEquals(0, pool.arenaSize());
+        pool.acquire(DType.DOUBLE, Shape.of(3, 4));
+        assertEquals(4, pool.allocations());
+    }
+
+    @Test
+    void testBufferCopy() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        DArray<?> x = tm.randomArray(Shape.of(4));
+
+        DArray<?> copy = tm.bufferCopy(x);
+        assertTrue(x.deepEquals(copy));
+        assertEquals(0, tm.pool().allocations());
+
+        tm.pooling(true);
+        DArray<?> first = tm.bufferCopy(x, Shape.of(3, 4));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(x.deepEquals(first.selsq(0, i)));
+        }
+        tm.releaseBuffers();
+        assertSame(first, tm.bufferZeros(DType.DOUBLE, Shape.of(3, 4)));
+        assertEquals(0, first.sum().doubleValue());
+    }
+
+    private Network network(TensorManager tm) {
+        return new Sequential(tm,
+                new Linear(tm, 4, 8, true),
+                new ELU(tm),
+                new Linear(tm, 8, 3, true),
+                new LogSoftmax(tm, 1)
+        );
+    }
+
+    @Test
+    void testPooledTrainingMatchesUnpooled() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        TensorManager pooledTm = TensorManager.ofDouble().seed(42).pooling(true);
+
+        Network nn = network(tm);
+        Network pooled = network(pooledTm);
+        Optimizer optimizer = Optimizer.Adam(tm, nn.parameters()).lr.set(1e-2);
+        Optimizer pooledOptimizer = Optimizer.Adam(pooledTm, pooled.parameters()).lr.set(1e-2);
+        var loss = new NegativeLikelihoodLoss(tm);
+        var pooledLoss = new NegativeLikelihoodLoss(pooledTm);
+
+        Random random = new Random(42);
+        DArray<?> x = tm.randomArray(Shape.of(10, 4));
+        DArray<?> y = tm.zerosArray(Shape.of(10));
+        for (int i = 0; i < 10; i++) {
+            y.setDouble(random.nextInt(3), i);
+        }
+
+        long allocations = 0;
+        for (int step = 0; step < 10; step++) {
+            optimizer.zeroGrad();
+            Loss.Output out = loss.forward(nn.forward11(tm.var(x)), tm.var(y));
+            Autograd.backward(out.tensor());
+            optimizer.step();
+
+            pooledOptimizer.zeroGrad();
+            Loss.Output pooledOut = pooledLoss.forward(pooled.forward11(pooledTm.var(x)), pooledTm.var(y));
+            Autograd.backward(pooledOut.tensor());
+            pooledOptimizer.step();
+
+            assertEquals(out.lossValue(), pooledOut.lossValue(), TOL);
+            List<Tensor> params = nn.parameters();
+            List<Tensor> pooledParams = pooled.parameters();
+            for (int i = 0; i < params.size(); i++) {
+                assertTrue(params.get(i).value().deepEquals(pooledParams.get(i).value(), TOL));
+            }
+
+            if (step == 1) {
+                allocations = pooledTm.pool().allocations();
+                assertTrue(allocations > 0);
+            }
+            if (step > 1) {
+                assertEquals(allocations, pooledTm.pool().allocations());
+            }
+        }
+    }
+}
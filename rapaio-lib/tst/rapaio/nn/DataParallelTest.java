@@ -0,0 +1,117 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DType;
+import rapaio.darray.Shape;
+import rapaio.nn.layer.Linear;
+import rapaio.nn.layer.ReLU;
+import rapaio.nn.layer.Sequential;
+import rapaio.nn.loss.MSELoss;
+
+public class DataParallelTest {
+
+    private static final double TOL = 1e-10;
+
+    private Network network(TensorManager tm) {
+        return new Sequential(tm,
+                new Linear(tm, 5, 16, true),
+                new ReLU(tm),
+                new Linear(tm, 16, 1, true)
+        );
+    }
+
+    @Test
+    void testGradientsMatchSingleWorker() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        Network reference = network(tm);
+        Network nn = network(tm);
+        for (int i = 0; i < reference.parameters().size(); i++) {
+            // cast returns the same array since the tensor manager works with doubles
+            DArray<Double> value = nn.parameters().get(i).value().cast(DType.DOUBLE);
+            reference.parameters().get(i).value().cast(DType.DOUBLE).copyTo(value);
+        }
+
+        DataParallel parallel = new DataParallel(nn, () -> network(tm), 4);
+        assertEquals(4, parallel.workers());
+        for (Network replica : parallel.replicas()) {
+            for (int i = 0; i < nn.parameters().size(); i++) {
+                assertSame(nn.parameters().get(i).value(), replica.parameters().get(i).value());
+            }
+        }
+
+        Optimizer referenceOptimizer = Optimizer.SGD(tm, reference.parameters()).lr.set(1e-2);
+        Optimizer optimizer = Optimizer.SGD(tm, nn.parameters()).lr.set(1e-2);
+        MSELoss loss = new MSELoss(tm);
+
+        for (int step = 0; step < 5; step++) {
+            // 23 rows are not evenly divided between workers
+            DArray<?> x = tm.randomArray(Shape.of(23, 5));
+            DArray<?> y = tm.randomArray(Shape.of(23));
+
+            referenceOptimizer.zeroGrad();
+            Loss.Output out = loss.forward(reference.forward11(tm.var(x)), tm.var(y.copy()));
+            out.backward();
+
+            optimizer.zeroGrad();
+            double lossValue = parallel.backward(loss, x, y);
+            assertEquals(out.lossValue(), lossValue, TOL);
+
+            List<Tensor> referenceParams = reference.parameters();
+            List<Tensor> params = nn.parameters();
+            for (int i = 0; i < params.size(); i++) {
+                assertTrue(referenceParams.get(i).grad().deepEquals(params.get(i).grad(), TOL));
+            }
+            for (Network replica : parallel.replicas().subList(1, 4)) {
+                replica.parameters().forEach(p -> assertNull(p.grad()));
+            }
+
+            referenceOptimizer.step();
+            optimizer.step();
+        }
+    }
+
+    @Test
+    void testSmallBatchAndValidation() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        Network nn = network(tm);
+        DataParallel parallel = new DataParallel(nn, () -> network(tm), 8);
+
+        DArray<?> x = tm.randomArray(Shape.of(3, 5));
+        DArray<?> y = tm.randomArray(Shape.of(3));
+        parallel.backward(new MSELoss(tm), x, y);
+        nn.parameters().forEach(p -> assertEquals(p.shape(), p.grad().shape()));
+
+        assertThrows(IllegalArgumentException.class, () -> parallel.backward(new MSELoss(tm), x, tm.randomArray(Shape.of(4))));
+        assertThrows(IllegalArgumentException.class, () -> new DataParallel(nn, () -> new Linear(tm, 5, 1, true), 2));
+    }
+}
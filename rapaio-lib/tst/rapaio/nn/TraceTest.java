@@ -0,0 +1,125 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.Shape;
+import rapaio.nn.layer.ELU;
+import rapaio.nn.layer.LayerNorm;
+import rapaio.nn.layer.Linear;
+import rapaio.nn.layer.LogSoftmax;
+import rapaio.nn.layer.Sequential;
+import rapaio.nn.loss.NegativeLikelihoodLoss;
+
+public class TraceTest {
+
+    private static final double TOL = 1e-12;
+
+    private Network network(TensorManager tm) {
+        return new Sequential(tm,
+                new LayerNorm(tm, Shape.of(4)),
+                new Linear(tm, 4, 8, true),
+                new ELU(tm),
+                new Linear(tm, 8, 3, true),
+                new LogSoftmax(tm, 1)
+        );
+    }
+
+    private DArray<?>[] batch(TensorManager tm, Random random) {
+        DArray<?> x = tm.randomArray(Shape.of(10, 4));
+        DArray<?> y = tm.zerosArray(Shape.of(10));
+        for (int i = 0; i < 10; i++) {
+            y.setDouble(random.nextInt(3), i);
+        }
+        return new DArray<?>[] {x, y};
+    }
+
+    @Test
+    void testTrainingMatchesEagerExecution() {
+        TensorManager eagerTm = TensorManager.ofDouble().seed(42);
+        TensorManager tracedTm = TensorManager.ofDouble().seed(42);
+
+        Network eager = network(eagerTm);
+        Network traced = network(tracedTm);
+        eager.train();
+        traced.train();
+
+        Optimizer eagerOptimizer = Optimizer.Adam(eagerTm, eager.parameters()).lr.set(1e-2);
+        Optimizer tracedOptimizer = Optimizer.Adam(tracedTm, traced.parameters()).lr.set(1e-2);
+
+        var eagerLoss = new NegativeLikelihoodLoss(eagerTm);
+        var tracedLoss = new NegativeLikelihoodLoss(tracedTm);
+
+        Random random = new Random(42);
+        List<DArray<?>[]> batches = List.of(batch(eagerTm, random), batch(eagerTm, random), batch(eagerTm, random));
+
+        Trace trace = Trace.record(tracedTm, xs -> tracedLoss.forward(traced.forward11(xs[0]), xs[1]).tensor(), batches.getFirst());
+
+        for (int step = 0; step < 12; step++) {
+            DArray<?>[] batch = batches.get(step % batches.size());
+
+            eagerOptimizer.zeroGrad();
+            Loss.Output out = eagerLoss.forward(eager.forward11(eagerTm.var(batch[0])), eagerTm.var(batch[1].copy()));
+            Autograd.backward(out.tensor());
+
+            tracedOptimizer.zeroGrad();
+            Tensor root = trace.forward(batch);
+            trace.backward();
+
+            assertEquals(out.lossValue(), root.value().getDouble(), TOL);
+            List<Tensor> eagerParams = eager.parameters();
+            List<Tensor> tracedParams = traced.parameters();
+            for (int i = 0; i < eagerParams.size(); i++) {
+                assertTrue(eagerParams.get(i).grad().deepEquals(tracedParams.get(i).grad(), TOL));
+            }
+
+            eagerOptimizer.step();
+            tracedOptimizer.step();
+        }
+    }
+
+    @Test
+    void testRecordNetwork() {
+        TensorManager tm = TensorManager.ofDouble().seed(42);
+        Network nn = network(tm);
+        nn.eval();
+
+        Random random = new Random(42);
+        DArray<?>[] first = batch(tm, random);
+        DArray<?>[] second = batch(tm, random);
+
+        Trace trace = Trace.record(nn, first[0]);
+        assertTrue(nn.forward11(tm.var(second[0])).value().deepEquals(trace.forward(second[0]).value(), TOL));
+        assertTrue(nn.forward11(tm.var(first[0])).value().deepEquals(trace.forward(first[0]).value(), TOL));
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> trace.forward(tm.randomArray(Shape.of(5, 4))));
+        assertEquals("Input value has shape Shape: [5,4], but the trace was recorded for Shape: [10,4].", ex.getMessage());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+package rapaio.nn.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DType;
+import rapaio.darray.Order;
+import rapaio.darray.Shape;
+import rapaio.nn.Optimizer;
+import rapaio.nn.Tensor;
+import rapaio.nn.TensorManager;
+
+public class OptimizerTest {
+
+    @Test
+    void testSgdStep() {
+        try (TensorManager tm = TensorManager.ofDouble().seed(42)) {
+            Tensor param = tm.randomTensor(Shape.of(5, 11));
+            DArray<?> before = param.value().copy();
+            DArray<?> grad = tm.randomArray(Shape.of(5, 11));
+            param.setGrad(grad);
+
+            Optimizer.SGD(tm, List.of(param)).lr.set(0.1).step();
+            assertTrue(before.sub(grad.mul(0.1)).deepEquals(param.value(), 1e-12));
+        }
+    }
+
+    @Test
+    void testFusedSgdMatchesArrayOperations() {
+        testFusedMatchesArrayOperations(params -> Optimizer.SGD(params.tm, params.list).lr.set(0.1));
+        testFusedMatchesArrayOperations(params -> Optimizer.SGD(params.tm, params.list).lr.set(0.1).momentum.set(0.9));
+        testFusedMatchesArrayOperations(params -> Optimizer.SGD(params.tm, params.list)
+                .lr.set(0.1).momentum.set(0.9).dampening.set(0.2).weightDecay.set(0.01));
+        testFusedMatchesArrayOperations(params -> Optimizer.SGD(params.tm, params.list)
+                .lr.set(0.1).momentum.set(0.9).nesterov.set(true).maximize.set(true));
+    }
+
+    @Test
+    void testFusedAdamMatchesArrayOperations() {
+        testFusedMatchesArrayOperations(params -> Optimizer.Adam(params.tm, params.list));
+        testFusedMatchesArrayOperations(params -> Optimizer.Adam(params.tm, params.list).lr.set(0.01).weightDecay.set(0.1));
+        testFusedMatchesArrayOperations(params -> Optimizer.Adam(params.tm, params.list).amsgrad.set(true).maximize.set(true));
+    }
+
+    private record Params(TensorManager tm, List<Tensor> list) {
+    }
+
+    /**
+     * Runs the same optimizer over two copies of a parameter. Gradients of the first copy have the same layout
+     * as the parameter and are updated with the fused kernels, while gradients of the second copy are stored
+     * in a different order, which forces the updates through array operations.
+     */
+    private void testFusedMatchesArrayOperations(Function<Params, Optimizer> builder) {
+        for (TensorManager tm : new TensorManager[] {TensorManager.ofDouble(), TensorManager.ofFloat()}) {
+            try (tm) {
+                tm.seed(42);
+                double tol = tm.dt() == DType.FLOAT ? 1e-5 : 1e-12;
+                Tensor fused = tm.randomTensor(Shape.of(7, 13));
+                Tensor plain = tm.var(fused.value().copy());
+
+                Optimizer fusedOptimizer = builder.apply(new Params(tm, List.of(fused)));
+                Optimizer plainOptimizer = builder.apply(new Params(tm, List.of(plain)));
+                for (int step = 0; step < 5; step++) {
+                    DArray<?> grad = tm.randomArray(Shape.of(7, 13));
+                    fused.setGrad(grad.copy(Order.C));
+                    plain.setGrad(grad.copy(Order.F));
+                    assertTrue(OptimizerKernels.fusable(fused.value(), fused.grad()));
+                    assertFalse(OptimizerKernels.fusable(plain.value(), plain.grad()));
+                    fusedOptimizer.step();
+                    plainOptimizer.step();
+                }
+                for (int i = 0; i < 7; i++) {
+                    for (int j = 0; j < 13; j++) {
+                        assertEquals(plain.value().getDouble(i, j), fused.value().getDouble(i, j), tol);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ *    Copyright 2013 - 2025 Aurelian Tutuianu
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package rapaio.nn.tensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import rapaio.darray.DArray;
+import rapaio.darray.DArrays;
+import rapaio.darray.Shape;
+import rapaio.darray.sparse.SparseMatrix;
+import rapaio.nn.Autograd;
+import rapaio.nn.Tensor;
+import rapaio.nn.TensorManager;
+import rapaio.nn.layer.Linear;
+
+public class SparseMmTest {
+
+    private static final double TOL = 1e-5;
+
+    @Test
+    void testLinear() {
+        try (TensorManager tm = TensorManager.ofFloat()) {
+            tm.seed(42);
+            testLinearWith(tm);
+        }
+        try (TensorManager tm = TensorManager.ofDouble()) {
+            tm.seed(42);
+            testLinearWith(tm);
+        }
+    }
+
+    void testLinearWith(TensorManager tm) {
+        Random random = new Random(42);
+        DArray<Double> dense = DArrays.zeros(Shape.of(20, 6));
+        for (int i = 0; i < dense.dim(0); i++) {
+            for (int j = 0; j < dense.dim(1); j++) {
+                if (random.nextDouble() < 0.3) {
+                    dense.setDouble(random.nextGaussian(), i, j);
+                }
+            }
+        }
+        SparseMatrix x = SparseMatrix.from(dense, SparseMatrix.Format.CSR);
+        Linear linear = new Linear(tm, 6, 3, true);
+
+        // forward and backward with dense inputs
+        Tensor out = linear.forward11(tm.var(dense.cast(tm.dt())));
+        Tensor loss = out.sqr().sum();
+        loss.setGrad(tm.scalarArray(1));
+        var graph = Autograd.backward(loss);
+        DArray<?> value = out.value().copy();
+        List<DArray<?>> grads = linear.parameters().stream().<DArray<?>>map(p -> p.grad().copy()).toList();
+        graph.resetGrad();
+
+        // the same steps with sparse inputs
+        Tensor sparseOut = linear.forward(x);
+        loss = sparseOut.sqr().sum();
+        loss.setGrad(tm.scalarArray(1));
+        Autograd.backward(loss);
+
+        assertEquals(tm.dt(), sparseOut.value().dt());
+        assertTrue(value.deepEquals(sparseOut.value(), TOL));
+        for (int i = 0; i < grads.size(); i++) {
+            assertTrue(grads.get(i).deepEquals(linear.parameters().get(i).grad(), TOL));
+        }
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> linear.forward(x.t()));
+        assertEquals("Sparse input must have 6 columns, but has 20.", ex.getMessage());
+    }
+}